@@ -0,0 +1,47 @@
+package com.example.ChatAppBackend.Exceptions.GlobalException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of a typical error response (the 404 for an unknown room key): through ProblemWriter, and
+ * the way GlobalExceptionHandler used to build it (map + Instant.toString + Jackson). Run with
+ * -prof gc for the bytes allocated per response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProblemWriterBenchmark {
+
+    private static final String DETAIL = "Room key code is invalid";
+    private static final String PATH = "/api/room/join-room";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Benchmark
+    public byte[] problemWriter() {
+        return ProblemWriter.serialize(ProblemType.NOT_FOUND, DETAIL, PATH, null, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public byte[] mapAndObjectMapper() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", 404);
+        body.put("error", "Not Found");
+        body.put("message", DETAIL);
+        body.put("path", PATH);
+        return objectMapper.writeValueAsBytes(body);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.ChatAppBackend;
+
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks a JMH JSON result file against src/jmh/baselines.json, which has two sections:
+ * - "ratios": the gate. Each entry bounds score(benchmark) / score(reference) within the same
+ *   run, e.g. the pre-serialized problem writer must stay well under the ObjectMapper path.
+ *   Both sides see the same machine, JIT and noise, so the ratio holds where absolute ns/op
+ *   from a single fork do not. Exceeding a max fails the build
+ * - "scores": absolute ns/op from the last recording; compared and reported only, since they
+ *   move with the machine and run-to-run noise
+ * Args: resultFile baselineFile tolerance update. update=true re-records "scores" (the ratio
+ * limits are hand-set and kept); tolerance only marks report lines as [slower].
+ */
+public final class JmhBaselineCheck {
+
+    private JmhBaselineCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        boolean update = Boolean.parseBoolean(args[3]);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> results = new TreeMap<>();
+        for (JsonNode run : mapper.readTree(resultFile)) {
+            results.put(run.get("benchmark").asText(), run.get("primaryMetric"));
+        }
+        ObjectNode baselines = baselineFile.exists()
+                ? (ObjectNode) mapper.readTree(baselineFile)
+                : mapper.createObjectNode();
+
+        report(results, baselines.path("scores"), tolerance);
+        List<String> violations = checkRatios(results, baselines.path("ratios"));
+
+        if (update) {
+            ObjectNode scores = baselines.putObject("scores");
+            results.forEach((name, metric) -> scores.putObject(name)
+                    .put("score", metric.get("score").asDouble())
+                    .put("unit", metric.get("scoreUnit").asText()));
+            // Arrays one element per line, as the hand-edited "ratios" are kept
+            mapper.writer(new DefaultPrettyPrinter().withArrayIndenter(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE))
+                    .writeValue(baselineFile, baselines);
+            System.out.println("Recorded " + results.size() + " JMH scores in " + baselineFile);
+        }
+
+        if (!violations.isEmpty()) {
+            System.err.println(violations.size() + " benchmark ratio(s) over their limit");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Absolute comparison against the recorded scores, for information only.
+     */
+    private static void report(Map<String, JsonNode> results, JsonNode scores, double tolerance) {
+        results.forEach((name, metric) -> {
+            double score = metric.get("score").asDouble();
+            String unit = metric.get("scoreUnit").asText();
+            JsonNode baseline = scores.get(name);
+            if (baseline == null) {
+                System.out.printf("[new]    %s %.1f %s%n", name, score, unit);
+                return;
+            }
+            double recorded = baseline.get("score").asDouble();
+            // Every benchmark here reports time per operation: higher is slower
+            String tag = score > recorded * (1 + tolerance) ? "[slower]" : "[ok]    ";
+            System.out.printf("%s %s %.1f %s (recorded %.1f)%n", tag, name, score, unit, recorded);
+        });
+    }
+
+    private static List<String> checkRatios(Map<String, JsonNode> results, JsonNode ratios) {
+        List<String> violations = new ArrayList<>();
+        for (JsonNode ratio : ratios) {
+            String benchmark = ratio.get("benchmark").asText();
+            String reference = ratio.get("reference").asText();
+            double max = ratio.get("max").asDouble();
+            JsonNode measured = results.get(benchmark);
+            JsonNode against = results.get(reference);
+            if (measured == null || against == null) {
+                // Filtered out with -Djmh.include: nothing to compare in this run
+                System.out.printf("[skip]   %s / %s (not in this run)%n", shortName(benchmark), shortName(reference));
+                continue;
+            }
+            double value = measured.get("score").asDouble() / against.get("score").asDouble();
+            String line = String.format("%s / %s = %.2f (max %.2f)", shortName(benchmark), shortName(reference), value, max);
+            if (value > max) {
+                violations.add(line);
+                System.out.println("[FAIL]   " + line);
+            } else {
+                System.out.println("[ok]     " + line);
+            }
+        }
+        return violations;
+    }
+
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        int type = benchmark.lastIndexOf('.', method - 1);
+        return benchmark.substring(type + 1);
+    }
+}
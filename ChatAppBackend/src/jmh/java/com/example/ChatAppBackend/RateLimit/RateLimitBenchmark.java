@@ -0,0 +1,74 @@
+package com.example.ChatAppBackend.RateLimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allow-path cost of the rate limiter with four threads: all on one bucket (every request
+ * contends on the same CAS) and each on its own key. The policy is loose enough that nothing is
+ * rejected. Run with -prof gc to confirm the allow path does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class RateLimitBenchmark {
+
+    private RateLimiter limiter;
+    private RateLimitFilter filter;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> { };
+
+    @State(Scope.Thread)
+    public static class Client {
+        String key;
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+
+        @Setup
+        public void setUp(RateLimitBenchmark benchmark) {
+            key = "10.0.0." + benchmark.threadIds.incrementAndGet();
+            request = new MockHttpServletRequest("PUT", "/api/room/join-room");
+            request.setRemoteAddr(key);
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter("bench", RateLimitScope.IP, null, List.of("/api/**"),
+                Integer.MAX_VALUE, Duration.ofSeconds(1), Integer.MAX_VALUE, 100_000, System::nanoTime,
+                new SimpleMeterRegistry());
+        filter = new RateLimitFilter(RateLimitScope.IP, List.of(limiter));
+    }
+
+    @Benchmark
+    public long sharedBucket() {
+        return limiter.tryAcquire("10.0.0.0");
+    }
+
+    @Benchmark
+    public long bucketPerThread(Client client) {
+        return limiter.tryAcquire(client.key);
+    }
+
+    @Benchmark
+    public void filterAllowPath(Client client) throws Exception {
+        filter.doFilter(client.request, client.response, chain);
+    }
+}
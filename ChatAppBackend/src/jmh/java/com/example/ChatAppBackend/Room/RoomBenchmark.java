@@ -0,0 +1,101 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room key hashing as done in RoomService, and JSON serialization of the Room/User entities
+ * (the old responses) against RoomResponse/UserResponse, with the same ObjectMapper
+ * configuration Spring MVC uses. Payload sizes are compared in RoomResponseTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoomBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private String rawRoomKeyCode;
+    private Room room;
+    private User user;
+    private RoomResponse roomResponse;
+    private UserResponse userResponse;
+
+    @Setup
+    public void setUp() {
+        rawRoomKeyCode = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        user = user("uid-host", "host@example.com", now);
+
+        room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setName("Benchmark room");
+        room.setHost(user);
+        room.setGuest(user("uid-guest", "guest@example.com", now));
+        room.setInviteeEmail("guest@example.com");
+        room.setStatus(RoomStatus.ACTIVE);
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
+        room.setRoomKeyCode(DigestUtils.sha256Hex(rawRoomKeyCode));
+        room.setRoomKeyCodeExpiresAt(now.plusSeconds(15 * 60));
+        room.setRoomKeyCodeUsedWithin15Min(true);
+
+        roomResponse = RoomResponse.from(room);
+        userResponse = UserResponse.from(user);
+    }
+
+    /** Join path: hash the key the caller presented. */
+    @Benchmark
+    public String hashRoomKeyCode() {
+        return DigestUtils.sha256Hex(rawRoomKeyCode.trim());
+    }
+
+    /** Create path: generate a fresh key and hash it. */
+    @Benchmark
+    public String generateAndHashRoomKeyCode() {
+        return DigestUtils.sha256Hex(UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public byte[] serializeRoom() throws Exception {
+        return objectMapper.writeValueAsBytes(room);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeRoomResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(roomResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeUserResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(userResponse);
+    }
+
+    private static User user(String uid, String email, Instant now) {
+        User u = new User();
+        u.setId(UUID.randomUUID());
+        u.setFirebaseUid(uid);
+        u.setEmail(email);
+        u.setCreatedAt(now);
+        u.setLastLoginAt(now);
+        return u;
+    }
+}
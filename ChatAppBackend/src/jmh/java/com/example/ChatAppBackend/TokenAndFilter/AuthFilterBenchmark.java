@@ -0,0 +1,94 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.google.firebase.auth.FirebaseToken;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the authentication filter with token verification stubbed out,
+ * plus the authority helpers it and the controllers call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthFilterBenchmark {
+
+    private static final String ID_TOKEN = "header.payload.signature";
+
+    private FirebaseAuthenticationFilter filter;
+    private FirebaseAuthenticationFilter filterWithRegistry;
+    private FirebaseToken token;
+    private CurrentUserDetails details;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "uid-1");
+        claims.put("email", "one@example.com");
+        claims.put("iat", now);
+        claims.put("exp", now + 3600);
+        claims.put("authorities", List.of("ROLE_USER", "ROLE_SCHEDULER", "ROLE_ADMIN"));
+        token = FirebaseTokens.fromClaims(claims);
+        details = new CurrentUserDetails("uid-1", "one@example.com", token);
+
+        TokenVerifier stub = (idToken, checkRevoked) -> token;
+        RevocationRegistry registry = new RevocationRegistry(10_000, Clock.systemUTC());
+        registry.revoke("someone-else", Instant.now());
+        filter = new FirebaseAuthenticationFilter(stub, false);
+        filterWithRegistry = new FirebaseAuthenticationFilter(stub, false, registry);
+    }
+
+    @Benchmark
+    public int doFilterInternal() throws Exception {
+        return runFilter(filter);
+    }
+
+    @Benchmark
+    public int doFilterInternalWithRevocationRegistry() throws Exception {
+        return runFilter(filterWithRegistry);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> extractAuthorities() {
+        return filter.extractAuthorities(token);
+    }
+
+    @Benchmark
+    public void hasAuthority(Blackhole bh) {
+        bh.consume(details.hasAuthority("ROLE_ADMIN"));
+        bh.consume(details.hasAuthority("ROLE_MISSING"));
+    }
+
+    private int runFilter(FirebaseAuthenticationFilter target) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/room");
+        request.addHeader("Authorization", "Bearer " + ID_TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            target.doFilterInternal(request, response, chain);
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds) plus success/error counts for one endpoint.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errorsByCause = new ConcurrentHashMap<>();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public void recordSuccess(long micros) {
+        latencyMicros.recordValue(Math.max(micros, 1));
+        ok.increment();
+    }
+
+    /**
+     * @param cause HTTP status code or exception class name
+     */
+    public void recordError(long micros, String cause) {
+        latencyMicros.recordValue(Math.max(micros, 1));
+        errors.increment();
+        errorsByCause.computeIfAbsent(cause, c -> new LongAdder()).increment();
+    }
+
+    public String name() { return name; }
+    public Histogram latencyMicros() { return latencyMicros; }
+    public long ok() { return ok.sum(); }
+    public long errors() { return errors.sum(); }
+
+    public Map<String, Long> errorsByCause() {
+        Map<String, Long> copy = new TreeMap<>();
+        errorsByCause.forEach((cause, count) -> copy.put(cause, count.sum()));
+        return copy;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokenVerifier;
+import com.google.firebase.auth.FirebaseAuth;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Extra configuration for the application started by LoadTestRunner. The bean name matches
+ * the scanned FirebaseTokenVerifier so this definition replaces it.
+ */
+@Configuration
+public class LoadTestConfig {
+
+    @Bean
+    public MintedTokens mintedTokens() {
+        return new MintedTokens();
+    }
+
+    @Bean(name = "firebaseTokenVerifier")
+    public FirebaseTokenVerifier firebaseTokenVerifier(FirebaseAuth firebaseAuth,
+                                                       MintedTokens mintedTokens,
+                                                       @Value("${loadtest.verifier-latency:0ms}") Duration latency) {
+        return new MintedTokenVerifier(firebaseAuth, mintedTokens, latency);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workload settings, parsed from --key=value arguments.
+ * - scenario: room (enter, create, join with fresh users), retrieve (GET /api/user/retrieve in a loop)
+ *   or signaling (concurrency ACTIVE rooms relaying a message per room every message-interval)
+ * - mode: closed (fixed number of virtual users looping) or open (iterations started at a target rate)
+ * - concurrency: virtual users in closed mode; a comma list runs one pass per level
+ * - threads: platform, virtual or a comma list of both; each value restarts the application with
+ *   spring.threads.virtual.enabled set accordingly ("default" keeps the configured value)
+ * - verifier-latency: simulated blocking time of the token verifier (the Firebase round trip)
+ * - token-cache: overrides auth.token-cache.enabled, e.g. false so every request pays verifier-latency
+ * - rate / start-rate: iterations per second in open mode; the rate ramps linearly from start-rate
+ * - ramp-up: how long the ramp takes (closed mode starts its users spread over this window)
+ * - duration: total run time including the ramp
+ * - max-in-flight: open-mode cap on concurrent iterations; beyond it iterations are dropped and counted
+ * - message-interval: signaling scenario, time between two messages of the same room
+ */
+public record LoadTestOptions(
+        Scenario scenario,
+        Mode mode,
+        List<Integer> concurrency,
+        List<String> threads,
+        Duration verifierLatency,
+        String tokenCache,
+        double rate,
+        double startRate,
+        Duration rampUp,
+        Duration duration,
+        int maxInFlight,
+        Duration messageInterval,
+        Path output
+) {
+
+    public enum Scenario { ROOM, RETRIEVE, SIGNALING }
+
+    public enum Mode { CLOSED, OPEN }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        return new LoadTestOptions(
+                Scenario.valueOf(values.getOrDefault("scenario", "room").toUpperCase()),
+                Mode.valueOf(values.getOrDefault("mode", "closed").toUpperCase()),
+                Arrays.stream(values.getOrDefault("concurrency", "16").split(",")).map(String::trim).map(Integer::valueOf).toList(),
+                Arrays.stream(values.getOrDefault("threads", "default").split(",")).map(String::trim).toList(),
+                DurationStyle.detectAndParse(values.getOrDefault("verifier-latency", "0ms")),
+                values.get("token-cache"),
+                Double.parseDouble(values.getOrDefault("rate", "20")),
+                Double.parseDouble(values.getOrDefault("start-rate", "1")),
+                DurationStyle.detectAndParse(values.getOrDefault("ramp-up", "10s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                DurationStyle.detectAndParse(values.getOrDefault("message-interval", "1s")),
+                Path.of(values.getOrDefault("output", "target/loadtest"))
+        );
+    }
+
+    /**
+     * Open-mode target rate (iterations/s) at the given offset into the run.
+     */
+    public double rateAt(Duration elapsed) {
+        if (rampUp.isZero() || elapsed.compareTo(rampUp) >= 0) {
+            return rate;
+        }
+        double progress = (double) elapsed.toNanos() / rampUp.toNanos();
+        return startRate + (rate - startRate) * progress;
+    }
+}
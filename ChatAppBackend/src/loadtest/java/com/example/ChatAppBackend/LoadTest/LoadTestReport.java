@@ -0,0 +1,165 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes report.json and report.html per pass (per endpoint count, throughput, error rate and
+ * latency percentiles in milliseconds, and the virtual-thread pinning events seen per site),
+ * plus summary.json/summary.html comparing the passes.
+ */
+public final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LoadTestReport() {}
+
+    public static Map<String, Object> build(LoadTestOptions options, String threads, int concurrency,
+                                            Duration elapsed, Map<String, EndpointStats> stats,
+                                            Map<String, Long> pinnedBySite) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("scenario", options.scenario().name().toLowerCase());
+        settings.put("mode", options.mode().name().toLowerCase());
+        settings.put("threads", threads);
+        settings.put("concurrency", concurrency);
+        settings.put("verifierLatencyMillis", options.verifierLatency().toMillis());
+        settings.put("rate", options.rate());
+        settings.put("startRate", options.startRate());
+        settings.put("rampUpSeconds", options.rampUp().toSeconds());
+        settings.put("durationSeconds", options.duration().toSeconds());
+        report.put("settings", settings);
+        report.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats s : stats.values()) {
+            Histogram h = s.latencyMicros();
+            long total = s.ok() + s.errors();
+            if (total == 0) {
+                continue;
+            }
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("endpoint", s.name());
+            e.put("requests", total);
+            e.put("errors", s.errors());
+            e.put("errorRate", total == 0 ? 0.0 : (double) s.errors() / total);
+            e.put("throughputPerSecond", total / Math.max(elapsed.toMillis() / 1000.0, 0.001));
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", h.getMean() / 1000.0);
+            for (double p : PERCENTILES) {
+                latency.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                        h.getValueAtPercentile(p) / 1000.0);
+            }
+            latency.put("max", h.getMaxValue() / 1000.0);
+            e.put("latencyMillis", latency);
+            e.put("errorsByCause", s.errorsByCause());
+            endpoints.add(e);
+        }
+        report.put("endpoints", endpoints);
+        // Only virtual-thread passes record pinning; events shorter than diagnostics.pinning.threshold are not seen
+        report.put("pinnedBySite", pinnedBySite);
+        return report;
+    }
+
+    public static void write(Path dir, Map<String, Object> report) throws IOException {
+        Files.createDirectories(dir);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(dir.resolve("report.json").toFile(), report);
+        Files.writeString(dir.resolve("report.html"), html(report));
+    }
+
+    /**
+     * One row per pass: threads, concurrency and the iteration throughput/latency/error rate.
+     */
+    @SuppressWarnings("unchecked")
+    public static void writeSummary(Path dir, List<Map<String, Object>> reports) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map<String, Object> report : reports) {
+            Map<String, Object> settings = (Map<String, Object>) report.get("settings");
+            for (Map<String, Object> e : (List<Map<String, Object>>) report.get("endpoints")) {
+                if (!RoomWorkload.ITERATION.equals(e.get("endpoint"))) {
+                    continue;
+                }
+                Map<String, Object> latency = (Map<String, Object>) e.get("latencyMillis");
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("threads", settings.get("threads"));
+                row.put("concurrency", settings.get("concurrency"));
+                row.put("iterationsPerSecond", e.get("throughputPerSecond"));
+                row.put("p50Millis", latency.get("p50"));
+                row.put("p99Millis", latency.get("p99"));
+                row.put("errorRate", e.get("errorRate"));
+                row.put("pinnedEvents", ((Map<String, Long>) report.get("pinnedBySite")).values().stream()
+                        .mapToLong(Long::longValue).sum());
+                rows.add(row);
+            }
+        }
+
+        Files.createDirectories(dir);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(dir.resolve("summary.json").toFile(), rows);
+
+        StringBuilder sb = new StringBuilder()
+                .append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>ChatAppBackend load test summary</title></head><body>\n")
+                .append("<h1>ChatAppBackend load test summary</h1>\n<table border=\"1\" cellpadding=\"4\">\n")
+                .append("<tr><th>Threads</th><th>Concurrency</th><th>Iterations/s</th><th>p50 ms</th><th>p99 ms</th><th>Error rate</th><th>Pinned events</th></tr>\n");
+        for (Map<String, Object> row : rows) {
+            sb.append("<tr>")
+                    .append(cell(row.get("threads")))
+                    .append(cell(row.get("concurrency")))
+                    .append(cell(String.format("%.1f", (Double) row.get("iterationsPerSecond"))))
+                    .append(cell(String.format("%.2f", (Double) row.get("p50Millis"))))
+                    .append(cell(String.format("%.2f", (Double) row.get("p99Millis"))))
+                    .append(cell(String.format("%.2f%%", (Double) row.get("errorRate") * 100)))
+                    .append(cell(row.get("pinnedEvents")))
+                    .append("</tr>\n");
+        }
+        Files.writeString(dir.resolve("summary.html"), sb.append("</table>\n</body></html>\n").toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String html(Map<String, Object> report) {
+        StringBuilder sb = new StringBuilder()
+                .append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>ChatAppBackend load test</title>\n")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}</style>\n")
+                .append("</head><body>\n<h1>ChatAppBackend load test</h1>\n")
+                .append("<p>Settings: ").append(escape(String.valueOf(report.get("settings"))))
+                .append(", elapsed ").append(report.get("elapsedSeconds")).append(" s</p>\n")
+                .append("<table>\n<tr><th>Endpoint</th><th>Requests</th><th>Req/s</th><th>Errors</th><th>Error rate</th>")
+                .append("<th>Mean ms</th><th>p50 ms</th><th>p90 ms</th><th>p99 ms</th><th>p99.9 ms</th><th>Max ms</th><th>Errors by cause</th></tr>\n");
+
+        for (Map<String, Object> e : (List<Map<String, Object>>) report.get("endpoints")) {
+            Map<String, Object> latency = (Map<String, Object>) e.get("latencyMillis");
+            sb.append("<tr><td>").append(escape((String) e.get("endpoint"))).append("</td>")
+                    .append(cell(e.get("requests")))
+                    .append(cell(String.format("%.1f", (Double) e.get("throughputPerSecond"))))
+                    .append(cell(e.get("errors")))
+                    .append(cell(String.format("%.2f%%", (Double) e.get("errorRate") * 100)));
+            for (String key : new String[]{"mean", "p50", "p90", "p99", "p99.9", "max"}) {
+                sb.append(cell(String.format("%.2f", (Double) latency.get(key))));
+            }
+            sb.append("<td>").append(escape(String.valueOf(e.get("errorsByCause")))).append("</td></tr>\n");
+        }
+        sb.append("</table>\n<p>Pinned virtual threads by site: ")
+                .append(escape(String.valueOf(report.get("pinnedBySite")))).append("</p>\n");
+        return sb.append("</body></html>\n").toString();
+    }
+
+    private static String cell(Object value) {
+        return "<td>" + escape(String.valueOf(value)) + "</td>";
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
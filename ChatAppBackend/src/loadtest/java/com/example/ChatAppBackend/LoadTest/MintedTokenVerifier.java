@@ -0,0 +1,58 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokenVerifier;
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokens;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stands in for the Firebase verifier during load runs: accepts tokens minted by
+ * MintedTokens and rejects everything else, without any network call. It replaces the
+ * firebaseTokenVerifier bean, so the token cache and revocation checks still run on top.
+ * A non-zero latency blocks the calling thread like the SDK's network round trip would.
+ */
+public class MintedTokenVerifier extends FirebaseTokenVerifier {
+
+    private final MintedTokens tokens;
+    private final Duration latency;
+
+    public MintedTokenVerifier(FirebaseAuth firebaseAuth, MintedTokens tokens, Duration latency) {
+        super(firebaseAuth);
+        this.tokens = tokens;
+        this.latency = latency;
+    }
+
+    @Override
+    public FirebaseToken verify(String idToken, boolean checkRevoked) throws FirebaseAuthException {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        String[] claims = tokens.parse(idToken);
+        if (claims == null) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "Not a minted load-test token",
+                    null, null, AuthErrorCode.INVALID_ID_TOKEN);
+        }
+
+        long iat = Long.parseLong(claims[2]);
+        Map<String, Object> map = new HashMap<>();
+        map.put("sub", claims[0]);
+        map.put("email", claims[1]);
+        map.put("email_verified", true);
+        map.put("iat", iat);
+        map.put("auth_time", iat);
+        map.put("exp", iat + 3600);
+        return FirebaseTokens.fromClaims(map);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Test-only bearer tokens for load runs: "lt.<base64url(uid|email|iat)>.<base64url(hmac)>".
+ * The key is generated per run and never leaves the process, so minted tokens are useless
+ * against any other deployment.
+ */
+public final class MintedTokens {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final byte[] key;
+
+    public MintedTokens() {
+        this.key = new byte[32];
+        new SecureRandom().nextBytes(key);
+    }
+
+    public String mint(String uid, String email, long iatEpochSecond) {
+        String payload = ENCODER.encodeToString((uid + "|" + email + "|" + iatEpochSecond).getBytes(StandardCharsets.UTF_8));
+        return "lt." + payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Returns [uid, email, iat] or null when the token was not minted with this key.
+     */
+    public String[] parse(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !"lt".equals(parts[0])) {
+            return null;
+        }
+        try {
+            if (!MessageDigest.isEqual(sign(parts[1]), DECODER.decode(parts[2]))) {
+                return null;
+            }
+            String[] claims = new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8).split("\\|");
+            return claims.length == 3 ? claims : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
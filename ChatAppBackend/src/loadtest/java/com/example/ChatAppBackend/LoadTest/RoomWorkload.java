@@ -0,0 +1,178 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import com.example.ChatAppBackend.Room.RoomKeyIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scenario room: one iteration = a fresh host/guest pair going through the whole room flow:
+ * - host and guest POST /api/user/enter
+ * - host POST /api/room/create-room inviting the guest
+ * - guest PUT /api/room/join-room with the room key
+ * The raw key is only ever emailed, so the harness re-keys the created room with a known
+ * value directly in the database and in the room key index (not timed) before the guest joins.
+ * Scenario retrieve: one iteration = GET /api/user/retrieve and GET /api/room/current for an
+ * already entered user, i.e. mostly authentication plus a user-cache and a current-room-cache
+ * read (the user is in no room, so 404 is the expected answer to the second).
+ */
+public class RoomWorkload {
+
+    public static final String ENTER = "POST /api/user/enter";
+    public static final String CREATE_ROOM = "POST /api/room/create-room";
+    public static final String JOIN_ROOM = "PUT /api/room/join-room";
+    public static final String RETRIEVE = "GET /api/user/retrieve";
+    public static final String CURRENT_ROOM = "GET /api/room/current";
+    public static final String ITERATION = "iteration";
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final MintedTokens tokens;
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomKeyIndex roomKeyIndex;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    public RoomWorkload(HttpClient httpClient, URI baseUri, MintedTokens tokens,
+                        JdbcTemplate jdbcTemplate, RoomKeyIndex roomKeyIndex) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.tokens = tokens;
+        this.jdbcTemplate = jdbcTemplate;
+        this.roomKeyIndex = roomKeyIndex;
+        for (String name : new String[]{ENTER, CREATE_ROOM, JOIN_ROOM, RETRIEVE, CURRENT_ROOM, ITERATION}) {
+            stats.put(name, new EndpointStats(name));
+        }
+    }
+
+    public Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * Runs one iteration. intendedStartNanos is when the iteration should have started, so
+     * in open mode the iteration latency includes any time spent queued behind the harness.
+     */
+    public void runIteration(long intendedStartNanos) {
+        boolean ok = setUpRoom() != null;
+
+        long micros = (System.nanoTime() - intendedStartNanos) / 1_000;
+        if (ok) {
+            stats.get(ITERATION).recordSuccess(micros);
+        } else {
+            stats.get(ITERATION).recordError(micros, "failed step");
+        }
+    }
+
+    /**
+     * Runs the room flow for a fresh host/guest pair; returns the ACTIVE room and both tokens,
+     * or null if a step failed.
+     */
+    public ActiveRoom setUpRoom() {
+        long n = sequence.incrementAndGet();
+        long iat = Instant.now().getEpochSecond();
+        String host = tokens.mint(runId + "-h" + n, runId + "-h" + n + "@loadtest.local", iat);
+        String guestEmail = runId + "-g" + n + "@loadtest.local";
+        String guest = tokens.mint(runId + "-g" + n, guestEmail, iat);
+
+        if (call(ENTER, "POST", "/api/user/enter", host, null) == null
+                || call(ENTER, "POST", "/api/user/enter", guest, null) == null) {
+            return null;
+        }
+
+        JsonNode room = call(CREATE_ROOM, "POST", "/api/room/create-room", host,
+                "{\"name\":\"load " + n + "\",\"inviteeEmail\":\"" + guestEmail + "\"}");
+        if (room == null) {
+            return null;
+        }
+
+        String rawKey = UUID.randomUUID().toString();
+        String keyHash = DigestUtils.sha256Hex(rawKey);
+        jdbcTemplate.update("UPDATE rooms SET room_key_code = ? WHERE id = ?::uuid", keyHash, room.get("id").asText());
+        roomKeyIndex.issue(keyHash, Instant.now().plus(Duration.ofMinutes(15)));
+        if (call(JOIN_ROOM, "PUT", "/api/room/join-room", guest, "{\"roomKeyCode\":\"" + rawKey + "\"}") == null) {
+            return null;
+        }
+        return new ActiveRoom(room.get("id").asText(), host, guest);
+    }
+
+    public record ActiveRoom(String id, String hostToken, String guestToken) {}
+
+    /**
+     * Enters a fresh user and returns its token, or null if entering failed.
+     */
+    public String enterUser() {
+        long n = sequence.incrementAndGet();
+        String token = tokens.mint(runId + "-u" + n, runId + "-u" + n + "@loadtest.local", Instant.now().getEpochSecond());
+        return call(ENTER, "POST", "/api/user/enter", token, null) != null ? token : null;
+    }
+
+    public void runRetrieveIteration(long intendedStartNanos, String token) {
+        boolean ok = call(RETRIEVE, "GET", "/api/user/retrieve", token, null) != null
+                && call(CURRENT_ROOM, "GET", "/api/room/current", token, null, true) != null;
+        long micros = (System.nanoTime() - intendedStartNanos) / 1_000;
+        if (ok) {
+            stats.get(ITERATION).recordSuccess(micros);
+        } else {
+            stats.get(ITERATION).recordError(micros, "failed step");
+        }
+    }
+
+    public void recordDropped() {
+        stats.get(ITERATION).recordError(1, "dropped (max-in-flight)");
+    }
+
+    private JsonNode call(String endpoint, String method, String path, String token, String body) {
+        return call(endpoint, method, path, token, body, false);
+    }
+
+    /**
+     * @param notFoundIsAnswer count a 404 as a successful (empty) answer rather than an error
+     */
+    private JsonNode call(String endpoint, String method, String path, String token, String body, boolean notFoundIsAnswer) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            long micros = (System.nanoTime() - start) / 1_000;
+            if (notFoundIsAnswer && response.statusCode() == 404) {
+                stats.get(endpoint).recordSuccess(micros);
+                return objectMapper.nullNode();
+            }
+            if (response.statusCode() >= 400) {
+                stats.get(endpoint).recordError(micros, String.valueOf(response.statusCode()));
+                return null;
+            }
+            stats.get(endpoint).recordSuccess(micros);
+            return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.get(endpoint).recordError((System.nanoTime() - start) / 1_000, "interrupted");
+            return null;
+        } catch (Exception e) {
+            stats.get(endpoint).recordError((System.nanoTime() - start) / 1_000, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+}
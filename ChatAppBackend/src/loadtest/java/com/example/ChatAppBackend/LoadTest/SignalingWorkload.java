@@ -0,0 +1,155 @@
+package com.example.ChatAppBackend.LoadTest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Signaling relay latency across many concurrent rooms:
+ * - sets up N ACTIVE rooms through RoomWorkload and connects host and guest WebSockets
+ * - every host sends an ICE-candidate-sized message each interval, stamped with System.nanoTime()
+ * - the guest side records send-to-receive time (client and server share the JVM clock)
+ */
+public class SignalingWorkload {
+
+    public static final String CONNECT = "WS /ws/rooms/{roomId}/signal (connect)";
+    public static final String RELAY = "WS relay host -> guest";
+
+    private static final String PADDING = "x".repeat(160);
+
+    private final RoomWorkload rooms;
+    private final HttpClient httpClient;
+    private final URI wsBase;
+    private final EndpointStats connectStats = new EndpointStats(CONNECT);
+    private final EndpointStats relayStats = new EndpointStats(RELAY);
+
+    public SignalingWorkload(RoomWorkload rooms, HttpClient httpClient, URI wsBase) {
+        this.rooms = rooms;
+        this.httpClient = httpClient;
+        this.wsBase = wsBase;
+        rooms.stats().put(CONNECT, connectStats);
+        rooms.stats().put(RELAY, relayStats);
+    }
+
+    /**
+     * @param roomCount   concurrent rooms (two connections each)
+     * @param parallelism room setups/connects in flight at once
+     */
+    public void run(int roomCount, int parallelism, Duration interval, Duration duration) throws InterruptedException {
+        List<WebSocket> hosts = connectAll(roomCount, parallelism);
+        if (hosts.isEmpty()) {
+            throw new IllegalStateException("No signaling room could be connected");
+        }
+
+        long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (WebSocket host : hosts) {
+                senders.submit(() -> {
+                    // Spread the first sends over one interval so rooms do not fire in lockstep
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(interval.toNanos()));
+                    while (System.nanoTime() < end) {
+                        String message = "{\"type\":\"candidate\",\"t\":" + System.nanoTime() + ",\"candidate\":\"" + PADDING + "\"}";
+                        try {
+                            host.sendText(message, true).get(10, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            relayStats.recordError(1, "send " + e.getClass().getSimpleName());
+                            return;
+                        }
+                        LockSupport.parkNanos(interval.toNanos());
+                    }
+                });
+            }
+            senders.shutdown();
+            senders.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        for (WebSocket host : hosts) {
+            host.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+
+    private List<WebSocket> connectAll(int roomCount, int parallelism) throws InterruptedException {
+        List<WebSocket> hosts = new ArrayList<>(roomCount);
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService setups = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < roomCount; i++) {
+                permits.acquire();
+                setups.submit(() -> {
+                    try {
+                        RoomWorkload.ActiveRoom room = rooms.setUpRoom();
+                        if (room == null) {
+                            return;
+                        }
+                        WebSocket guest = connect(room.id(), room.guestToken(), new GuestListener());
+                        WebSocket host = connect(room.id(), room.hostToken(), new IgnoringListener());
+                        if (guest != null && host != null) {
+                            synchronized (hosts) {
+                                hosts.add(host);
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return hosts;
+    }
+
+    private WebSocket connect(String roomId, String token, WebSocket.Listener listener) {
+        long start = System.nanoTime();
+        try {
+            WebSocket ws = httpClient.newWebSocketBuilder()
+                    .buildAsync(wsBase.resolve("/ws/rooms/" + roomId + "/signal?access_token=" + token), listener)
+                    .get(30, TimeUnit.SECONDS);
+            connectStats.recordSuccess((System.nanoTime() - start) / 1_000);
+            return ws;
+        } catch (Exception e) {
+            connectStats.recordError((System.nanoTime() - start) / 1_000, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    /**
+     * Extracts the "t" stamp without a JSON parser to keep the measuring side cheap.
+     */
+    private final class GuestListener implements WebSocket.Listener {
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            long now = System.nanoTime();
+            partial.append(data);
+            if (last) {
+                String message = partial.toString();
+                partial.setLength(0);
+                int at = message.indexOf("\"t\":");
+                if (at >= 0) {
+                    int from = at + 4;
+                    int to = message.indexOf(',', from);
+                    relayStats.recordSuccess((now - Long.parseLong(message.substring(from, to))) / 1_000);
+                }
+            }
+            webSocket.request(1);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static final class IgnoringListener implements WebSocket.Listener {
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            webSocket.request(1);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ChatAppBackend.Chat;
+
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import jakarta.validation.Valid;
+import org.springframework.security.core.annotation.CurrentSecurityContext;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController()
+@RequestMapping("/api/chat")
+public class ChatController {
+
+    private final ChatService chatService;
+
+    public ChatController(ChatService chatService){
+        this.chatService = chatService;
+    }
+
+    @PostMapping("/{roomId}/messages")
+    public ChatMessageResponse sendMessage(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user,
+                                           @PathVariable UUID roomId, @Valid @RequestBody ChatMessageDTO chatMessageDTO){
+        return this.chatService.sendMessage(user, roomId, chatMessageDTO);
+    }
+
+    /**
+     * History, oldest first: without before the latest page, then each response's nextCursor.
+     */
+    @GetMapping("/{roomId}/messages")
+    public ChatMessagePage getMessages(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user,
+                                       @PathVariable UUID roomId,
+                                       @RequestParam(required = false) String before,
+                                       @RequestParam(required = false) Integer limit){
+        return this.chatService.getMessages(user, roomId, before, limit);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.ChatAppBackend.Chat;
+
+import com.example.ChatAppBackend.Exceptions.CustomExceptions.BadRequestException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keyset position in a room's history: the (sentAt, id) of the oldest message a client has.
+ * Encoded as "<sentAt epoch micros>_<id>"; clients treat it as opaque.
+ */
+record ChatCursor(Instant sentAt, long id) {
+
+    String encode() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, sentAt) + "_" + id;
+    }
+
+    static ChatCursor parse(String cursor) {
+        int separator = cursor.indexOf('_');
+        try {
+            long micros = Long.parseLong(cursor.substring(0, separator));
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            return new ChatCursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), id);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor.");
+        }
+    }
+}
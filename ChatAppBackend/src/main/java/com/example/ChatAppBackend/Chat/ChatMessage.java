@@ -0,0 +1,74 @@
+package com.example.ChatAppBackend.Chat;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A text message in a room. Rows are only ever inserted (by ChatMessageWriter).
+ * - room_id has no foreign key: a room that ends moves to ended_rooms under the same id, and its
+ *   history stays with it. Only the reaper's outright deletes (disabled rooms, deleted members)
+ *   remove messages, in the same statement as their room
+ * - Ids come from a sequence in blocks of ALLOCATION_SIZE (Hibernate's pooled optimizer), so a
+ *   batch of inserts costs one nextval per block instead of one per row
+ * - History is read newest first by (sentAt, id) within a room, served by the index below.
+ *   Ids alone do not give send order: each node draws from its own block
+ */
+@Entity
+@Table(name = "chat_messages", indexes = {
+        @Index(name = "idx_chat_messages_room_sent", columnList = "room_id, sentAt, id")
+})
+public class ChatMessage {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = ALLOCATION_SIZE)
+    private Long id;
+
+    // The live room's id, and the ended_rooms id once it ends
+    @Column(name = "room_id", nullable = false, updatable = false)
+    private UUID roomId;
+
+    @Column(nullable = false, updatable = false)
+    private UUID senderId;
+
+    @Column(nullable = false, updatable = false, length = ChatMessageDTO.MAX_BODY_LENGTH)
+    private String body;
+
+    @Column(nullable = false, updatable = false)
+    private Instant sentAt;
+
+    public ChatMessage() {}
+
+    public ChatMessage(UUID roomId, UUID senderId, String body, Instant sentAt) {
+        this.roomId = roomId;
+        this.senderId = senderId;
+        this.body = body;
+        this.sentAt = sentAt;
+    }
+
+    // ---- Getters ----
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getRoomId() {
+        return roomId;
+    }
+
+    public UUID getSenderId() {
+        return senderId;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+}
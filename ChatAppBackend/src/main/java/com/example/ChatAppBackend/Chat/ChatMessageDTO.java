@@ -0,0 +1,27 @@
+package com.example.ChatAppBackend.Chat;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class ChatMessageDTO {
+
+    static final int MAX_BODY_LENGTH = 2000;
+
+    @NotBlank(message = "Message is mandatory.")
+    @Size(max = MAX_BODY_LENGTH, message = "Message is too long.")
+    private String body;
+
+    public ChatMessageDTO() {}
+
+    public ChatMessageDTO(String body) {
+        this.body = body;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+}
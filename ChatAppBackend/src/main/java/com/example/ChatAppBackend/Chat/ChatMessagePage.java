@@ -0,0 +1,13 @@
+package com.example.ChatAppBackend.Chat;
+
+import java.util.List;
+
+/**
+ * One page of a room's history, oldest message first. nextCursor fetches the messages before
+ * this page and is null when there are none.
+ */
+public record ChatMessagePage(
+        List<ChatMessageResponse> messages,
+        String nextCursor
+) {
+}
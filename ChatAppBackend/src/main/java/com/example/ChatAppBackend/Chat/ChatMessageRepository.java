@@ -0,0 +1,41 @@
+package com.example.ChatAppBackend.Chat;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset reads of a room's history, newest first; both walk idx_chat_messages_room_sent
+ * backwards from their start position, so a deep page costs the same as the first one.
+ */
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+
+    /**
+     * Loads ChatTail. Read from the primary: a lagging replica would cache a tail without the
+     * latest messages.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            SELECT * FROM chat_messages
+             WHERE room_id = :roomId
+             ORDER BY sent_at DESC, id DESC
+             LIMIT :limit""")
+    List<ChatMessage> findLatest(@Param("roomId") UUID roomId, @Param("limit") int limit);
+
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value = """
+            SELECT * FROM chat_messages
+             WHERE room_id = :roomId
+               AND (sent_at, id) < (:sentAt, :id)
+             ORDER BY sent_at DESC, id DESC
+             LIMIT :limit""")
+    List<ChatMessage> findBefore(@Param("roomId") UUID roomId,
+                                 @Param("sentAt") Instant sentAt,
+                                 @Param("id") long id,
+                                 @Param("limit") int limit);
+}
@@ -0,0 +1,23 @@
+package com.example.ChatAppBackend.Chat;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ChatMessageResponse(
+        Long id,
+        UUID senderId,
+        String body,
+        Instant sentAt
+) {
+
+    public static ChatMessageResponse from(ChatMessage message) {
+        return new ChatMessageResponse(message.getId(), message.getSenderId(), message.getBody(), message.getSentAt());
+    }
+
+    /**
+     * Where the page after this message starts, as sent back in ?before=.
+     */
+    String cursor() {
+        return new ChatCursor(sentAt, id).encode();
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.ChatAppBackend.Chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for chat messages: senders queue their message and wait while one writer thread
+ * inserts whatever has queued up in a single transaction, so a message is only acknowledged once
+ * it is committed but the database sees one batched INSERT per transaction, not one per message.
+ * - Batches form on their own: the messages arriving while one batch is written make up the
+ *   next one (up to maxBatchSize), so an idle system writes each message right away
+ * - Rows go through Hibernate with JDBC batching on (ids from the pooled sequence, see
+ *   ChatMessage); the driver's reWriteBatchedInserts turns the batch into multi-row INSERTs
+ * - A failed batch is retried one message at a time, so one bad row only fails its own sender
+ * - When the queue stays full for enqueueTimeout the send fails instead of piling up
+ * Before start() and after stop(), append() writes its message itself.
+ */
+public class ChatMessageWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long enqueueTimeoutMillis;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final Counter written;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+    private final Timer writeTimer;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    /**
+     * @param entityManager shared (transaction-bound) EntityManager
+     * @param maxQueued     messages waiting for the writer before senders are turned away
+     */
+    public ChatMessageWriter(EntityManager entityManager,
+                             TransactionTemplate transactionTemplate,
+                             int maxBatchSize,
+                             int maxQueued,
+                             Duration enqueueTimeout,
+                             MeterRegistry meterRegistry) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.enqueueTimeoutMillis = enqueueTimeout.toMillis();
+        this.queue = new ArrayBlockingQueue<>(maxQueued);
+
+        this.written = Counter.builder("chat.messages.written").register(meterRegistry);
+        this.failed = Counter.builder("chat.messages.failed").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("chat.write.batch").register(meterRegistry);
+        this.writeTimer = Timer.builder("chat.write").register(meterRegistry);
+        Gauge.builder("chat.write.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Inserts the message and returns it with its id once committed.
+     * Rethrows the insert's exception if it failed.
+     */
+    public ChatMessage append(ChatMessage message) {
+        PendingMessage pending = new PendingMessage(message, new CompletableFuture<>());
+        if (!running) {
+            write(List.of(pending));
+        } else {
+            enqueue(pending);
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void enqueue(PendingMessage pending) {
+        try {
+            if (!queue.offer(pending, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                failed.increment();
+                throw new IllegalStateException("Chat message queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a chat message", e);
+        }
+        // stop() raced past us: whoever takes the message out of the queue writes it
+        if (!running && queue.remove(pending)) {
+            write(List.of(pending));
+        }
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingMessage first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // write() completes every future itself; this only guards the loop
+                logger.warn("Chat writer loop failed: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction and completes every sender's future.
+     */
+    void write(List<PendingMessage> batch) {
+        List<ChatMessage> rows = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            // Fresh entities: a failed attempt leaves ids assigned on the ones it persisted
+            rows.add(pending.copy());
+        }
+        try {
+            writeTimer.record(() -> transactionTemplate.executeWithoutResult(status -> persist(rows)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed.increment();
+                batch.getFirst().result().completeExceptionally(e);
+                return;
+            }
+            logger.warn("Chat batch of {} messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (PendingMessage pending : batch) {
+                write(List.of(pending));
+            }
+            return;
+        }
+        written.increment(rows.size());
+        batchSize.record(rows.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(rows.get(i));
+        }
+    }
+
+    private void persist(List<ChatMessage> rows) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(maxBatchSize);
+        try {
+            for (ChatMessage row : rows) {
+                session.persist(row);
+            }
+            session.flush();
+        } catch (RuntimeException e) {
+            // As a repository would report it (e.g. DataIntegrityViolationException)
+            DataAccessException translated = JPA_DIALECT.translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    // ---- Lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "chat-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Lets the writer finish its batch, then writes what is still queued on this thread.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server (DEFAULT_PHASE - 2048) has drained in-flight requests, whose
+     * senders are waiting on their messages.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    record PendingMessage(ChatMessage message, CompletableFuture<ChatMessage> result) {
+        ChatMessage copy() {
+            return new ChatMessage(message.getRoomId(), message.getSenderId(), message.getBody(), message.getSentAt());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.ChatAppBackend.Chat;
+
+import com.example.ChatAppBackend.Exceptions.CustomExceptions.BadRequestException;
+import com.example.ChatAppBackend.Exceptions.CustomExceptions.ResourceNotFoundException;
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.Room.EndedRoomRepository;
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.Room.RoomStatus;
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserService;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@Observed(name = "chat.service")
+public class ChatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final UserService userService;
+    private final RoomRepository roomRepository;
+    private final EndedRoomRepository endedRoomRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatTailCache chatTailCache;
+    private final InvalidationPublisher invalidationPublisher;
+
+    public ChatService(UserService userService,
+                       RoomRepository roomRepository,
+                       EndedRoomRepository endedRoomRepository,
+                       ChatMessageRepository chatMessageRepository,
+                       ChatMessageWriter chatMessageWriter,
+                       ChatTailCache chatTailCache,
+                       InvalidationPublisher invalidationPublisher) {
+        this.userService = userService;
+        this.roomRepository = roomRepository;
+        this.endedRoomRepository = endedRoomRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageWriter = chatMessageWriter;
+        this.chatTailCache = chatTailCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Sends a message to an ACTIVE room the user is the host or guest of. Returns once the
+     * message is committed (see ChatMessageWriter); the room's tail is updated here and, through
+     * a CHAT_MESSAGE event, on the other nodes. A message racing the room's end is kept with the
+     * archived history.
+     */
+    public ChatMessageResponse sendMessage(CurrentUserDetails user, UUID roomId, ChatMessageDTO chatMessageDTO) {
+        User currentUser = userService.retrieveUser(user);
+
+        ChatTail tail = chatTailCache.get(roomId, this::loadTail);
+        if (tail == null) {
+            // Missing, not ACTIVE, or not this user's: tell which only to members
+            throw roomUnavailable(currentUser, roomId);
+        }
+        if (!tail.isMember(currentUser.getId())) {
+            throw notFound(currentUser, roomId);
+        }
+
+        // Microseconds: what PostgreSQL keeps, so cursors built from this match the stored row
+        Instant sentAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        ChatMessage saved = chatMessageWriter.append(new ChatMessage(roomId, currentUser.getId(), chatMessageDTO.getBody(), sentAt));
+
+        ChatMessageResponse message = ChatMessageResponse.from(saved);
+        chatTailCache.append(roomId, message);
+        invalidationPublisher.publish(InvalidationEventType.CHAT_MESSAGE, roomId.toString(), chatTailCache.serialize(message));
+        return message;
+    }
+
+    /**
+     * A page of the room's history, oldest first, ending just before the cursor (or at the latest
+     * message when there is none). The latest page of an ACTIVE room comes from its tail.
+     */
+    public ChatMessagePage getMessages(CurrentUserDetails user, UUID roomId, String before, Integer limit) {
+        User currentUser = userService.retrieveUser(user);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        ChatCursor cursor = before == null ? null : ChatCursor.parse(before);
+
+        ChatTail tail = chatTailCache.get(roomId, this::loadTail);
+        if (tail != null) {
+            if (!tail.isMember(currentUser.getId())) {
+                throw notFound(currentUser, roomId);
+            }
+            if (cursor == null) {
+                ChatMessagePage page = tail.latest(pageSize);
+                if (page != null) {
+                    return page;
+                }
+            }
+        } else {
+            // Not ACTIVE, or ended and archived: members may still read what was said
+            Room room = roomRepository.findById(roomId).orElse(null);
+            boolean member = room != null
+                    ? isMember(room, currentUser.getId())
+                    : endedRoomRepository.findById(roomId).map(ended -> ended.isMember(currentUser.getId())).orElse(false);
+            if (!member) {
+                throw notFound(currentUser, roomId);
+            }
+        }
+
+        List<ChatMessage> newestFirst = cursor == null
+                ? chatMessageRepository.findLatest(roomId, pageSize)
+                : chatMessageRepository.findBefore(roomId, cursor.sentAt(), cursor.id(), pageSize);
+        return page(newestFirst, pageSize);
+    }
+
+    private ChatTail loadTail(UUID roomId) {
+        Room room = roomRepository.findById(roomId).orElse(null);
+        if (room == null || room.getStatus() != RoomStatus.ACTIVE || room.isDisabled()) {
+            return null;
+        }
+        List<ChatMessageResponse> latest = chatMessageRepository.findLatest(roomId, chatTailCache.getTailSize()).stream()
+                .map(ChatMessageResponse::from)
+                .toList();
+        return new ChatTail(room.getHost().getId(),
+                room.getGuest() != null ? room.getGuest().getId() : null,
+                chatTailCache.getTailSize(), latest);
+    }
+
+    private static ChatMessagePage page(List<ChatMessage> newestFirst, int pageSize) {
+        List<ChatMessageResponse> messages = new ArrayList<>(newestFirst.size());
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            messages.add(ChatMessageResponse.from(newestFirst.get(i)));
+        }
+        // A full page may have older messages before it; a short one reached the start
+        String nextCursor = messages.size() == pageSize ? messages.getFirst().cursor() : null;
+        return new ChatMessagePage(messages, nextCursor);
+    }
+
+    private RuntimeException roomUnavailable(User currentUser, UUID roomId) {
+        Room room = roomRepository.findById(roomId).orElse(null);
+        if (room == null || !isMember(room, currentUser.getId())) {
+            return notFound(currentUser, roomId);
+        }
+        logger.warn("User {} attempted to chat in room {} with status {}", currentUser.getEmail(), roomId, room.getStatus());
+        return new BadRequestException("This room is not active.");
+    }
+
+    private static ResourceNotFoundException notFound(User currentUser, UUID roomId) {
+        logger.warn("User {} attempted to use the chat of room {} they are not part of", currentUser.getEmail(), roomId);
+        return new ResourceNotFoundException("No room found.");
+    }
+
+    private static boolean isMember(Room room, UUID userId) {
+        return (room.getHost() != null && userId.equals(room.getHost().getId()))
+                || (room.getGuest() != null && userId.equals(room.getGuest().getId()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ChatAppBackend.Chat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The latest messages of one ACTIVE room, oldest first, plus who may read and write them.
+ * Holds at most capacity messages; complete is true while they are the room's whole history.
+ */
+class ChatTail {
+
+    private static final Comparator<ChatMessageResponse> ORDER =
+            Comparator.comparing(ChatMessageResponse::sentAt).thenComparing(ChatMessageResponse::id);
+
+    private final UUID hostId;
+    private final UUID guestId;
+    private final int capacity;
+    private final ArrayList<ChatMessageResponse> messages;
+    private boolean complete;
+
+    /**
+     * @param newestFirst up to capacity messages as read from the database
+     */
+    ChatTail(UUID hostId, UUID guestId, int capacity, List<ChatMessageResponse> newestFirst) {
+        this.hostId = hostId;
+        this.guestId = guestId;
+        this.capacity = capacity;
+        this.messages = new ArrayList<>(capacity + 1);
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            messages.add(newestFirst.get(i));
+        }
+        this.complete = newestFirst.size() < capacity;
+    }
+
+    boolean isMember(UUID userId) {
+        return userId.equals(hostId) || userId.equals(guestId);
+    }
+
+    /**
+     * Adds a message in (sentAt, id) order; messages from other nodes can arrive late or twice.
+     */
+    synchronized void add(ChatMessageResponse message) {
+        int i = messages.size();
+        while (i > 0 && ORDER.compare(messages.get(i - 1), message) > 0) {
+            i--;
+        }
+        if (i > 0 && messages.get(i - 1).id().equals(message.id())) {
+            return;
+        }
+        if (i == 0 && messages.size() == capacity && !complete) {
+            // Older than everything held, and the tail does not reach back that far
+            return;
+        }
+        messages.add(i, message);
+        if (messages.size() > capacity) {
+            messages.removeFirst();
+            complete = false;
+        }
+    }
+
+    /**
+     * The latest limit messages, or null when the tail does not hold enough of the history.
+     */
+    synchronized ChatMessagePage latest(int limit) {
+        if (limit > messages.size() && !complete) {
+            return null;
+        }
+        int from = Math.max(0, messages.size() - limit);
+        List<ChatMessageResponse> page = List.copyOf(messages.subList(from, messages.size()));
+        boolean more = from > 0 || !complete;
+        return new ChatMessagePage(page, more && !page.isEmpty() ? page.getFirst().cursor() : null);
+    }
+}
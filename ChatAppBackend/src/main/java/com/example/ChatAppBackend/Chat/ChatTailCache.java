@@ -0,0 +1,108 @@
+package com.example.ChatAppBackend.Chat;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * ChatTails of the ACTIVE rooms this node has served recently, so the latest messages and the
+ * membership check of a send are answered from memory.
+ * - Messages written here are appended by ChatService; messages written on other nodes arrive
+ *   as CHAT_MESSAGE events carrying the message
+ * - ROOM_CHANGED drops the room (it may have ended or lost a member); so does a lost-events reset
+ * - Idle rooms expire, which also bounds how long a room changed on this node without an
+ *   event stays cached
+ */
+public class ChatTailCache implements InvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatTailCache.class);
+
+    private final Cache<UUID, ChatTail> tails;
+    private final ObjectMapper objectMapper;
+    private final int tailSize;
+
+    public ChatTailCache(ObjectMapper objectMapper, int tailSize, long maxRooms, Duration idleTimeout, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.tailSize = tailSize;
+        this.tails = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tails, "chat.tails");
+    }
+
+    public int getTailSize() {
+        return tailSize;
+    }
+
+    /**
+     * Returns the room's tail or loads it; a null result from the loader (room missing or not
+     * ACTIVE) is not cached.
+     */
+    ChatTail get(UUID roomId, Function<UUID, ChatTail> loader) {
+        return tails.get(roomId, loader);
+    }
+
+    /**
+     * Adds the message to the room's tail if this node holds one. Waits for a load in progress,
+     * so a message committed after the load's query is not lost.
+     */
+    void append(UUID roomId, ChatMessageResponse message) {
+        tails.asMap().computeIfPresent(roomId, (id, tail) -> {
+            tail.add(message);
+            return tail;
+        });
+    }
+
+    public void evict(UUID roomId) {
+        tails.invalidate(roomId);
+    }
+
+    String serialize(ChatMessageResponse message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize chat message " + message.id(), e);
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type != InvalidationEventType.CHAT_MESSAGE && type != InvalidationEventType.ROOM_CHANGED) {
+            return;
+        }
+        UUID roomId;
+        try {
+            roomId = UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        if (type == InvalidationEventType.ROOM_CHANGED) {
+            evict(roomId);
+            return;
+        }
+        try {
+            append(roomId, objectMapper.readValue(payload, ChatMessageResponse.class));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.warn("Dropping the chat tail of room {}: unreadable message event: {}", roomId, e.getMessage());
+            evict(roomId);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        tails.invalidateAll();
+    }
+}
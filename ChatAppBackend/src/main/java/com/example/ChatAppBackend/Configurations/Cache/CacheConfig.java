@@ -0,0 +1,59 @@
+package com.example.ChatAppBackend.Configurations.Cache;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationBus;
+import com.example.ChatAppBackend.Room.CurrentRoomCache;
+import com.example.ChatAppBackend.Room.RoomKeyIndex;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.User.LoginTouchBuffer;
+import com.example.ChatAppBackend.User.UserCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.util.function.BooleanSupplier;
+
+@Configuration
+@EnableConfigurationProperties({UserCacheProperties.class, RoomKeyIndexProperties.class, LoginTouchProperties.class,
+        CurrentRoomCacheProperties.class})
+public class CacheConfig {
+
+    @Bean
+    public UserCache userCache(UserCacheProperties props, MeterRegistry meterRegistry) {
+        return new UserCache(props.getMaxSize(), props.getTtl(), meterRegistry);
+    }
+
+    @Bean
+    public CurrentRoomCache currentRoomCache(ObjectMapper objectMapper, CurrentRoomCacheProperties props,
+                                            MeterRegistry meterRegistry) {
+        return new CurrentRoomCache(objectMapper, props.getMaxSize(), props.getTtl(), meterRegistry);
+    }
+
+    /**
+     * With the bus enabled, misses are only trusted while its listener is connected (keys issued
+     * on other nodes are known); without it this is a single node and the index is complete.
+     */
+    @Bean
+    public RoomKeyIndex roomKeyIndex(RoomRepository roomRepository,
+                                     ObjectProvider<InvalidationBus> invalidationBus,
+                                     RoomKeyIndexProperties props,
+                                     MeterRegistry meterRegistry) {
+        // Looked up on use: the bus itself depends on the index (as one of its handlers)
+        BooleanSupplier coherent = () -> {
+            InvalidationBus bus = invalidationBus.getIfAvailable();
+            return bus == null || bus.isConnected();
+        };
+        return new RoomKeyIndex(roomRepository, props.isEnabled(), coherent, Clock.systemUTC(),
+                props.getMissGrace(), props.getTick(), props.getWheelSize(), meterRegistry);
+    }
+
+    @Bean
+    public LoginTouchBuffer loginTouchBuffer(JdbcTemplate jdbcTemplate, LoginTouchProperties props, MeterRegistry meterRegistry) {
+        return new LoginTouchBuffer(jdbcTemplate, props.isEnabled(), Clock.systemUTC(), props.getFlushInterval(),
+                props.getMaxStaleness(), props.getMaxBatchSize(), props.getMaxTrackedUsers(), meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ChatAppBackend.Configurations.Cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "current-room-cache")
+public class CurrentRoomCacheProperties {
+    // Users whose current room (or "none") is remembered
+    private long maxSize = 50_000;
+    // Bounds how long a lookup racing with a change on another node, or a lost ROOM_EVENT, can
+    // serve the old room
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // ---- Getters / Setters ----
+    public long getMaxSize() { return maxSize; }
+    public void setMaxSize(long maxSize) { this.maxSize = maxSize; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+}
@@ -0,0 +1,35 @@
+package com.example.ChatAppBackend.Configurations.Cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "login-touch")
+public class LoginTouchProperties {
+    // When disabled every /api/user/enter saves the user synchronously, as before
+    private boolean enabled = true;
+    // Time a buffered login waits before it is written
+    private Duration flushInterval = Duration.ofSeconds(5);
+    // A user's lastLoginAt is not rewritten more often than this
+    private Duration maxStaleness = Duration.ofMinutes(1);
+    // Rows per batched UPDATE
+    private int maxBatchSize = 500;
+    // Users remembered for the max-staleness check
+    private long maxTrackedUsers = 100_000;
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getFlushInterval() { return flushInterval; }
+    public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+
+    public Duration getMaxStaleness() { return maxStaleness; }
+    public void setMaxStaleness(Duration maxStaleness) { this.maxStaleness = maxStaleness; }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+    public long getMaxTrackedUsers() { return maxTrackedUsers; }
+    public void setMaxTrackedUsers(long maxTrackedUsers) { this.maxTrackedUsers = maxTrackedUsers; }
+}
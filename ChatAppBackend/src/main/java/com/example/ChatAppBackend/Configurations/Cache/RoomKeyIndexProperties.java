@@ -0,0 +1,30 @@
+package com.example.ChatAppBackend.Configurations.Cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "room-key-index")
+public class RoomKeyIndexProperties {
+    // When disabled every join goes to the database, as before
+    private boolean enabled = true;
+    // Unknown keys still go to the database this long after a load or a bus disconnect
+    private Duration missGrace = Duration.ofSeconds(10);
+    // Expiry resolution of the timing wheel
+    private Duration tick = Duration.ofSeconds(1);
+    // Buckets; 1024 one-second ticks cover the 15-minute key lifetime in a single turn
+    private int wheelSize = 1024;
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getMissGrace() { return missGrace; }
+    public void setMissGrace(Duration missGrace) { this.missGrace = missGrace; }
+
+    public Duration getTick() { return tick; }
+    public void setTick(Duration tick) { this.tick = tick; }
+
+    public int getWheelSize() { return wheelSize; }
+    public void setWheelSize(int wheelSize) { this.wheelSize = wheelSize; }
+}
@@ -0,0 +1,20 @@
+package com.example.ChatAppBackend.Configurations.Cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "user-cache")
+public class UserCacheProperties {
+    // Entries per index (uid -> user, email -> uid)
+    private long maxSize = 50_000;
+    // Bounds staleness of fields written on other nodes (e.g. lastLoginAt)
+    private Duration ttl = Duration.ofMinutes(5);
+
+    // ---- Getters / Setters ----
+    public long getMaxSize() { return maxSize; }
+    public void setMaxSize(long maxSize) { this.maxSize = maxSize; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+}
@@ -0,0 +1,35 @@
+package com.example.ChatAppBackend.Configurations.Chat;
+
+import com.example.ChatAppBackend.Chat.ChatMessageWriter;
+import com.example.ChatAppBackend.Chat.ChatTailCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ChatProperties.class)
+public class ChatConfig {
+
+    @Bean
+    public ChatMessageWriter chatMessageWriter(EntityManager entityManager,
+                                               PlatformTransactionManager transactionManager,
+                                               ChatProperties props,
+                                               MeterRegistry meterRegistry) {
+        return new ChatMessageWriter(entityManager, new TransactionTemplate(transactionManager),
+                props.getMaxBatchSize(), props.getMaxQueued(), props.getEnqueueTimeout(), meterRegistry);
+    }
+
+    /**
+     * Also an InvalidationHandler, so the bus hands it CHAT_MESSAGEs written on other nodes.
+     */
+    @Bean
+    public ChatTailCache chatTailCache(ObjectMapper objectMapper, ChatProperties props, MeterRegistry meterRegistry) {
+        return new ChatTailCache(objectMapper, props.getTailSize(), props.getTailMaxRooms(),
+                props.getTailIdleTimeout(), meterRegistry);
+    }
+}
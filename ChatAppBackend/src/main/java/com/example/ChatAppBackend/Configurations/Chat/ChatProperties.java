@@ -0,0 +1,38 @@
+package com.example.ChatAppBackend.Configurations.Chat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat")
+public class ChatProperties {
+    // Latest messages kept in memory per ACTIVE room
+    private int tailSize = 50;
+    // Rooms with a tail in memory, and how long an unused one is kept
+    private long tailMaxRooms = 10_000;
+    private Duration tailIdleTimeout = Duration.ofMinutes(10);
+    // Messages per insert transaction
+    private int maxBatchSize = 500;
+    // Messages waiting for the writer; a send waits up to enqueueTimeout for room before failing
+    private int maxQueued = 10_000;
+    private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+    // ---- Getters / Setters ----
+    public int getTailSize() { return tailSize; }
+    public void setTailSize(int tailSize) { this.tailSize = tailSize; }
+
+    public long getTailMaxRooms() { return tailMaxRooms; }
+    public void setTailMaxRooms(long tailMaxRooms) { this.tailMaxRooms = tailMaxRooms; }
+
+    public Duration getTailIdleTimeout() { return tailIdleTimeout; }
+    public void setTailIdleTimeout(Duration tailIdleTimeout) { this.tailIdleTimeout = tailIdleTimeout; }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+    public int getMaxQueued() { return maxQueued; }
+    public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+
+    public Duration getEnqueueTimeout() { return enqueueTimeout; }
+    public void setEnqueueTimeout(Duration enqueueTimeout) { this.enqueueTimeout = enqueueTimeout; }
+}
@@ -0,0 +1,50 @@
+package com.example.ChatAppBackend.Configurations.Invalidation;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationBus;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DriverManager;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+    /**
+     * The bus writes through the regular pool but LISTENs on its own connection, opened
+     * with the same URL and credentials as spring.datasource so it never holds a pooled one.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "invalidation.bus", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public InvalidationBus invalidationBus(JdbcTemplate jdbcTemplate,
+                                           DataSourceProperties dataSourceProperties,
+                                           List<InvalidationHandler> handlers,
+                                           InvalidationProperties props) {
+        return new InvalidationBus(
+                jdbcTemplate,
+                () -> DriverManager.getConnection(
+                        dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(),
+                        dataSourceProperties.determinePassword()),
+                handlers,
+                props.getMaxBatchSize(),
+                props.getMaxPending(),
+                props.getFlushInterval(),
+                props.getPollInterval(),
+                props.getRetention()
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "invalidation.bus", name = "enabled", havingValue = "false")
+    public InvalidationPublisher noopInvalidationPublisher() {
+        return InvalidationPublisher.NOOP;
+    }
+}
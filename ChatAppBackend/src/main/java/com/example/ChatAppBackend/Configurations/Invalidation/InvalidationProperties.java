@@ -0,0 +1,40 @@
+package com.example.ChatAppBackend.Configurations.Invalidation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "invalidation.bus")
+public class InvalidationProperties {
+    // Disable for single-node setups (or databases without LISTEN/NOTIFY)
+    private boolean enabled = true;
+    // Events queued for longer than this are written in the next batch
+    private Duration flushInterval = Duration.ofMillis(50);
+    private int maxBatchSize = 500;
+    // Beyond this many queued events, publishers write their event to the log themselves
+    private int maxPending = 50_000;
+    // Listener reads the log at least this often even without notifications
+    private Duration pollInterval = Duration.ofSeconds(5);
+    // A node disconnected for longer than this resets its caches instead of replaying. Keep it at
+    // least the ID token lifetime (1h): revocations are replayed to new nodes from what is retained
+    private Duration retention = Duration.ofHours(1);
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getFlushInterval() { return flushInterval; }
+    public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+    public int getMaxPending() { return maxPending; }
+    public void setMaxPending(int maxPending) { this.maxPending = maxPending; }
+
+    public Duration getPollInterval() { return pollInterval; }
+    public void setPollInterval(Duration pollInterval) { this.pollInterval = pollInterval; }
+
+    public Duration getRetention() { return retention; }
+    public void setRetention(Duration retention) { this.retention = retention; }
+}
@@ -0,0 +1,38 @@
+package com.example.ChatAppBackend.Configurations.Observability;
+
+import com.example.ChatAppBackend.Diagnostics.RepositoryObservationInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Metrics and traces: Spring Boot observes HTTP requests, the security filter chain and (via
+ * @Observed and ObservedAspect) the services; observations become Micrometer timers, scraped at
+ * /actuator/prometheus with trace exemplars, and OpenTelemetry spans. This config adds the
+ * repository layer, so a trace runs filter -> service -> repository.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    /**
+     * Static: a BeanPostProcessor must exist before the repositories it customizes.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(new RepositoryObservationInterceptor(
+                                    () -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                                    information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ChatAppBackend.Configurations.Persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaProperties {
+    // JDBC URLs of the read replicas; when empty everything goes to spring.datasource.url
+    private List<String> urls = new ArrayList<>();
+    // Replica credentials; default to spring.datasource.username / password
+    private String username;
+    private String password;
+    // Connections per replica pool
+    private int maxPoolSize = 10;
+    // Short: a replica that cannot hand out a connection in time is skipped for the next one
+    private Duration connectionTimeout = Duration.ofMillis(500);
+    // Reads of a user who wrote within this window go to the primary; keep it above the replica lag
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    // Users remembered for the read-your-writes window
+    private long maxTrackedUsers = 100_000;
+
+    // ---- Getters / Setters ----
+    public List<String> getUrls() { return urls; }
+    public void setUrls(List<String> urls) { this.urls = urls; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public int getMaxPoolSize() { return maxPoolSize; }
+    public void setMaxPoolSize(int maxPoolSize) { this.maxPoolSize = maxPoolSize; }
+
+    public Duration getConnectionTimeout() { return connectionTimeout; }
+    public void setConnectionTimeout(Duration connectionTimeout) { this.connectionTimeout = connectionTimeout; }
+
+    public Duration getReadYourWritesWindow() { return readYourWritesWindow; }
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) { this.readYourWritesWindow = readYourWritesWindow; }
+
+    public long getMaxTrackedUsers() { return maxTrackedUsers; }
+    public void setMaxTrackedUsers(long maxTrackedUsers) { this.maxTrackedUsers = maxTrackedUsers; }
+}
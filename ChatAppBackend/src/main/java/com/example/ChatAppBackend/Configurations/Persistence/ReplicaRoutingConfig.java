@@ -0,0 +1,103 @@
+package com.example.ChatAppBackend.Configurations.Persistence;
+
+import com.example.ChatAppBackend.Replication.ReadYourWrites;
+import com.example.ChatAppBackend.Replication.ReplicaDataSource;
+import com.example.ChatAppBackend.Replication.WriteTrackingDataSource;
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write split, active once datasource.replicas.urls is set (it replaces the auto-configured
+ * DataSource). The application DataSource is a LazyConnectionDataSourceProxy: the physical
+ * connection is only taken at the first statement, when the transaction's read-only flag is
+ * known, so @Transactional(readOnly = true) work (including Spring Data's read methods) goes to
+ * ReplicaDataSource and everything else to the primary.
+ * Each pool reports hikaricp.* metrics under its own pool tag: primary, replica-0, replica-1...
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    /**
+     * Same settings as the auto-configured pool (spring.datasource.*, spring.datasource.hikari.*).
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaProperties props) {
+        return new ReadYourWrites(ReplicaRoutingConfig::currentUid, props.getReadYourWritesWindow(),
+                props.getMaxTrackedUsers(), Ticker.systemTicker());
+    }
+
+    /**
+     * Replica pools start on first use, so an unreachable replica does not fail startup.
+     */
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                               DataSourceProperties dataSourceProperties,
+                                               ReplicaProperties props,
+                                               ReadYourWrites readYourWrites,
+                                               MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < props.getUrls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(props.getUrls().get(i).trim());
+            replica.setUsername(props.getUsername() != null ? props.getUsername() : dataSourceProperties.determineUsername());
+            replica.setPassword(props.getPassword() != null ? props.getPassword() : dataSourceProperties.determinePassword());
+            replica.setMaximumPoolSize(props.getMaxPoolSize());
+            replica.setConnectionTimeout(props.getConnectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            // Driver settings (prepared statement cache) as on the primary
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, readYourWrites, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaDataSource replicaDataSource,
+                                 ReadYourWrites readYourWrites) {
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primaryDataSource, readYourWrites));
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    private static String currentUid() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof CurrentUserDetails details) {
+            return details.uid();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ChatAppBackend.Configurations.Reaper;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.Reaper.StaleRowReaper;
+import com.example.ChatAppBackend.Room.CurrentRoomCache;
+import com.example.ChatAppBackend.RoomEvents.RoomEventPublisher;
+import com.example.ChatAppBackend.User.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(ReaperProperties.class)
+public class ReaperConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "reaper", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StaleRowReaper staleRowReaper(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         InvalidationPublisher invalidationPublisher,
+                                         RoomEventPublisher roomEventPublisher,
+                                         UserCache userCache,
+                                         CurrentRoomCache currentRoomCache,
+                                         ReaperProperties props,
+                                         MeterRegistry meterRegistry) {
+        return new StaleRowReaper(
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                invalidationPublisher,
+                roomEventPublisher,
+                userCache,
+                currentRoomCache,
+                Clock.systemUTC(),
+                props.getBatchSize(),
+                props.getMaxBatchesPerRun(),
+                props.getUserGracePeriod(),
+                meterRegistry
+        );
+    }
+}
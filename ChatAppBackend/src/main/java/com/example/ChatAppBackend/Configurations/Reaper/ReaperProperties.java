@@ -0,0 +1,35 @@
+package com.example.ChatAppBackend.Configurations.Reaper;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "reaper")
+public class ReaperProperties {
+    private boolean enabled = true;
+    // Time between the end of one run and the start of the next
+    private Duration interval = Duration.ofSeconds(60);
+    // Rows deleted per statement (each batch is its own short transaction)
+    private int batchSize = 500;
+    // Upper bound on batches per kind and run; the rest waits for the next run
+    private int maxBatchesPerRun = 20;
+    // Users are hard-deleted this long after deletion was requested: their ID tokens (1h) have
+    // expired by then, so the soft-deleted row is no longer needed to seed revocation watermarks
+    private Duration userGracePeriod = Duration.ofHours(1);
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getInterval() { return interval; }
+    public void setInterval(Duration interval) { this.interval = interval; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public int getMaxBatchesPerRun() { return maxBatchesPerRun; }
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) { this.maxBatchesPerRun = maxBatchesPerRun; }
+
+    public Duration getUserGracePeriod() { return userGracePeriod; }
+    public void setUserGracePeriod(Duration userGracePeriod) { this.userGracePeriod = userGracePeriod; }
+}
@@ -0,0 +1,50 @@
+package com.example.ChatAppBackend.Configurations.RoomEvents;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.RoomEvents.RoomEventBroker;
+import com.example.ChatAppBackend.RoomEvents.RoomEventPublisher;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableConfigurationProperties(RoomEventsProperties.class)
+public class RoomEventsConfig {
+
+    private final RoomEventBroker roomEventBroker;
+
+    public RoomEventsConfig(RoomEventBroker roomEventBroker) {
+        this.roomEventBroker = roomEventBroker;
+    }
+
+    /**
+     * Also an InvalidationHandler, so the bus hands it ROOM_EVENTs published on other nodes.
+     */
+    @Bean
+    public static RoomEventBroker roomEventBroker(RevocationRegistry revocationRegistry,
+                                                  ObjectMapper objectMapper,
+                                                  RoomEventsProperties props,
+                                                  MeterRegistry meterRegistry) {
+        return new RoomEventBroker(revocationRegistry, objectMapper,
+                props.getBufferSize(),
+                props.getHistorySize(),
+                props.getHistoryTtl(),
+                props.getTimeout(),
+                meterRegistry);
+    }
+
+    @Bean
+    public static RoomEventPublisher roomEventPublisher(RoomEventBroker roomEventBroker, InvalidationPublisher invalidationPublisher) {
+        return new RoomEventPublisher(roomEventBroker, invalidationPublisher);
+    }
+
+    @Scheduled(initialDelayString = "${room-events.heartbeat-interval:15s}",
+            fixedDelayString = "${room-events.heartbeat-interval:15s}")
+    public void heartbeat() {
+        roomEventBroker.heartbeat();
+    }
+}
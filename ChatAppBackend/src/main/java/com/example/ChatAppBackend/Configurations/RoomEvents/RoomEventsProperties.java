@@ -0,0 +1,34 @@
+package com.example.ChatAppBackend.Configurations.RoomEvents;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "room-events")
+public class RoomEventsProperties {
+    // Frames queued per subscriber before it is considered too slow and disconnected
+    private int bufferSize = 64;
+    // Events kept per user for Last-Event-ID resume, and for how long
+    private int historySize = 32;
+    private Duration historyTtl = Duration.ofMinutes(5);
+    // Comment frame sent to every open stream; also when revoked users are disconnected
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    // Streams are completed after this and the client reconnects (bounds a stream's lifetime past token expiry)
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // ---- Getters / Setters ----
+    public int getBufferSize() { return bufferSize; }
+    public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+
+    public int getHistorySize() { return historySize; }
+    public void setHistorySize(int historySize) { this.historySize = historySize; }
+
+    public Duration getHistoryTtl() { return historyTtl; }
+    public void setHistoryTtl(Duration historyTtl) { this.historyTtl = historyTtl; }
+
+    public Duration getHeartbeatInterval() { return heartbeatInterval; }
+    public void setHeartbeatInterval(Duration heartbeatInterval) { this.heartbeatInterval = heartbeatInterval; }
+
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+}
@@ -0,0 +1,12 @@
+package com.example.ChatAppBackend.Configurations.Scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (revocation reconcile, cleanup, flushes).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,90 @@
+package com.example.ChatAppBackend.Configurations.Security;
+
+import com.example.ChatAppBackend.RateLimit.RateLimitScope;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    // When disabled no rate-limit filter is registered
+    private boolean enabled = true;
+    // Buckets kept per policy before the least recently used keys are evicted
+    private int maxKeysPerPolicy = 100_000;
+    // Policies by name; rate-limit.policies.<name>.* replaces a default policy of the same name
+    private Map<String, Policy> policies = defaultPolicies();
+
+    public static class Policy {
+        private RateLimitScope scope = RateLimitScope.USER;
+        // Exact paths, or prefixes ending in "/**"
+        private List<String> paths = List.of();
+        // Any method when unset
+        private String method;
+        // Sustained rate: limit requests per period
+        private int limit = 60;
+        private Duration period = Duration.ofMinutes(1);
+        // Requests allowed back to back; defaults to limit
+        private Integer burst;
+
+        public Policy() {}
+
+        Policy(RateLimitScope scope, String path, int limit, Duration period, int burst) {
+            this.scope = scope;
+            this.paths = List.of(path);
+            this.limit = limit;
+            this.period = period;
+            this.burst = burst;
+        }
+
+        // ---- Getters / Setters ----
+        public RateLimitScope getScope() { return scope; }
+        public void setScope(RateLimitScope scope) { this.scope = scope; }
+
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public int getLimit() { return limit; }
+        public void setLimit(int limit) { this.limit = limit; }
+
+        public Duration getPeriod() { return period; }
+        public void setPeriod(Duration period) { this.period = period; }
+
+        public int getBurst() { return burst != null ? burst : limit; }
+        public void setBurst(Integer burst) { this.burst = burst; }
+    }
+
+    private static Map<String, Policy> defaultPolicies() {
+        Map<String, Policy> defaults = new LinkedHashMap<>();
+        Duration minute = Duration.ofMinutes(1);
+        // Generous: clients behind one NAT share an address
+        defaults.put("ip-api", new Policy(RateLimitScope.IP, "/api/**", 600, minute, 100));
+        // Key guessing spread over many accounts from one address
+        defaults.put("ip-join-room", new Policy(RateLimitScope.IP, "/api/room/join-room", 60, minute, 20));
+        defaults.put("user-join-room", new Policy(RateLimitScope.USER, "/api/room/join-room", 10, minute, 5));
+        defaults.put("user-create-room", new Policy(RateLimitScope.USER, "/api/room/create-room", 10, minute, 5));
+        // Up to BulkRoomDTO.MAX_ROOMS rooms per call
+        defaults.put("user-create-rooms", new Policy(RateLimitScope.USER, "/api/room/create-rooms", 30, minute, 10));
+        defaults.put("user-enter", new Policy(RateLimitScope.USER, "/api/user/enter", 20, minute, 10));
+        // Chat sends only; history reads fall under ip-api
+        Policy chatSend = new Policy(RateLimitScope.USER, "/api/chat/**", 120, minute, 30);
+        chatSend.setMethod("POST");
+        defaults.put("user-chat-send", chatSend);
+        return defaults;
+    }
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxKeysPerPolicy() { return maxKeysPerPolicy; }
+    public void setMaxKeysPerPolicy(int maxKeysPerPolicy) { this.maxKeysPerPolicy = maxKeysPerPolicy; }
+
+    public Map<String, Policy> getPolicies() { return policies; }
+    public void setPolicies(Map<String, Policy> policies) { this.policies = policies; }
+}
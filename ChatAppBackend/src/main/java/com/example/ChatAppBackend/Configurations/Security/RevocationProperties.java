@@ -0,0 +1,36 @@
+package com.example.ChatAppBackend.Configurations.Security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "auth.revocation")
+public class RevocationProperties {
+
+    public enum Mode {
+        // Check revocation against the in-memory watermark table (one map read per request)
+        LOCAL,
+        // Ask the identity provider on every request (verifyIdToken(token, checkRevoked=true))
+        REMOTE
+    }
+
+    private Mode mode = Mode.LOCAL;
+    // How often users active on this node are re-checked against the identity provider
+    private Duration reconcileInterval = Duration.ofSeconds(60);
+    // Users not seen within this window are no longer reconciled
+    private Duration activeWindow = Duration.ofMinutes(60);
+    private int maxTrackedUsers = 100_000;
+
+    // ---- Getters / Setters ----
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public Duration getReconcileInterval() { return reconcileInterval; }
+    public void setReconcileInterval(Duration reconcileInterval) { this.reconcileInterval = reconcileInterval; }
+
+    public Duration getActiveWindow() { return activeWindow; }
+    public void setActiveWindow(Duration activeWindow) { this.activeWindow = activeWindow; }
+
+    public int getMaxTrackedUsers() { return maxTrackedUsers; }
+    public void setMaxTrackedUsers(int maxTrackedUsers) { this.maxTrackedUsers = maxTrackedUsers; }
+}
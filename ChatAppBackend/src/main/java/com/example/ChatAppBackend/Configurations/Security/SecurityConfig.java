@@ -1,29 +1,69 @@
 package com.example.ChatAppBackend.Configurations.Security;
 
+import com.example.ChatAppBackend.Exceptions.GlobalException.ProblemType;
+import com.example.ChatAppBackend.Exceptions.GlobalException.ProblemWriter;
+import com.example.ChatAppBackend.RateLimit.RateLimitFilter;
+import com.example.ChatAppBackend.RateLimit.RateLimitScope;
+import com.example.ChatAppBackend.RateLimit.RateLimiter;
 import com.example.ChatAppBackend.TokenAndFilter.FirebaseAuthenticationFilter;
+import com.example.ChatAppBackend.TokenAndFilter.ObservedTokenVerifier;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
 import com.example.ChatAppBackend.TokenAndFilter.TokenVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.SingleResultAuthorizationManager;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     private final TokenVerifier tokenVerifier;
+    private final RevocationRegistry revocationRegistry;
+    private final RevocationProperties revocationProperties;
+    private final RateLimitProperties rateLimitProperties;
+    private final MeterRegistry meterRegistry;
+    private final boolean separateManagementPort;
 
-    public SecurityConfig(TokenVerifier tokenVerifier) {
-        this.tokenVerifier = tokenVerifier;
+    public SecurityConfig(TokenVerifier tokenVerifier,
+                          RevocationRegistry revocationRegistry,
+                          RevocationProperties revocationProperties,
+                          RateLimitProperties rateLimitProperties,
+                          MeterRegistry meterRegistry,
+                          ObservationRegistry observationRegistry,
+                          Environment environment) {
+        // Timed and traced per request, cache hits included
+        this.tokenVerifier = new ObservedTokenVerifier(tokenVerifier, observationRegistry);
+        this.revocationRegistry = revocationRegistry;
+        this.revocationProperties = revocationProperties;
+        this.rateLimitProperties = rateLimitProperties;
+        this.meterRegistry = meterRegistry;
+        this.separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        var firebaseFilter = new FirebaseAuthenticationFilter(tokenVerifier, /*checkRevoked*/ true);
+        // Local mode: no remote revocation lookup per request, the watermark table is checked instead
+        var firebaseFilter = revocationProperties.getMode() == RevocationProperties.Mode.LOCAL
+                ? new FirebaseAuthenticationFilter(tokenVerifier, /*checkRevoked*/ false, revocationRegistry)
+                : new FirebaseAuthenticationFilter(tokenVerifier, /*checkRevoked*/ true);
 
         http
                 // Stateless API
@@ -32,20 +72,61 @@ public class SecurityConfig {
 
                 // Which endpoints are public vs protected
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches resume an already authorized request (SSE streams)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // Only served on the management port (management.server.port), which is not published.
+                        // Should it be set back to the application port, the actuator needs a signed-in caller.
+                        .requestMatchers("/actuator/**").access(separateManagementPort
+                                ? SingleResultAuthorizationManager.<RequestAuthorizationContext>permitAll()
+                                : AuthenticatedAuthorizationManager.<RequestAuthorizationContext>authenticated())
                         .requestMatchers(
-                                "/actuator/health",
-                                "/actuator/info",
-                                "/public/**"
+                                "/livez",
+                                "/readyz",
+                                "/public/**",
+                                // Authenticated by the signaling handshake interceptor (browsers cannot set headers on WebSocket requests)
+                                "/ws/**"
                         ).permitAll()
+                        // Scheduling integrations only: the "authorities" claim of their token must list it
+                        .requestMatchers(HttpMethod.POST, "/api/room/create-rooms").hasAuthority("ROOM_BULK_CREATE")
                         .anyRequest().authenticated()
                 )
 
                 // Register our Firebase filter before Username/Password auth
                 .addFilterBefore(firebaseFilter, UsernamePasswordAuthenticationFilter.class)
 
+                // Authenticated but missing an authority: a problem response right here, since the
+                // default sendError(403) re-enters the chain as an unauthenticated error dispatch (401)
+                .exceptionHandling(eh -> eh.accessDeniedHandler((request, response, denied) ->
+                        ProblemWriter.write(response, ProblemType.FORBIDDEN,
+                                "Not allowed to access this resource.", request.getRequestURI())))
+
                 // Default exception handling is fine; customize if you want JSON for all cases
                 .httpBasic(Customizer.withDefaults());
 
+        // Per-IP limits run before token verification, per-uid limits right after it
+        if (rateLimitProperties.isEnabled()) {
+            List<RateLimiter> limiters = rateLimiters();
+            http
+                    .addFilterBefore(new RateLimitFilter(RateLimitScope.IP, limiters), FirebaseAuthenticationFilter.class)
+                    .addFilterAfter(new RateLimitFilter(RateLimitScope.USER, limiters), FirebaseAuthenticationFilter.class);
+        }
+
         return http.build();
     }
+
+    private List<RateLimiter> rateLimiters() {
+        return rateLimitProperties.getPolicies().entrySet().stream()
+                .map(e -> new RateLimiter(
+                        e.getKey(),
+                        e.getValue().getScope(),
+                        e.getValue().getMethod(),
+                        e.getValue().getPaths(),
+                        e.getValue().getLimit(),
+                        e.getValue().getPeriod(),
+                        e.getValue().getBurst(),
+                        rateLimitProperties.getMaxKeysPerPolicy(),
+                        System::nanoTime,
+                        meterRegistry))
+                .toList();
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.ChatAppBackend.Configurations.Security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "auth.token-cache")
+public class TokenCacheProperties {
+    // When disabled, every request goes straight to the underlying verifier
+    private boolean enabled = true;
+    // Upper bound on cached tokens; oldest/expired entries are dropped first
+    private int maxEntries = 10_000;
+    // Upper bound on how long a verification result is reused (never past the token's exp)
+    private Duration maxTtl = Duration.ofSeconds(60);
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public Duration getMaxTtl() { return maxTtl; }
+    public void setMaxTtl(Duration maxTtl) { this.maxTtl = maxTtl; }
+}
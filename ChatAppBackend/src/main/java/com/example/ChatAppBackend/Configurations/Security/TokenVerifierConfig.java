@@ -0,0 +1,75 @@
+package com.example.ChatAppBackend.Configurations.Security;
+
+import com.example.ChatAppBackend.Configurations.Firebase.FirebaseProperties;
+import com.example.ChatAppBackend.TokenAndFilter.CachingTokenVerifier;
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokenVerifier;
+import com.example.ChatAppBackend.TokenAndFilter.JwksKeyStore;
+import com.example.ChatAppBackend.TokenAndFilter.JwksTokenVerifier;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import com.example.ChatAppBackend.TokenAndFilter.TokenVerifier;
+import com.google.firebase.auth.FirebaseAuth;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.net.URI;
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties({TokenCacheProperties.class, TokenVerifierProperties.class, RevocationProperties.class})
+public class TokenVerifierConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "auth.verifier", name = "mode", havingValue = "local")
+    public JwksKeyStore jwksKeyStore(TokenVerifierProperties props) {
+        JwksKeyStore keyStore = new JwksKeyStore(
+                URI.create(props.getJwksUrl()),
+                props.getMinRefreshInterval(),
+                props.getMaxRefreshInterval(),
+                Clock.systemUTC()
+        );
+        keyStore.start();
+        return keyStore;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "auth.verifier", name = "mode", havingValue = "local")
+    public JwksTokenVerifier jwksTokenVerifier(JwksKeyStore keyStore,
+                                               TokenVerifierProperties props,
+                                               FirebaseProperties firebaseProps,
+                                               FirebaseAuth firebaseAuth) {
+        return new JwksTokenVerifier(keyStore, firebaseProps.getProjectId(), props.getAllowedClockSkew(),
+                Clock.systemUTC(), firebaseAuth);
+    }
+
+    /**
+     * The verifier used by the security filter: the verifier selected by auth.verifier.mode
+     * behind a verified-token cache. With auth.token-cache.enabled=false the cache is a pass-through.
+     */
+    @Bean
+    @Primary
+    public CachingTokenVerifier cachingTokenVerifier(FirebaseTokenVerifier firebaseTokenVerifier,
+                                                     ObjectProvider<JwksTokenVerifier> jwksTokenVerifier,
+                                                     TokenVerifierProperties verifierProps,
+                                                     TokenCacheProperties props,
+                                                     MeterRegistry meterRegistry) {
+        TokenVerifier delegate = verifierProps.getMode() == TokenVerifierProperties.Mode.LOCAL
+                ? jwksTokenVerifier.getObject()
+                : firebaseTokenVerifier;
+        int maxEntries = props.isEnabled() ? props.getMaxEntries() : 0;
+        return new CachingTokenVerifier(delegate, maxEntries, props.getMaxTtl(), Clock.systemUTC(), meterRegistry);
+    }
+
+    /**
+     * Local revocation watermarks. Always present so revocations are recorded even in
+     * remote mode; the filter only consults it when auth.revocation.mode=local.
+     */
+    @Bean
+    public RevocationRegistry revocationRegistry(RevocationProperties props) {
+        return new RevocationRegistry(props.getMaxTrackedUsers(), Clock.systemUTC());
+    }
+}
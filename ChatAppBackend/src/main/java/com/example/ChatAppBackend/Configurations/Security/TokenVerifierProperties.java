@@ -0,0 +1,40 @@
+package com.example.ChatAppBackend.Configurations.Security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "auth.verifier")
+public class TokenVerifierProperties {
+
+    public enum Mode {
+        // FirebaseAuth.verifyIdToken (Google SDK)
+        FIREBASE,
+        // JwksTokenVerifier: RS256 + claims checked in-process against cached keys
+        LOCAL
+    }
+
+    private Mode mode = Mode.FIREBASE;
+    // Firebase publishes its ID token signing keys here; file: URLs work for local/offline setups
+    private String jwksUrl = "https://www.googleapis.com/service_accounts/v1/jwk/securetoken@system.gserviceaccount.com";
+    private Duration allowedClockSkew = Duration.ofSeconds(30);
+    // Bounds applied to the Cache-Control max-age of the JWKS response
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+    private Duration maxRefreshInterval = Duration.ofHours(6);
+
+    // ---- Getters / Setters ----
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public String getJwksUrl() { return jwksUrl; }
+    public void setJwksUrl(String jwksUrl) { this.jwksUrl = jwksUrl; }
+
+    public Duration getAllowedClockSkew() { return allowedClockSkew; }
+    public void setAllowedClockSkew(Duration allowedClockSkew) { this.allowedClockSkew = allowedClockSkew; }
+
+    public Duration getMinRefreshInterval() { return minRefreshInterval; }
+    public void setMinRefreshInterval(Duration minRefreshInterval) { this.minRefreshInterval = minRefreshInterval; }
+
+    public Duration getMaxRefreshInterval() { return maxRefreshInterval; }
+    public void setMaxRefreshInterval(Duration maxRefreshInterval) { this.maxRefreshInterval = maxRefreshInterval; }
+}
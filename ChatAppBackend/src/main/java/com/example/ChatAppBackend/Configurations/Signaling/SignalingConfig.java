@@ -0,0 +1,73 @@
+package com.example.ChatAppBackend.Configurations.Signaling;
+
+import com.example.ChatAppBackend.Configurations.Security.RevocationProperties;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.Signaling.SignalingHandshakeInterceptor;
+import com.example.ChatAppBackend.Signaling.SignalingSessions;
+import com.example.ChatAppBackend.Signaling.SignalingWebSocketHandler;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import com.example.ChatAppBackend.TokenAndFilter.TokenVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@EnableConfigurationProperties(SignalingProperties.class)
+public class SignalingConfig implements WebSocketConfigurer {
+
+    private final SignalingProperties props;
+    private final SignalingWebSocketHandler handler;
+    private final SignalingHandshakeInterceptor handshakeInterceptor;
+
+    public SignalingConfig(SignalingProperties props,
+                           SignalingWebSocketHandler handler,
+                           TokenVerifier tokenVerifier,
+                           RevocationRegistry revocationRegistry,
+                           RevocationProperties revocationProperties,
+                           RoomRepository roomRepository) {
+        this.props = props;
+        this.handler = handler;
+        // Same revocation policy as the HTTP filter (see SecurityConfig)
+        this.handshakeInterceptor = revocationProperties.getMode() == RevocationProperties.Mode.LOCAL
+                ? new SignalingHandshakeInterceptor(tokenVerifier, /*checkRevoked*/ false, revocationRegistry, roomRepository)
+                : new SignalingHandshakeInterceptor(tokenVerifier, /*checkRevoked*/ true, null, roomRepository);
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(handler, SignalingHandshakeInterceptor.PATH)
+                .addInterceptors(handshakeInterceptor)
+                .setAllowedOriginPatterns(props.getAllowedOrigins().toArray(String[]::new));
+    }
+
+    @Scheduled(initialDelayString = "${signaling.revocation-sweep-interval:15s}",
+            fixedDelayString = "${signaling.revocation-sweep-interval:15s}")
+    public void sweepRevoked() {
+        handler.sweepRevoked();
+    }
+
+    @Bean
+    public static SignalingSessions signalingSessions() {
+        return new SignalingSessions();
+    }
+
+    @Bean
+    public static SignalingWebSocketHandler signalingWebSocketHandler(SignalingSessions sessions,
+                                                                      RoomRepository roomRepository,
+                                                                      RevocationRegistry revocationRegistry,
+                                                                      SignalingProperties props,
+                                                                      MeterRegistry meterRegistry) {
+        return new SignalingWebSocketHandler(sessions, roomRepository, revocationRegistry,
+                (int) props.getMaxMessageSize().toBytes(),
+                props.getIdleTimeout().toMillis(),
+                (int) props.getSendTimeLimit().toMillis(),
+                (int) props.getOutboundBufferLimit().toBytes(),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ChatAppBackend.Configurations.Signaling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "signaling")
+public class SignalingProperties {
+    // Origins allowed to open signaling WebSockets
+    private List<String> allowedOrigins = List.of("*");
+    // Largest inbound message (an SDP offer with many candidates is a few KB)
+    private DataSize maxMessageSize = DataSize.ofKilobytes(64);
+    // Outbound backpressure per connection: buffered bytes / time stuck in one send before the peer is dropped
+    private DataSize outboundBufferLimit = DataSize.ofKilobytes(256);
+    private Duration sendTimeLimit = Duration.ofSeconds(5);
+    // Connections idle longer than this are closed by the container
+    private Duration idleTimeout = Duration.ofMinutes(5);
+    // How often open connections are checked against the revocation registry
+    private Duration revocationSweepInterval = Duration.ofSeconds(15);
+
+    // ---- Getters / Setters ----
+    public List<String> getAllowedOrigins() { return allowedOrigins; }
+    public void setAllowedOrigins(List<String> allowedOrigins) { this.allowedOrigins = allowedOrigins; }
+
+    public DataSize getMaxMessageSize() { return maxMessageSize; }
+    public void setMaxMessageSize(DataSize maxMessageSize) { this.maxMessageSize = maxMessageSize; }
+
+    public DataSize getOutboundBufferLimit() { return outboundBufferLimit; }
+    public void setOutboundBufferLimit(DataSize outboundBufferLimit) { this.outboundBufferLimit = outboundBufferLimit; }
+
+    public Duration getSendTimeLimit() { return sendTimeLimit; }
+    public void setSendTimeLimit(Duration sendTimeLimit) { this.sendTimeLimit = sendTimeLimit; }
+
+    public Duration getIdleTimeout() { return idleTimeout; }
+    public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+
+    public Duration getRevocationSweepInterval() { return revocationSweepInterval; }
+    public void setRevocationSweepInterval(Duration revocationSweepInterval) { this.revocationSweepInterval = revocationSweepInterval; }
+}
@@ -0,0 +1,25 @@
+package com.example.ChatAppBackend.Configurations.Threading;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "diagnostics.pinning")
+public class PinningDiagnosticsProperties {
+    // Only active together with spring.threads.virtual.enabled=true
+    private boolean enabled = true;
+    // Pinned sections shorter than this are not recorded (JFR's own default is 20ms)
+    private Duration threshold = Duration.ofMillis(20);
+    // Distinct pinning sites tracked/tagged individually; the rest are grouped as "other"
+    private int maxSites = 50;
+
+    // ---- Getters / Setters ----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getThreshold() { return threshold; }
+    public void setThreshold(Duration threshold) { this.threshold = threshold; }
+
+    public int getMaxSites() { return maxSites; }
+    public void setMaxSites(int maxSites) { this.maxSites = maxSites; }
+}
@@ -0,0 +1,28 @@
+package com.example.ChatAppBackend.Configurations.Threading;
+
+import com.example.ChatAppBackend.Diagnostics.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Virtual-thread mode is Spring Boot's own switch (spring.threads.virtual.enabled): Tomcat
+ * then runs every request, and with it every @Transactional service call, on a virtual thread.
+ * This config only adds the pinning diagnostics that go with it.
+ */
+@Configuration
+@EnableConfigurationProperties(PinningDiagnosticsProperties.class)
+public class ThreadingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnProperty(prefix = "diagnostics.pinning", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(PinningDiagnosticsProperties props,
+                                                                   MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(props.getThreshold(), props.getMaxSites(), meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ChatAppBackend.Diagnostics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.function.Supplier;
+
+/**
+ * Added to every Spring Data repository proxy: records each repository method call as a
+ * "repository.query" observation, i.e. a timer tagged with repository and method and a span
+ * under the calling service's span. Replaces Spring Boot's spring.data.repository.invocations
+ * timer, which has no span.
+ */
+public class RepositoryObservationInterceptor implements MethodInterceptor {
+
+    private final Supplier<ObservationRegistry> observationRegistry;
+    private final String repository;
+    private volatile ObservationRegistry resolved;
+
+    /**
+     * @param observationRegistry looked up on first use: repositories are created before the
+     *                            registry is fully configured
+     */
+    public RepositoryObservationInterceptor(Supplier<ObservationRegistry> observationRegistry, Class<?> repositoryInterface) {
+        this.observationRegistry = observationRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        String method = invocation.getMethod().getName();
+        return Observation.createNotStarted("repository.query", registry())
+                .contextualName(repository + "." + method)
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked(invocation::proceed);
+    }
+
+    private ObservationRegistry registry() {
+        ObservationRegistry registry = resolved;
+        if (registry == null) {
+            registry = observationRegistry.get();
+            resolved = registry;
+        }
+        return registry;
+    }
+}
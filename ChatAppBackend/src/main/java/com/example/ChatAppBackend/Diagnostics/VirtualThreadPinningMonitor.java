@@ -0,0 +1,141 @@
+package com.example.ChatAppBackend.Diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects virtual threads pinned to their carrier (blocking inside synchronized or a native
+ * frame) by streaming JFR's jdk.VirtualThreadPinned events in-process.
+ * - Each event is attributed to a site: the first frame in our code, else the first frame
+ *   outside the JDK (e.g. a synchronized block in the Firebase SDK)
+ * - Per site: counter jvm.threads.virtual.pinned and timer jvm.threads.virtual.pinned.duration
+ * - The first event of each site is logged with its stack; repeats only bump the metrics
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.example.ChatAppBackend.";
+    private static final String OTHER_SITE = "other";
+    private static final int LOGGED_FRAMES = 25;
+
+    private final Duration threshold;
+    private final int maxSites;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, AtomicLong> countsBySite = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, int maxSites, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.maxSites = maxSites;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream rs = new RecordingStream();
+        rs.enable(EVENT).withThreshold(threshold).withStackTrace();
+        rs.onEvent(EVENT, this::onPinned);
+        rs.startAsync();
+        stream = rs;
+        logger.info("Virtual-thread pinning monitor started (threshold {})", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream rs = stream;
+        stream = null;
+        if (rs != null) {
+            rs.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * Pinned-event counts per site since startup, for reports and tests.
+     */
+    public Map<String, Long> pinnedCountsBySite() {
+        Map<String, Long> copy = new TreeMap<>();
+        countsBySite.forEach((site, count) -> copy.put(site, count.get()));
+        return copy;
+    }
+
+    void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String site = site(frames);
+        if (!countsBySite.containsKey(site) && countsBySite.size() >= maxSites) {
+            site = OTHER_SITE;
+        }
+
+        AtomicLong count = countsBySite.computeIfAbsent(site, s -> new AtomicLong());
+        if (count.getAndIncrement() == 0) {
+            logger.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), site, describe(frames));
+        }
+
+        Counter.builder("jvm.threads.virtual.pinned")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+        Timer.builder("jvm.threads.virtual.pinned.duration")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+    }
+
+    static String site(List<RecordedFrame> frames) {
+        RecordedFrame outsideJdk = null;
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return format(frame);
+            }
+            if (outsideJdk == null && !isJdk(type)) {
+                outsideJdk = frame;
+            }
+        }
+        if (outsideJdk != null) {
+            return format(outsideJdk);
+        }
+        return frames.isEmpty() ? "unknown" : format(frames.get(0));
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace == null ? List.of() : stackTrace.getFrames();
+    }
+
+    private static boolean isJdk(String type) {
+        return type.startsWith("java.") || type.startsWith("javax.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static String describe(List<RecordedFrame> frames) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            sb.append("\n\tat ").append(format(frames.get(i)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ChatAppBackend.Exceptions.CustomExceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a request lost to concurrent changes of the same resource and could not
+ * be applied; the client may retry.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
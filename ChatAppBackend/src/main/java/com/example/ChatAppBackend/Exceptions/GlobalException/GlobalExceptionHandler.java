@@ -1,84 +1,80 @@
 package com.example.ChatAppBackend.Exceptions.GlobalException;
 
 import com.example.ChatAppBackend.Exceptions.CustomExceptions.BadRequestException;
+import com.example.ChatAppBackend.Exceptions.CustomExceptions.ConflictException;
 import com.example.ChatAppBackend.Exceptions.CustomExceptions.ResourceNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
-import java.time.Instant;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Handles exceptions thrown by controllers/services globally and returns structured JSON responses.
+ * Handles exceptions thrown by controllers/services globally and writes RFC 7807
+ * application/problem+json responses through ProblemWriter.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     /**
-     * Handle cases where a resource is not found. Returns HTTP 404 with JSON body.
+     * Handle cases where a resource is not found. Returns HTTP 404.
      */
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleNotFound(ResourceNotFoundException ex, HttpServletRequest request) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", Instant.now().toString());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", "Not Found");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getRequestURI());
-
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    public void handleNotFound(ResourceNotFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemWriter.write(response, ProblemType.NOT_FOUND, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationErrors(MethodArgumentNotValidException ex, HttpServletRequest request) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", Instant.now().toString());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Validation Failed");
-        body.put("path", request.getRequestURI());
-
+    public void handleValidationErrors(MethodArgumentNotValidException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
         Map<String, String> fieldErrors = new LinkedHashMap<>();
         for (FieldError fieldError : ex.getBindingResult().getFieldErrors()) {
             fieldErrors.put(fieldError.getField(), fieldError.getDefaultMessage());
         }
 
-        body.put("message", "Request validation failed");
-        body.put("errors", fieldErrors);
-
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+        ProblemWriter.write(response, ProblemType.VALIDATION_FAILED, "Request validation failed", request.getRequestURI(), fieldErrors);
     }
 
     @ExceptionHandler(BadRequestException.class)
-    public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException ex, HttpServletRequest request) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", Instant.now().toString());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Bad Request");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getRequestURI());
+    public void handleBadRequest(BadRequestException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemWriter.write(response, ProblemType.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+    }
+
+    /**
+     * Handle requests that lost to concurrent changes of the same resource. Returns HTTP 409.
+     */
+    @ExceptionHandler(ConflictException.class)
+    public void handleConflict(ConflictException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemWriter.write(response, ProblemType.CONFLICT, ex.getMessage(), request.getRequestURI());
+    }
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    /**
+     * A path variable or request parameter that does not convert, e.g. a malformed room id. Returns HTTP 400.
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public void handleTypeMismatch(MethodArgumentTypeMismatchException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemWriter.write(response, ProblemType.BAD_REQUEST, "Invalid value for '" + ex.getName() + "'.", request.getRequestURI());
     }
 
+    /**
+     * No handler or resource for the path, e.g. /actuator/** on the application port. Returns HTTP 404.
+     */
+    @ExceptionHandler(NoResourceFoundException.class)
+    public void handleNoResource(NoResourceFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemWriter.write(response, ProblemType.NOT_FOUND, "No such resource.", request.getRequestURI());
+    }
 
     /**
-     * Handle all other exceptions. Returns HTTP 500 with JSON body.
+     * Handle all other exceptions. Returns HTTP 500.
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGeneralError(Exception ex, HttpServletRequest request) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", Instant.now().toString());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", "Internal Server Error");
-        body.put("message", "An unexpected error occurred");
-        body.put("path", request.getRequestURI());
-
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+    public void handleGeneralError(Exception ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemWriter.write(response, ProblemType.INTERNAL_ERROR, "An unexpected error occurred", request.getRequestURI());
     }
 }
@@ -0,0 +1,39 @@
+package com.example.ChatAppBackend.Exceptions.GlobalException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The error responses the API sends, as RFC 7807 problem types. The members that never change
+ * (type, title, status) are serialized once, up to the opening quote of "detail".
+ */
+public enum ProblemType {
+    BAD_REQUEST("about:blank", "Bad Request", 400),
+    VALIDATION_FAILED("urn:chatapp:problem:validation-failed", "Validation Failed", 400),
+    UNAUTHORIZED("urn:chatapp:problem:invalid-token", "Unauthorized", 401),
+    FORBIDDEN("about:blank", "Forbidden", 403),
+    NOT_FOUND("about:blank", "Not Found", 404),
+    CONFLICT("about:blank", "Conflict", 409),
+    TOO_MANY_REQUESTS("urn:chatapp:problem:rate-limited", "Too Many Requests", 429),
+    INTERNAL_ERROR("about:blank", "Internal Server Error", 500);
+
+    private final String type;
+    private final String title;
+    private final int status;
+    private final byte[] head;
+
+    ProblemType(String type, String title, int status) {
+        this.type = type;
+        this.title = title;
+        this.status = status;
+        this.head = ("{\"type\":\"" + type + "\",\"title\":\"" + title + "\",\"status\":" + status + ",\"detail\":\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getType() { return type; }
+
+    public String getTitle() { return title; }
+
+    public int getStatus() { return status; }
+
+    byte[] head() { return head; }
+}
@@ -0,0 +1,185 @@
+package com.example.ChatAppBackend.Exceptions.GlobalException;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Writes application/problem+json error bodies straight to the response. Shared by
+ * GlobalExceptionHandler and the security filters, whose errors used to be built as maps
+ * (or concatenated strings) and serialized per response.
+ * - The static members come pre-serialized from ProblemType; the timestamp is second precision
+ *   and re-rendered once per second
+ * - Each body is measured first and then encoded into a single exactly sized byte array, sent
+ *   with a Content-Length
+ */
+public final class ProblemWriter {
+
+    public static final String CONTENT_TYPE = "application/problem+json";
+
+    private static final byte[] INSTANCE = bytes("\",\"instance\":\"");
+    private static final byte[] ERRORS = bytes(",\"errors\":{");
+    private static final byte[] HEX = bytes("0123456789abcdef");
+
+    private static volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, new byte[0]);
+
+    private ProblemWriter() {}
+
+    public static void write(HttpServletResponse response, ProblemType type, String detail, String instance) throws IOException {
+        write(response, type, detail, instance, null);
+    }
+
+    /**
+     * @param errors optional field -> message map, written as the "errors" extension member
+     */
+    public static void write(HttpServletResponse response,
+                             ProblemType type,
+                             String detail,
+                             String instance,
+                             Map<String, String> errors) throws IOException {
+        byte[] body = serialize(type, detail, instance, errors, System.currentTimeMillis());
+        response.setStatus(type.getStatus());
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Package-private for the JMH benchmarks in src/jmh/java
+    static byte[] serialize(ProblemType type, String detail, String instance, Map<String, String> errors, long epochMillis) {
+        byte[] stamp = timestamp(epochMillis / 1000);
+        int length = type.head().length + INSTANCE.length + stamp.length + 2
+                + escapedLength(detail) + escapedLength(instance);
+        if (errors != null) {
+            length += ERRORS.length + 1 + Math.max(0, errors.size() - 1);
+            for (Map.Entry<String, String> e : errors.entrySet()) {
+                length += escapedLength(e.getKey()) + escapedLength(e.getValue()) + 5;
+            }
+        }
+
+        byte[] out = new byte[length];
+        int pos = put(out, 0, type.head());
+        pos = putEscaped(out, pos, detail);
+        pos = put(out, pos, INSTANCE);
+        pos = putEscaped(out, pos, instance);
+        out[pos++] = '"';
+        pos = put(out, pos, stamp);
+        if (errors != null) {
+            pos = put(out, pos, ERRORS);
+            boolean first = true;
+            for (Map.Entry<String, String> e : errors.entrySet()) {
+                if (!first) {
+                    out[pos++] = ',';
+                }
+                first = false;
+                out[pos++] = '"';
+                pos = putEscaped(out, pos, e.getKey());
+                out[pos++] = '"';
+                out[pos++] = ':';
+                out[pos++] = '"';
+                pos = putEscaped(out, pos, e.getValue());
+                out[pos++] = '"';
+            }
+            out[pos++] = '}';
+        }
+        out[pos] = '}';
+        return out;
+    }
+
+    /**
+     * ,"timestamp":"2025-01-01T12:00:00Z" for the given second; the last one is cached.
+     */
+    private static byte[] timestamp(long epochSecond) {
+        Timestamp cached = timestamp;
+        if (cached.epochSecond != epochSecond) {
+            cached = new Timestamp(epochSecond, bytes(",\"timestamp\":\"" + Instant.ofEpochSecond(epochSecond) + "\""));
+            timestamp = cached;
+        }
+        return cached.json;
+    }
+
+    /**
+     * Bytes putEscaped writes for s.
+     */
+    private static int escapedLength(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                length += 2;
+            } else if (c < 0x20) {
+                length += 6;
+            } else if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int put(byte[] out, int pos, byte[] bytes) {
+        System.arraycopy(bytes, 0, out, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    /**
+     * JSON string escaping and UTF-8 encoding in one pass. Null is written as an empty string.
+     */
+    private static int putEscaped(byte[] out, int pos, String s) {
+        if (s == null) {
+            return pos;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out[pos++] = '\\';
+                out[pos++] = (byte) c;
+            } else if (c < 0x20) {
+                out[pos++] = '\\';
+                out[pos++] = 'u';
+                out[pos++] = '0';
+                out[pos++] = '0';
+                out[pos++] = HEX[c >> 4];
+                out[pos++] = HEX[c & 0xF];
+            } else if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out[pos++] = (byte) (0xF0 | (cp >> 18));
+                out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: not encodable, written as '?' like String.getBytes does
+                out[pos++] = '?';
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Timestamp(long epochSecond, byte[] json) {}
+}
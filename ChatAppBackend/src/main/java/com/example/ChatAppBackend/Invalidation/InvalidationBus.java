@@ -0,0 +1,464 @@
+package com.example.ChatAppBackend.Invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cross-node invalidation bus on top of PostgreSQL LISTEN/NOTIFY.
+ * - Publishing: events are queued in memory and flushed in batches (one JDBC batch insert
+ *   into invalidation_events + one NOTIFY per batch)
+ * - Listening: a dedicated, non-pooled connection LISTENs on the channel; every notification
+ *   (and every poll timeout, as a safety net) reads the log past the last id it has seen
+ * - Reconnect: the same read replays whatever was missed; if the gap has already been pruned,
+ *   handlers are told to reset
+ * - Startup and reset: handlers that hold state which cannot simply be dropped (revocations) get
+ *   the retained events of the types they ask for replayed, so a new node starts with them too
+ * - Overflow: past maxPending, events are written to the log on the publishing thread instead of
+ *   being queued; nothing is ever dropped
+ * - Ids are allocated before commit, so a lower id can become visible after a higher one;
+ *   skipped ids are re-checked for a short grace period instead of being lost
+ */
+public class InvalidationBus implements InvalidationPublisher, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    static final String CHANNEL = "chatapp_invalidation";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO invalidation_events (type, event_key, payload, origin, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String CATCH_UP_SQL =
+            "SELECT id, type, event_key, payload, origin FROM invalidation_events WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String HOLES_SQL =
+            "SELECT id, type, event_key, payload, origin FROM invalidation_events WHERE id = ANY(?)";
+    private static final String REPLAY_SQL =
+            "SELECT id, type, event_key, payload, origin FROM invalidation_events WHERE type = ANY(?) AND id <= ? ORDER BY id";
+
+    // How long a skipped id is waited for before it is treated as a rolled-back insert
+    private static final long HOLE_GRACE_MILLIS = 10_000;
+    private static final int MAX_HOLES = 10_000;
+
+    /** Opens the dedicated LISTEN connection (never a pooled one: it is held for the lifetime of the node). */
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConnectionSource listenConnections;
+    private final List<InvalidationHandler> handlers;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final Duration flushInterval;
+    private final Duration pollInterval;
+    private final Duration retention;
+
+    private final ConcurrentLinkedDeque<Pending> pending = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong lastSeenId = new AtomicLong(-1);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    // Listener thread only: skipped id -> when it was first noticed
+    private final Map<Long, Long> holes = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private Thread listenerThread;
+    private volatile boolean running;
+    private volatile boolean connected;
+
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           ConnectionSource listenConnections,
+                           List<InvalidationHandler> handlers,
+                           int maxBatchSize,
+                           int maxPending,
+                           Duration flushInterval,
+                           Duration pollInterval,
+                           Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listenConnections = listenConnections;
+        this.handlers = List.copyOf(handlers);
+        this.maxBatchSize = maxBatchSize;
+        this.maxPending = maxPending;
+        this.flushInterval = flushInterval;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    // ---- Publishing ----
+
+    @Override
+    public void publish(InvalidationEventType type, String key, String payload) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(type, key, payload);
+                }
+            });
+        } else {
+            enqueue(type, key, payload);
+        }
+    }
+
+    @Override
+    public void publishImmediately(InvalidationEventType type, String key, String payload) {
+        enqueue(type, key, payload);
+    }
+
+    private void enqueue(InvalidationEventType type, String key, String payload) {
+        Pending event = new Pending(type, key, payload, Instant.now());
+        if (pendingCount.incrementAndGet() > maxPending) {
+            // Backpressure: the publisher pays for its own write instead of the event being lost
+            pendingCount.decrementAndGet();
+            overflowed.incrementAndGet();
+            if (writeDirectly(event)) {
+                return;
+            }
+            // The database is unreachable as well; keep it queued past the limit rather than drop it
+            logger.warn("Invalidation queue full and direct write failed; keeping {} {} queued", type, key);
+            pendingCount.incrementAndGet();
+        }
+        pending.addLast(event);
+    }
+
+    /**
+     * Writes one event on its own auto-commit connection: the publisher may be inside a
+     * transaction (or its afterCommit), whose bound connection would never commit this insert.
+     */
+    private boolean writeDirectly(Pending event) {
+        try (Connection conn = jdbcTemplate.getDataSource().getConnection()) {
+            conn.setAutoCommit(true);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL);
+                 Statement notify = conn.createStatement()) {
+                ps.setString(1, event.type().name());
+                ps.setString(2, event.key());
+                ps.setString(3, event.payload());
+                ps.setString(4, nodeId);
+                ps.setTimestamp(5, Timestamp.from(event.createdAt()));
+                ps.executeUpdate();
+                notify.execute("NOTIFY " + CHANNEL);
+            }
+            published.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            logger.debug("Direct invalidation write failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes queued events in batches of maxBatchSize and sends one NOTIFY per batch.
+     * A failed batch is put back at the head of the queue and retried on the next flush.
+     */
+    void flush() {
+        while (!pending.isEmpty()) {
+            List<Pending> batch = new ArrayList<>(Math.min(maxBatchSize, pendingCount.get()));
+            Pending next;
+            while (batch.size() < maxBatchSize && (next = pending.pollFirst()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                    ps.setString(1, event.type().name());
+                    ps.setString(2, event.key());
+                    ps.setString(3, event.payload());
+                    ps.setString(4, nodeId);
+                    ps.setTimestamp(5, Timestamp.from(event.createdAt()));
+                });
+                jdbcTemplate.execute("NOTIFY " + CHANNEL);
+                pendingCount.addAndGet(-batch.size());
+                published.addAndGet(batch.size());
+            } catch (Exception e) {
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    pending.addFirst(batch.get(i));
+                }
+                logger.warn("Failed to publish {} invalidation events, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes events older than the retention; listeners further behind than that get a reset.
+     */
+    void prune() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM invalidation_events WHERE created_at < ?",
+                    Timestamp.from(Instant.now().minus(retention)));
+            if (deleted > 0) {
+                logger.debug("Pruned {} invalidation events", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to prune invalidation events: {}", e.getMessage());
+        }
+    }
+
+    // ---- Listening ----
+
+    private void listenLoop() {
+        long backoffMillis = 500;
+        while (running) {
+            try (Connection conn = listenConnections.open()) {
+                conn.setAutoCommit(true);
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+
+                if (lastSeenId.get() < 0) {
+                    lastSeenId.set(currentMaxId(conn));
+                    replayRetained(conn);
+                } else if (eventsWerePruned(conn)) {
+                    logger.warn("Invalidation events since id {} were pruned while disconnected; resetting caches", lastSeenId.get());
+                    resetHandlers();
+                    replayRetained(conn);
+                }
+                connected = true;
+                backoffMillis = 500;
+                logger.info("Invalidation listener connected (node {}, last seen id {})", nodeId, lastSeenId.get());
+
+                // Replays anything published while we were (re)connecting
+                catchUp(conn);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) pollInterval.toMillis());
+                    if (!running) {
+                        break;
+                    }
+                    // Notifications only say "something new"; the log is the source of truth.
+                    // A timeout also reads the log, which covers a notification lost in transit.
+                    catchUp(conn);
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Invalidation listener disconnected: {}; reconnecting in {} ms", e.getMessage(), backoffMillis);
+            } finally {
+                connected = false;
+            }
+
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, 30_000);
+        }
+    }
+
+    private void catchUp(Connection conn) throws SQLException {
+        int batch = 1000;
+        int read;
+        do {
+            read = 0;
+            try (PreparedStatement ps = conn.prepareStatement(CATCH_UP_SQL)) {
+                ps.setLong(1, lastSeenId.get());
+                ps.setInt(2, batch);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        long id = rs.getLong(1);
+                        long now = System.currentTimeMillis();
+                        for (long skipped = lastSeenId.get() + 1; skipped < id && holes.size() < MAX_HOLES; skipped++) {
+                            holes.put(skipped, now);
+                        }
+                        dispatchRow(rs);
+                        lastSeenId.set(id);
+                    }
+                }
+            }
+        } while (read == batch);
+
+        if (!holes.isEmpty()) {
+            recheckHoles(conn);
+        }
+    }
+
+    private void recheckHoles(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(HOLES_SQL)) {
+            ps.setArray(1, conn.createArrayOf("bigint", holes.keySet().toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    holes.remove(rs.getLong(1));
+                    dispatchRow(rs);
+                }
+            }
+        }
+        long expired = System.currentTimeMillis() - HOLE_GRACE_MILLIS;
+        holes.values().removeIf(noticedAt -> noticedAt < expired);
+    }
+
+    private void dispatchRow(ResultSet rs) throws SQLException {
+        if (!nodeId.equals(rs.getString(5))) {
+            dispatch(InvalidationEventType.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4));
+        }
+    }
+
+    private void dispatch(InvalidationEventType type, String key, String payload) {
+        received.incrementAndGet();
+        for (InvalidationHandler handler : handlers) {
+            try {
+                handler.onInvalidation(type, key, payload);
+            } catch (Exception e) {
+                logger.error("Invalidation handler {} failed for {} {}: {}",
+                        handler.getClass().getSimpleName(), type, key, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Hands every handler the retained events (up to the last seen id; later ones arrive through
+     * catch-up) of the types it asked to have replayed, whatever node published them.
+     */
+    private void replayRetained(Connection conn) throws SQLException {
+        for (InvalidationHandler handler : handlers) {
+            Set<InvalidationEventType> types = handler.replayedOnStartAndReset();
+            if (types.isEmpty()) {
+                continue;
+            }
+            int replayed = 0;
+            try (PreparedStatement ps = conn.prepareStatement(REPLAY_SQL)) {
+                ps.setArray(1, conn.createArrayOf("varchar", types.stream().map(Enum::name).toArray()));
+                ps.setLong(2, lastSeenId.get());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        replayed++;
+                        try {
+                            handler.onInvalidation(InvalidationEventType.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4));
+                        } catch (Exception e) {
+                            logger.error("Invalidation handler {} failed to replay {} {}: {}",
+                                    handler.getClass().getSimpleName(), rs.getString(2), rs.getString(3), e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+            logger.info("Replayed {} retained {} events to {}", replayed, types, handler.getClass().getSimpleName());
+        }
+    }
+
+    private void resetHandlers() {
+        for (InvalidationHandler handler : handlers) {
+            try {
+                handler.onReset();
+            } catch (Exception e) {
+                logger.error("Invalidation handler {} failed to reset: {}", handler.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private long currentMaxId(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM invalidation_events")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private boolean eventsWerePruned(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MIN(id) FROM invalidation_events")) {
+            rs.next();
+            long minId = rs.getLong(1);
+            return !rs.wasNull() && minId > lastSeenId.get() + 1;
+        }
+    }
+
+    // ---- Lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "invalidation-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::prune, 1, Math.max(1, retention.toMinutes() / 4), TimeUnit.MINUTES);
+
+        listenerThread = new Thread(this::listenLoop, "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Anything still queued is published before the node goes away
+        flush();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /** Events that found the queue full and were written on the publishing thread instead. */
+    public long getOverflowCount() {
+        return overflowed.get();
+    }
+
+    private record Pending(InvalidationEventType type, String key, String payload, Instant createdAt) {}
+}
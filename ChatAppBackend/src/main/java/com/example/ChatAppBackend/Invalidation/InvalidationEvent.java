@@ -0,0 +1,87 @@
+package com.example.ChatAppBackend.Invalidation;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Append-only log behind the invalidation bus. Rows are written in batches by
+ * InvalidationBus (plain JDBC) and read back by every node's listener; the entity
+ * exists so the table is managed with the rest of the schema.
+ */
+@Entity
+@Table(name = "invalidation_events", indexes = {
+        @Index(name = "idx_invalidation_events_created_at", columnList = "created_at")
+})
+public class InvalidationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private InvalidationEventType type;
+
+    @Column(name = "event_key", nullable = false)
+    private String eventKey;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    // Node that published the event; its own listener skips it
+    @Column(nullable = false, length = 64)
+    private String origin;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // ---- Getters / Setters ----
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public InvalidationEventType getType() {
+        return type;
+    }
+
+    public void setType(InvalidationEventType type) {
+        this.type = type;
+    }
+
+    public String getEventKey() {
+        return eventKey;
+    }
+
+    public void setEventKey(String eventKey) {
+        this.eventKey = eventKey;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.ChatAppBackend.Invalidation;
+
+public enum InvalidationEventType {
+    // key = Firebase uid, payload = revocation watermark (epoch seconds)
+    USER_REVOKED,
+    // key = room id
+    ROOM_CHANGED,
+    // key = hashed room key code
+    ROOM_KEY_CONSUMED,
+    // key = hashed room key code, payload = key expiry (epoch millis)
+    ROOM_KEY_ISSUED,
+    // key = room id, payload = RoomEvent as JSON
+    ROOM_EVENT,
+    // key = room id, payload = ChatMessageResponse as JSON
+    CHAT_MESSAGE
+}
@@ -0,0 +1,27 @@
+package com.example.ChatAppBackend.Invalidation;
+
+import java.util.Set;
+
+/**
+ * Receives invalidation events published by other nodes.
+ * Implementations must be idempotent: an event can be delivered more than once after a reconnect.
+ */
+public interface InvalidationHandler {
+
+    void onInvalidation(InvalidationEventType type, String key, String payload);
+
+    /**
+     * Called when events may have been lost (e.g. the listener was disconnected for longer
+     * than the event retention). Implementations should drop everything they cache.
+     */
+    default void onReset() {
+    }
+
+    /**
+     * Event types to replay from the retained log when the listener first connects and after a
+     * reset, for state that a fresh or reset node cannot rebuild by dropping caches (revocations).
+     */
+    default Set<InvalidationEventType> replayedOnStartAndReset() {
+        return Set.of();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ChatAppBackend.Invalidation;
+
+/**
+ * Publishes invalidation events to the other nodes. The publishing node is expected to have
+ * already applied the change to its own caches.
+ */
+public interface InvalidationPublisher {
+
+    /** Used when the bus is disabled (single node). */
+    InvalidationPublisher NOOP = new InvalidationPublisher() {
+        @Override
+        public void publish(InvalidationEventType type, String key, String payload) {
+        }
+
+        @Override
+        public void publishImmediately(InvalidationEventType type, String key, String payload) {
+        }
+    };
+
+    /**
+     * Publishes after the current transaction commits (or right away when there is none).
+     */
+    void publish(InvalidationEventType type, String key, String payload);
+
+    /**
+     * Publishes regardless of the outcome of the current transaction, for changes that have
+     * already happened elsewhere (e.g. a token revocation at the identity provider).
+     */
+    void publishImmediately(InvalidationEventType type, String key, String payload);
+
+    default void publish(InvalidationEventType type, String key) {
+        publish(type, key, null);
+    }
+}
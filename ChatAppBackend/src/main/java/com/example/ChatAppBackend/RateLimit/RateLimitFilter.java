@@ -0,0 +1,97 @@
+package com.example.ChatAppBackend.RateLimit;
+
+import com.example.ChatAppBackend.Exceptions.GlobalException.ProblemType;
+import com.example.ChatAppBackend.Exceptions.GlobalException.ProblemWriter;
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the rate-limit policies of one scope. Registered twice in the security chain: the IP
+ * instance before the Firebase filter, so floods are turned away before paying for token
+ * verification, and the USER instance after it, once the uid is known.
+ * Rejections get 429 with Retry-After (whole seconds, rounded up).
+ * The IP scope keys on getRemoteAddr(): behind trusted proxies that is the forwarded client
+ * address (server.forward-headers-strategy), otherwise the socket peer.
+ * Policies match the decoded path within the application, as the dispatcher sees it, so encoded
+ * characters, ";" parameters or doubled slashes cannot route a request around its limit.
+ * Not a OncePerRequestFilter: its "already filtered" request attribute costs an allocation per
+ * request. Only the REQUEST dispatch is counted instead, so async and error dispatches of the
+ * same request pass through.
+ */
+public class RateLimitFilter extends GenericFilterBean {
+
+    private static final UrlPathHelper PATHS = UrlPathHelper.defaultInstance;
+
+    private final RateLimitScope scope;
+    private final RateLimiter[] limiters;
+
+    public RateLimitFilter(RateLimitScope scope, List<RateLimiter> limiters) {
+        this.scope = scope;
+        this.limiters = limiters.stream().filter(l -> l.getScope() == scope).toArray(RateLimiter[]::new);
+    }
+
+    @Override
+    public void doFilter(
+            ServletRequest servletRequest,
+            ServletResponse servletResponse,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (servletRequest.getDispatcherType() != DispatcherType.REQUEST
+                || !(servletRequest instanceof HttpServletRequest request)
+                || !(servletResponse instanceof HttpServletResponse response)) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        String key = scope == RateLimitScope.IP ? request.getRemoteAddr() : currentUid();
+        if (key == null) {
+            // Not authenticated: Security rejects the request (or it is public) further down
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String method = request.getMethod();
+        String path = PATHS.getPathWithinApplication(request);
+        for (RateLimiter limiter : limiters) {
+            if (!limiter.matches(method, path)) {
+                continue;
+            }
+            long waitNanos = limiter.tryAcquire(key);
+            if (waitNanos > 0) {
+                tooManyRequests(request, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String currentUid() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof CurrentUserDetails details) {
+            return details.uid();
+        }
+        return null;
+    }
+
+    private void tooManyRequests(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        ProblemWriter.write(response, ProblemType.TOO_MANY_REQUESTS,
+                "Rate limit exceeded; retry in " + retryAfterSeconds + "s", request.getRequestURI());
+    }
+}
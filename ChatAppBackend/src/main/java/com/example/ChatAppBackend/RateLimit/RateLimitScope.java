@@ -0,0 +1,8 @@
+package com.example.ChatAppBackend.RateLimit;
+
+public enum RateLimitScope {
+    // Keyed by client address; checked before the ID token is verified
+    IP,
+    // Keyed by Firebase uid; checked once the request is authenticated
+    USER
+}
@@ -0,0 +1,116 @@
+package com.example.ChatAppBackend.RateLimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * One rate-limit policy: which requests it covers and a token bucket per key (client address
+ * or uid) for them.
+ * - Buckets live in a bounded Caffeine map (a striped hash table with striped read buffers),
+ *   so a flood of distinct keys evicts the least recently used buckets instead of growing the heap
+ * - A bucket untouched for its whole refill time is full again, indistinguishable from a new one,
+ *   so it expires after that long without losing anything
+ * - The allow path (lookup, CAS, counter) allocates nothing once the key's bucket exists
+ */
+public class RateLimiter {
+
+    private final String name;
+    private final RateLimitScope scope;
+    private final String method;
+    private final String[] exactPaths;
+    private final String[] pathPrefixes;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Function<String, TokenBucket> newBucket = key -> new TokenBucket();
+    private final Counter allowed;
+    private final Counter rejected;
+
+    /**
+     * @param method    HTTP method the policy applies to, or null for any
+     * @param paths     exact request paths, or prefixes ending in "/**"
+     * @param limit     requests per period once the burst is spent
+     * @param burst     requests allowed back to back from a full bucket
+     * @param maxKeys   buckets kept before the least recently used are evicted
+     * @param nanoClock monotonic time source (System::nanoTime outside tests)
+     */
+    public RateLimiter(String name,
+                       RateLimitScope scope,
+                       String method,
+                       List<String> paths,
+                       int limit,
+                       Duration period,
+                       int burst,
+                       int maxKeys,
+                       LongSupplier nanoClock,
+                       MeterRegistry meterRegistry) {
+        if (limit <= 0 || burst <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit policy " + name + " needs a positive limit, burst and period");
+        }
+        this.name = name;
+        this.scope = scope;
+        this.method = method;
+        this.exactPaths = paths.stream().filter(p -> !p.endsWith("/**")).toArray(String[]::new);
+        this.pathPrefixes = paths.stream().filter(p -> p.endsWith("/**"))
+                .map(p -> p.substring(0, p.length() - 2)).toArray(String[]::new);
+        this.intervalNanos = Math.max(1, period.toNanos() / limit);
+        this.capacityNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+        // Bucket times are relative to this, so a new bucket (arrival 0) is never ahead of now
+        this.origin = nanoClock.getAsLong();
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(capacityNanos, TimeUnit.NANOSECONDS)
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.allowed = Counter.builder("rate.limit.requests").tag("policy", name).tag("outcome", "allowed").register(meterRegistry);
+        this.rejected = Counter.builder("rate.limit.requests").tag("policy", name).tag("outcome", "rejected").register(meterRegistry);
+        Gauge.builder("rate.limit.keys", buckets, Cache::estimatedSize).tag("policy", name).register(meterRegistry);
+    }
+
+    public boolean matches(String requestMethod, String path) {
+        if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+            return false;
+        }
+        for (String exact : exactPaths) {
+            if (exact.equals(path)) {
+                return true;
+            }
+        }
+        for (String prefix : pathPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes a token from the key's bucket.
+     *
+     * @return 0 when the request may proceed, otherwise nanoseconds until it would be allowed
+     */
+    public long tryAcquire(String key) {
+        TokenBucket bucket = buckets.get(key, newBucket);
+        long wait = bucket.tryAcquire(nanoClock.getAsLong() - origin, intervalNanos, capacityNanos);
+        (wait == 0 ? allowed : rejected).increment();
+        return wait;
+    }
+
+    public String getName() { return name; }
+
+    public RateLimitScope getScope() { return scope; }
+}
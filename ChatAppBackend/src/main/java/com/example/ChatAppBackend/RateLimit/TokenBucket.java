@@ -0,0 +1,35 @@
+package com.example.ChatAppBackend.RateLimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (the GCRA form of a token bucket):
+ * the instant at which the bucket would be full again. One CAS per request, no lock, and no
+ * allocation. Times are nanoseconds from the owning limiter's origin, so they are never negative.
+ * - A request is allowed when moving the arrival time one interval forward keeps it within
+ *   capacity of now; a rejected request consumes nothing
+ * - An idle bucket refills by falling behind now, which needs no background work
+ */
+final class TokenBucket {
+
+    private final AtomicLong arrival = new AtomicLong();
+
+    /**
+     * @param intervalNanos time to earn one token (period / limit)
+     * @param capacityNanos burst * intervalNanos
+     * @return 0 when a token was taken, otherwise how long until one is available
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, long capacityNanos) {
+        for (;;) {
+            long current = arrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.ChatAppBackend.Reaper;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.Room.CurrentRoomCache;
+import com.example.ChatAppBackend.Room.RoomStatus;
+import com.example.ChatAppBackend.RoomEvents.RoomEvent;
+import com.example.ChatAppBackend.RoomEvents.RoomEventPublisher;
+import com.example.ChatAppBackend.RoomEvents.RoomEventType;
+import com.example.ChatAppBackend.User.UserCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Background cleanup of rows nothing else ever removes:
+ * - PENDING rooms whose key expired unused (hosts are blocked from creating a new room until
+ *   then), archived to ended_rooms as EXPIRED; their host and guest get a KEY_EXPIRED room event
+ * - Disabled or deletion-requested rooms, and rooms of users whose deletion is past the grace
+ *   period; their host and guest get a DISABLED room event
+ * Both room kinds also drop the members' entries in CurrentRoomCache once the batch commits.
+ * - Users whose deletion was requested but whose hard delete in UserService.removeUser failed
+ * Every kind is deleted in batches of batchSize, one short transaction each, picking rows with
+ * FOR UPDATE SKIP LOCKED: reapers on several nodes split the work instead of blocking on (or
+ * double-counting) the same rows, and a concurrent join holding a room's lock is skipped.
+ * Room deletes match the version they picked, as Room's @Version does for JPA writes: a row
+ * changed since it was picked is left for the next run. Stale rooms take their chat history
+ * with them; expired rooms never had any (chat needs an ACTIVE room).
+ */
+public class StaleRowReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleRowReaper.class);
+
+    // Moved to ended_rooms (EndedRoom) as EXPIRED in the same statement
+    static final String EXPIRED_ROOMS_SQL = """
+            WITH picked AS (
+                SELECT id, version FROM rooms
+                 WHERE status = 'PENDING'
+                   AND room_key_code_expires_at < ?
+                 LIMIT ?
+                 FOR UPDATE SKIP LOCKED),
+            expired AS (
+                DELETE FROM rooms r
+                 USING picked p
+                 WHERE r.id = p.id AND r.version = p.version
+                RETURNING r.id, r.name, r.host_id, r.guest_id, r.invitee_email, r.created_at)
+            INSERT INTO ended_rooms (id, name, host_id, host_email, guest_id, invitee_email,
+                                     status, end_reason, created_at, ended_at)
+            SELECT e.id, e.name, e.host_id, (SELECT u.email FROM users u WHERE u.id = e.host_id),
+                   e.guest_id, e.invitee_email, 'EXPIRED', 'KEY_EXPIRED', e.created_at, ?
+              FROM expired e
+            RETURNING id, host_id, guest_id""";
+
+    static final String STALE_ROOMS_SQL = """
+            WITH picked AS (
+                SELECT r.id, r.version FROM rooms r
+                 WHERE r.disabled
+                    OR r.deletion_requested_at IS NOT NULL
+                    OR r.host_id IN (SELECT u.id FROM users u WHERE u.deletion_requested_at < ?)
+                    OR r.guest_id IN (SELECT u.id FROM users u WHERE u.deletion_requested_at < ?)
+                 LIMIT ?
+                 FOR UPDATE SKIP LOCKED),
+            deleted AS (
+                DELETE FROM rooms r
+                 USING picked p
+                 WHERE r.id = p.id AND r.version = p.version
+                RETURNING r.id, r.status, r.host_id, r.guest_id),
+            messages AS (
+                DELETE FROM chat_messages m
+                 USING deleted d
+                 WHERE m.room_id = d.id)
+            SELECT id, status, host_id, guest_id FROM deleted""";
+
+    static final String DELETED_USERS_SQL = """
+            DELETE FROM users
+             WHERE id IN (SELECT u.id FROM users u
+                           WHERE u.deletion_requested_at < ?
+                             AND NOT EXISTS (SELECT 1 FROM rooms r WHERE r.host_id = u.id OR r.guest_id = u.id)
+                           LIMIT ?
+                           FOR UPDATE SKIP LOCKED)
+            RETURNING firebase_uid""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationPublisher invalidationPublisher;
+    private final RoomEventPublisher roomEventPublisher;
+    private final UserCache userCache;
+    private final CurrentRoomCache currentRoomCache;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration userGracePeriod;
+
+    private final Timer runTimer;
+    private final DistributionSummary expiredRooms;
+    private final DistributionSummary staleRooms;
+    private final DistributionSummary deletedUsers;
+
+    public StaleRowReaper(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          InvalidationPublisher invalidationPublisher,
+                          RoomEventPublisher roomEventPublisher,
+                          UserCache userCache,
+                          CurrentRoomCache currentRoomCache,
+                          Clock clock,
+                          int batchSize,
+                          int maxBatchesPerRun,
+                          Duration userGracePeriod,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.roomEventPublisher = roomEventPublisher;
+        this.userCache = userCache;
+        this.currentRoomCache = currentRoomCache;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.userGracePeriod = userGracePeriod;
+        this.runTimer = Timer.builder("reaper.run").register(meterRegistry);
+        // Rows deleted per run, by kind
+        this.expiredRooms = DistributionSummary.builder("reaper.rows").tag("kind", "expired-rooms").register(meterRegistry);
+        this.staleRooms = DistributionSummary.builder("reaper.rows").tag("kind", "stale-rooms").register(meterRegistry);
+        this.deletedUsers = DistributionSummary.builder("reaper.rows").tag("kind", "deleted-users").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${reaper.interval:60s}", fixedDelayString = "${reaper.interval:60s}")
+    public void reap() {
+        runTimer.record(() -> {
+            Instant now = clock.instant();
+            Instant userCutoff = now.minus(userGracePeriod);
+
+            // Rooms first: users are only deleted once no room references them
+            int expired = drain("expired rooms", expiredRooms, () -> expireRooms(now));
+            int stale = drain("stale rooms", staleRooms, () -> deleteStaleRooms(userCutoff));
+            int users = drain("deleted users", deletedUsers, () -> deleteUsers(userCutoff));
+
+            if (expired + stale + users > 0) {
+                logger.info("Reaper deleted {} expired rooms, {} stale rooms and {} users", expired, stale, users);
+            }
+        });
+    }
+
+    /**
+     * Runs batches until one comes back short or maxBatchesPerRun is reached. A failed batch
+     * ends this kind's run; its rows are picked up again next time.
+     */
+    private int drain(String kind, DistributionSummary rows, IntSupplier batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int deleted;
+            try {
+                Integer result = transactionTemplate.execute(status -> batch.getAsInt());
+                deleted = result != null ? result : 0;
+            } catch (DataAccessException e) {
+                logger.warn("Reaper batch for {} failed: {}", kind, e.getMessage());
+                break;
+            }
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        rows.record(total);
+        return total;
+    }
+
+    private int expireRooms(Instant now) {
+        List<RoomEvent> expired = jdbcTemplate.query(EXPIRED_ROOMS_SQL,
+                (rs, i) -> RoomEvent.of(RoomEventType.KEY_EXPIRED,
+                        rs.getObject("id", UUID.class),
+                        RoomStatus.PENDING,
+                        rs.getObject("host_id", UUID.class),
+                        rs.getObject("guest_id", UUID.class)),
+                Timestamp.from(now), batchSize, Timestamp.from(now));
+
+        // Both publishers defer to after this batch's commit
+        for (RoomEvent event : expired) {
+            invalidationPublisher.publish(InvalidationEventType.ROOM_CHANGED, event.roomId().toString());
+            roomEventPublisher.publish(event);
+            currentRoomCache.evictAfterCommit(event.hostId(), event.guestId());
+        }
+        return expired.size();
+    }
+
+    private int deleteStaleRooms(Instant userCutoff) {
+        Timestamp cutoff = Timestamp.from(userCutoff);
+        List<RoomEvent> deleted = jdbcTemplate.query(STALE_ROOMS_SQL,
+                (rs, i) -> RoomEvent.of(RoomEventType.DISABLED,
+                        rs.getObject("id", UUID.class),
+                        RoomStatus.valueOf(rs.getString("status")),
+                        rs.getObject("host_id", UUID.class),
+                        rs.getObject("guest_id", UUID.class)),
+                cutoff, cutoff, batchSize);
+
+        for (RoomEvent event : deleted) {
+            invalidationPublisher.publish(InvalidationEventType.ROOM_CHANGED, event.roomId().toString());
+            roomEventPublisher.publish(event);
+            currentRoomCache.evictAfterCommit(event.hostId(), event.guestId());
+        }
+        return deleted.size();
+    }
+
+    private int deleteUsers(Instant userCutoff) {
+        List<String> uids = jdbcTemplate.query(DELETED_USERS_SQL,
+                (rs, i) -> rs.getString("firebase_uid"), Timestamp.from(userCutoff), batchSize);
+
+        // Already revoked everywhere by removeUser; only this node's cache entry is left to drop
+        for (String uid : uids) {
+            userCache.evict(uid);
+        }
+        return uids.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ChatAppBackend.Replication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which users opened a read-write connection recently, so their reads can skip the
+ * replicas until replication has caught up. A write is recorded when the connection is taken,
+ * which is at most one (short) transaction earlier than its commit.
+ * The window is per node: with several nodes and no session affinity, a user's next request
+ * may land on a node that has not seen the write and read from a replica.
+ */
+public class ReadYourWrites {
+
+    private final Supplier<String> currentUser;
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * @param currentUser uid of the user the current thread works for, or null (background jobs)
+     * @param window      how long reads stay on the primary after a write; at least the replica lag
+     */
+    public ReadYourWrites(Supplier<String> currentUser, Duration window, long maxUsers, Ticker ticker) {
+        this.currentUser = currentUser;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .build();
+    }
+
+    public void recordWrite() {
+        String uid = currentUser.get();
+        if (uid != null) {
+            recentWriters.put(uid, Boolean.TRUE);
+        }
+    }
+
+    public boolean mustReadFromPrimary() {
+        String uid = currentUser.get();
+        return uid != null && recentWriters.getIfPresent(uid) != null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ChatAppBackend.Replication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Target for read-only transactions (LazyConnectionDataSourceProxy's read-only DataSource).
+ * - Replicas are used round robin; one that fails to hand out a connection is skipped
+ * - Users who wrote recently (ReadYourWrites), and everyone while no replica is reachable,
+ *   read from the primary instead
+ */
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter toReplica;
+    private final Counter recentWrite;
+    private final Counter replicaUnavailable;
+
+    public ReplicaDataSource(DataSource primary,
+                             List<DataSource> replicas,
+                             ReadYourWrites readYourWrites,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+        this.toReplica = Counter.builder("datasource.routing").tag("target", "replica").tag("reason", "read-only")
+                .register(meterRegistry);
+        this.recentWrite = Counter.builder("datasource.routing").tag("target", "primary").tag("reason", "recent-write")
+                .register(meterRegistry);
+        this.replicaUnavailable = Counter.builder("datasource.routing").tag("target", "primary").tag("reason", "replica-unavailable")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    /**
+     * Same routing as getConnection(); the credentials are passed to whichever pool is chosen.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        if (readYourWrites.mustReadFromPrimary()) {
+            recentWrite.increment();
+            return connector.connect(primary);
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            try {
+                Connection connection = connector.connect(replicas.get((start + i) % size));
+                toReplica.increment();
+                return connection;
+            } catch (SQLFeatureNotSupportedException e) {
+                // Not an unavailable replica: the pool does not take per-call credentials (e.g. Hikari)
+                throw e;
+            } catch (SQLException e) {
+                logger.debug("Replica {} unavailable: {}", (start + i) % size, e.getMessage());
+            }
+        }
+        replicaUnavailable.increment();
+        logger.warn("No replica could hand out a connection; reading from the primary");
+        return connector.connect(primary);
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
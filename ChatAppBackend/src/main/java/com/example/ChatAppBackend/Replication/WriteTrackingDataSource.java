@@ -0,0 +1,33 @@
+package com.example.ChatAppBackend.Replication;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The primary as seen by read-write transactions: every connection handed out counts as a
+ * write by the current user (see ReadYourWrites).
+ */
+public class WriteTrackingDataSource extends DelegatingDataSource {
+
+    private final ReadYourWrites readYourWrites;
+
+    public WriteTrackingDataSource(DataSource primary, ReadYourWrites readYourWrites) {
+        super(primary);
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        readYourWrites.recordWrite();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        readYourWrites.recordWrite();
+        return super.getConnection(username, password);
+    }
+}
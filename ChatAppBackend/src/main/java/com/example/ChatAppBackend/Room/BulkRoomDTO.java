@@ -0,0 +1,75 @@
+package com.example.ChatAppBackend.Room;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Body of /api/room/create-rooms: the rooms a scheduling integration opens in one call. Each item
+ * names its host, since a user hosts at most one room at a time.
+ */
+public class BulkRoomDTO {
+
+    public static final int MAX_ROOMS = 1000;
+
+    @NotEmpty(message = "At least one room is required.")
+    @Size(max = MAX_ROOMS, message = "At most " + MAX_ROOMS + " rooms per request.")
+    private List<@Valid Item> rooms;
+
+    public BulkRoomDTO(List<Item> rooms) {
+        this.rooms = rooms;
+    }
+
+    public List<Item> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<Item> rooms) {
+        this.rooms = rooms;
+    }
+
+    public static class Item {
+
+        @NotBlank(message = "Host email is mandatory.")
+        private String hostEmail;
+
+        @NotBlank(message = "Name is mandatory.")
+        private String name;
+
+        @NotBlank(message = "Email is mandatory.")
+        private String inviteeEmail;
+
+        public Item(String hostEmail, String name, String inviteeEmail) {
+            this.hostEmail = hostEmail;
+            this.name = name;
+            this.inviteeEmail = inviteeEmail;
+        }
+
+        public String getHostEmail() {
+            return hostEmail;
+        }
+
+        public void setHostEmail(String hostEmail) {
+            this.hostEmail = hostEmail;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getInviteeEmail() {
+            return inviteeEmail;
+        }
+
+        public void setInviteeEmail(String inviteeEmail) {
+            this.inviteeEmail = inviteeEmail;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ChatAppBackend.Room;
+
+import java.util.List;
+
+/**
+ * What /api/room/create-rooms returns: one result per requested room, in request order. A failed
+ * item does not fail the others; its error says why it was skipped.
+ */
+public record BulkRoomResponse(
+        int created,
+        int failed,
+        List<Result> results
+) {
+
+    public static BulkRoomResponse of(List<Result> results) {
+        int created = (int) results.stream().filter(r -> r.room() != null).count();
+        return new BulkRoomResponse(created, results.size() - created, results);
+    }
+
+    public record Result(
+            int index,
+            RoomResponse room,
+            String error
+    ) {
+
+        static Result created(int index, RoomResponse room) {
+            return new Result(index, room, null);
+        }
+
+        static Result failed(int index, String error) {
+            return new Result(index, null, error);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import com.example.ChatAppBackend.RoomEvents.RoomEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-user answer to "which room am I in?" (hosting a PENDING/ACTIVE room, or guest of an
+ * ACTIVE one), including "none", so /api/room/current rarely touches the database.
+ * - Changes made on this node are applied after their commit: create and join put the new
+ *   room for its members, teardown evicts them
+ * - Changes made on other nodes arrive as ROOM_EVENTs, which carry the host and guest ids;
+ *   both are evicted and reloaded on their next lookup. A lost-events reset clears everything
+ * - The TTL bounds how long a load racing with another node's change can serve the old answer,
+ *   and how long a lost ROOM_EVENT goes unnoticed
+ * The loader runs outside Caffeine's compute (a blocking JDBC call must not hold a map bin lock
+ * and pin a virtual thread); a load that overlaps a put or eviction does not leave its result
+ * behind.
+ */
+public class CurrentRoomCache implements InvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrentRoomCache.class);
+
+    private final Cache<UUID, Optional<RoomResponse>> byUser;
+    private final ObjectMapper objectMapper;
+    // Bumped before every put and eviction; a load that saw it change drops what it just cached
+    private final AtomicLong changes = new AtomicLong();
+    private final Counter puts;
+    private final Counter localEvictions;
+    private final Counter remoteEvictions;
+
+    public CurrentRoomCache(ObjectMapper objectMapper, long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, "rooms.current");
+        Gauge.builder("rooms.current.cache.hit.ratio", byUser, c -> c.stats().hitRate())
+                .register(meterRegistry);
+        this.puts = Counter.builder("rooms.current.cache.updates").tag("kind", "put").register(meterRegistry);
+        this.localEvictions = Counter.builder("rooms.current.cache.updates").tag("kind", "evict-local").register(meterRegistry);
+        this.remoteEvictions = Counter.builder("rooms.current.cache.updates").tag("kind", "evict-remote").register(meterRegistry);
+    }
+
+    /**
+     * Returns the user's current room, or null when they are in none; either answer from the
+     * loader is cached. Concurrent misses for the same user each load.
+     */
+    public RoomResponse get(UUID userId, Function<UUID, RoomResponse> loader) {
+        Optional<RoomResponse> cached = byUser.getIfPresent(userId);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        return load(userId, loader);
+    }
+
+    /**
+     * The cached room of the user, or null when nothing (or "none") is cached.
+     */
+    public RoomResponse getIfPresent(UUID userId) {
+        Optional<RoomResponse> cached = byUser.getIfPresent(userId);
+        return cached != null ? cached.orElse(null) : null;
+    }
+
+    /**
+     * Records the room as current for its host and, once it is ACTIVE, its guest. Waits for the
+     * surrounding transaction to commit, so a rollback leaves the cache untouched.
+     */
+    public void putAfterCommit(RoomResponse room) {
+        afterCommit(() -> {
+            changes.incrementAndGet();
+            byUser.put(room.hostId(), Optional.of(room));
+            puts.increment();
+            if (room.status() == RoomStatus.ACTIVE && room.guestId() != null) {
+                byUser.put(room.guestId(), Optional.of(room));
+                puts.increment();
+            }
+        });
+    }
+
+    /**
+     * Forgets the users' entries once the surrounding transaction commits (null ids are skipped).
+     */
+    public void evictAfterCommit(UUID... userIds) {
+        afterCommit(() -> {
+            changes.incrementAndGet();
+            for (UUID userId : userIds) {
+                if (userId != null) {
+                    byUser.invalidate(userId);
+                    localEvictions.increment();
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        changes.incrementAndGet();
+        byUser.invalidateAll();
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type != InvalidationEventType.ROOM_EVENT || payload == null) {
+            return;
+        }
+        try {
+            RoomEvent event = objectMapper.readValue(payload, RoomEvent.class);
+            changes.incrementAndGet();
+            for (UUID userId : new UUID[]{event.hostId(), event.guestId()}) {
+                if (userId != null) {
+                    byUser.invalidate(userId);
+                    remoteEvictions.increment();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed room event for room {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    /**
+     * Loads and caches an answer, never over an entry put meanwhile. If a put or eviction ran
+     * meanwhile, the loaded answer may predate the change behind it, so it is removed again:
+     * either the change saw this put, or this check sees the change.
+     */
+    private RoomResponse load(UUID userId, Function<UUID, RoomResponse> loader) {
+        long changesBefore = changes.get();
+        Optional<RoomResponse> loaded = Optional.ofNullable(loader.apply(userId));
+        byUser.asMap().putIfAbsent(userId, loaded);
+        if (changes.get() != changesBefore) {
+            byUser.asMap().remove(userId, loaded);
+        }
+        return loaded.orElse(null);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.ChatAppBackend.Room;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Archive of rooms that ended (closed, left or expired). A room is moved here in the same
+ * transaction that deletes it from rooms, so rooms only holds live (PENDING/ACTIVE) rows and
+ * its unique host/guest columns free up for the members' next room.
+ * Users are kept by id without foreign keys: the archive outlives the user rows.
+ */
+@Entity
+@Table(name = "ended_rooms", indexes = {
+        @Index(name = "idx_ended_rooms_host", columnList = "host_id"),
+        @Index(name = "idx_ended_rooms_guest", columnList = "guest_id"),
+        @Index(name = "idx_ended_rooms_ended_at", columnList = "ended_at")
+})
+public class EndedRoom implements Persistable<UUID> {
+    // The room's own id
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "host_id", nullable = false)
+    private UUID hostId;
+
+    private String hostEmail;
+
+    @Column(name = "guest_id")
+    private UUID guestId;
+
+    @Column(nullable = false)
+    private String inviteeEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RoomStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RoomEndReason endReason;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "ended_at", nullable = false)
+    private Instant endedAt;
+
+    public static EndedRoom of(Room room, RoomStatus status, RoomEndReason endReason, Instant endedAt) {
+        EndedRoom ended = new EndedRoom();
+        ended.setId(room.getId());
+        ended.setName(room.getName());
+        ended.setHostId(room.getHost().getId());
+        ended.setHostEmail(room.getHost().getEmail());
+        ended.setGuestId(room.getGuest() != null ? room.getGuest().getId() : null);
+        ended.setInviteeEmail(room.getInviteeEmail());
+        ended.setStatus(status);
+        ended.setEndReason(endReason);
+        ended.setCreatedAt(room.getCreatedAt());
+        ended.setEndedAt(endedAt);
+        return ended;
+    }
+
+    // Rows are only ever inserted: save() persists them without the SELECT a merge would run first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public boolean isMember(UUID userId) {
+        return userId.equals(hostId) || userId.equals(guestId);
+    }
+
+    // ---- Getters / Setters ----
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public UUID getHostId() {
+        return hostId;
+    }
+
+    public void setHostId(UUID hostId) {
+        this.hostId = hostId;
+    }
+
+    public String getHostEmail() {
+        return hostEmail;
+    }
+
+    public void setHostEmail(String hostEmail) {
+        this.hostEmail = hostEmail;
+    }
+
+    public UUID getGuestId() {
+        return guestId;
+    }
+
+    public void setGuestId(UUID guestId) {
+        this.guestId = guestId;
+    }
+
+    public String getInviteeEmail() {
+        return inviteeEmail;
+    }
+
+    public void setInviteeEmail(String inviteeEmail) {
+        this.inviteeEmail = inviteeEmail;
+    }
+
+    public RoomStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RoomStatus status) {
+        this.status = status;
+    }
+
+    public RoomEndReason getEndReason() {
+        return endReason;
+    }
+
+    public void setEndReason(RoomEndReason endReason) {
+        this.endReason = endReason;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(Instant endedAt) {
+        this.endedAt = endedAt;
+    }
+}
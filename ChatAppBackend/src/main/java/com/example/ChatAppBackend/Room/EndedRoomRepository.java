@@ -0,0 +1,8 @@
+package com.example.ChatAppBackend.Room;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface EndedRoomRepository extends JpaRepository<EndedRoom, UUID> {
+}
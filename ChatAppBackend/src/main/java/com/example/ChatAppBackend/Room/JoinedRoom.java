@@ -0,0 +1,20 @@
+package com.example.ChatAppBackend.Room;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of the row consumeRoomKeyCode returns: the columns RoomResponse and the JOINED
+ * event need, plus the host's email, without hydrating the Room and its host/guest users.
+ */
+public interface JoinedRoom {
+    UUID getId();
+    String getName();
+    RoomStatus getStatus();
+    UUID getHostId();
+    String getHostEmail();
+    UUID getGuestId();
+    String getInviteeEmail();
+    Instant getRoomKeyCodeExpiresAt();
+    Instant getCreatedAt();
+}
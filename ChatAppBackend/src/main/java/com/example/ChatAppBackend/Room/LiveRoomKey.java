@@ -0,0 +1,11 @@
+package com.example.ChatAppBackend.Room;
+
+import java.time.Instant;
+
+/**
+ * Projection used to load RoomKeyIndex: a joinable key hash and when it expires.
+ */
+public interface LiveRoomKey {
+    String getRoomKeyCode();
+    Instant getRoomKeyCodeExpiresAt();
+}
@@ -1,16 +1,21 @@
 package com.example.ChatAppBackend.Room;
 
 import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.Persistence.UuidV7Generator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+// host_id and guest_id are unique, so their constraint indexes already answer every per-user
+// lookup; the partial key-expiry index lives in schema.sql
 @Table(name = "rooms")
 public class Room {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     private UUID id;
 
     @Column(nullable = false)
@@ -53,6 +58,13 @@ public class Room {
 
     private Instant deletionRequestedAt;
 
+    // Optimistic lock: leave/close delete the room only if nothing changed it since they read it.
+    // Native writers (join, bulk insert) bump or default it themselves; the reaper deletes match it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     // --- Getters / Setters ---
 
     public UUID getId() {
@@ -158,4 +170,8 @@ public class Room {
     public void setDeletionRequestedAt(Instant deletionRequestedAt) {
         this.deletionRequestedAt = deletionRequestedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.ChatAppBackend.Room;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Inserts many PENDING rooms with one statement: the columns go in as arrays and are expanded
+ * server-side with unnest, so a thousand rooms cost one round trip and one parse.
+ * Rows that hit a unique constraint (a host or invitee already holding a room, e.g. taken by a
+ * concurrent create) are skipped rather than failing the batch; the caller gets back the ids
+ * that were inserted.
+ */
+@Repository
+public class RoomBatchRepository {
+
+    static final String INSERT_SQL = """
+            INSERT INTO rooms (id, name, host_id, invitee_email, guest_id, status, created_at, updated_at,
+                               room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled)
+            SELECT t.id, t.name, t.host_id, t.invitee_email, t.guest_id, 'PENDING', ?, ?,
+                   t.room_key_code, ?, false, false
+              FROM unnest(?::uuid[], ?::text[], ?::uuid[], ?::text[], ?::uuid[], ?::text[])
+                   AS t(id, name, host_id, invitee_email, guest_id, room_key_code)
+            ON CONFLICT DO NOTHING
+            RETURNING id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoomBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the rooms (built but not persisted, all with the same timestamps) and returns the
+     * ids of those that were written.
+     */
+    public Set<UUID> insertPending(List<Room> rooms) {
+        if (rooms.isEmpty()) {
+            return Set.of();
+        }
+        Room first = rooms.getFirst();
+        Set<UUID> inserted = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            ps.setTimestamp(1, Timestamp.from(first.getCreatedAt()));
+            ps.setTimestamp(2, Timestamp.from(first.getUpdatedAt()));
+            ps.setTimestamp(3, Timestamp.from(first.getRoomKeyCodeExpiresAt()));
+            ps.setArray(4, array(con, "uuid", rooms, Room::getId));
+            ps.setArray(5, array(con, "text", rooms, Room::getName));
+            ps.setArray(6, array(con, "uuid", rooms, r -> r.getHost().getId()));
+            ps.setArray(7, array(con, "text", rooms, Room::getInviteeEmail));
+            ps.setArray(8, array(con, "uuid", rooms, r -> r.getGuest().getId()));
+            ps.setArray(9, array(con, "text", rooms, Room::getRoomKeyCode));
+            return ps;
+        }, rs -> {
+            inserted.add(rs.getObject(1, UUID.class));
+        });
+        return inserted;
+    }
+
+    private static Array array(Connection con, String type, List<Room> rooms,
+                               Function<Room, Object> column) throws SQLException {
+        Object[] values = new Object[rooms.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = column.apply(rooms.get(i));
+        }
+        return con.createArrayOf(type, values);
+    }
+}
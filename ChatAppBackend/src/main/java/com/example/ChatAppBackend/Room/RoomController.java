@@ -5,6 +5,8 @@ import jakarta.validation.Valid;
 import org.springframework.security.core.annotation.CurrentSecurityContext;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+
 @RestController()
 @RequestMapping("/api/room")
 public class RoomController {
@@ -16,12 +18,49 @@ public class RoomController {
     }
 
     @PostMapping("/create-room")
-    public Room enter(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @Valid @RequestBody RoomDTO roomDTO){
+    public RoomResponse enter(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @Valid @RequestBody RoomDTO roomDTO){
         return this.roomService.createRoom(user, roomDTO);
     }
 
+    /**
+     * Restricted to callers whose token carries the ROOM_BULK_CREATE authority (SecurityConfig).
+     */
+    @PostMapping("/create-rooms")
+    public BulkRoomResponse createRooms(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @Valid @RequestBody BulkRoomDTO bulkRoomDTO){
+        return this.roomService.createRooms(user, bulkRoomDTO);
+    }
+
+    /**
+     * The caller's current room (hosting, or guest of an ACTIVE room); 404 when there is none.
+     */
+    @GetMapping("/current")
+    public RoomResponse currentRoom(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user){
+        return this.roomService.getCurrentRoom(user);
+    }
+
+    @GetMapping("/{id}")
+    public RoomResponse room(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @PathVariable UUID id){
+        return this.roomService.getRoom(user, id);
+    }
+
+    /**
+     * Host only; ends the room for both members. Calling it on a room that already ended returns it.
+     */
+    @PutMapping("/{id}/close")
+    public RoomResponse closeRoom(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @PathVariable UUID id){
+        return this.roomService.closeRoom(user, id);
+    }
+
+    /**
+     * Guest (or invitee of a PENDING room) only; ends the room for both members.
+     */
+    @PutMapping("/{id}/leave")
+    public RoomResponse leaveRoom(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @PathVariable UUID id){
+        return this.roomService.leaveRoom(user, id);
+    }
+
     @PutMapping("/join-room")
-    public Room joinRoom(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @Valid @RequestBody RoomKeyCodeDTO roomKeyCodeDTO
+    public RoomResponse joinRoom(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user, @Valid @RequestBody RoomKeyCodeDTO roomKeyCodeDTO
     ) {
         return this.roomService.joinRoom(user, roomKeyCodeDTO);
     }
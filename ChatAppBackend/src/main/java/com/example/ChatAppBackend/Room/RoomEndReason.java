@@ -0,0 +1,13 @@
+package com.example.ChatAppBackend.Room;
+
+/**
+ * Why a room left the live rooms table, as kept on its EndedRoom.
+ */
+public enum RoomEndReason {
+    // Host closed the room (PENDING or ACTIVE); status ENDED
+    HOST_CLOSED,
+    // Guest left the ACTIVE room, or the invitee declined the PENDING one; status ENDED
+    GUEST_LEFT,
+    // Room key expired before anyone joined (reaper); status EXPIRED
+    KEY_EXPIRED
+}
@@ -0,0 +1,311 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-memory index of the hashed room keys that can still be joined, so joins with random,
+ * expired or used keys are rejected without a database round trip.
+ * - Keys are added when a room is created (here or, via ROOM_KEY_ISSUED, on another node) and
+ *   marked used on ROOM_KEY_CONSUMED; used keys stay as tombstones until they would have expired
+ * - Expiry runs on a hashed timing wheel (one bucket per tick), so it costs O(1) per key instead
+ *   of a periodic scan of the whole index
+ * - The index is loaded from the database in the background at startup and reloaded when the
+ *   invalidation bus reports lost events
+ * The database stays authoritative for positive answers: a LIVE key still goes through the
+ * conditional UPDATE. EXPIRED and USED are facts that cannot be undone (a key's expiry is fixed
+ * when it is issued, and it is marked used only after the consuming transaction commits). An
+ * unknown key is only rejected once the index is loaded, while it is coherent with other nodes
+ * (the bus listener is connected) and after a grace window since the last load or disconnect:
+ * a key issued elsewhere may still be in flight on the bus or in the replay after a reconnect.
+ * Keys are handed to the invitee out of band, so one is never typed in within the bus lag.
+ * Inside the window, unknown keys go to the database like LIVE ones.
+ */
+public class RoomKeyIndex implements InvalidationHandler, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomKeyIndex.class);
+
+    public enum Lookup {
+        // The index cannot answer: the caller must ask the database
+        UNKNOWN_TO_INDEX,
+        NOT_FOUND,
+        LIVE,
+        EXPIRED,
+        USED
+    }
+
+    private final RoomRepository roomRepository;
+    private final boolean enabled;
+    private final BooleanSupplier coherent;
+    private final Clock clock;
+    private final long missGraceMillis;
+    private final long tickMillis;
+    private final int mask;
+
+    private final ConcurrentHashMap<String, Entry> keys = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry>[] wheel;
+    private long currentTick;
+
+    private final Counter rejected;
+    private final Counter passedThrough;
+
+    private ScheduledExecutorService ticker;
+    private volatile boolean loaded;
+    private volatile boolean running;
+    // Misses are trusted from this instant on (pushed back on every load and disconnect)
+    private volatile long missesTrustedFromMillis = Long.MAX_VALUE;
+
+    /**
+     * @param enabled   when false the index is never loaded and every lookup goes to the database
+     * @param coherent  whether this node is currently receiving other nodes' key events
+     * @param missGrace how long after a load or a disconnect unknown keys still go to the database
+     * @param tick      timing wheel resolution: keys are dropped at most one tick after expiry
+     * @param wheelSize buckets, rounded up to a power of two; keys further out than
+     *                  tick * wheelSize simply stay in their bucket for more rounds
+     */
+    @SuppressWarnings("unchecked")
+    public RoomKeyIndex(RoomRepository roomRepository,
+                        boolean enabled,
+                        BooleanSupplier coherent,
+                        Clock clock,
+                        Duration missGrace,
+                        Duration tick,
+                        int wheelSize,
+                        MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        this.enabled = enabled;
+        this.coherent = coherent;
+        this.clock = clock;
+        this.missGraceMillis = missGrace.toMillis();
+        this.tickMillis = tick.toMillis();
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.wheel = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = clock.millis() / tickMillis;
+
+        this.rejected = Counter.builder("room.keys.lookups").tag("result", "rejected").register(meterRegistry);
+        this.passedThrough = Counter.builder("room.keys.lookups").tag("result", "database").register(meterRegistry);
+        Gauge.builder("room.keys.indexed", keys, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Answers whether a join with this key can possibly succeed. NOT_FOUND, EXPIRED and USED can
+     * be rejected right away; LIVE and UNKNOWN_TO_INDEX must ask the database.
+     */
+    public Lookup lookup(String keyHash) {
+        Entry entry = keys.get(keyHash);
+        Lookup result;
+        if (entry == null) {
+            result = missesTrusted() ? Lookup.NOT_FOUND : Lookup.UNKNOWN_TO_INDEX;
+        } else if (clock.millis() > entry.expiresAtMillis) {
+            result = Lookup.EXPIRED;
+        } else if (entry.used) {
+            result = Lookup.USED;
+        } else {
+            result = Lookup.LIVE;
+        }
+        (result == Lookup.LIVE || result == Lookup.UNKNOWN_TO_INDEX ? passedThrough : rejected).increment();
+        return result;
+    }
+
+    public void issue(String keyHash, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        if (expiresAtMillis < clock.millis()) {
+            return;
+        }
+        Entry entry = new Entry(keyHash, expiresAtMillis);
+        // Keeps an existing entry (and its used flag) when the same key is announced twice
+        if (keys.putIfAbsent(keyHash, entry) == null) {
+            wheel[(int) (tickOf(expiresAtMillis) & mask)].add(entry);
+        }
+    }
+
+    public void markUsed(String keyHash) {
+        Entry entry = keys.get(keyHash);
+        if (entry != null) {
+            entry.used = true;
+        }
+    }
+
+    /**
+     * Marks the key used once the surrounding transaction commits, so a rolled-back join never
+     * leaves a USED answer behind.
+     */
+    public void markUsedAfterCommit(String keyHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markUsed(keyHash);
+                }
+            });
+        } else {
+            markUsed(keyHash);
+        }
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private boolean missesTrusted() {
+        if (!loaded) {
+            return false;
+        }
+        if (!coherent.getAsBoolean()) {
+            holdMisses();
+            return false;
+        }
+        return clock.millis() >= missesTrustedFromMillis;
+    }
+
+    // Keys issued elsewhere meanwhile only arrive with the replay, so restart the grace window
+    private void holdMisses() {
+        missesTrustedFromMillis = clock.millis() + missGraceMillis;
+    }
+
+    /**
+     * Advances the wheel to the current time, dropping every key whose expiry tick has passed.
+     * Entries due in a later round are put back into the same bucket.
+     */
+    synchronized void advance() {
+        long target = clock.millis() / tickMillis;
+        // After a long pause one full turn visits every bucket
+        long from = Math.max(currentTick + 1, target - mask);
+        for (long tick = from; tick <= target; tick++) {
+            ConcurrentLinkedQueue<Entry> bucket = wheel[(int) (tick & mask)];
+            int pending = bucket.size();
+            for (int i = 0; i < pending; i++) {
+                Entry entry = bucket.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (tickOf(entry.expiresAtMillis) <= tick) {
+                    keys.remove(entry.keyHash, entry);
+                } else {
+                    bucket.add(entry);
+                }
+            }
+        }
+        currentTick = target;
+    }
+
+    /**
+     * Adds the joinable keys currently in the database. Existing entries are kept rather than
+     * cleared: one issued by a transaction that has not committed yet would be missing from the
+     * query, while a stale entry only costs a database round trip until it expires.
+     */
+    void reload() {
+        loaded = false;
+        try {
+            List<LiveRoomKey> live = roomRepository.findLiveRoomKeys(RoomStatus.PENDING, clock.instant());
+            for (LiveRoomKey key : live) {
+                issue(key.getRoomKeyCode(), key.getRoomKeyCodeExpiresAt());
+            }
+            holdMisses();
+            loaded = true;
+            logger.info("Room key index loaded {} live keys", live.size());
+        } catch (Exception e) {
+            logger.warn("Failed to load the room key index; joins go to the database until the next attempt: {}", e.getMessage());
+        }
+    }
+
+    private long tickOf(long epochMillis) {
+        return (epochMillis + tickMillis - 1) / tickMillis;
+    }
+
+    // ---- Invalidation ----
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type == InvalidationEventType.ROOM_KEY_ISSUED && payload != null) {
+            issue(key, Instant.ofEpochMilli(Long.parseLong(payload)));
+        } else if (type == InvalidationEventType.ROOM_KEY_CONSUMED) {
+            markUsed(key);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        if (running) {
+            ticker.execute(this::reload);
+        }
+    }
+
+    // ---- Lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "room-key-index");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.execute(this::reload);
+        ticker.scheduleWithFixedDelay(() -> {
+            if (!loaded) {
+                reload();
+            } else if (!coherent.getAsBoolean()) {
+                holdMisses();
+            }
+            advance();
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        loaded = false;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    private static final class Entry {
+        private final String keyHash;
+        private final long expiresAtMillis;
+        private volatile boolean used;
+
+        Entry(String keyHash, long expiresAtMillis) {
+            this.keyHash = keyHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ChatAppBackend.Room;
+
+/**
+ * Projection of a user's current room occupancy, read in one query.
+ * - hosting: the user hosts a PENDING or ACTIVE room
+ * - guesting: the user is the guest of an ACTIVE room
+ */
+public interface RoomOccupancy {
+    boolean isHosting();
+    boolean isGuesting();
+}
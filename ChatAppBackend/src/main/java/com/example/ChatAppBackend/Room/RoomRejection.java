@@ -0,0 +1,58 @@
+package com.example.ChatAppBackend.Room;
+
+/**
+ * Why RoomService refused a create, a bulk-create item, a join, a lookup, a close or a leave, counted as room.validation.failures{operation, reason}.
+ */
+enum RoomRejection {
+    CREATE_USER_NOT_FOUND("create", "user-not-found"),
+    SELF_INVITE("create", "self-invite"),
+    INVITEE_NOT_FOUND("create", "invitee-not-found"),
+    CREATE_ALREADY_HOSTING("create", "already-hosting"),
+    CREATE_ALREADY_GUEST("create", "already-guest"),
+
+    // Per item of a bulk create
+    BULK_HOST_NOT_FOUND("bulk-create", "host-not-found"),
+    BULK_INVITEE_NOT_FOUND("bulk-create", "invitee-not-found"),
+    BULK_SELF_INVITE("bulk-create", "self-invite"),
+    BULK_DUPLICATE("bulk-create", "duplicate-in-batch"),
+    BULK_ALREADY_HOSTING("bulk-create", "already-hosting"),
+    BULK_ALREADY_GUEST("bulk-create", "already-guest"),
+    // Passed the checks but the insert skipped it: a concurrent create took the host or invitee
+    BULK_CONFLICT("bulk-create", "conflict"),
+
+    JOIN_USER_NOT_FOUND("join", "user-not-found"),
+    KEY_NOT_FOUND("join", "key-not-found"),
+    KEY_EXPIRED("join", "key-expired"),
+    KEY_USED("join", "key-used"),
+    ROOM_DISABLED("join", "room-disabled"),
+    ROOM_NOT_PENDING("join", "room-not-pending"),
+    NOT_INVITEE("join", "not-invitee"),
+    OWN_ROOM("join", "own-room"),
+    JOIN_ALREADY_HOSTING("join", "already-hosting"),
+    JOIN_ALREADY_GUEST("join", "already-guest"),
+    // Every check passed on re-read: a concurrent join took the key
+    LOST_RACE("join", "lost-race"),
+
+    LOOKUP_USER_NOT_FOUND("lookup", "user-not-found"),
+    // Not in a room (current), or not a member of the requested one
+    LOOKUP_NOT_FOUND("lookup", "not-found"),
+
+    CLOSE_USER_NOT_FOUND("close", "user-not-found"),
+    CLOSE_NOT_FOUND("close", "not-found"),
+    NOT_HOST("close", "not-host"),
+    // Every attempt lost an optimistic-lock race
+    CLOSE_CONFLICT("close", "conflict"),
+
+    LEAVE_USER_NOT_FOUND("leave", "user-not-found"),
+    LEAVE_NOT_FOUND("leave", "not-found"),
+    HOST_LEAVE("leave", "host"),
+    LEAVE_CONFLICT("leave", "conflict");
+
+    final String operation;
+    final String reason;
+
+    RoomRejection(String operation, String reason) {
+        this.operation = operation;
+        this.reason = reason;
+    }
+}
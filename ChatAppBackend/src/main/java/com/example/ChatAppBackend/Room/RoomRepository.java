@@ -2,12 +2,150 @@ package com.example.ChatAppBackend.Room;
 
 import com.example.ChatAppBackend.User.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface RoomRepository extends JpaRepository<Room, UUID> {
+
+    // RoomResponse columns of a room r (aliases match JoinedRoom); the host's email by scalar subquery
+    String ROOM_VIEW_SELECT = """
+            SELECT r.id AS "id", r.name AS "name", r.status AS "status",
+                   r.host_id AS "hostId",
+                   (SELECT u.email FROM users u WHERE u.id = r.host_id) AS "hostEmail",
+                   r.guest_id AS "guestId", r.invitee_email AS "inviteeEmail",
+                   r.room_key_code_expires_at AS "roomKeyCodeExpiresAt",
+                   r.created_at AS "createdAt"
+              FROM rooms r
+            """;
+
+    /**
+     * Read-write (so on the primary when replicas are configured): the signaling handshake
+     * checks a room that may have been joined a moment ago, which a lagging replica would miss.
+     */
+    @Override
+    @Transactional
+    Optional<Room> findById(UUID id);
+
     boolean existsByHostAndStatusIn(User host, Collection<RoomStatus> statuses);
     boolean existsByGuestAndStatus(User guest, RoomStatus status);
     Room findByRoomKeyCode(String roomKeyCode);
+
+    /**
+     * Replaces existsByHostAndStatusIn + existsByGuestAndStatus with a single round trip.
+     * Both probes are single-row lookups on the unique host_id / guest_id indexes.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT EXISTS (SELECT 1 FROM rooms
+                            WHERE host_id = :userId
+                              AND status IN ('PENDING', 'ACTIVE')) AS hosting,
+                   EXISTS (SELECT 1 FROM rooms
+                            WHERE guest_id = :userId
+                              AND status = 'ACTIVE') AS guesting""")
+    RoomOccupancy findOccupancy(@Param("userId") UUID userId);
+
+    /**
+     * findOccupancy for a batch of users in one round trip (bulk room creation). Users without
+     * a row in users are left out.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT u.id AS "userId",
+                   EXISTS (SELECT 1 FROM rooms
+                            WHERE host_id = u.id
+                              AND status IN ('PENDING', 'ACTIVE')) AS "hosting",
+                   EXISTS (SELECT 1 FROM rooms
+                            WHERE guest_id = u.id
+                              AND status = 'ACTIVE') AS "guesting"
+              FROM users u
+             WHERE u.id IN (:userIds)""")
+    List<UserOccupancy> findOccupancies(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Consumes a room key in a single statement: attaches the guest, marks the key as used and
+     * activates the room only if every join precondition still holds. Returns the columns the
+     * response needs (the host's email via a scalar subquery, so no entity is hydrated), or null
+     * when nothing matched (the caller works out why on a separate, slower path).
+     * The row lock taken by UPDATE makes concurrent joins with the same key serialize; the loser
+     * re-evaluates the WHERE clause after the winner commits and sees the key as used.
+     * Bumps the @Version column, so a leave/close that read the room before the join retries.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            UPDATE rooms r
+               SET guest_id = :guestId,
+                   status = 'ACTIVE',
+                   room_key_code_used_within15min = true,
+                   updated_at = :now,
+                   version = r.version + 1
+             WHERE r.room_key_code = :roomKeyCode
+               AND r.status = 'PENDING'
+               AND r.room_key_code_used_within15min = false
+               AND r.disabled = false
+               AND r.room_key_code_expires_at >= :now
+               AND lower(trim(r.invitee_email)) = :inviteeEmail
+               AND r.host_id <> :guestId
+               AND NOT EXISTS (SELECT 1 FROM rooms h
+                                WHERE h.host_id = :guestId
+                                  AND h.status IN ('PENDING', 'ACTIVE'))
+               AND NOT EXISTS (SELECT 1 FROM rooms g
+                                WHERE g.guest_id = :guestId
+                                  AND g.status = 'ACTIVE'
+                                  AND g.id <> r.id)
+            RETURNING r.id AS "id", r.name AS "name", r.status AS "status",
+                      r.host_id AS "hostId",
+                      (SELECT u.email FROM users u WHERE u.id = r.host_id) AS "hostEmail",
+                      r.guest_id AS "guestId", r.invitee_email AS "inviteeEmail",
+                      r.room_key_code_expires_at AS "roomKeyCodeExpiresAt",
+                      r.created_at AS "createdAt\"""")
+    JoinedRoom consumeRoomKeyCode(@Param("roomKeyCode") String roomKeyCode,
+                                  @Param("guestId") UUID guestId,
+                                  @Param("inviteeEmail") String inviteeEmail,
+                                  @Param("now") Instant now);
+
+    /**
+     * The room the user is in: hosting a PENDING/ACTIVE room, or guest of an ACTIVE one (the
+     * RoomOccupancy conditions). Each branch is one probe of the unique host_id / guest_id index,
+     * so there is no OR across the two columns. Read from the primary: CurrentRoomCache keeps
+     * what this returns, and a lagging replica's answer would stay cached.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = ROOM_VIEW_SELECT + """
+             WHERE r.id = (SELECT h.id FROM rooms h
+                            WHERE h.host_id = :userId
+                              AND h.status IN ('PENDING', 'ACTIVE')
+                           UNION ALL
+                           SELECT g.id FROM rooms g
+                            WHERE g.guest_id = :userId
+                              AND g.status = 'ACTIVE'
+                           LIMIT 1)""")
+    JoinedRoom findCurrentRoom(@Param("userId") UUID userId);
+
+    /**
+     * A room by id with the columns RoomResponse needs, without hydrating the entity and its users.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = ROOM_VIEW_SELECT + """
+             WHERE r.id = :roomId""")
+    JoinedRoom findRoomView(@Param("roomId") UUID roomId);
+
+    /**
+     * Keys that can still be joined, for loading RoomKeyIndex. Served by the partial index on
+     * PENDING rooms by key expiry (schema.sql). Read from the primary: a key missing here
+     * would make the index reject valid joins.
+     */
+    @Transactional
+    @Query("""
+            SELECT r.roomKeyCode AS roomKeyCode, r.roomKeyCodeExpiresAt AS roomKeyCodeExpiresAt
+              FROM Room r
+             WHERE r.status = :status
+               AND r.roomKeyCodeUsedWithin15Min = false
+               AND r.disabled = false
+               AND r.roomKeyCodeExpiresAt > :now""")
+    List<LiveRoomKey> findLiveRoomKeys(@Param("status") RoomStatus status, @Param("now") Instant now);
 }
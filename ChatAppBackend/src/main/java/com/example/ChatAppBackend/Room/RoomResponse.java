@@ -0,0 +1,40 @@
+package com.example.ChatAppBackend.Room;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What /api/room returns for a room. Users appear by id (and the host by email); the key hash,
+ * firebase uids and soft-delete flags stay on the server.
+ */
+public record RoomResponse(
+        UUID id,
+        String name,
+        RoomStatus status,
+        UUID hostId,
+        String hostEmail,
+        UUID guestId,
+        String inviteeEmail,
+        Instant roomKeyCodeExpiresAt,
+        Instant createdAt
+) {
+
+    public static RoomResponse from(Room room) {
+        return new RoomResponse(room.getId(), room.getName(), room.getStatus(),
+                room.getHost().getId(), room.getHost().getEmail(),
+                room.getGuest() != null ? room.getGuest().getId() : null,
+                room.getInviteeEmail(), room.getRoomKeyCodeExpiresAt(), room.getCreatedAt());
+    }
+
+    public static RoomResponse from(JoinedRoom room) {
+        return new RoomResponse(room.getId(), room.getName(), room.getStatus(),
+                room.getHostId(), room.getHostEmail(), room.getGuestId(),
+                room.getInviteeEmail(), room.getRoomKeyCodeExpiresAt(), room.getCreatedAt());
+    }
+
+    public static RoomResponse from(EndedRoom room) {
+        return new RoomResponse(room.getId(), room.getName(), room.getStatus(),
+                room.getHostId(), room.getHostEmail(), room.getGuestId(),
+                room.getInviteeEmail(), null, room.getCreatedAt());
+    }
+}
@@ -1,30 +1,107 @@
 package com.example.ChatAppBackend.Room;
 
+import com.example.ChatAppBackend.Chat.ChatTailCache;
 import com.example.ChatAppBackend.Exceptions.CustomExceptions.BadRequestException;
+import com.example.ChatAppBackend.Exceptions.CustomExceptions.ConflictException;
 import com.example.ChatAppBackend.Exceptions.CustomExceptions.ResourceNotFoundException;
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.Persistence.UuidV7Generator;
+import com.example.ChatAppBackend.RoomEvents.RoomEvent;
+import com.example.ChatAppBackend.RoomEvents.RoomEventPublisher;
+import com.example.ChatAppBackend.RoomEvents.RoomEventType;
+import com.example.ChatAppBackend.Signaling.SignalingWebSocketHandler;
 import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
 import com.example.ChatAppBackend.User.User;
 import com.example.ChatAppBackend.User.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 @Service
+@Observed(name = "room.service")
 public class RoomService {
 
     private static final Logger logger = LoggerFactory.getLogger(RoomService.class);
 
+    // Below this many rooms, hashing keys on one thread beats forking
+    private static final int PARALLEL_KEY_THRESHOLD = 64;
+    // Leave/close attempts before a caller that keeps losing optimistic-lock races gets a 409
+    static final int MAX_END_ATTEMPTS = 4;
+
     private final UserService userService;
     private final RoomRepository roomRepository;
-
-    public RoomService(UserService userService, RoomRepository roomRepository) {
+    private final RoomBatchRepository roomBatchRepository;
+    private final InvalidationPublisher invalidationPublisher;
+    private final RoomEventPublisher roomEventPublisher;
+    private final RoomKeyIndex roomKeyIndex;
+    private final CurrentRoomCache currentRoomCache;
+    private final EndedRoomRepository endedRoomRepository;
+    private final ChatTailCache chatTailCache;
+    private final SignalingWebSocketHandler signalingWebSocketHandler;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<RoomRejection, Counter> rejections = new EnumMap<>(RoomRejection.class);
+    private final Map<Ending, Counter> lockConflicts = new EnumMap<>(Ending.class);
+
+    public RoomService(UserService userService,
+                       RoomRepository roomRepository,
+                       RoomBatchRepository roomBatchRepository,
+                       InvalidationPublisher invalidationPublisher,
+                       RoomEventPublisher roomEventPublisher,
+                       RoomKeyIndex roomKeyIndex,
+                       CurrentRoomCache currentRoomCache,
+                       EndedRoomRepository endedRoomRepository,
+                       ChatTailCache chatTailCache,
+                       SignalingWebSocketHandler signalingWebSocketHandler,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
         this.userService = userService;
         this.roomRepository = roomRepository;
+        this.roomBatchRepository = roomBatchRepository;
+        this.invalidationPublisher = invalidationPublisher;
+        this.roomEventPublisher = roomEventPublisher;
+        this.roomKeyIndex = roomKeyIndex;
+        this.currentRoomCache = currentRoomCache;
+        this.endedRoomRepository = endedRoomRepository;
+        this.chatTailCache = chatTailCache;
+        this.signalingWebSocketHandler = signalingWebSocketHandler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (RoomRejection rejection : RoomRejection.values()) {
+            rejections.put(rejection, Counter.builder("room.validation.failures")
+                    .tag("operation", rejection.operation)
+                    .tag("reason", rejection.reason)
+                    .register(meterRegistry));
+        }
+        // Attempts that lost an optimistic-lock race and were retried (or, on the last, refused)
+        for (Ending ending : Ending.values()) {
+            lockConflicts.put(ending, Counter.builder("room.lock.conflicts")
+                    .tag("operation", ending.operation)
+                    .register(meterRegistry));
+        }
     }
 
     /**
@@ -33,12 +110,12 @@ public class RoomService {
      * - The invitee exists and is not the user
      */
     @Transactional
-    public Room createRoom(CurrentUserDetails user, RoomDTO roomDTO) {
+    public RoomResponse createRoom(CurrentUserDetails user, RoomDTO roomDTO) {
         try {
             logger.debug("Initiating room creation for user: {}", user.email());
 
             // 1. Validate and retrieve current user
-            User currentUser = userService.retrieveUser(user);
+            User currentUser = retrieveUser(user, RoomRejection.CREATE_USER_NOT_FOUND);
 
             // 2. Normalize emails and check self-invitation
             String normalizedInviteeEmail = roomDTO.getInviteeEmail().trim().toLowerCase();
@@ -46,52 +123,46 @@ public class RoomService {
 
             if (normalizedUserEmail.equals(normalizedInviteeEmail)) {
                 logger.warn("User {} attempted to invite themselves.", normalizedUserEmail);
-                throw new BadRequestException("You cannot invite yourself to a room.");
+                throw rejected(RoomRejection.SELF_INVITE, new BadRequestException("You cannot invite yourself to a room."));
             }
 
             // 3. Retrieve invitee user (throws 404 if not found)
-            User inviteeUser = userService.retrieveUserViaEmail(normalizedInviteeEmail);
+            User inviteeUser;
+            try {
+                inviteeUser = userService.retrieveUserViaEmail(normalizedInviteeEmail);
+            } catch (ResourceNotFoundException e) {
+                throw rejected(RoomRejection.INVITEE_NOT_FOUND, e);
+            }
 
-            // 4. Ensure the user isn't already in a room
-            boolean isAlreadyHost = roomRepository.existsByHostAndStatusIn(currentUser, List.of(RoomStatus.PENDING, RoomStatus.ACTIVE));
-            if (isAlreadyHost) {
+            // 4. Ensure the user isn't already in a room (one query for both checks)
+            RoomOccupancy occupancy = roomRepository.findOccupancy(currentUser.getId());
+            if (occupancy.isHosting()) {
                 logger.warn("User {} is already hosting a room.", currentUser.getEmail());
-                throw new BadRequestException("You are already hosting a room.");
+                throw rejected(RoomRejection.CREATE_ALREADY_HOSTING, new BadRequestException("You are already hosting a room."));
             }
 
-            boolean isGuestInActiveRoom = roomRepository.existsByGuestAndStatus(currentUser, RoomStatus.ACTIVE);
-            if (isGuestInActiveRoom) {
+            if (occupancy.isGuesting()) {
                 logger.warn("User {} is already a guest in an active room.", currentUser.getEmail());
-                throw new BadRequestException("You are already participating in a room.");
+                throw rejected(RoomRejection.CREATE_ALREADY_GUEST, new BadRequestException("You are already participating in a room."));
             }
 
             // 5. Create secure room key code
-            String rawRoomKeyCode = java.util.UUID.randomUUID().toString();
+            String rawRoomKeyCode = UUID.randomUUID().toString();
             String encryptedRoomKeyCode = DigestUtils.sha256Hex(rawRoomKeyCode);
 
             // 6. Build and save room
-            Instant now = Instant.now();
-
-            Room newRoom = new Room();
-            newRoom.setName(roomDTO.getName());
-            newRoom.setHost(currentUser);
-            newRoom.setInviteeEmail(normalizedInviteeEmail);
-            newRoom.setGuest(inviteeUser);
-            newRoom.setStatus(RoomStatus.PENDING);
-            newRoom.setCreatedAt(now);
-            newRoom.setUpdatedAt(now);
+            Room newRoom = newPendingRoom(roomDTO.getName(), currentUser, normalizedInviteeEmail, inviteeUser, Instant.now());
             newRoom.setRoomKeyCode(encryptedRoomKeyCode);
-            newRoom.setRoomKeyCodeExpiresAt(now.plusSeconds(15 * 60)); // 15 minutes
-            newRoom.setRoomKeyCodeUsedWithin15Min(false);
-            newRoom.setDisabled(false);
-            newRoom.setDeletionRequestedAt(null);
 
             Room savedRoom = roomRepository.save(newRoom);
             logger.info("Room created successfully. ID: {}, RoomKeyCode (raw): {}", savedRoom.getId(), rawRoomKeyCode);
+            announceCreated(savedRoom);
 
             // NOTE: you would send rawRoomKeyCode in the future email
 
-            return savedRoom;
+            RoomResponse response = RoomResponse.from(savedRoom);
+            currentRoomCache.putAfterCommit(response);
+            return response;
 
         } catch (ResourceNotFoundException | BadRequestException e) {
             throw e;
@@ -101,9 +172,174 @@ public class RoomService {
         }
     }
 
+    /**
+     * Creates many PENDING rooms in one call (scheduling integrations), each with its own host.
+     * Runs the createRoom checks for the whole batch with a fixed number of queries rather than a
+     * chain per room:
+     * - Hosts and invitees resolved with one IN query
+     * - Occupancy of every remaining host in one query
+     * - Room keys generated and hashed in parallel
+     * - One INSERT for all rooms (RoomBatchRepository)
+     * An item failing a check is skipped and reported in its result; the others are created.
+     */
+    @Transactional
+    public BulkRoomResponse createRooms(CurrentUserDetails user, BulkRoomDTO bulkRoomDTO) {
+        try {
+            List<BulkRoomDTO.Item> items = bulkRoomDTO.getRooms();
+            logger.debug("Bulk creation of {} rooms requested by {}", items.size(), user.uid());
+            BulkRoomResponse.Result[] results = new BulkRoomResponse.Result[items.size()];
+
+            // 1. Resolve every host and invitee with one query
+            List<String> emails = new ArrayList<>(items.size() * 2);
+            for (BulkRoomDTO.Item item : items) {
+                emails.add(item.getHostEmail());
+                emails.add(item.getInviteeEmail());
+            }
+            Map<String, User> users = userService.retrieveUsersViaEmails(emails);
+
+            // 2. Checks that need no query; a host or invitee may appear in one item only
+            Instant now = Instant.now();
+            Map<Integer, Room> candidates = new LinkedHashMap<>();
+            // Host id -> item index, so step 3 finds each occupancy's candidate directly
+            Map<UUID, Integer> candidateByHost = new HashMap<>();
+            Set<UUID> inviteeIds = new HashSet<>();
+            for (int i = 0; i < items.size(); i++) {
+                BulkRoomDTO.Item item = items.get(i);
+                String hostEmail = item.getHostEmail().trim().toLowerCase();
+                String inviteeEmail = item.getInviteeEmail().trim().toLowerCase();
+                User host = users.get(hostEmail);
+                User invitee = users.get(inviteeEmail);
+
+                if (host == null) {
+                    results[i] = failed(i, RoomRejection.BULK_HOST_NOT_FOUND, "User not found with email: " + hostEmail);
+                } else if (invitee == null) {
+                    results[i] = failed(i, RoomRejection.BULK_INVITEE_NOT_FOUND, "User not found with email: " + inviteeEmail);
+                } else if (hostEmail.equals(inviteeEmail)) {
+                    results[i] = failed(i, RoomRejection.BULK_SELF_INVITE, "A host cannot invite themselves to a room.");
+                } else if (candidateByHost.containsKey(host.getId()) || inviteeIds.contains(invitee.getId())) {
+                    results[i] = failed(i, RoomRejection.BULK_DUPLICATE, "The host or invitee already has a room in this request.");
+                } else {
+                    inviteeIds.add(invitee.getId());
+                    Room room = newPendingRoom(item.getName(), host, inviteeEmail, invitee, now);
+                    // Not persisted through JPA: the id is assigned here, as the entity's generator would
+                    room.setId(UuidV7Generator.generate(Instant.now()));
+                    candidates.put(i, room);
+                    candidateByHost.put(host.getId(), i);
+                }
+            }
+
+            // 3. Hosts already in a room, for the whole batch in one query
+            if (!candidateByHost.isEmpty()) {
+                for (UserOccupancy occupancy : roomRepository.findOccupancies(candidateByHost.keySet())) {
+                    if (!occupancy.isHosting() && !occupancy.isGuesting()) {
+                        continue;
+                    }
+                    Integer index = candidateByHost.get(occupancy.getUserId());
+                    if (index == null) {
+                        continue;
+                    }
+                    results[index] = occupancy.isHosting()
+                            ? failed(index, RoomRejection.BULK_ALREADY_HOSTING, "This host is already hosting a room.")
+                            : failed(index, RoomRejection.BULK_ALREADY_GUEST, "This host is already participating in a room.");
+                    candidates.remove(index);
+                }
+            }
+
+            // 4. Room keys, generated and hashed in parallel for large batches
+            List<Room> rooms = new ArrayList<>(candidates.values());
+            String[] rawKeys = issueRoomKeys(rooms);
+
+            // 5. One INSERT; rows skipped on a unique conflict lost a race with another create
+            Set<UUID> inserted = roomBatchRepository.insertPending(rooms);
+
+            int k = 0;
+            for (Map.Entry<Integer, Room> candidate : candidates.entrySet()) {
+                Room room = candidate.getValue();
+                String rawKey = rawKeys[k++];
+                if (!inserted.contains(room.getId())) {
+                    results[candidate.getKey()] = failed(candidate.getKey(), RoomRejection.BULK_CONFLICT,
+                            "The host or invitee already has a room.");
+                    continue;
+                }
+                logger.debug("Room created in bulk. ID: {}, RoomKeyCode (raw): {}", room.getId(), rawKey);
+                announceCreated(room);
+                RoomResponse created = RoomResponse.from(room);
+                currentRoomCache.putAfterCommit(created);
+                results[candidate.getKey()] = BulkRoomResponse.Result.created(candidate.getKey(), created);
+            }
+
+            BulkRoomResponse response = BulkRoomResponse.of(Arrays.asList(results));
+            logger.info("Bulk room creation by {}: {} created, {} failed", user.uid(), response.created(), response.failed());
+
+            // NOTE: you would send each raw key in the future invite email
+
+            return response;
+
+        } catch (ResourceNotFoundException | BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unexpected error during bulk room creation for user {}: {}", user.uid(), e.getMessage(), e);
+            throw new RuntimeException("Failed to create rooms - " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gives every room a fresh one-time key (stored as its SHA-256) and returns the raw keys in
+     * the same order.
+     */
+    private static String[] issueRoomKeys(List<Room> rooms) {
+        String[] rawKeys = new String[rooms.size()];
+        IntStream indexes = IntStream.range(0, rooms.size());
+        if (rooms.size() >= PARALLEL_KEY_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            rawKeys[i] = UUID.randomUUID().toString();
+            rooms.get(i).setRoomKeyCode(DigestUtils.sha256Hex(rawKeys[i]));
+        });
+        return rawKeys;
+    }
+
+    private static Room newPendingRoom(String name, User host, String inviteeEmail, User invitee, Instant now) {
+        Room room = new Room();
+        room.setName(name);
+        room.setHost(host);
+        room.setInviteeEmail(inviteeEmail);
+        room.setGuest(invitee);
+        room.setStatus(RoomStatus.PENDING);
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
+        room.setRoomKeyCodeExpiresAt(now.plusSeconds(15 * 60)); // 15 minutes
+        room.setRoomKeyCodeUsedWithin15Min(false);
+        room.setDisabled(false);
+        room.setDeletionRequestedAt(null);
+        return room;
+    }
+
+    /**
+     * Announces a room created in this transaction: cache invalidation, the CREATED event and its
+     * key in RoomKeyIndex (indexed right away, a rollback only leaves a harmless stale entry;
+     * other nodes learn it after commit).
+     */
+    private void announceCreated(Room room) {
+        invalidationPublisher.publish(InvalidationEventType.ROOM_CHANGED, room.getId().toString());
+        roomEventPublisher.publish(RoomEventType.CREATED, room);
+        roomKeyIndex.issue(room.getRoomKeyCode(), room.getRoomKeyCodeExpiresAt());
+        invalidationPublisher.publish(InvalidationEventType.ROOM_KEY_ISSUED, room.getRoomKeyCode(),
+                Long.toString(room.getRoomKeyCodeExpiresAt().toEpochMilli()));
+    }
+
+    private BulkRoomResponse.Result failed(int index, RoomRejection rejection, String error) {
+        rejections.get(rejection).increment();
+        return BulkRoomResponse.Result.failed(index, error);
+    }
+
     /**
      * Join an existing room using a one-time room key code.
-     * Validates:
+     * Unknown, expired and used keys are turned away by RoomKeyIndex before any SQL.
+     * Fast path: a single conditional UPDATE consumes the key, attaches the guest and activates
+     * the room (see RoomRepository.consumeRoomKeyCode). Only when it matches nothing do we load
+     * the room and work out which of these failed:
      * - User exists
      * - Room with given key exists
      * - Key not expired
@@ -114,109 +350,380 @@ public class RoomService {
      * - User is not a guest in any other active room
      */
     @Transactional
-    public Room joinRoom(CurrentUserDetails user, RoomKeyCodeDTO roomKeyCodeDTO) {
+    public RoomResponse joinRoom(CurrentUserDetails user, RoomKeyCodeDTO roomKeyCodeDTO) {
         try {
             logger.debug("User {} attempting to join room with key.", user.email());
 
             // 1. Validate & retrieve current user
-            User currentUser = userService.retrieveUser(user);
+            User currentUser = retrieveUser(user, RoomRejection.JOIN_USER_NOT_FOUND);
 
             // 2. Normalize raw key from DTO and encrypt it to match DB
             String rawKey = roomKeyCodeDTO.getRoomKeyCode().trim();
             String encryptedKey = DigestUtils.sha256Hex(rawKey);
+            String normalizedUserEmail = currentUser.getEmail().trim().toLowerCase();
 
-            // 3. Find room by encrypted key
-            Room room = roomRepository.findByRoomKeyCode(encryptedKey);
-            if (room == null) {
-                logger.warn("No room found for provided key by user {}", currentUser.getEmail());
-                throw new ResourceNotFoundException("No room found for the provided key.");
+            // 3. Reject keys the in-memory index knows cannot be joined, without touching the database
+            RuntimeException rejected = rejectFromIndex(currentUser, encryptedKey);
+            if (rejected != null) {
+                throw rejected;
             }
 
-            Instant now = Instant.now();
+            // 4. Consume the key, attach user as guest and activate room in one statement
+            JoinedRoom updatedRoom = roomRepository.consumeRoomKeyCode(
+                    encryptedKey, currentUser.getId(), normalizedUserEmail, Instant.now());
 
-            // 4. Check key expiration
-            if (now.isAfter(room.getRoomKeyCodeExpiresAt())) {
-                logger.warn("Expired room key used by user {} for room {}",
-                        currentUser.getEmail(), room.getId());
-                throw new BadRequestException("This room key has expired.");
+            // 5. Nothing matched: find out why (always throws)
+            if (updatedRoom == null) {
+                throw explainJoinFailure(currentUser, encryptedKey, normalizedUserEmail);
             }
 
-            // 5. Check key already used
-            if (room.isRoomKeyCodeUsedWithin15Min()) {
-                logger.warn("Already-used room key used by user {} for room {}",
-                        currentUser.getEmail(), room.getId());
-                throw new BadRequestException("This room key has already been used.");
-            }
+            logger.info("User {} successfully joined room {}",
+                    currentUser.getEmail(), updatedRoom.getId());
+            roomKeyIndex.markUsedAfterCommit(encryptedKey);
+            invalidationPublisher.publish(InvalidationEventType.ROOM_KEY_CONSUMED, encryptedKey);
+            invalidationPublisher.publish(InvalidationEventType.ROOM_CHANGED, updatedRoom.getId().toString());
+            roomEventPublisher.publish(RoomEvent.of(RoomEventType.JOINED, updatedRoom.getId(),
+                    updatedRoom.getStatus(), updatedRoom.getHostId(), updatedRoom.getGuestId()));
 
-            // 6. Check room is still joinable
-            if (room.isDisabled()) {
-                logger.warn("User {} attempted to join disabled room {}",
-                        currentUser.getEmail(), room.getId());
-                throw new BadRequestException("This room is no longer available.");
-            }
+            RoomResponse response = RoomResponse.from(updatedRoom);
+            currentRoomCache.putAfterCommit(response);
+            return response;
 
-            if (room.getStatus() != RoomStatus.PENDING) {
-                logger.warn("User {} attempted to join non-pending room {} with status {}",
-                        currentUser.getEmail(), room.getId(), room.getStatus());
-                throw new BadRequestException("This room is not available to join.");
+        } catch (ResourceNotFoundException | BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unexpected error during room join for user {}: {}",
+                    user.uid(), e.getMessage(), e);
+            throw new RuntimeException("Failed to join room - " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The two ways a member ends a room, and what each reports.
+     */
+    private enum Ending {
+        CLOSE("close", RoomEndReason.HOST_CLOSED, RoomEventType.CLOSED,
+                RoomRejection.CLOSE_USER_NOT_FOUND, RoomRejection.CLOSE_NOT_FOUND, RoomRejection.CLOSE_CONFLICT),
+        LEAVE("leave", RoomEndReason.GUEST_LEFT, RoomEventType.LEFT,
+                RoomRejection.LEAVE_USER_NOT_FOUND, RoomRejection.LEAVE_NOT_FOUND, RoomRejection.LEAVE_CONFLICT);
+
+        final String operation;
+        final RoomEndReason reason;
+        final RoomEventType event;
+        final RoomRejection userNotFound;
+        final RoomRejection notFound;
+        final RoomRejection conflict;
+
+        Ending(String operation, RoomEndReason reason, RoomEventType event,
+               RoomRejection userNotFound, RoomRejection notFound, RoomRejection conflict) {
+            this.operation = operation;
+            this.reason = reason;
+            this.event = event;
+            this.userNotFound = userNotFound;
+            this.notFound = notFound;
+            this.conflict = conflict;
+        }
+    }
+
+    /**
+     * The host closes their room, PENDING or ACTIVE. See endRoom.
+     */
+    public RoomResponse closeRoom(CurrentUserDetails user, UUID roomId) {
+        return endRoom(user, roomId, Ending.CLOSE);
+    }
+
+    /**
+     * The guest leaves the ACTIVE room, or the invitee declines the PENDING one. See endRoom.
+     */
+    public RoomResponse leaveRoom(CurrentUserDetails user, UUID roomId) {
+        return endRoom(user, roomId, Ending.LEAVE);
+    }
+
+    /**
+     * Ends a room: its row moves from rooms to ended_rooms (status ENDED), which frees both
+     * members for their next room.
+     * Not @Transactional: each attempt runs in its own transaction. The room is read with its
+     * @Version and deleted only if nothing changed it since, so a close racing a leave (or a
+     * join) cannot both apply; the loser's delete matches no row and it retries, up to
+     * MAX_END_ATTEMPTS times, against the new state. A retry that finds the room already
+     * archived returns it: a member whose close lost to the other's leave gets the ENDED room.
+     */
+    private RoomResponse endRoom(CurrentUserDetails user, UUID roomId, Ending ending) {
+        try {
+            logger.debug("User {} attempting to {} room {}", user.email(), ending.operation, roomId);
+
+            // 1. Validate & retrieve current user
+            User currentUser = retrieveUser(user, ending.userNotFound);
+
+            // 2. Read, check and archive; again from the top when a concurrent change wins
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> endRoomOnce(currentUser, roomId, ending));
+                } catch (OptimisticLockingFailureException e) {
+                    lockConflicts.get(ending).increment();
+                    if (attempt == MAX_END_ATTEMPTS) {
+                        logger.warn("User {} gave up trying to {} room {} after {} conflicting attempts",
+                                currentUser.getEmail(), ending.operation, roomId, attempt);
+                        throw rejected(ending.conflict, new ConflictException("The room was changed by someone else. Please try again."));
+                    }
+                    logger.debug("Room {} changed while user {} tried to {} it (attempt {})",
+                            roomId, currentUser.getEmail(), ending.operation, attempt);
+                    backOff(attempt);
+                }
             }
 
-            // 7. Ensure this user is the invitee
-            String normalizedUserEmail = currentUser.getEmail().trim().toLowerCase();
-            String normalizedInviteeEmail = room.getInviteeEmail().trim().toLowerCase();
+        } catch (ResourceNotFoundException | BadRequestException | ConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unexpected error while trying to {} room {} for user {}: {}",
+                    ending.operation, roomId, user.uid(), e.getMessage(), e);
+            throw new RuntimeException("Failed to " + ending.operation + " room - " + e.getMessage(), e);
+        }
+    }
 
-            if (!normalizedInviteeEmail.equals(normalizedUserEmail)) {
-                logger.warn("User {} tried to join room {} but invitee is {}",
-                        normalizedUserEmail, room.getId(), normalizedInviteeEmail);
-                throw new BadRequestException("You are not the invitee for this room.");
+    private RoomResponse endRoomOnce(User currentUser, UUID roomId, Ending ending) {
+        UUID userId = currentUser.getId();
+
+        // 1. No live room: ended already (possibly by the other member a moment ago), or not theirs
+        Room room = roomRepository.findById(roomId).orElse(null);
+        if (room == null) {
+            EndedRoom ended = endedRoomRepository.findById(roomId).orElse(null);
+            if (ended != null && ended.isMember(userId)) {
+                logger.debug("Room {} had already ended ({}) when user {} tried to {} it",
+                        roomId, ended.getEndReason(), currentUser.getEmail(), ending.operation);
+                return RoomResponse.from(ended);
             }
+            logger.warn("User {} tried to {} room {} which is missing or not theirs", currentUser.getEmail(), ending.operation, roomId);
+            throw rejected(ending.notFound, new ResourceNotFoundException("No room found."));
+        }
+
+        // 2. Members only; the host closes, the guest (or invitee) leaves
+        boolean isHost = room.getHost().getId().equals(userId);
+        boolean isGuest = room.getGuest() != null && room.getGuest().getId().equals(userId);
+        if (!isHost && !isGuest) {
+            logger.warn("User {} tried to {} room {} which is not theirs", currentUser.getEmail(), ending.operation, roomId);
+            throw rejected(ending.notFound, new ResourceNotFoundException("No room found."));
+        }
+        if (ending == Ending.CLOSE && !isHost) {
+            logger.warn("Guest {} attempted to close room {}", currentUser.getEmail(), roomId);
+            throw rejected(RoomRejection.NOT_HOST, new BadRequestException("Only the host can close this room."));
+        }
+        if (ending == Ending.LEAVE && !isGuest) {
+            logger.warn("Host {} attempted to leave their own room {}", currentUser.getEmail(), roomId);
+            throw rejected(RoomRejection.HOST_LEAVE, new BadRequestException("You cannot leave your own room; close it instead."));
+        }
+
+        // 3. Move the row to the archive. The delete carries the version check, so it is flushed
+        //    before the insert: a lost race then fails here, not on the archive's primary key
+        EndedRoom ended = EndedRoom.of(room, RoomStatus.ENDED, ending.reason, Instant.now());
+        roomRepository.delete(room);
+        roomRepository.flush();
+        endedRoomRepository.save(ended);
+
+        logger.info("Room {} ended by user {} ({})", roomId, currentUser.getEmail(), ending.reason);
+        announceEnded(room, ended, ending.event);
+        return RoomResponse.from(ended);
+    }
 
-            // 8. Ensure they are not the host of this room
-            if (room.getHost() != null &&
-                    room.getHost().getId().equals(currentUser.getId())) {
-                logger.warn("User {} attempted to join their own room {} as guest",
-                        currentUser.getEmail(), room.getId());
-                throw new BadRequestException("You cannot join your own room as a guest.");
+    /**
+     * Announces a room that ended in this transaction: cache invalidation (other nodes drop its
+     * chat tail and signaling connections), the room event, its key if it was never used, and
+     * after commit the same cleanup on this node.
+     */
+    private void announceEnded(Room room, EndedRoom ended, RoomEventType type) {
+        UUID roomId = room.getId();
+        invalidationPublisher.publish(InvalidationEventType.ROOM_CHANGED, roomId.toString());
+        roomEventPublisher.publish(RoomEvent.of(type, roomId, ended.getStatus(), ended.getHostId(), ended.getGuestId()));
+        if (!room.isRoomKeyCodeUsedWithin15Min()) {
+            roomKeyIndex.markUsedAfterCommit(room.getRoomKeyCode());
+            invalidationPublisher.publish(InvalidationEventType.ROOM_KEY_CONSUMED, room.getRoomKeyCode());
+        }
+        currentRoomCache.evictAfterCommit(ended.getHostId(), ended.getGuestId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                chatTailCache.evict(roomId);
+                signalingWebSocketHandler.closeRoom(roomId);
             }
+        });
+    }
 
-            // 9. Ensure they are not hosting any other pending/active room
-            boolean isAlreadyHost = roomRepository.existsByHostAndStatusIn(
-                    currentUser, List.of(RoomStatus.PENDING, RoomStatus.ACTIVE)
-            );
-            if (isAlreadyHost) {
-                logger.warn("User {} is already hosting another room and cannot join room {}",
-                        currentUser.getEmail(), room.getId());
-                throw new BadRequestException("You are already hosting a room.");
+    /**
+     * Short jittered pause before another attempt, so two members retrying together do not
+     * collide again.
+     */
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+
+    /**
+     * The room the user is in: hosting a PENDING/ACTIVE room, or guest of an ACTIVE one.
+     * Not @Transactional: answered from CurrentRoomCache (including "no room") when possible;
+     * a miss runs one primary read (RoomRepository.findCurrentRoom).
+     */
+    public RoomResponse getCurrentRoom(CurrentUserDetails user) {
+        User currentUser = retrieveUser(user, RoomRejection.LOOKUP_USER_NOT_FOUND);
+
+        RoomResponse room = currentRoomCache.get(currentUser.getId(), this::loadCurrentRoom);
+        if (room == null) {
+            logger.debug("User {} is not in a room.", currentUser.getEmail());
+            throw rejected(RoomRejection.LOOKUP_NOT_FOUND, new ResourceNotFoundException("You are not in a room."));
+        }
+        return room;
+    }
+
+    /**
+     * A room by id, live or ended, for its host and its guest (the invitee, while it is
+     * PENDING). Any other caller gets the same 404 as for a missing room, so ids of other users'
+     * rooms cannot be probed. The caller's cached current room answers the common case of asking
+     * for it by id.
+     */
+    public RoomResponse getRoom(CurrentUserDetails user, UUID roomId) {
+        User currentUser = retrieveUser(user, RoomRejection.LOOKUP_USER_NOT_FOUND);
+
+        // 1. Usually the caller's own current room
+        RoomResponse cached = currentRoomCache.getIfPresent(currentUser.getId());
+        if (cached != null && cached.id().equals(roomId)) {
+            return cached;
+        }
+
+        // 2. Otherwise one primary read, checked for membership
+        JoinedRoom room = roomRepository.findRoomView(roomId);
+        if (room != null && (currentUser.getId().equals(room.getHostId()) || currentUser.getId().equals(room.getGuestId()))) {
+            return RoomResponse.from(room);
+        }
+
+        // 3. Ended rooms stay visible to their members from the archive
+        if (room == null) {
+            EndedRoom ended = endedRoomRepository.findById(roomId).orElse(null);
+            if (ended != null && ended.isMember(currentUser.getId())) {
+                return RoomResponse.from(ended);
             }
+        }
+        logger.warn("User {} requested room {} which is missing or not theirs", currentUser.getEmail(), roomId);
+        throw rejected(RoomRejection.LOOKUP_NOT_FOUND, new ResourceNotFoundException("No room found."));
+    }
+
+    private RoomResponse loadCurrentRoom(UUID userId) {
+        JoinedRoom room = roomRepository.findCurrentRoom(userId);
+        return room != null ? RoomResponse.from(room) : null;
+    }
 
-            // 10. Ensure they are not a guest in any other active room
-            boolean isGuestInActiveRoom = roomRepository.existsByGuestAndStatus(
-                    currentUser, RoomStatus.ACTIVE
-            );
-            if (isGuestInActiveRoom) {
-                logger.warn("User {} is already a guest in another active room and cannot join room {}",
-                        currentUser.getEmail(), room.getId());
-                throw new BadRequestException("You are already participating in another room.");
+    /**
+     * Maps a negative RoomKeyIndex answer to the error the database path would report, or returns
+     * null when the key may be joinable (or the index cannot tell).
+     */
+    private RuntimeException rejectFromIndex(User currentUser, String encryptedKey) {
+        switch (roomKeyIndex.lookup(encryptedKey)) {
+            case NOT_FOUND -> {
+                logger.warn("No room found for provided key by user {}", currentUser.getEmail());
+                return rejected(RoomRejection.KEY_NOT_FOUND, new ResourceNotFoundException("No room found for the provided key."));
+            }
+            case EXPIRED -> {
+                logger.warn("Expired room key used by user {}", currentUser.getEmail());
+                return rejected(RoomRejection.KEY_EXPIRED, new BadRequestException("This room key has expired."));
+            }
+            case USED -> {
+                logger.warn("Already-used room key used by user {}", currentUser.getEmail());
+                return rejected(RoomRejection.KEY_USED, new BadRequestException("This room key has already been used."));
+            }
+            default -> {
+                return null;
             }
+        }
+    }
 
-            // 11. Attach user as guest, mark key as used, and activate room
-            room.setGuest(currentUser);
-            room.setStatus(RoomStatus.ACTIVE);
-            room.setRoomKeyCodeUsedWithin15Min(true);
-            room.setUpdatedAt(now);
+    /**
+     * Slow path for a join whose conditional UPDATE matched no row: re-runs the join checks
+     * one by one to report the first one that fails.
+     */
+    private RuntimeException explainJoinFailure(User currentUser, String encryptedKey, String normalizedUserEmail) {
+        // 1. Find room by encrypted key
+        Room room = roomRepository.findByRoomKeyCode(encryptedKey);
+        if (room == null) {
+            logger.warn("No room found for provided key by user {}", currentUser.getEmail());
+            return rejected(RoomRejection.KEY_NOT_FOUND, new ResourceNotFoundException("No room found for the provided key."));
+        }
 
-            Room updatedRoom = roomRepository.save(room);
-            logger.info("User {} successfully joined room {}",
-                    currentUser.getEmail(), updatedRoom.getId());
+        // 2. Check key expiration
+        if (Instant.now().isAfter(room.getRoomKeyCodeExpiresAt())) {
+            logger.warn("Expired room key used by user {} for room {}",
+                    currentUser.getEmail(), room.getId());
+            return rejected(RoomRejection.KEY_EXPIRED, new BadRequestException("This room key has expired."));
+        }
 
-            return updatedRoom;
+        // 3. Check key already used
+        if (room.isRoomKeyCodeUsedWithin15Min()) {
+            logger.warn("Already-used room key used by user {} for room {}",
+                    currentUser.getEmail(), room.getId());
+            return rejected(RoomRejection.KEY_USED, new BadRequestException("This room key has already been used."));
+        }
 
-        } catch (ResourceNotFoundException | BadRequestException e) {
-            throw e;
-        } catch (Exception e) {
-            logger.error("Unexpected error during room join for user {}: {}",
-                    user.uid(), e.getMessage(), e);
-            throw new RuntimeException("Failed to join room - " + e.getMessage(), e);
+        // 4. Check room is still joinable
+        if (room.isDisabled()) {
+            logger.warn("User {} attempted to join disabled room {}",
+                    currentUser.getEmail(), room.getId());
+            return rejected(RoomRejection.ROOM_DISABLED, new BadRequestException("This room is no longer available."));
+        }
+
+        if (room.getStatus() != RoomStatus.PENDING) {
+            logger.warn("User {} attempted to join non-pending room {} with status {}",
+                    currentUser.getEmail(), room.getId(), room.getStatus());
+            return rejected(RoomRejection.ROOM_NOT_PENDING, new BadRequestException("This room is not available to join."));
+        }
+
+        // 5. Ensure this user is the invitee
+        String normalizedInviteeEmail = room.getInviteeEmail().trim().toLowerCase();
+
+        if (!normalizedInviteeEmail.equals(normalizedUserEmail)) {
+            logger.warn("User {} tried to join room {} but invitee is {}",
+                    normalizedUserEmail, room.getId(), normalizedInviteeEmail);
+            return rejected(RoomRejection.NOT_INVITEE, new BadRequestException("You are not the invitee for this room."));
+        }
+
+        // 6. Ensure they are not the host of this room
+        if (room.getHost() != null &&
+                room.getHost().getId().equals(currentUser.getId())) {
+            logger.warn("User {} attempted to join their own room {} as guest",
+                    currentUser.getEmail(), room.getId());
+            return rejected(RoomRejection.OWN_ROOM, new BadRequestException("You cannot join your own room as a guest."));
+        }
+
+        // 7. Ensure they are not hosting any other pending/active room
+        RoomOccupancy occupancy = roomRepository.findOccupancy(currentUser.getId());
+        if (occupancy.isHosting()) {
+            logger.warn("User {} is already hosting another room and cannot join room {}",
+                    currentUser.getEmail(), room.getId());
+            return rejected(RoomRejection.JOIN_ALREADY_HOSTING, new BadRequestException("You are already hosting a room."));
         }
+
+        // 8. Ensure they are not a guest in any other active room
+        if (occupancy.isGuesting()) {
+            logger.warn("User {} is already a guest in another active room and cannot join room {}",
+                    currentUser.getEmail(), room.getId());
+            return rejected(RoomRejection.JOIN_ALREADY_GUEST, new BadRequestException("You are already participating in another room."));
+        }
+
+        // 9. Every check passes now, so a concurrent join consumed the key between the two reads
+        logger.warn("User {} lost a concurrent join race for room {}", currentUser.getEmail(), room.getId());
+        return rejected(RoomRejection.LOST_RACE, new BadRequestException("This room key has already been used."));
+    }
+
+    private User retrieveUser(CurrentUserDetails user, RoomRejection ifMissing) {
+        try {
+            return userService.retrieveUser(user);
+        } catch (ResourceNotFoundException e) {
+            throw rejected(ifMissing, e);
+        }
+    }
+
+    private <E extends RuntimeException> E rejected(RoomRejection rejection, E exception) {
+        rejections.get(rejection).increment();
+        return exception;
     }
 }
@@ -1,5 +1,7 @@
 package com.example.ChatAppBackend.Room;
 
 public enum RoomStatus {
-    PENDING, ACTIVE
+    PENDING, ACTIVE,
+    // Terminal: only ever seen on ended_rooms (EndedRoom), never in rooms
+    ENDED, EXPIRED
 }
@@ -0,0 +1,10 @@
+package com.example.ChatAppBackend.Room;
+
+import java.util.UUID;
+
+/**
+ * RoomOccupancy of one user out of a batch, read in one query for all of them.
+ */
+public interface UserOccupancy extends RoomOccupancy {
+    UUID getUserId();
+}
@@ -0,0 +1,35 @@
+package com.example.ChatAppBackend.RoomEvents;
+
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.Room.RoomStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A room lifecycle change as pushed to the room's host and guest. The id is what clients send
+ * back in Last-Event-ID when they reconnect.
+ */
+public record RoomEvent(
+        String id,
+        RoomEventType type,
+        UUID roomId,
+        RoomStatus status,
+        UUID hostId,
+        UUID guestId,
+        Instant occurredAt
+) {
+
+    public static RoomEvent of(RoomEventType type, Room room) {
+        return of(type, room.getId(), room.getStatus(),
+                room.getHost() != null ? room.getHost().getId() : null,
+                room.getGuest() != null ? room.getGuest().getId() : null);
+    }
+
+    /**
+     * For rooms known only by their columns (e.g. rows returned by a bulk DELETE).
+     */
+    public static RoomEvent of(RoomEventType type, UUID roomId, RoomStatus status, UUID hostId, UUID guestId) {
+        return new RoomEvent(UUID.randomUUID().toString(), type, roomId, status, hostId, guestId, Instant.now());
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.ChatAppBackend.RoomEvents;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans room events out to Server-Sent Event subscribers on this node, keyed by user id.
+ * - Publishing never blocks: each subscriber has a bounded queue drained on a virtual thread;
+ *   a subscriber whose queue is full is disconnected and resumes with Last-Event-ID
+ * - Frames are built once per event and written as-is to every subscriber
+ * - The last few events per user are kept so a reconnecting client gets what it missed; when
+ *   its Last-Event-ID is no longer known it gets a "resync" event and should re-read its room
+ * - Heartbeats keep idle connections open through proxies and double as the revocation check
+ * Events from other nodes arrive through the invalidation bus (ROOM_EVENT).
+ */
+public class RoomEventBroker implements InvalidationHandler, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomEventBroker.class);
+
+    // Browser EventSource reconnect delay hint
+    private static final long RECONNECT_MILLIS = 3_000;
+
+    private static final Set<DataWithMediaType> CONNECTED = SseEmitter.event()
+            .reconnectTime(RECONNECT_MILLIS).comment("connected").build();
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    private static final Set<DataWithMediaType> RESYNC = SseEmitter.event().name("resync").data("{}").build();
+
+    private final RevocationRegistry revocationRegistry;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int historySize;
+    private final long timeoutMillis;
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running;
+
+    private final ConcurrentHashMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Cache<UUID, History> history;
+    private final Counter delivered;
+    private final Counter disconnectedSlow;
+
+    public RoomEventBroker(RevocationRegistry revocationRegistry,
+                           ObjectMapper objectMapper,
+                           int bufferSize,
+                           int historySize,
+                           Duration historyTtl,
+                           Duration timeout,
+                           MeterRegistry meterRegistry) {
+        this.revocationRegistry = revocationRegistry;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.timeoutMillis = timeout.toMillis();
+        this.history = Caffeine.newBuilder()
+                .expireAfterWrite(historyTtl)
+                .build();
+        this.delivered = Counter.builder("room.events.delivered").register(meterRegistry);
+        this.disconnectedSlow = Counter.builder("room.events.subscribers.dropped").register(meterRegistry);
+        Gauge.builder("room.events.subscribers", this, RoomEventBroker::subscriberCount).register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user, replaying what came after lastEventId when it is given.
+     */
+    public SseEmitter subscribe(UUID userId, String uid, long issuedAt, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, uid, issuedAt, emitter);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.detach());
+
+        subscriber.offer(CONNECTED);
+        History h = history.get(userId, k -> new History());
+        synchronized (h) {
+            subscribers.compute(userId, (k, open) -> {
+                Set<Subscriber> set = open != null ? open : ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                h.replayAfter(lastEventId, subscriber);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Delivers an event to the host's and guest's subscribers on this node.
+     */
+    public void deliver(RoomEvent event, String json) {
+        Set<DataWithMediaType> frame = SseEmitter.event()
+                .id(event.id())
+                .name(event.type().name())
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+        deliverTo(event.hostId(), event.id(), frame);
+        if (event.guestId() != null && !event.guestId().equals(event.hostId())) {
+            deliverTo(event.guestId(), event.id(), frame);
+        }
+    }
+
+    private void deliverTo(UUID userId, String eventId, Set<DataWithMediaType> frame) {
+        if (userId == null) {
+            return;
+        }
+        History h = history.get(userId, k -> new History());
+        synchronized (h) {
+            h.append(eventId, frame);
+            Set<Subscriber> open = subscribers.get(userId);
+            if (open != null) {
+                for (Subscriber subscriber : open) {
+                    subscriber.offer(frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a heartbeat to every subscriber and closes the streams of revoked users.
+     */
+    public void heartbeat() {
+        for (Set<Subscriber> open : subscribers.values()) {
+            for (Subscriber subscriber : open) {
+                if (revocationRegistry.isRevoked(subscriber.uid, subscriber.issuedAt)) {
+                    subscriber.close();
+                } else {
+                    subscriber.offer(HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    public String serialize(RoomEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize room event " + event.id(), e);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type == InvalidationEventType.ROOM_EVENT && payload != null) {
+            try {
+                deliver(objectMapper.readValue(payload, RoomEvent.class), payload);
+            } catch (JsonProcessingException e) {
+                logger.warn("Ignoring malformed room event for room {}: {}", key, e.getMessage());
+            }
+        } else if (type == InvalidationEventType.USER_REVOKED) {
+            for (Set<Subscriber> open : subscribers.values()) {
+                for (Subscriber subscriber : open) {
+                    if (subscriber.uid.equals(key)) {
+                        subscriber.close();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Events from other nodes may have been lost: forget the history (so resumes fall back to a
+     * resync) and tell every open stream to re-read its state.
+     */
+    @Override
+    public void onReset() {
+        history.invalidateAll();
+        for (Set<Subscriber> open : subscribers.values()) {
+            for (Subscriber subscriber : open) {
+                subscriber.offer(RESYNC);
+            }
+        }
+    }
+
+    // ---- Lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Completes every open stream (clients reconnect to another node) and stops delivery. Runs
+     * before the web server's graceful shutdown, which would otherwise wait on the open streams.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Set<Subscriber> open : subscribers.values()) {
+            for (Subscriber subscriber : open) {
+                subscriber.close();
+            }
+        }
+        deliveryExecutor.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Most recent frames for one user, oldest first. Guarded by its own monitor.
+     */
+    private final class History {
+        private final ArrayDeque<String> ids = new ArrayDeque<>(historySize);
+        private final ArrayDeque<Set<DataWithMediaType>> frames = new ArrayDeque<>(historySize);
+
+        void append(String eventId, Set<DataWithMediaType> frame) {
+            if (ids.size() == historySize) {
+                ids.pollFirst();
+                frames.pollFirst();
+            }
+            ids.addLast(eventId);
+            frames.addLast(frame);
+        }
+
+        void replayAfter(String lastEventId, Subscriber subscriber) {
+            boolean found = false;
+            Iterator<Set<DataWithMediaType>> frame = frames.iterator();
+            for (String id : ids) {
+                Set<DataWithMediaType> next = frame.next();
+                if (found) {
+                    subscriber.offer(next);
+                } else if (id.equals(lastEventId)) {
+                    found = true;
+                }
+            }
+            if (!found) {
+                subscriber.offer(RESYNC);
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final UUID userId;
+        private final String uid;
+        private final long issuedAt;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(UUID userId, String uid, long issuedAt, SseEmitter emitter) {
+            this.userId = userId;
+            this.uid = uid;
+            this.issuedAt = issuedAt;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                disconnectedSlow.increment();
+                logger.debug("Room event subscriber for user {} is not keeping up; disconnecting", userId);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Executor shut down: the node is stopping
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> frame;
+                while (!closed && (frame = queue.poll()) != null) {
+                    emitter.send(frame);
+                    if (frame != HEARTBEAT && frame != CONNECTED) {
+                        delivered.increment();
+                    }
+                }
+            } catch (Exception e) {
+                // Client went away; the container reports it through onError/onCompletion as well
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An offer may have landed after the last poll but before the flag was cleared
+            if (!closed && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            detach();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // Already completed by the container
+            }
+        }
+
+        void detach() {
+            closed = true;
+            queue.clear();
+            subscribers.computeIfPresent(userId, (k, open) -> {
+                open.remove(this);
+                return open.isEmpty() ? null : open;
+            });
+        }
+    }
+}
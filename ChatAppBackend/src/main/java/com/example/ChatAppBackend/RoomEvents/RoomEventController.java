@@ -0,0 +1,38 @@
+package com.example.ChatAppBackend.RoomEvents;
+
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokens;
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.CurrentSecurityContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController()
+@RequestMapping("/api/room")
+public class RoomEventController {
+
+    private final UserService userService;
+    private final RoomEventBroker roomEventBroker;
+
+    public RoomEventController(UserService userService, RoomEventBroker roomEventBroker) {
+        this.userService = userService;
+        this.roomEventBroker = roomEventBroker;
+    }
+
+    /**
+     * Server-Sent Events stream of the caller's room lifecycle events (CREATED, JOINED, ...).
+     * Clients reconnect with Last-Event-ID to receive what they missed.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        User currentUser = userService.retrieveUser(user);
+        return roomEventBroker.subscribe(currentUser.getId(), user.uid(),
+                FirebaseTokens.issuedAtEpochSecond(user.token()), lastEventId);
+    }
+}
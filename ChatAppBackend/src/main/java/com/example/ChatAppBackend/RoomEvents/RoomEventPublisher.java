@@ -0,0 +1,44 @@
+package com.example.ChatAppBackend.RoomEvents;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.Room.Room;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entry point for services: publishes a room event to this node's subscribers and, through the
+ * invalidation bus, to every other node's. Both happen only after the surrounding transaction
+ * commits, so a rolled-back change is never announced.
+ */
+public class RoomEventPublisher {
+
+    private final RoomEventBroker broker;
+    private final InvalidationPublisher invalidationPublisher;
+
+    public RoomEventPublisher(RoomEventBroker broker, InvalidationPublisher invalidationPublisher) {
+        this.broker = broker;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    public void publish(RoomEventType type, Room room) {
+        // Built now: the room is still attached and reflects this transaction's changes
+        publish(RoomEvent.of(type, room));
+    }
+
+    public void publish(RoomEvent event) {
+        String json = broker.serialize(event);
+
+        invalidationPublisher.publish(InvalidationEventType.ROOM_EVENT, event.roomId().toString(), json);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broker.deliver(event, json);
+                }
+            });
+        } else {
+            broker.deliver(event, json);
+        }
+    }
+}
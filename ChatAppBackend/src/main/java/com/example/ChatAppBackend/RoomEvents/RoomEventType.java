@@ -0,0 +1,16 @@
+package com.example.ChatAppBackend.RoomEvents;
+
+public enum RoomEventType {
+    // Room created; sent to the host and the invitee
+    CREATED,
+    // Invitee joined with the room key; the room is ACTIVE
+    JOINED,
+    // Room key expired before anyone joined
+    KEY_EXPIRED,
+    // Room disabled (or a member deleted) and removed by the reaper
+    DISABLED,
+    // Host closed the room; it is ENDED
+    CLOSED,
+    // Guest left (or the invitee declined); the room is ENDED
+    LEFT
+}
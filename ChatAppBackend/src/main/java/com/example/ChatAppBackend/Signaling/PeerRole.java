@@ -0,0 +1,9 @@
+package com.example.ChatAppBackend.Signaling;
+
+public enum PeerRole {
+    HOST, GUEST;
+
+    public PeerRole other() {
+        return this == HOST ? GUEST : HOST;
+    }
+}
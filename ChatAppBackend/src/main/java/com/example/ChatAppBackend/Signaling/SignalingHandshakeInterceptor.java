@@ -0,0 +1,147 @@
+package com.example.ChatAppBackend.Signaling;
+
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.Room.RoomStatus;
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokens;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import com.example.ChatAppBackend.TokenAndFilter.TokenVerifier;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Authenticates a signaling connection once, at the HTTP upgrade, and resolves the caller's
+ * role in the room so the handler never touches the verifier or the database per message.
+ * - Token: "Authorization: Bearer ..." or, for browsers, the access_token query parameter
+ * - Room: must be ACTIVE, not disabled, and the caller must be its host or guest
+ */
+public class SignalingHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalingHandshakeInterceptor.class);
+
+    public static final String PATH = "/ws/rooms/{roomId}/signal";
+
+    static final String ATTR_UID = "signaling.uid";
+    static final String ATTR_ISSUED_AT = "signaling.iat";
+    static final String ATTR_ROOM_ID = "signaling.roomId";
+    static final String ATTR_ROLE = "signaling.role";
+
+    private static final UriTemplate PATH_TEMPLATE = new UriTemplate(PATH);
+
+    private final TokenVerifier tokenVerifier;
+    private final boolean checkRevoked;
+    private final RevocationRegistry revocationRegistry;
+    private final RoomRepository roomRepository;
+
+    /**
+     * @param revocationRegistry when non-null, revocation is checked against this local table
+     *                           after verification (typically with checkRevoked=false)
+     */
+    public SignalingHandshakeInterceptor(TokenVerifier tokenVerifier,
+                                         boolean checkRevoked,
+                                         RevocationRegistry revocationRegistry,
+                                         RoomRepository roomRepository) {
+        this.tokenVerifier = tokenVerifier;
+        this.checkRevoked = checkRevoked;
+        this.revocationRegistry = revocationRegistry;
+        this.roomRepository = roomRepository;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request,
+                                   ServerHttpResponse response,
+                                   WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        // 1. Resolve room id from the path
+        Map<String, String> variables = PATH_TEMPLATE.match(request.getURI().getPath());
+        UUID roomId;
+        try {
+            roomId = UUID.fromString(variables.get("roomId"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return reject(response, HttpStatus.NOT_FOUND);
+        }
+
+        // 2. Verify the ID token
+        String idToken = bearerToken(request);
+        if (idToken == null) {
+            return reject(response, HttpStatus.UNAUTHORIZED);
+        }
+
+        FirebaseToken token;
+        try {
+            token = tokenVerifier.verify(idToken, checkRevoked);
+        } catch (FirebaseAuthException e) {
+            return reject(response, HttpStatus.UNAUTHORIZED);
+        }
+        long issuedAt = FirebaseTokens.issuedAtEpochSecond(token);
+        if (revocationRegistry != null && revocationRegistry.isRevoked(token.getUid(), issuedAt)) {
+            return reject(response, HttpStatus.UNAUTHORIZED);
+        }
+
+        // 3. Resolve membership once for the lifetime of the connection
+        Room room = roomRepository.findById(roomId).orElse(null);
+        if (room == null) {
+            return reject(response, HttpStatus.NOT_FOUND);
+        }
+        if (room.getStatus() != RoomStatus.ACTIVE || room.isDisabled()) {
+            logger.debug("Signaling rejected for user {}: room {} is {}", token.getUid(), roomId, room.getStatus());
+            return reject(response, HttpStatus.CONFLICT);
+        }
+
+        PeerRole role = roleOf(room, token.getUid());
+        if (role == null) {
+            logger.warn("User {} attempted to signal in room {} they are not part of", token.getUid(), roomId);
+            return reject(response, HttpStatus.FORBIDDEN);
+        }
+
+        attributes.put(ATTR_UID, token.getUid());
+        attributes.put(ATTR_ISSUED_AT, issuedAt);
+        attributes.put(ATTR_ROOM_ID, roomId);
+        attributes.put(ATTR_ROLE, role);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request,
+                               ServerHttpResponse response,
+                               WebSocketHandler wsHandler,
+                               Exception exception) {
+    }
+
+    static PeerRole roleOf(Room room, String uid) {
+        if (room.getHost() != null && uid.equals(room.getHost().getFirebaseUid())) {
+            return PeerRole.HOST;
+        }
+        if (room.getGuest() != null && uid.equals(room.getGuest().getFirebaseUid())) {
+            return PeerRole.GUEST;
+        }
+        return null;
+    }
+
+    private static String bearerToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            String token = header.substring("Bearer ".length()).trim();
+            return token.isEmpty() ? null : token;
+        }
+        String param = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("access_token");
+        return param == null || param.isBlank() ? null : param;
+    }
+
+    private static boolean reject(ServerHttpResponse response, HttpStatus status) {
+        response.setStatusCode(status);
+        return false;
+    }
+}
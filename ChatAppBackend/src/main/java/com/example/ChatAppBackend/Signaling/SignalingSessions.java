@@ -0,0 +1,109 @@
+package com.example.ChatAppBackend.Signaling;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Live signaling connections on this node: room id -> (host session, guest session).
+ * A room has at most two peers, so fan-out is a single map read for the other slot.
+ */
+public class SignalingSessions {
+
+    private final ConcurrentHashMap<UUID, Peers> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the session in its role slot and returns the session it replaced (same user
+     * reconnecting), or null.
+     */
+    public WebSocketSession join(UUID roomId, PeerRole role, WebSocketSession session) {
+        WebSocketSession[] replaced = new WebSocketSession[1];
+        rooms.compute(roomId, (id, peers) -> {
+            Peers p = peers == null ? new Peers() : peers;
+            replaced[0] = p.set(role, session);
+            return p;
+        });
+        return replaced[0];
+    }
+
+    /**
+     * Removes the session if it still occupies its slot; returns true when it did.
+     */
+    public boolean leave(UUID roomId, PeerRole role, WebSocketSession session) {
+        boolean[] removed = new boolean[1];
+        rooms.computeIfPresent(roomId, (id, peers) -> {
+            if (peers.get(role) == session) {
+                peers.set(role, null);
+                removed[0] = true;
+            }
+            return peers.isEmpty() ? null : peers;
+        });
+        return removed[0];
+    }
+
+    public WebSocketSession peer(UUID roomId, PeerRole role) {
+        Peers peers = rooms.get(roomId);
+        return peers == null ? null : peers.get(role.other());
+    }
+
+    public List<WebSocketSession> sessions(UUID roomId) {
+        Peers peers = rooms.get(roomId);
+        List<WebSocketSession> sessions = new ArrayList<>(2);
+        if (peers != null) {
+            peers.forEach((role, session) -> sessions.add(session));
+        }
+        return sessions;
+    }
+
+    public void forEach(BiConsumer<UUID, WebSocketSession> action) {
+        rooms.forEach((roomId, peers) -> peers.forEach((role, session) -> action.accept(roomId, session)));
+    }
+
+    public boolean hasRoom(UUID roomId) {
+        return rooms.containsKey(roomId);
+    }
+
+    public int roomCount() {
+        return rooms.size();
+    }
+
+    private static final class Peers {
+        private volatile WebSocketSession host;
+        private volatile WebSocketSession guest;
+
+        WebSocketSession get(PeerRole role) {
+            return role == PeerRole.HOST ? host : guest;
+        }
+
+        WebSocketSession set(PeerRole role, WebSocketSession session) {
+            WebSocketSession old;
+            if (role == PeerRole.HOST) {
+                old = host;
+                host = session;
+            } else {
+                old = guest;
+                guest = session;
+            }
+            return old;
+        }
+
+        boolean isEmpty() {
+            return host == null && guest == null;
+        }
+
+        void forEach(BiConsumer<PeerRole, WebSocketSession> action) {
+            WebSocketSession h = host;
+            WebSocketSession g = guest;
+            if (h != null) {
+                action.accept(PeerRole.HOST, h);
+            }
+            if (g != null) {
+                action.accept(PeerRole.GUEST, g);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.ChatAppBackend.Signaling;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.Room.RoomStatus;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Relays WebRTC signaling (SDP offers/answers, ICE candidates) between the host and guest of an
+ * ACTIVE room. Payloads are opaque to the server and forwarded as the same TextMessage instance,
+ * so relaying allocates nothing beyond what the container needs to write the frame.
+ * - Every session is wrapped in a ConcurrentWebSocketSessionDecorator: sends never block the
+ *   sender's thread on a slow peer, and a peer whose outbound buffer or send time exceeds the
+ *   limits is disconnected rather than buffered without bound
+ * - Server notices are pre-built constants: joined, peer-joined, peer-left, peer-not-connected
+ * - Connections are closed when their user is revoked or their room stops being ACTIVE
+ */
+public class SignalingWebSocketHandler extends TextWebSocketHandler implements InvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalingWebSocketHandler.class);
+
+    static final TextMessage JOINED_ALONE = new TextMessage("{\"type\":\"joined\",\"peerConnected\":false}");
+    static final TextMessage JOINED_WITH_PEER = new TextMessage("{\"type\":\"joined\",\"peerConnected\":true}");
+    static final TextMessage PEER_JOINED = new TextMessage("{\"type\":\"peer-joined\"}");
+    static final TextMessage PEER_LEFT = new TextMessage("{\"type\":\"peer-left\"}");
+    static final TextMessage PEER_NOT_CONNECTED = new TextMessage("{\"type\":\"error\",\"reason\":\"peer-not-connected\"}");
+
+    static final CloseStatus REPLACED = new CloseStatus(4000, "Replaced by a newer connection");
+    static final CloseStatus REVOKED = CloseStatus.POLICY_VIOLATION.withReason("Session revoked");
+    static final CloseStatus ROOM_CLOSED = new CloseStatus(4001, "Room is no longer active");
+
+    private static final String DECORATED = "signaling.session";
+
+    private final SignalingSessions sessions;
+    private final RoomRepository roomRepository;
+    private final RevocationRegistry revocationRegistry;
+    private final int maxMessageSizeBytes;
+    private final long idleTimeoutMillis;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimitBytes;
+    private final Counter relayed;
+    private final Counter dropped;
+
+    public SignalingWebSocketHandler(SignalingSessions sessions,
+                                     RoomRepository roomRepository,
+                                     RevocationRegistry revocationRegistry,
+                                     int maxMessageSizeBytes,
+                                     long idleTimeoutMillis,
+                                     int sendTimeLimitMillis,
+                                     int bufferSizeLimitBytes,
+                                     MeterRegistry meterRegistry) {
+        this.sessions = sessions;
+        this.roomRepository = roomRepository;
+        this.revocationRegistry = revocationRegistry;
+        this.maxMessageSizeBytes = maxMessageSizeBytes;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.bufferSizeLimitBytes = bufferSizeLimitBytes;
+        this.relayed = Counter.builder("signaling.messages.relayed").register(meterRegistry);
+        this.dropped = Counter.builder("signaling.messages.dropped").register(meterRegistry);
+        Gauge.builder("signaling.rooms", sessions, SignalingSessions::roomCount).register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession raw) {
+        // Limits are applied per session rather than on the container, which only exists once a
+        // real servlet container has started
+        raw.setTextMessageSizeLimit(maxMessageSizeBytes);
+        if (raw instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof Session container) {
+            container.setMaxIdleTimeout(idleTimeoutMillis);
+        }
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(raw, sendTimeLimitMillis, bufferSizeLimitBytes);
+        raw.getAttributes().put(DECORATED, session);
+        UUID roomId = roomId(raw);
+        PeerRole role = role(raw);
+
+        WebSocketSession replaced = sessions.join(roomId, role, session);
+        if (replaced != null) {
+            close(replaced, REPLACED);
+        }
+
+        WebSocketSession peer = sessions.peer(roomId, role);
+        send(session, peer != null ? JOINED_WITH_PEER : JOINED_ALONE);
+        if (peer != null) {
+            send(peer, PEER_JOINED);
+        }
+        logger.debug("Signaling connected: user {} as {} in room {}", raw.getAttributes().get(SignalingHandshakeInterceptor.ATTR_UID), role, roomId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession raw, TextMessage message) {
+        WebSocketSession peer = sessions.peer(roomId(raw), role(raw));
+        if (peer == null) {
+            dropped.increment();
+            send(decorated(raw), PEER_NOT_CONNECTED);
+            return;
+        }
+        if (send(peer, message)) {
+            relayed.increment();
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession raw, CloseStatus status) {
+        UUID roomId = roomId(raw);
+        PeerRole role = role(raw);
+        if (sessions.leave(roomId, role, decorated(raw))) {
+            WebSocketSession peer = sessions.peer(roomId, role);
+            if (peer != null) {
+                send(peer, PEER_LEFT);
+            }
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession raw, Throwable exception) {
+        logger.debug("Signaling transport error in room {}: {}", roomId(raw), exception.getMessage());
+    }
+
+    /**
+     * Closes connections whose user has been revoked since the handshake. Runs on a timer
+     * (signaling.revocation-sweep-interval) over map reads only, never per message.
+     */
+    public void sweepRevoked() {
+        sessions.forEach((roomId, session) -> {
+            String uid = (String) session.getAttributes().get(SignalingHandshakeInterceptor.ATTR_UID);
+            long issuedAt = (Long) session.getAttributes().get(SignalingHandshakeInterceptor.ATTR_ISSUED_AT);
+            if (revocationRegistry.isRevoked(uid, issuedAt)) {
+                close(session, REVOKED);
+            }
+        });
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type == InvalidationEventType.USER_REVOKED) {
+            sessions.forEach((roomId, session) -> {
+                if (key.equals(session.getAttributes().get(SignalingHandshakeInterceptor.ATTR_UID))) {
+                    close(session, REVOKED);
+                }
+            });
+        } else if (type == InvalidationEventType.ROOM_CHANGED) {
+            UUID roomId = parseUuid(key);
+            if (roomId != null && sessions.hasRoom(roomId)) {
+                revalidate(roomId);
+            }
+        }
+    }
+
+    @Override
+    public void onReset() {
+        Set<UUID> roomIds = new HashSet<>();
+        sessions.forEach((roomId, session) -> roomIds.add(roomId));
+        roomIds.forEach(this::revalidate);
+    }
+
+    /**
+     * Re-reads the room and closes its connections if it is no longer ACTIVE.
+     */
+    public void revalidate(UUID roomId) {
+        Room room = roomRepository.findById(roomId).orElse(null);
+        if (room == null || room.getStatus() != RoomStatus.ACTIVE || room.isDisabled()) {
+            closeRoom(roomId);
+        }
+    }
+
+    /**
+     * Closes the room's connections on this node without a read, for a room known to have ended.
+     */
+    public void closeRoom(UUID roomId) {
+        for (WebSocketSession session : sessions.sessions(roomId)) {
+            close(session, ROOM_CLOSED);
+        }
+    }
+
+    private static WebSocketSession decorated(WebSocketSession raw) {
+        return (WebSocketSession) raw.getAttributes().get(DECORATED);
+    }
+
+    private static UUID roomId(WebSocketSession session) {
+        return (UUID) session.getAttributes().get(SignalingHandshakeInterceptor.ATTR_ROOM_ID);
+    }
+
+    private static PeerRole role(WebSocketSession session) {
+        return (PeerRole) session.getAttributes().get(SignalingHandshakeInterceptor.ATTR_ROLE);
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends through the decorator. A peer over its buffer/time limit is closed here: letting
+     * SessionLimitExceededException escape would make the container close the sender instead.
+     */
+    private static boolean send(WebSocketSession session, TextMessage message) {
+        try {
+            session.sendMessage(message);
+            return true;
+        } catch (SessionLimitExceededException e) {
+            logger.info("Closing slow signaling peer {}: {}", session.getId(), e.getMessage());
+            close(session, e.getStatus());
+            return false;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Signaling send to {} failed: {}", session.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            logger.debug("Signaling close of {} failed: {}", session.getId(), e.getMessage());
+        }
+    }
+}
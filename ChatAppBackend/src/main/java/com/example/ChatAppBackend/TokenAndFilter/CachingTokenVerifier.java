@@ -0,0 +1,203 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TokenVerifier decorator that remembers successfully verified ID tokens.
+ * - Entries are keyed by the SHA-256 of the raw token (the token itself is never stored)
+ * - An entry lives for at most maxTtl and never past the token's own "exp" claim
+ * - Concurrent requests carrying the same token share a single delegate verification
+ * - evictUser(uid) drops every cached token of a user (used when tokens are revoked)
+ * - Size-bounded by Caffeine; hits, misses, evictions and size are published as auth.token.cache.*
+ */
+public class CachingTokenVerifier implements TokenVerifier, VerifiedTokenCache {
+
+    private final TokenVerifier delegate;
+    private final int maxEntries;
+    private final long maxTtlMillis;
+    private final Clock clock;
+
+    private final Cache<String, CachedToken> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<FirebaseToken>> inFlight = new ConcurrentHashMap<>();
+
+    // uid -> time of the last eviction, so a verification that was already running
+    // when the user got revoked does not put a stale entry back into the cache
+    private final ConcurrentHashMap<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Removals made here (expired on read, evictUser, clear); size evictions are counted by Caffeine
+    private final LongAdder removals = new LongAdder();
+
+    public CachingTokenVerifier(TokenVerifier delegate, int maxEntries, Duration maxTtl, Clock clock, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.clock = clock;
+        // Each entry carries its own deadline (checked on read); Caffeine enforces the size bound and
+        // drops anything older than maxTtl. Maintenance runs on the caller, so counts are exact
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .expireAfterWrite(Duration.ofMillis(Math.max(maxTtlMillis, 1)))
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        FunctionCounter.builder("auth.token.cache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.token.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.token.cache.evictions", this, CachingTokenVerifier::evictionCount)
+                .register(meterRegistry);
+        Gauge.builder("auth.token.cache.size", cache, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public FirebaseToken verify(String idToken, boolean checkRevoked) throws FirebaseAuthException {
+        if (maxEntries <= 0 || maxTtlMillis <= 0) {
+            return delegate.verify(idToken, checkRevoked);
+        }
+
+        // Tokens verified without the revocation check must never answer a checkRevoked call
+        String key = (checkRevoked ? "r:" : "n:") + DigestUtils.sha256Hex(idToken);
+        long now = clock.millis();
+
+        CachedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                hits.increment();
+                return cached.token();
+            }
+            if (cache.asMap().remove(key, cached)) {
+                removals.increment();
+            }
+        }
+        misses.increment();
+
+        CompletableFuture<FirebaseToken> mine = new CompletableFuture<>();
+        CompletableFuture<FirebaseToken> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            FirebaseToken token = delegate.verify(idToken, checkRevoked);
+            store(key, token, now);
+            mine.complete(token);
+            return token;
+        } catch (FirebaseAuthException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public void evictUser(String uid) {
+        if (uid == null) {
+            return;
+        }
+        long now = clock.millis();
+        revokedAt.put(uid, now);
+
+        Iterator<Map.Entry<String, CachedToken>> it = cache.asMap().entrySet().iterator();
+        while (it.hasNext()) {
+            if (uid.equals(it.next().getValue().uid())) {
+                it.remove();
+                removals.increment();
+            }
+        }
+
+        // Revocation markers only matter while an entry could still be alive
+        revokedAt.values().removeIf(t -> t < now - maxTtlMillis);
+    }
+
+    @Override
+    public void clear() {
+        cache.cleanUp();
+        long size = cache.estimatedSize();
+        cache.invalidateAll();
+        removals.add(size);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        cache.cleanUp();
+        return removals.sum() + cache.stats().evictionCount();
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void store(String key, FirebaseToken token, long loadStartedAt) {
+        Long revoked = revokedAt.get(token.getUid());
+        if (revoked != null && revoked >= loadStartedAt) {
+            return;
+        }
+
+        long expiresAt = loadStartedAt + maxTtlMillis;
+        long exp = FirebaseTokens.expiresAtEpochSecond(token);
+        if (exp > 0) {
+            expiresAt = Math.min(expiresAt, exp * 1000L);
+        }
+        if (expiresAt <= clock.millis()) {
+            return;
+        }
+
+        CachedToken entry = new CachedToken(token, token.getUid(), expiresAt);
+        cache.put(key, entry);
+
+        // An evictUser that ran between the check above and the put may have missed this entry;
+        // it records the revocation before scanning, so re-reading it here closes that window
+        revoked = revokedAt.get(token.getUid());
+        if (revoked != null && revoked >= loadStartedAt && cache.asMap().remove(key, entry)) {
+            removals.increment();
+        }
+    }
+
+    private static FirebaseToken await(CompletableFuture<FirebaseToken> running) throws FirebaseAuthException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FirebaseAuthException fae) {
+                throw fae;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedToken(FirebaseToken token, String uid, long expiresAtMillis) {}
+}
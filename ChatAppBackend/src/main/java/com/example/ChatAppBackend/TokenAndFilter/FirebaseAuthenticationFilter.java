@@ -1,5 +1,7 @@
 package com.example.ChatAppBackend.TokenAndFilter;
 
+import com.example.ChatAppBackend.Exceptions.GlobalException.ProblemType;
+import com.example.ChatAppBackend.Exceptions.GlobalException.ProblemWriter;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
@@ -20,10 +22,20 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenVerifier tokenVerifier;
     private final boolean checkRevoked;
+    private final RevocationRegistry revocationRegistry;
 
     public FirebaseAuthenticationFilter(TokenVerifier tokenVerifier, boolean checkRevoked) {
+        this(tokenVerifier, checkRevoked, null);
+    }
+
+    /**
+     * @param revocationRegistry when non-null, revocation is checked against this local table
+     *                           after verification (typically with checkRevoked=false)
+     */
+    public FirebaseAuthenticationFilter(TokenVerifier tokenVerifier, boolean checkRevoked, RevocationRegistry revocationRegistry) {
         this.tokenVerifier = tokenVerifier;
         this.checkRevoked = checkRevoked;
+        this.revocationRegistry = revocationRegistry;
     }
 
     @Override
@@ -42,13 +54,21 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
         String idToken = header.substring("Bearer ".length()).trim();
         if (idToken.isEmpty()) {
-            unauthorized(response, "Missing Firebase ID token");
+            unauthorized(request, response, "Missing Firebase ID token");
             return;
         }
 
         try {
             FirebaseToken token = tokenVerifier.verify(idToken, checkRevoked);
 
+            if (revocationRegistry != null) {
+                if (revocationRegistry.isRevoked(token.getUid(), FirebaseTokens.authTimeEpochSecond(token))) {
+                    unauthorized(request, response, "Invalid or revoked Firebase ID token");
+                    return;
+                }
+                revocationRegistry.recordSeen(token.getUid());
+            }
+
             // Optional: map custom claim "authorities" → GrantedAuthority
             Collection<GrantedAuthority> authorities = extractAuthorities(token);
 
@@ -58,18 +78,17 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
 
         } catch (FirebaseAuthException ex) {
-            unauthorized(response, "Invalid or revoked Firebase ID token");
+            unauthorized(request, response, "Invalid or revoked Firebase ID token");
         }
     }
 
-    private void unauthorized(HttpServletResponse response, String message) throws IOException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json");
-        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    private void unauthorized(HttpServletRequest request, HttpServletResponse response, String message) throws IOException {
+        ProblemWriter.write(response, ProblemType.UNAUTHORIZED, message, request.getRequestURI());
     }
 
+    // Package-private for the JMH benchmarks in src/jmh/java
     @SuppressWarnings("unchecked")
-    private Collection<GrantedAuthority> extractAuthorities(FirebaseToken token) {
+    Collection<GrantedAuthority> extractAuthorities(FirebaseToken token) {
         Object raw = token.getClaims().get("authorities");
         if (raw instanceof List<?> list && !list.isEmpty() && list.stream().allMatch(Objects::nonNull)) {
             // Example: ["ADMIN","USER"] -> ROLE_ADMIN, ROLE_USER
@@ -0,0 +1,56 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.google.firebase.auth.FirebaseToken;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+
+/**
+ * Builds {@link FirebaseToken} instances from already-verified claims.
+ * The SDK only exposes a package-private constructor, so verifiers that do not go through
+ * FirebaseAuth (local verification, tests, stubs) use this factory instead.
+ */
+public final class FirebaseTokens {
+
+    private static final Constructor<FirebaseToken> CONSTRUCTOR;
+
+    static {
+        try {
+            CONSTRUCTOR = FirebaseToken.class.getDeclaredConstructor(Map.class);
+            CONSTRUCTOR.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unsupported firebase-admin version: FirebaseToken(Map) not found", e);
+        }
+    }
+
+    private FirebaseTokens() {}
+
+    public static FirebaseToken fromClaims(Map<String, Object> claims) {
+        try {
+            return CONSTRUCTOR.newInstance(claims);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create FirebaseToken from claims", e);
+        }
+    }
+
+    /** Returns the "exp" claim in epoch seconds, or -1 when it is absent. */
+    public static long expiresAtEpochSecond(FirebaseToken token) {
+        return numericClaim(token, "exp");
+    }
+
+    /** Returns the "iat" claim in epoch seconds, or -1 when it is absent. */
+    public static long issuedAtEpochSecond(FirebaseToken token) {
+        return numericClaim(token, "iat");
+    }
+
+    /** Returns the "auth_time" claim in epoch seconds, falling back to "iat"; -1 when both are absent. */
+    public static long authTimeEpochSecond(FirebaseToken token) {
+        long authTime = numericClaim(token, "auth_time");
+        return authTime >= 0 ? authTime : issuedAtEpochSecond(token);
+    }
+
+    private static long numericClaim(FirebaseToken token, String name) {
+        Object raw = token.getClaims().get(name);
+        return raw instanceof Number n ? n.longValue() : -1L;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of the identity provider's signing keys (a JWKS document).
+ * - Keys are parsed into PublicKey objects once per fetch and shared by all requests
+ * - A background thread refreshes the keys when the Cache-Control max-age runs out
+ * - Supports http(s) URLs and file: URLs (the latter for offline tests and local setups)
+ */
+public class JwksKeyStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyStore.class);
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+
+    private final URI jwksUri;
+    private final Duration minRefreshInterval;
+    private final Duration maxRefreshInterval;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastAttemptMillis;
+
+    public JwksKeyStore(URI jwksUri, Duration minRefreshInterval, Duration maxRefreshInterval, Clock clock) {
+        this.jwksUri = jwksUri;
+        this.minRefreshInterval = minRefreshInterval;
+        this.maxRefreshInterval = maxRefreshInterval;
+        this.clock = clock;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "jwks-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Loads the keys once (on the calling thread) and schedules the background refresh.
+     * A failed first load is logged and retried; verification fails until keys are present.
+     */
+    public void start() {
+        refreshAndReschedule();
+    }
+
+    /**
+     * Returns the key for the given key id, or null if it is not known.
+     * An unknown kid usually means the provider rotated keys, so it triggers one
+     * synchronous refresh (at most once per minRefreshInterval).
+     */
+    public PublicKey getKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key != null) {
+            return key;
+        }
+        if (clock.millis() - lastAttemptMillis >= minRefreshInterval.toMillis()) {
+            refreshLock.lock();
+            try {
+                if (clock.millis() - lastAttemptMillis >= minRefreshInterval.toMillis()) {
+                    refresh();
+                }
+            } catch (IOException | GeneralSecurityException e) {
+                logger.warn("On-demand JWKS refresh from {} failed: {}", jwksUri, e.getMessage());
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return keys.get(kid);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refreshAndReschedule() {
+        Duration next;
+        try {
+            next = refresh();
+        } catch (Exception e) {
+            logger.error("JWKS refresh from {} failed: {}", jwksUri, e.getMessage(), e);
+            next = minRefreshInterval;
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::refreshAndReschedule, next.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Fetches and parses the JWKS document, swapping the key map atomically.
+     * Returns how long to wait before the next refresh.
+     */
+    Duration refresh() throws IOException, GeneralSecurityException {
+        lastAttemptMillis = clock.millis();
+        Fetched fetched = fetch();
+        Map<String, PublicKey> parsed = parse(fetched.body());
+        keys = Map.copyOf(parsed);
+        logger.debug("Loaded {} signing keys from {}", parsed.size(), jwksUri);
+
+        Duration next = fetched.maxAge() != null ? fetched.maxAge() : maxRefreshInterval;
+        if (next.compareTo(minRefreshInterval) < 0) return minRefreshInterval;
+        if (next.compareTo(maxRefreshInterval) > 0) return maxRefreshInterval;
+        return next;
+    }
+
+    private Fetched fetch() throws IOException {
+        if ("file".equalsIgnoreCase(jwksUri.getScheme())) {
+            try (InputStream in = jwksUri.toURL().openStream()) {
+                return new Fetched(in.readAllBytes(), null);
+            }
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(jwksUri).timeout(Duration.ofSeconds(10)).GET().build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected status " + response.statusCode() + " fetching JWKS");
+            }
+            Duration maxAge = response.headers().firstValue("Cache-Control").map(JwksKeyStore::maxAge).orElse(null);
+            return new Fetched(response.body(), maxAge);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching JWKS", e);
+        }
+    }
+
+    private Map<String, PublicKey> parse(byte[] body) throws IOException, GeneralSecurityException {
+        JsonNode root = objectMapper.readTree(body);
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode jwk : root.path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, decoder.decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, decoder.decode(jwk.path("e").asText()));
+            parsed.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        if (parsed.isEmpty()) {
+            throw new IOException("JWKS document contains no RSA keys");
+        }
+        return parsed;
+    }
+
+    /** Extracts max-age from a Cache-Control header value, or null when absent. */
+    static Duration maxAge(String cacheControl) {
+        Matcher m = MAX_AGE.matcher(cacheControl);
+        return m.find() ? Duration.ofSeconds(Long.parseLong(m.group(1))) : null;
+    }
+
+    private record Fetched(byte[] body, Duration maxAge) {}
+}
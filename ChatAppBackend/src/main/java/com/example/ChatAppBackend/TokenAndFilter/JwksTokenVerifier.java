@@ -0,0 +1,167 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import com.google.firebase.auth.UserRecord;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Verifies Firebase ID tokens locally instead of calling FirebaseAuth.verifyIdToken.
+ * Checks, in order:
+ * - Compact JWS shape, alg=RS256 and a kid known to the JwksKeyStore
+ * - RS256 signature against the cached public key
+ * - iss = https://securetoken.google.com/{projectId}, aud = projectId
+ * - exp in the future (no skew: an expired token is never accepted), iat/auth_time not in the
+ *   future (with clock skew), non-empty sub
+ * Revocation (checkRevoked=true) still needs the user record, so it is looked up through
+ * FirebaseAuth when one is configured; like the SDK it compares against auth_time (iat when a
+ * token has none, as FirebaseTokens.authTimeEpochSecond), so a token refreshed after the
+ * revocation is still rejected.
+ */
+public class JwksTokenVerifier implements TokenVerifier {
+
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+    private final JwksKeyStore keyStore;
+    private final String projectId;
+    private final String expectedIssuer;
+    private final long skewSeconds;
+    private final Clock clock;
+    private final FirebaseAuth firebaseAuth;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public JwksTokenVerifier(JwksKeyStore keyStore, String projectId, Duration allowedClockSkew, Clock clock, FirebaseAuth firebaseAuth) {
+        this.keyStore = keyStore;
+        this.projectId = projectId;
+        this.expectedIssuer = "https://securetoken.google.com/" + projectId;
+        this.skewSeconds = allowedClockSkew.toSeconds();
+        this.clock = clock;
+        this.firebaseAuth = firebaseAuth;
+    }
+
+    @Override
+    public FirebaseToken verify(String idToken, boolean checkRevoked) throws FirebaseAuthException {
+        // 1. Split the compact serialization
+        int firstDot = idToken.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : idToken.indexOf('.', firstDot + 1);
+        if (firstDot < 0 || secondDot < 0 || idToken.indexOf('.', secondDot + 1) >= 0) {
+            throw invalid("Token is not a compact JWS");
+        }
+
+        Map<String, Object> header;
+        Map<String, Object> claims;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            header = objectMapper.readValue(decoder.decode(idToken.substring(0, firstDot)), CLAIMS_TYPE);
+            claims = objectMapper.readValue(decoder.decode(idToken.substring(firstDot + 1, secondDot)), CLAIMS_TYPE);
+            signature = decoder.decode(idToken.substring(secondDot + 1));
+        } catch (IOException | IllegalArgumentException e) {
+            throw invalid("Token could not be decoded");
+        }
+
+        // 2. Header checks
+        if (!"RS256".equals(header.get("alg"))) {
+            throw invalid("Unexpected token algorithm: " + header.get("alg"));
+        }
+        Object kid = header.get("kid");
+        if (!(kid instanceof String kidValue)) {
+            throw invalid("Token has no kid header");
+        }
+        PublicKey key = keyStore.getKey(kidValue);
+        if (key == null) {
+            if (keyStore.size() == 0) {
+                throw new FirebaseAuthException(ErrorCode.UNKNOWN, "Signing keys are not available",
+                        null, null, AuthErrorCode.CERTIFICATE_FETCH_FAILED);
+            }
+            throw invalid("Token was signed with an unknown key: " + kidValue);
+        }
+
+        // 3. Signature
+        try {
+            // Signature is not thread-safe; a fresh one per call (a ThreadLocal never gets reused on virtual threads)
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(key);
+            verifier.update(idToken.substring(0, secondDot).getBytes(StandardCharsets.US_ASCII));
+            if (!verifier.verify(signature)) {
+                throw invalid("Token signature is invalid");
+            }
+        } catch (GeneralSecurityException e) {
+            throw invalid("Token signature is invalid");
+        }
+
+        // 4. Claims
+        long now = clock.instant().getEpochSecond();
+        if (!expectedIssuer.equals(claims.get("iss"))) {
+            throw invalid("Token has incorrect issuer: " + claims.get("iss"));
+        }
+        if (!projectId.equals(claims.get("aud"))) {
+            throw invalid("Token has incorrect audience: " + claims.get("aud"));
+        }
+        Object sub = claims.get("sub");
+        if (!(sub instanceof String subject) || subject.isEmpty() || subject.length() > 128) {
+            throw invalid("Token has an invalid subject");
+        }
+        long exp = numeric(claims, "exp");
+        long iat = numeric(claims, "iat");
+        if (exp <= now) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "Token has expired",
+                    null, null, AuthErrorCode.EXPIRED_ID_TOKEN);
+        }
+        if (iat > now + skewSeconds) {
+            throw invalid("Token issued in the future");
+        }
+        if (claims.containsKey("auth_time") && numeric(claims, "auth_time") > now + skewSeconds) {
+            throw invalid("Token auth_time is in the future");
+        }
+
+        FirebaseToken token = FirebaseTokens.fromClaims(claims);
+
+        // 5. Revocation (remote, only when asked for)
+        if (checkRevoked) {
+            checkNotRevoked(subject, FirebaseTokens.authTimeEpochSecond(token));
+        }
+        return token;
+    }
+
+    private void checkNotRevoked(String uid, long authTime) throws FirebaseAuthException {
+        if (firebaseAuth == null) {
+            throw new IllegalStateException("checkRevoked requested but no FirebaseAuth is configured");
+        }
+        UserRecord user = firebaseAuth.getUser(uid);
+        if (user.isDisabled()) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "User has been disabled",
+                    null, null, AuthErrorCode.USER_DISABLED);
+        }
+        if (user.getTokensValidAfterTimestamp() > authTime * 1000L) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "Token has been revoked",
+                    null, null, AuthErrorCode.REVOKED_ID_TOKEN);
+        }
+    }
+
+    private static long numeric(Map<String, Object> claims, String name) throws FirebaseAuthException {
+        Object raw = claims.get(name);
+        if (raw instanceof Number n) {
+            return n.longValue();
+        }
+        throw invalid("Token has no numeric " + name + " claim");
+    }
+
+    private static FirebaseAuthException invalid(String message) {
+        return new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, message, null, null, AuthErrorCode.INVALID_ID_TOKEN);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * TokenVerifier decorator that records each verification as an "auth.token.verify" observation:
+ * a timer tagged with the outcome (valid / invalid / error) and, for invalid tokens, the Firebase
+ * error code (expired, revoked, ...), plus a span under the request's trace.
+ */
+public class ObservedTokenVerifier implements TokenVerifier {
+
+    private final TokenVerifier delegate;
+    private final ObservationRegistry observationRegistry;
+
+    public ObservedTokenVerifier(TokenVerifier delegate, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public FirebaseToken verify(String idToken, boolean checkRevoked) throws FirebaseAuthException {
+        Observation observation = Observation.createNotStarted("auth.token.verify", observationRegistry)
+                .contextualName("verify id token")
+                .start();
+        try (Observation.Scope ignored = observation.openScope()) {
+            FirebaseToken token = delegate.verify(idToken, checkRevoked);
+            observation.lowCardinalityKeyValue("outcome", "valid");
+            observation.lowCardinalityKeyValue("reason", "none");
+            return token;
+        } catch (FirebaseAuthException e) {
+            observation.lowCardinalityKeyValue("outcome", "invalid");
+            observation.lowCardinalityKeyValue("reason",
+                    e.getAuthErrorCode() != null ? e.getAuthErrorCode().name() : "UNKNOWN");
+            throw e;
+        } catch (RuntimeException e) {
+            observation.lowCardinalityKeyValue("outcome", "error");
+            observation.lowCardinalityKeyValue("reason", e.getClass().getSimpleName());
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Applies revocations performed on other nodes to this node's token cache and watermark table.
+ * Revocations still in the log are replayed at startup and after a reset, so a node that was not
+ * listening when they happened (a new node, or one disconnected past the retention) has them too.
+ */
+@Component
+public class RevocationInvalidationHandler implements InvalidationHandler {
+
+    private final RevocationRegistry revocationRegistry;
+    private final VerifiedTokenCache tokenCache;
+
+    public RevocationInvalidationHandler(RevocationRegistry revocationRegistry, VerifiedTokenCache tokenCache) {
+        this.revocationRegistry = revocationRegistry;
+        this.tokenCache = tokenCache;
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type != InvalidationEventType.USER_REVOKED) {
+            return;
+        }
+        Instant validAfter = payload != null ? Instant.ofEpochSecond(Long.parseLong(payload)) : Instant.now();
+        revocationRegistry.revoke(key, validAfter);
+        tokenCache.evictUser(key);
+    }
+
+    @Override
+    public void onReset() {
+        tokenCache.clear();
+    }
+
+    @Override
+    public Set<InvalidationEventType> replayedOnStartAndReset() {
+        return Set.of(InvalidationEventType.USER_REVOKED);
+    }
+}
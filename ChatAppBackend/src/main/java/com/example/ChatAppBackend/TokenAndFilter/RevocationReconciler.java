@@ -0,0 +1,119 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.example.ChatAppBackend.Configurations.Security.RevocationProperties;
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserRepository;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.GetUsersResult;
+import com.google.firebase.auth.UidIdentifier;
+import com.google.firebase.auth.UserIdentifier;
+import com.google.firebase.auth.UserRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the RevocationRegistry in sync when revocation is checked locally.
+ * - At startup: seeds watermarks from users soft-deleted within the token lifetime (older
+ *   revocations cannot reject any live token, so the load does not grow with the table)
+ * - Periodically: asks Firebase (batched getUsers, 100 uids per call) for the
+ *   tokensValidAfter/disabled state of users recently active on this node
+ */
+@Component
+@ConditionalOnProperty(prefix = "auth.revocation", name = "mode", havingValue = "local", matchIfMissing = true)
+public class RevocationReconciler implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationReconciler.class);
+
+    // FirebaseAuth.getUsers accepts at most 100 identifiers per call
+    private static final int BATCH_SIZE = 100;
+
+    private final RevocationRegistry registry;
+    private final UserRepository userRepository;
+    private final FirebaseAuth firebaseAuth;
+    private final Duration activeWindow;
+    private final Clock clock = Clock.systemUTC();
+
+    public RevocationReconciler(RevocationRegistry registry,
+                                UserRepository userRepository,
+                                FirebaseAuth firebaseAuth,
+                                RevocationProperties props) {
+        this.registry = registry;
+        this.userRepository = userRepository;
+        this.firebaseAuth = firebaseAuth;
+        this.activeWindow = props.getActiveWindow();
+    }
+
+    /**
+     * Seeds the registry before the web server starts taking requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Instant cutoff = clock.instant().minus(RevocationRegistry.MAX_TOKEN_LIFETIME);
+            List<User> revoked = userRepository.findByDeletionRequestedAtAfter(cutoff);
+            for (User user : revoked) {
+                registry.revoke(user.getFirebaseUid(), user.getDeletionRequestedAt());
+            }
+            logger.info("Loaded {} revocation watermarks from the users table", revoked.size());
+        } catch (Exception e) {
+            logger.error("Failed to load revocation watermarks: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${auth.revocation.reconcile-interval:60s}",
+            fixedDelayString = "${auth.revocation.reconcile-interval:60s}")
+    public void reconcile() {
+        registry.prune();
+
+        List<String> uids = registry.seenSince(clock.instant().minus(activeWindow));
+        if (uids.isEmpty()) {
+            return;
+        }
+
+        int updated = 0;
+        for (int from = 0; from < uids.size(); from += BATCH_SIZE) {
+            List<String> batch = uids.subList(from, Math.min(from + BATCH_SIZE, uids.size()));
+            try {
+                updated += reconcileBatch(batch);
+            } catch (FirebaseAuthException e) {
+                logger.warn("Revocation reconcile batch failed ({} uids): {}", batch.size(), e.getMessage());
+            }
+        }
+        logger.debug("Reconciled revocation state for {} of {} active users", updated, uids.size());
+    }
+
+    private int reconcileBatch(List<String> batch) throws FirebaseAuthException {
+        List<UserIdentifier> identifiers = new ArrayList<>(batch.size());
+        for (String uid : batch) {
+            identifiers.add(new UidIdentifier(uid));
+        }
+
+        GetUsersResult result = firebaseAuth.getUsers(identifiers);
+        Set<String> found = new HashSet<>();
+        for (UserRecord record : result.getUsers()) {
+            found.add(record.getUid());
+            registry.reconcile(record.getUid(), Instant.ofEpochMilli(record.getTokensValidAfterTimestamp()), record.isDisabled());
+        }
+
+        // Users deleted from Firebase can no longer hold valid sessions
+        for (String uid : batch) {
+            if (!found.contains(uid)) {
+                registry.reconcile(uid, null, true);
+            }
+        }
+        return batch.size();
+    }
+}
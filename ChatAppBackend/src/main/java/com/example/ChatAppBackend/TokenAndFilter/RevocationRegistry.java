@@ -0,0 +1,103 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory revocation watermarks: uid -> "tokens from sign-ins before this second are invalid".
+ * Lets the authentication filter check revocation with a single map read instead of a
+ * remote user lookup per request.
+ * - Watermarks only move forward (merge keeps the latest) and are pruned after the token lifetime
+ * - A disabled user rejects every token until a reconcile says otherwise
+ * - Uids seen on requests are tracked (bounded) so the reconciler knows whom to re-check
+ */
+public class RevocationRegistry {
+
+    // Firebase ID tokens live for one hour; an older watermark cannot reject any live token
+    public static final Duration MAX_TOKEN_LIFETIME = Duration.ofHours(1);
+    private static final long MAX_TOKEN_LIFETIME_SECONDS = MAX_TOKEN_LIFETIME.toSeconds();
+
+    private final ConcurrentHashMap<String, Watermark> watermarks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> recentlySeen = new ConcurrentHashMap<>();
+    private final int maxTrackedUsers;
+    private final Clock clock;
+
+    public RevocationRegistry(int maxTrackedUsers, Clock clock) {
+        this.maxTrackedUsers = maxTrackedUsers;
+        this.clock = clock;
+    }
+
+    /**
+     * True when a token of this user whose sign-in happened at authTimeEpochSecond must be rejected.
+     * Mirrors Firebase semantics: revoked when auth_time < tokensValidAfter (second granularity), so
+     * tokens refreshed after the revocation from the same sign-in are rejected as well.
+     */
+    public boolean isRevoked(String uid, long authTimeEpochSecond) {
+        Watermark watermark = watermarks.get(uid);
+        if (watermark == null) {
+            return false;
+        }
+        return watermark.disabled() || authTimeEpochSecond < watermark.validAfterEpochSecond();
+    }
+
+    /**
+     * Invalidates every token of the user issued before the given instant.
+     */
+    public void revoke(String uid, Instant validAfter) {
+        long seconds = validAfter.getEpochSecond();
+        watermarks.merge(uid, new Watermark(seconds, false),
+                (old, neu) -> new Watermark(Math.max(old.validAfterEpochSecond(), seconds), old.disabled()));
+    }
+
+    /**
+     * Replaces the user's state with what the identity provider reports.
+     * The watermark never moves backwards; the disabled flag follows the provider.
+     */
+    public void reconcile(String uid, Instant validAfter, boolean disabled) {
+        long seconds = validAfter == null ? 0L : validAfter.getEpochSecond();
+        watermarks.compute(uid, (key, old) -> {
+            long merged = old == null ? seconds : Math.max(old.validAfterEpochSecond(), seconds);
+            if (!disabled && merged < clock.instant().getEpochSecond() - MAX_TOKEN_LIFETIME_SECONDS) {
+                return null;
+            }
+            return new Watermark(merged, disabled);
+        });
+    }
+
+    /**
+     * Remembers that the user is active on this node so the reconciler re-checks them.
+     */
+    public void recordSeen(String uid) {
+        if (recentlySeen.size() >= maxTrackedUsers && !recentlySeen.containsKey(uid)) {
+            return;
+        }
+        recentlySeen.put(uid, clock.millis());
+    }
+
+    /**
+     * Returns the uids seen since the cutoff (they stay tracked) and forgets the older ones.
+     */
+    public List<String> seenSince(Instant cutoff) {
+        long cutoffMillis = cutoff.toEpochMilli();
+        recentlySeen.values().removeIf(seenAt -> seenAt < cutoffMillis);
+        return new ArrayList<>(recentlySeen.keySet());
+    }
+
+    /**
+     * Drops watermarks that can no longer reject any unexpired token.
+     */
+    public void prune() {
+        long horizon = clock.instant().getEpochSecond() - MAX_TOKEN_LIFETIME_SECONDS;
+        watermarks.values().removeIf(w -> !w.disabled() && w.validAfterEpochSecond() < horizon);
+    }
+
+    public int size() {
+        return watermarks.size();
+    }
+
+    private record Watermark(long validAfterEpochSecond, boolean disabled) {}
+}
@@ -0,0 +1,17 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+/**
+ * What revocation needs from the verified-token cache: forget one user's tokens, or all of them.
+ */
+public interface VerifiedTokenCache {
+
+    /**
+     * Drops every cached token that belongs to the given user.
+     */
+    void evictUser(String uid);
+
+    /**
+     * Drops all cached tokens.
+     */
+    void clear();
+}
@@ -0,0 +1,234 @@
+package com.example.ChatAppBackend.User;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces lastLoginAt updates of existing users so /api/user/enter does not write a row per call.
+ * - touch() keeps only the latest login per uid in memory; every flushInterval the pending
+ *   touches go out as batched UPDATEs of maxBatchSize rows, outside any request transaction
+ * - A user whose lastLoginAt was written less than maxStaleness ago is not written again: the
+ *   column may lag the real last login by up to maxStaleness (plus one flush interval)
+ * - The UPDATE only moves last_login_at forward, so batches from several nodes can interleave
+ * - A failed batch is merged back and retried on the next flush; stop() flushes what is left
+ * New and restored users are still saved synchronously by UserService.
+ */
+public class LoginTouchBuffer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginTouchBuffer.class);
+
+    static final String TOUCH_SQL =
+            "UPDATE users SET last_login_at = ? WHERE firebase_uid = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Clock clock;
+    private final long flushIntervalMillis;
+    private final long maxStalenessMillis;
+    private final int maxBatchSize;
+
+    // uid -> latest login (epoch millis) not written yet
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+    // uid -> last login written by this node; entries are useless once older than maxStaleness
+    private final Cache<String, Long> lastWritten;
+
+    private final Counter buffered;
+    private final Counter suppressed;
+    private final Counter rowsWritten;
+    private final Timer flushTimer;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    /**
+     * @param enabled         when false the buffer never starts and UserService saves every login
+     * @param maxTrackedUsers bound on the users remembered for the maxStaleness check
+     */
+    public LoginTouchBuffer(JdbcTemplate jdbcTemplate,
+                            boolean enabled,
+                            Clock clock,
+                            Duration flushInterval,
+                            Duration maxStaleness,
+                            int maxBatchSize,
+                            long maxTrackedUsers,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.clock = clock;
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.maxBatchSize = maxBatchSize;
+        this.lastWritten = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(maxStaleness)
+                .build();
+
+        this.buffered = Counter.builder("users.login.touches").tag("result", "buffered").register(meterRegistry);
+        this.suppressed = Counter.builder("users.login.touches").tag("result", "suppressed").register(meterRegistry);
+        this.rowsWritten = Counter.builder("users.login.writes").register(meterRegistry);
+        this.flushTimer = Timer.builder("users.login.flush").register(meterRegistry);
+        Gauge.builder("users.login.pending", pending, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Records a login of an existing user now; it reaches the database with the next flush.
+     * Returns the recorded login time.
+     */
+    public Instant touch(String uid) {
+        // Millisecond precision, as written
+        Instant now = Instant.ofEpochMilli(clock.millis());
+        touch(uid, now);
+        return now;
+    }
+
+    void touch(String uid, Instant at) {
+        long atMillis = at.toEpochMilli();
+        Long written = lastWritten.getIfPresent(uid);
+        if (written != null && atMillis - written < maxStalenessMillis) {
+            suppressed.increment();
+            return;
+        }
+        pending.merge(uid, atMillis, Math::max);
+        buffered.increment();
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending touch. A touch arriving for a uid while it is being taken out of the
+     * map stays pending (remove only succeeds for the value that was read).
+     */
+    synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            List<Touch> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+            for (Map.Entry<String, Long> entry : pending.entrySet()) {
+                String uid = entry.getKey();
+                Long at = entry.getValue();
+                if (pending.remove(uid, at)) {
+                    batch.add(new Touch(uid, at));
+                }
+                if (batch.size() == maxBatchSize) {
+                    write(batch);
+                    batch = new ArrayList<>(maxBatchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        });
+    }
+
+    private void write(List<Touch> batch) {
+        try {
+            int[][] counts = jdbcTemplate.batchUpdate(TOUCH_SQL, batch, batch.size(), (ps, touch) -> {
+                Timestamp at = new Timestamp(touch.atMillis());
+                ps.setTimestamp(1, at);
+                ps.setString(2, touch.uid());
+                ps.setTimestamp(3, at);
+            });
+            int rows = 0;
+            for (int count : counts[0]) {
+                // SUCCESS_NO_INFO (-2) when the driver does not report per-statement counts
+                rows += Math.max(count, 0);
+            }
+            rowsWritten.increment(rows);
+            for (Touch touch : batch) {
+                lastWritten.put(touch.uid(), touch.atMillis());
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write {} login touches; retrying on the next flush: {}", batch.size(), e.getMessage());
+            for (Touch touch : batch) {
+                pending.merge(touch.uid(), touch.atMillis(), Math::max);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Login touch flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // ---- Lifecycle ----
+
+    @Override
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "login-touch-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * Final flush on shutdown. UserService stops buffering as soon as running is false; a touch
+     * that raced past that check is still in the map and goes out here.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+        if (!pending.isEmpty()) {
+            logger.warn("{} login touches were not written on shutdown", pending.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    /**
+     * Stops after the web server (DEFAULT_PHASE - 2048) has drained in-flight requests, so their
+     * touches make it into the final flush.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private record Touch(String uid, long atMillis) {}
+}
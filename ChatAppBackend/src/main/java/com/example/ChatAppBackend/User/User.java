@@ -1,7 +1,9 @@
 package com.example.ChatAppBackend.User;
 
+import com.example.ChatAppBackend.Persistence.UuidV7Generator;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -10,7 +12,7 @@ import java.util.UUID;
 @Table(name="users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     private UUID id;
 
     @Column(nullable = false, unique = true)
@@ -100,6 +102,22 @@ public class User {
         this.deletionRequestedAt = deletionRequestedAt;
     }
 
+    /**
+     * Detached copy with another lastLoginAt, for the buffered login path: cached users are
+     * shared and must not be modified in place.
+     */
+    public User withLastLoginAt(Instant lastLoginAt) {
+        User copy = new User();
+        copy.id = id;
+        copy.firebaseUid = firebaseUid;
+        copy.email = email;
+        copy.createdAt = createdAt;
+        copy.lastLoginAt = lastLoginAt;
+        copy.disabled = disabled;
+        copy.deletionRequestedAt = deletionRequestedAt;
+        return copy;
+    }
+
     @PrePersist
     public void onCreate() {
         Instant now = Instant.now();
@@ -0,0 +1,142 @@
+package com.example.ChatAppBackend.User;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationHandler;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process identity cache in front of UserRepository with two indexes:
+ * - Firebase uid -> User
+ * - normalized email -> uid (resolved through the uid index, so each user is held once)
+ * Cached users are detached entities: callers may read them and use them as association
+ * targets, but must not modify them. Writes go through UserService, which puts the saved
+ * entity back (write-through) or evicts it.
+ * Loaders run outside Caffeine's compute (a blocking JDBC call must not hold a map bin lock and
+ * pin a virtual thread); a load that overlaps an eviction does not leave its result behind.
+ */
+public class UserCache implements InvalidationHandler {
+
+    private final Cache<String, User> byUid;
+    private final Cache<String, String> uidByEmail;
+    // Bumped before every eviction; a load that saw it change drops what it just cached
+    private final AtomicLong evictions = new AtomicLong();
+    // The email index is filled manually, so its load time is timed here rather than by Caffeine
+    private final Timer emailLoadTimer;
+
+    public UserCache(long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.byUid = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.uidByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byUid, "users.by-uid");
+        CaffeineCacheMetrics.monitor(meterRegistry, uidByEmail, "users.by-email");
+        Gauge.builder("users.cache.hit.ratio", byUid, c -> c.stats().hitRate())
+                .tag("cache", "users.by-uid")
+                .register(meterRegistry);
+        Gauge.builder("users.cache.hit.ratio", uidByEmail, c -> c.stats().hitRate())
+                .tag("cache", "users.by-email")
+                .register(meterRegistry);
+        this.emailLoadTimer = Timer.builder("users.cache.load")
+                .tag("cache", "users.by-email")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached user or loads it; a null result from the loader is not cached.
+     * Concurrent misses for the same uid each load (there is no compute to coalesce them).
+     */
+    public User getByUid(String uid, Function<String, User> loader) {
+        User cached = byUid.getIfPresent(uid);
+        if (cached != null) {
+            return cached;
+        }
+        return load(() -> loader.apply(uid));
+    }
+
+    /**
+     * Resolves a normalized email through the email index; on a miss the loader's result
+     * is stored in both indexes.
+     */
+    public User getByEmail(String normalizedEmail, Function<String, User> loader) {
+        String uid = uidByEmail.getIfPresent(normalizedEmail);
+        User cached = uid != null ? byUid.asMap().get(uid) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        return load(() -> emailLoadTimer.record(() -> loader.apply(normalizedEmail)));
+    }
+
+    public void put(User user) {
+        byUid.put(user.getFirebaseUid(), user);
+        if (user.getEmail() != null) {
+            uidByEmail.put(normalize(user.getEmail()), user.getFirebaseUid());
+        }
+    }
+
+    public void evict(String uid) {
+        evictions.incrementAndGet();
+        User removed = byUid.asMap().remove(uid);
+        if (removed != null && removed.getEmail() != null) {
+            uidByEmail.asMap().remove(normalize(removed.getEmail()), uid);
+        }
+    }
+
+    public void clear() {
+        evictions.incrementAndGet();
+        byUid.invalidateAll();
+        uidByEmail.invalidateAll();
+    }
+
+    /**
+     * Loads and caches a user. If any eviction ran meanwhile, the loaded row may predate the
+     * change behind it, so it is removed again: either the eviction saw this put, or this
+     * check sees the eviction.
+     */
+    private User load(Supplier<User> loader) {
+        long evictionsBefore = evictions.get();
+        User loaded = loader.get();
+        if (loaded == null) {
+            return null;
+        }
+        put(loaded);
+        if (evictions.get() != evictionsBefore && byUid.asMap().remove(loaded.getFirebaseUid(), loaded)
+                && loaded.getEmail() != null) {
+            uidByEmail.asMap().remove(normalize(loaded.getEmail()), loaded.getFirebaseUid());
+        }
+        return loaded;
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEventType type, String key, String payload) {
+        if (type == InvalidationEventType.USER_REVOKED) {
+            evict(key);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+}
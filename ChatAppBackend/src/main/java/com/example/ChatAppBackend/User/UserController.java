@@ -15,13 +15,13 @@ public class UserController {
     }
 
     @PostMapping("/enter")
-    public User enter(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user){
-        return this.userService.createOrTouchUser(user);
+    public UserResponse enter(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user){
+        return UserResponse.from(this.userService.createOrTouchUser(user));
     }
 
     @GetMapping("/retrieve")
-    public User retrieve(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user){
-        return this.userService.retrieveUser(user);
+    public UserResponse retrieve(@CurrentSecurityContext(expression = "authentication.details") CurrentUserDetails user){
+        return UserResponse.from(this.userService.retrieveUser(user));
     }
 
     @DeleteMapping("/detach")
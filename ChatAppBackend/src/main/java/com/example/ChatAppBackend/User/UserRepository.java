@@ -1,10 +1,29 @@
 package com.example.ChatAppBackend.User;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * The finders are read-only so that, with replicas configured, calls outside a read-write
+ * transaction (user cache loads, revocation reconcile) are served by a replica. Inside one they
+ * join it and stay on the primary.
+ */
 public interface UserRepository extends JpaRepository<User, UUID> {
+    @Transactional(readOnly = true)
     User findByFirebaseUid(String firebaseUid);
+
+    @Transactional(readOnly = true)
     User findByEmail(String email);
+
+    @Transactional(readOnly = true)
+    List<User> findByEmailIn(Collection<String> emails);
+
+    // Soft deletes (disabled + deletionRequestedAt) since the cutoff; seeds revocation watermarks
+    @Transactional(readOnly = true)
+    List<User> findByDeletionRequestedAtAfter(Instant cutoff);
 }
@@ -0,0 +1,20 @@
+package com.example.ChatAppBackend.User;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What /api/user returns for the signed-in user. The firebase uid and soft-delete state are
+ * not part of it.
+ */
+public record UserResponse(
+        UUID id,
+        String email,
+        Instant createdAt,
+        Instant lastLoginAt
+) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getEmail(), user.getCreatedAt(), user.getLastLoginAt());
+    }
+}
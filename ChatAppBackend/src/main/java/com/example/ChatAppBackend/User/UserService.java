@@ -1,35 +1,87 @@
 package com.example.ChatAppBackend.User;
 
 import com.example.ChatAppBackend.Exceptions.CustomExceptions.ResourceNotFoundException;
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
 import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.example.ChatAppBackend.TokenAndFilter.RevocationRegistry;
+import com.example.ChatAppBackend.TokenAndFilter.VerifiedTokenCache;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Observed(name = "user.service")
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
     private final FirebaseAuth firebaseAuth;
-
-    public UserService(UserRepository userRepository, FirebaseAuth firebaseAuth) {
+    private final VerifiedTokenCache tokenCache;
+    private final RevocationRegistry revocationRegistry;
+    private final InvalidationPublisher invalidationPublisher;
+    private final UserCache userCache;
+    private final LoginTouchBuffer loginTouchBuffer;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserService(UserRepository userRepository,
+                       FirebaseAuth firebaseAuth,
+                       VerifiedTokenCache tokenCache,
+                       RevocationRegistry revocationRegistry,
+                       InvalidationPublisher invalidationPublisher,
+                       UserCache userCache,
+                       LoginTouchBuffer loginTouchBuffer,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.firebaseAuth = firebaseAuth;
+        this.tokenCache = tokenCache;
+        this.revocationRegistry = revocationRegistry;
+        this.invalidationPublisher = invalidationPublisher;
+        this.userCache = userCache;
+        this.loginTouchBuffer = loginTouchBuffer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Create (or update last-login for) a user.
+     * Not @Transactional: a returning, active user is served from the user cache and its login
+     * time is written later in a batch by LoginTouchBuffer, without a connection checkout here.
+     * New users and users restored from a soft delete are saved synchronously.
      */
-    @Transactional
     public User createOrTouchUser(CurrentUserDetails user) {
+        // 1. Returning user: buffer the login, answer from the cache
+        if (loginTouchBuffer.isRunning()) {
+            User cached = userCache.getByUid(user.uid(), userRepository::findByFirebaseUid);
+            if (cached != null && !cached.isDisabled() && cached.getDeletionRequestedAt() == null) {
+                logger.debug("Buffering last login for existing user with Firebase UID: {}", user.uid());
+                User touched = cached.withLastLoginAt(loginTouchBuffer.touch(user.uid()));
+                userCache.put(touched);
+                return touched;
+            }
+        }
+
+        // 2. Anything else is created or restored in its own transaction
+        return transactionTemplate.execute(status -> saveUser(user));
+    }
+
+    private User saveUser(CurrentUserDetails user) {
         User u = userRepository.findByFirebaseUid(user.uid());
         if (u == null) {
             logger.info("Creating new user with Firebase UID: {}", user.uid());
@@ -38,24 +90,32 @@ public class UserService {
             u.setEmail(user.email());
             u.setDisabled(false);
             u.setDeletionRequestedAt(null);
-            return userRepository.save(u);
         } else {
             logger.info("Updating last login for existing user with Firebase UID: {}", user.uid());
             u.setDisabled(false);
             u.setDeletionRequestedAt(null);
             u.setLastLoginAt(Instant.now());
-            return userRepository.save(u);
         }
+        User saved = userRepository.save(u);
+        // Write-through once the row is committed, so a rollback never leaves a phantom user cached
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.put(saved);
+            }
+        });
+        return saved;
     }
 
     /**
-     * Retrieve user by Firebase UID.
+     * Retrieve user by Firebase UID (served from the user cache when possible).
+     * Not @Transactional: a cache hit must not check out a connection; on a miss the
+     * repository call runs in its own read-only transaction (or joins the caller's).
      */
-    @Transactional(readOnly = true)
     public User retrieveUser(CurrentUserDetails user) {
         try {
             logger.debug("Retrieving user with Firebase UID: {}", user.uid());
-            User currentUser = userRepository.findByFirebaseUid(user.uid());
+            User currentUser = userCache.getByUid(user.uid(), userRepository::findByFirebaseUid);
             if (currentUser == null) {
                 logger.warn("User not found with Firebase UID: {}", user.uid());
                 throw new ResourceNotFoundException("User not found with Firebase UID: " + user.uid());
@@ -70,15 +130,14 @@ public class UserService {
     }
 
     /**
-     * Retrieve user by Firebase email.
+     * Retrieve user by Firebase email (served from the user cache when possible).
      */
-    @Transactional(readOnly = true)
     public User retrieveUserViaEmail(String email) {
         String normalizedEmail = email.trim().toLowerCase();
 
         try {
             logger.debug("Retrieving user with email: {}", normalizedEmail);
-            User user = userRepository.findByEmail(normalizedEmail);
+            User user = userCache.getByEmail(normalizedEmail, userRepository::findByEmail);
 
             if (user == null) {
                 logger.warn("User not found with email: {}", normalizedEmail);
@@ -95,6 +154,24 @@ public class UserService {
         }
     }
 
+    /**
+     * Retrieve many users by email with one IN query (bulk room creation). Returns the users
+     * found, keyed by normalized email; missing emails are simply absent.
+     */
+    public Map<String, User> retrieveUsersViaEmails(Collection<String> emails) {
+        Set<String> normalizedEmails = new HashSet<>();
+        for (String email : emails) {
+            normalizedEmails.add(email.trim().toLowerCase());
+        }
+
+        Map<String, User> users = new HashMap<>();
+        for (User user : userRepository.findByEmailIn(normalizedEmails)) {
+            users.put(user.getEmail().trim().toLowerCase(), user);
+        }
+        logger.debug("Resolved {} of {} emails", users.size(), normalizedEmails.size());
+        return users;
+    }
+
     /**
      * Detach a user with soft-delete and Firebase revocation.
      */
@@ -103,9 +180,17 @@ public class UserService {
         String uid = user.uid();
 
         // 1. Revoke Firebase tokens
+        Instant revokedAt;
         try {
             logger.info("Revoking Firebase tokens for user: {}", uid);
             firebaseAuth.revokeRefreshTokens(uid);
+            // Revoked tokens must stop authenticating right away, not when the cache entry expires
+            revokedAt = Instant.now();
+            revocationRegistry.revoke(uid, revokedAt);
+            tokenCache.evictUser(uid);
+            // Other nodes as well; independent of whether the local soft-delete below commits
+            invalidationPublisher.publishImmediately(InvalidationEventType.USER_REVOKED, uid,
+                    Long.toString(revokedAt.getEpochSecond()));
         } catch (FirebaseAuthException fae) {
             logger.error("Firebase revocation failed for user {}: {}", uid, fae.getMessage(), fae);
             throw new RuntimeException("Failed to revoke Firebase tokens for user " + uid, fae);
@@ -114,6 +199,18 @@ public class UserService {
             throw new RuntimeException("Unexpected error during Firebase revocation for user " + uid + ": " + e.getMessage(), e);
         }
 
+        // The cached user goes once the delete is visible: evicting before the commit lets a
+        // concurrent miss re-cache the pre-delete row for the whole TTL. Other nodes' user caches
+        // had the same window, so the revocation is announced again after the commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.evict(uid);
+                invalidationPublisher.publish(InvalidationEventType.USER_REVOKED, uid,
+                        Long.toString(revokedAt.getEpochSecond()));
+            }
+        });
+
         // 2. Soft-delete and attempt hard delete
         try {
             User userInDB = userRepository.findByFirebaseUid(uid);
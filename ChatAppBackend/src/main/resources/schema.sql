@@ -0,0 +1,16 @@
+-- Indexes JPA cannot declare. Runs after Hibernate's schema generation
+-- (spring.jpa.defer-datasource-initialization) and is safe to re-run.
+
+-- Pending rooms by key expiry: expiry sweeps only ever look at PENDING rows
+CREATE INDEX IF NOT EXISTS idx_rooms_pending_key_expires
+    ON rooms (room_key_code_expires_at)
+    WHERE status = 'PENDING';
+
+-- Soft-deleted users: the reaper's hard delete and the startup revocation seed (recent ones)
+CREATE INDEX IF NOT EXISTS idx_users_deletion_requested
+    ON users (deletion_requested_at)
+    WHERE deletion_requested_at IS NOT NULL;
+
+-- Hibernate generates a CHECK constraint listing the event types, and ddl-auto=update never
+-- widens it when a type is added; the application only writes InvalidationEventType names
+ALTER TABLE invalidation_events DROP CONSTRAINT IF EXISTS invalidation_events_type_check;
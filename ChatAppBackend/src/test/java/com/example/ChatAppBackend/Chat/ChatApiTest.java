@@ -0,0 +1,105 @@
+package com.example.ChatAppBackend.Chat;
+
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.example.ChatAppBackend.User.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class ChatApiTest extends ApiTestSupport {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void hostAndGuestChatAndPageBackThroughTheHistory() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User hostUser = user(run + "-host");
+        User guestUser = user(run + "-guest");
+        String host = token(hostUser);
+        String guest = token(guestUser);
+        String stranger = token(user(run + "-stranger"));
+        UUID roomId = room(hostUser, guestUser, "ACTIVE");
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String body = "message " + i;
+            HttpResponse<String> response = send("POST", "/api/chat/" + roomId + "/messages", i % 2 == 0 ? host : guest,
+                    "{\"body\":\"" + body + "\"}");
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(objectMapper.readTree(response.body()).get("senderId").asText())
+                    .isEqualTo((i % 2 == 0 ? hostUser : guestUser).getId().toString());
+            sent.add(body);
+        }
+
+        // Latest page from the tail, then the rest from the database
+        List<String> read = new ArrayList<>();
+        JsonNode page = objectMapper.readTree(send("GET", "/api/chat/" + roomId + "/messages?limit=25", guest, null).body());
+        read.addAll(0, bodies(page));
+        while (!page.get("nextCursor").isNull()) {
+            String path = "/api/chat/" + roomId + "/messages?limit=25&before=" + page.get("nextCursor").asText();
+            page = objectMapper.readTree(send("GET", path, host, null).body());
+            read.addAll(0, bodies(page));
+        }
+        assertThat(read).isEqualTo(sent);
+
+        assertThat(send("POST", "/api/chat/" + roomId + "/messages", stranger, "{\"body\":\"hi\"}").statusCode()).isEqualTo(404);
+        assertThat(send("GET", "/api/chat/" + roomId + "/messages", stranger, null).statusCode()).isEqualTo(404);
+        assertThat(send("POST", "/api/chat/" + roomId + "/messages", host, "{\"body\":\" \"}").statusCode()).isEqualTo(400);
+        assertThat(send("GET", "/api/chat/" + roomId + "/messages?before=nonsense", host, null).statusCode()).isEqualTo(400);
+
+        // Closing archives the room; its members can still read the whole history
+        assertThat(send("PUT", "/api/room/" + roomId + "/close", host, null).statusCode()).isEqualTo(200);
+        JsonNode archived = objectMapper.readTree(send("GET", "/api/chat/" + roomId + "/messages?limit=100", guest, null).body());
+        assertThat(bodies(archived)).isEqualTo(sent);
+        assertThat(send("GET", "/api/chat/" + roomId + "/messages", stranger, null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void pendingRoomsCannotBeChattedIn() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User hostUser = user(run + "-host");
+        UUID roomId = room(hostUser, user(run + "-guest"), "PENDING");
+
+        HttpResponse<String> response = send("POST", "/api/chat/" + roomId + "/messages", token(hostUser), "{\"body\":\"hi\"}");
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(objectMapper.readTree(response.body()).get("detail").asText()).isEqualTo("This room is not active.");
+    }
+
+    private static List<String> bodies(JsonNode page) {
+        List<String> bodies = new ArrayList<>();
+        page.get("messages").forEach(m -> bodies.add(m.get("body").asText()));
+        return bodies;
+    }
+
+    private UUID room(User host, User guest, String status) {
+        UUID roomId = UUID.randomUUID();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO rooms (id, name, host_id, invitee_email, guest_id, status, created_at, " +
+                        "updated_at, room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled) " +
+                        "VALUES (?, 'chat', ?, ?, ?, ?, ?, ?, ?, ?, ?, false)",
+                roomId, host.getId(), guest.getEmail(), guest.getId(), status, now, now, roomId.toString(),
+                Timestamp.from(Instant.now().plusSeconds(900)), "ACTIVE".equals(status));
+        return roomId;
+    }
+
+}
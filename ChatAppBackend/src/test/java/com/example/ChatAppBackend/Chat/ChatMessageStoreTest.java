@@ -0,0 +1,196 @@
+package com.example.ChatAppBackend.Chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chat messages against a local PostgreSQL: keyset paging through a room's history, and
+ * sustained sends spread over thousands of ACTIVE rooms, written one transaction per message
+ * (a plain repository save) and through ChatMessageWriter. The log line compares the two.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class ChatMessageStoreTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageStoreTest.class);
+
+    private static final int ROOMS = 2_000;
+    private static final int SENDERS = 256;
+    // One transaction per message: more senders than pooled connections only time out waiting
+    private static final int SAVING_SENDERS = 16;
+    private static final int SAVED_MESSAGES = 5_000;
+    private static final int WRITER_MESSAGES = 50_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<UUID> rooms = new ArrayList<>();
+    private final List<UUID> senders = new ArrayList<>();
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp expires = Timestamp.from(Instant.now().plusSeconds(15 * 60));
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> activeRooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            UUID host = UUID.randomUUID();
+            UUID guest = UUID.randomUUID();
+            UUID room = UUID.randomUUID();
+            users.add(new Object[]{host, run + "-h" + i, run + "-h" + i + "@example.com", now, now});
+            users.add(new Object[]{guest, run + "-g" + i, run + "-g" + i + "@example.com", now, now});
+            activeRooms.add(new Object[]{room, "room-" + i, host, run + "-g" + i + "@example.com", guest,
+                    now, now, run + "-key-" + i, expires});
+            rooms.add(room);
+            senders.add(i % 2 == 0 ? host : guest);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, firebase_uid, email, created_at, last_login_at, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, false)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (id, name, host_id, invitee_email, guest_id, status, created_at, " +
+                "updated_at, room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, 'ACTIVE', ?, ?, ?, ?, true, false)", activeRooms);
+
+        writer = new ChatMessageWriter(entityManager, new TransactionTemplate(transactionManager),
+                500, 10_000, Duration.ofSeconds(5), meterRegistry);
+        writer.start();
+    }
+
+    @AfterEach
+    void stopWriter() {
+        writer.stop();
+    }
+
+    @Test
+    void historyPagesWalkTheWholeRoomInOrder() {
+        UUID room = rooms.getFirst();
+        Instant start = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> written = new ArrayList<>();
+        for (int i = 0; i < 3 * PAGE_SIZE + 7; i++) {
+            // Pairs share a timestamp: the id breaks the tie
+            Instant sentAt = start.plusMillis(i / 2);
+            written.add(writer.append(new ChatMessage(room, senders.getFirst(), "message " + i, sentAt)).getId());
+        }
+
+        List<Long> read = new ArrayList<>();
+        List<ChatMessage> page = chatMessageRepository.findLatest(room, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(m -> read.addFirst(m.getId()));
+            ChatMessage oldest = page.getLast();
+            page = chatMessageRepository.findBefore(room, oldest.getSentAt(), oldest.getId(), PAGE_SIZE);
+        }
+        assertThat(read).isEqualTo(written.stream().sorted().toList());
+
+        // The tail answers the latest page exactly as the database does
+        ChatTail tail = new ChatTail(null, null, PAGE_SIZE,
+                chatMessageRepository.findLatest(room, PAGE_SIZE).stream().map(ChatMessageResponse::from).toList());
+        List<ChatMessage> newestFirst = chatMessageRepository.findLatest(room, 10);
+        ChatMessagePage fromTail = tail.latest(10);
+        assertThat(fromTail.messages()).containsExactlyElementsOf(
+                newestFirst.reversed().stream().map(ChatMessageResponse::from).toList());
+        assertThat(fromTail.nextCursor()).isEqualTo(ChatMessageResponse.from(newestFirst.getLast()).cursor());
+    }
+
+    @Test
+    void historyOutlivesItsRoom() {
+        UUID room = rooms.getFirst();
+        writer.append(new ChatMessage(room, senders.getFirst(), "hello", Instant.now().truncatedTo(ChronoUnit.MICROS)));
+
+        // Ending a room moves it to ended_rooms under the same id; its messages stay behind
+        jdbcTemplate.update("DELETE FROM rooms WHERE id = ?", room);
+        // A send racing the end is kept with the rest
+        writer.append(new ChatMessage(room, senders.getFirst(), "anyone?", Instant.now().truncatedTo(ChronoUnit.MICROS)));
+
+        assertThat(chatMessageRepository.findLatest(room, PAGE_SIZE)).extracting(ChatMessage::getBody)
+                .containsExactly("anyone?", "hello");
+        assertThat(meterRegistry.counter("chat.messages.failed").count()).isZero();
+    }
+
+    @Test
+    void sustainedSendsAcrossThousandsOfRooms() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        double savedPerSecond = send(SAVED_MESSAGES, SAVING_SENDERS, m -> tx.executeWithoutResult(s -> chatMessageRepository.save(m)));
+        double writerPerSecond = send(WRITER_MESSAGES, SENDERS, writer::append);
+
+        double batches = meterRegistry.summary("chat.write.batch").count();
+        logger.info("Chat sends over {} rooms: one transaction per message ({} senders) {} msg/s, " +
+                        "ChatMessageWriter ({} senders) {} msg/s ({} messages in {} transactions, {} per batch on average)",
+                ROOMS, SAVING_SENDERS, String.format("%.0f", savedPerSecond),
+                SENDERS, String.format("%.0f", writerPerSecond),
+                WRITER_MESSAGES, (long) batches, String.format("%.1f", WRITER_MESSAGES / batches));
+
+        Integer stored = jdbcTemplate.queryForObject("SELECT count(*) FROM chat_messages WHERE room_id = ANY(?)",
+                Integer.class, (Object) rooms.toArray(UUID[]::new));
+        assertThat(stored).isEqualTo(SAVED_MESSAGES + WRITER_MESSAGES);
+        assertThat(meterRegistry.counter("chat.messages.failed").count()).isZero();
+        assertThat(batches).isLessThan(WRITER_MESSAGES / 2.0);
+    }
+
+    /**
+     * Sends messages round-robin over the rooms from concurrent senders; returns messages/s.
+     */
+    private double send(int messages, int concurrency, Consumer<ChatMessage> write) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int s = 0; s < concurrency; s++) {
+                running.add(pool.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < messages; i = next.getAndIncrement()) {
+                        int r = i % ROOMS;
+                        write.accept(new ChatMessage(rooms.get(r), senders.get(r), "message " + i,
+                                Instant.now().truncatedTo(ChronoUnit.MICROS)));
+                    }
+                }));
+            }
+        }
+        for (Future<?> sender : running) {
+            sender.get();
+        }
+        return messages / (Duration.ofNanos(System.nanoTime() - start).toMillis() / 1000.0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ChatAppBackend.Chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatTailTest {
+
+    private final UUID host = UUID.randomUUID();
+    private final UUID guest = UUID.randomUUID();
+    private final Instant start = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Test
+    void servesTheLatestMessagesOldestFirst() {
+        ChatTail tail = new ChatTail(host, guest, 4, List.of());
+        for (int i = 1; i <= 6; i++) {
+            tail.add(message(i));
+        }
+
+        ChatMessagePage page = tail.latest(3);
+        assertThat(ids(page)).containsExactly(4L, 5L, 6L);
+        assertThat(page.nextCursor()).isEqualTo(message(4).cursor());
+
+        // Two messages were pushed out: the tail cannot serve more than it holds
+        assertThat(tail.latest(4).nextCursor()).isEqualTo(message(3).cursor());
+        assertThat(tail.latest(5)).isNull();
+    }
+
+    @Test
+    void aShortHistoryIsServedWhole() {
+        ChatTail tail = new ChatTail(host, guest, 4, List.of(message(2), message(1)));
+
+        ChatMessagePage page = tail.latest(10);
+        assertThat(ids(page)).containsExactly(1L, 2L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void lateAndRepeatedMessagesKeepTheOrder() {
+        ChatTail tail = new ChatTail(host, guest, 4, List.of(message(3), message(1)));
+
+        // From another node: sent before 3, delivered after it, then delivered again
+        tail.add(message(2));
+        tail.add(message(2));
+        tail.add(message(3));
+
+        assertThat(ids(tail.latest(4))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void onlyTheHostAndGuestAreMembers() {
+        ChatTail tail = new ChatTail(host, null, 4, List.of());
+
+        assertThat(tail.isMember(host)).isTrue();
+        assertThat(tail.isMember(guest)).isFalse();
+    }
+
+    private ChatMessageResponse message(long n) {
+        return new ChatMessageResponse(n, host, "message " + n, start.plusSeconds(n));
+    }
+
+    private static List<Long> ids(ChatMessagePage page) {
+        List<Long> ids = new ArrayList<>();
+        page.messages().forEach(m -> ids.add(m.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.ChatAppBackend.Diagnostics;
+
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ * Every request is sampled and spans go to an in-memory exporter.
+ */
+@TestPropertySource(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureObservability
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class ObservabilityTest extends ApiTestSupport {
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Test
+    void requestIsTracedFromFilterThroughServiceToRepository() throws Exception {
+        String uid = "obs-" + UUID.randomUUID().toString().substring(0, 8);
+        String token = token(uid, uid + "@example.com", Map.of());
+        when(tokenVerifier.verify(eq("forged"), anyBoolean())).thenThrow(new FirebaseAuthException(
+                ErrorCode.INVALID_ARGUMENT, "invalid", null, null, AuthErrorCode.INVALID_ID_TOKEN));
+
+        assertThat(send("POST", "/api/user/enter", token, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/user/retrieve", "forged", null).statusCode()).isEqualTo(401);
+
+        assertThat(tracerProvider.forceFlush().join(10, TimeUnit.SECONDS).isSuccess()).isTrue();
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+
+        SpanData server = find(spans, s -> s.getName().startsWith("http post") && s.getName().contains("/api/user/enter"));
+        SpanData verify = find(spans, s -> s.getName().equals("verify id token") && s.getTraceId().equals(server.getTraceId()));
+        SpanData service = find(spans, s -> s.getName().equals("user-service#create-or-touch-user") && s.getTraceId().equals(server.getTraceId()));
+        SpanData repository = find(spans, s -> s.getName().equals("user-repository.find-by-firebase-uid") && s.getTraceId().equals(server.getTraceId()));
+
+        assertThat(attribute(verify, "outcome")).isEqualTo("valid");
+        assertThat(isDescendant(spans, verify, server)).isTrue();
+        assertThat(isDescendant(spans, service, server)).isTrue();
+        assertThat(isDescendant(spans, repository, service)).isTrue();
+
+        HttpResponse<String> scrape = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/prometheus"))
+                .header("Accept", "application/openmetrics-text; version=1.0.0").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(scrape.statusCode()).isEqualTo(200);
+        assertThat(scrape.body())
+                .contains("auth_token_verify_seconds_count{")
+                .containsPattern("auth_token_verify_seconds_count\\{[^}]*outcome=\"invalid\"[^}]*reason=\"INVALID_ID_TOKEN\"")
+                .containsPattern("repository_query_seconds_count\\{[^}]*method=\"findByFirebaseUid\"[^}]*repository=\"UserRepository\"")
+                .contains("room_validation_failures_total{")
+                // Histogram buckets carry exemplars pointing at sampled traces
+                .containsPattern("auth_token_verify_seconds_bucket\\{[^}]*\\} \\d+ # \\{span_id=\"[0-9a-f]+\",trace_id=\"[0-9a-f]+\"\\}");
+
+        // The application port only serves the health probes
+        assertThat(client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode()).isEqualTo(404);
+        assertThat(client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/readyz")).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode()).isEqualTo(200);
+    }
+
+    private static SpanData find(List<SpanData> spans, Predicate<SpanData> predicate) {
+        Optional<SpanData> span = spans.stream().filter(predicate).findFirst();
+        assertThat(span).as("span in %s", spans.stream().map(SpanData::getName).toList()).isPresent();
+        return span.get();
+    }
+
+    private static String attribute(SpanData span, String key) {
+        return span.getAttributes().asMap().entrySet().stream()
+                .filter(e -> e.getKey().getKey().equals(key))
+                .map(e -> String.valueOf(e.getValue()))
+                .findFirst().orElse(null);
+    }
+
+    private static boolean isDescendant(List<SpanData> spans, SpanData span, SpanData ancestor) {
+        SpanData current = span;
+        while (current != null) {
+            if (current.getSpanId().equals(ancestor.getSpanId())) {
+                return true;
+            }
+            String parentId = current.getParentSpanId();
+            current = spans.stream().filter(s -> s.getSpanId().equals(parentId)).findFirst().orElse(null);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ChatAppBackend.Diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(5), 10, registry);
+    private final Object lock = new Object();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void sleepingInsideSynchronizedIsAttributedToOurFrame() throws Exception {
+        monitor.start();
+
+        Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+        await().atMost(Duration.ofSeconds(15)).until(() -> !monitor.pinnedCountsBySite().isEmpty());
+        assertThat(monitor.pinnedCountsBySite()).hasSize(1);
+        String site = monitor.pinnedCountsBySite().keySet().iterator().next();
+        assertThat(site).startsWith(VirtualThreadPinningMonitorTest.class.getName() + ".sleepWhileHoldingMonitor");
+        assertThat(registry.get("jvm.threads.virtual.pinned").tag("site", site).counter().count()).isEqualTo(1.0);
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
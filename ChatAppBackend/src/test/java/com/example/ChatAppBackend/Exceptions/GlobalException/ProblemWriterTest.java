@@ -0,0 +1,71 @@
+package com.example.ChatAppBackend.Exceptions.GlobalException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesProblemJsonWithStaticMembersAndEscapedDetail() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String detail = "Room \"Büro\" 🎥 not found\n\\";
+
+        ProblemWriter.write(response, ProblemType.NOT_FOUND, detail, "/api/room/join-room");
+
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(response.getContentType()).isEqualTo(ProblemWriter.CONTENT_TYPE);
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.get("type").asText()).isEqualTo("about:blank");
+        assertThat(body.get("title").asText()).isEqualTo("Not Found");
+        assertThat(body.get("status").asInt()).isEqualTo(404);
+        assertThat(body.get("detail").asText()).isEqualTo(detail);
+        assertThat(body.get("instance").asText()).isEqualTo("/api/room/join-room");
+        assertThat(body.get("timestamp").asText()).endsWith("Z");
+    }
+
+    @Test
+    void writesFieldErrorsAsAnExtensionMember() throws Exception {
+        Map<String, String> errors = new LinkedHashMap<>();
+        errors.put("inviteeEmail", "must be a well-formed email address");
+        errors.put("name", null);
+
+        byte[] bytes = serialize(ProblemType.VALIDATION_FAILED, "Request validation failed", null, errors);
+
+        JsonNode body = objectMapper.readTree(bytes);
+        assertThat(body.get("status").asInt()).isEqualTo(400);
+        assertThat(body.get("instance").asText()).isEmpty();
+        assertThat(body.get("errors").get("inviteeEmail").asText()).isEqualTo("must be a well-formed email address");
+        assertThat(body.get("errors").get("name").asText()).isEmpty();
+    }
+
+    @Test
+    void rendersTheTimestampOncePerSecond() throws Exception {
+        long second = 1_735_732_800_000L;
+        JsonNode first = objectMapper.readTree(serializeAt(second + 10));
+        JsonNode sameSecond = objectMapper.readTree(serializeAt(second + 990));
+        JsonNode next = objectMapper.readTree(serializeAt(second + 1_000));
+
+        assertThat(first.get("timestamp").asText()).isEqualTo("2025-01-01T12:00:00Z");
+        assertThat(sameSecond.get("timestamp").asText()).isEqualTo("2025-01-01T12:00:00Z");
+        assertThat(next.get("timestamp").asText()).isEqualTo("2025-01-01T12:00:01Z");
+    }
+
+    private static byte[] serialize(ProblemType type, String detail, String instance, Map<String, String> errors) {
+        return ProblemWriter.serialize(type, detail, instance, errors, System.currentTimeMillis());
+    }
+
+    private static byte[] serializeAt(long epochMillis) {
+        return ProblemWriter.serialize(ProblemType.BAD_REQUEST, "bad", "/x", null, epochMillis);
+    }
+}
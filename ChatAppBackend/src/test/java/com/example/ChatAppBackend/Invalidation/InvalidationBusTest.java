@@ -0,0 +1,171 @@
+package com.example.ChatAppBackend.Invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class InvalidationBusTest {
+
+    private static final String URL = System.getenv("CHATAPP_TEST_DB_URL");
+    private static final String USER = System.getenv().getOrDefault("CHATAPP_TEST_DB_USERNAME", "postgres");
+    private static final String PASSWORD = System.getenv().getOrDefault("CHATAPP_TEST_DB_PASSWORD", "");
+
+    private final List<InvalidationBus> buses = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, USER, PASSWORD));
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS invalidation_events (
+                    id bigserial PRIMARY KEY,
+                    type varchar(32) NOT NULL,
+                    event_key varchar(255) NOT NULL,
+                    payload text,
+                    origin varchar(64) NOT NULL,
+                    created_at timestamp(6) with time zone NOT NULL
+                )""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(InvalidationBus::stop);
+    }
+
+    @Test
+    void eventsReachOtherNodesButNotThePublisher() {
+        RecordingHandler onA = new RecordingHandler();
+        RecordingHandler onB = new RecordingHandler();
+        InvalidationBus a = startBus(onA);
+        InvalidationBus b = startBus(onB);
+        await().atMost(Duration.ofSeconds(10)).until(() -> a.isConnected() && b.isConnected());
+
+        for (int i = 0; i < 100; i++) {
+            a.publish(InvalidationEventType.ROOM_CHANGED, "room-" + i);
+        }
+        a.publishImmediately(InvalidationEventType.USER_REVOKED, "uid-1", "1700000000");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> onB.events.size() == 101);
+        assertThat(onB.events).contains("USER_REVOKED:uid-1:1700000000", "ROOM_CHANGED:room-0:null");
+        assertThat(onA.events).isEmpty();
+    }
+
+    @Test
+    void listenerReplaysEventsMissedWhileDisconnected() {
+        RecordingHandler onB = new RecordingHandler();
+        InvalidationBus a = startBus(new RecordingHandler());
+        InvalidationBus b = startBus(onB);
+        await().atMost(Duration.ofSeconds(10)).until(() -> a.isConnected() && b.isConnected());
+
+        // Kill every LISTEN connection; b reconnects with backoff
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity " +
+                "WHERE query ILIKE 'LISTEN%' OR query ILIKE 'SELECT id, type%'");
+        a.publish(InvalidationEventType.ROOM_KEY_CONSUMED, "missed-while-down");
+
+        await().atMost(Duration.ofSeconds(20)).until(() -> onB.events.contains("ROOM_KEY_CONSUMED:missed-while-down:null"));
+    }
+
+    @Test
+    void overflowIsWrittenByThePublisherInsteadOfDropped() {
+        RecordingHandler onB = new RecordingHandler();
+        // Tiny queue that is never flushed on its own
+        InvalidationBus a = startBus(new RecordingHandler(), 1, Duration.ofHours(1));
+        InvalidationBus b = startBus(onB);
+        await().atMost(Duration.ofSeconds(10)).until(() -> a.isConnected() && b.isConnected());
+
+        for (int i = 0; i < 10; i++) {
+            a.publish(InvalidationEventType.ROOM_KEY_ISSUED, "overflow-" + i, "1");
+        }
+
+        assertThat(a.getOverflowCount()).isEqualTo(9);
+        await().atMost(Duration.ofSeconds(10)).until(() -> onB.events.size() == 9);
+        // The one that fit in the queue goes out with the final flush
+        a.stop();
+        await().atMost(Duration.ofSeconds(10)).until(() -> onB.events.size() == 10);
+    }
+
+    @Test
+    void newNodeGetsRetainedEventsItAsksFor() {
+        String uid = "replayed-" + System.nanoTime();
+        InvalidationBus a = startBus(new RecordingHandler());
+        await().atMost(Duration.ofSeconds(10)).until(a::isConnected);
+        a.publishImmediately(InvalidationEventType.USER_REVOKED, uid, "1700000000");
+        a.publish(InvalidationEventType.ROOM_CHANGED, uid);
+        await().atMost(Duration.ofSeconds(10)).until(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM invalidation_events WHERE event_key = ?", Integer.class, uid) == 2);
+
+        RecordingHandler revocations = new RecordingHandler(Set.of(InvalidationEventType.USER_REVOKED));
+        RecordingHandler caches = new RecordingHandler();
+        InvalidationBus late = startBus(List.of(revocations, caches), 10_000, Duration.ofMillis(20));
+        await().atMost(Duration.ofSeconds(10)).until(late::isConnected);
+
+        assertThat(revocations.events).contains("USER_REVOKED:" + uid + ":1700000000");
+        assertThat(revocations.events).noneMatch(e -> e.startsWith("ROOM_CHANGED"));
+        assertThat(caches.events).isEmpty();
+    }
+
+    private InvalidationBus startBus(InvalidationHandler handler) {
+        return startBus(handler, 10_000, Duration.ofMillis(20));
+    }
+
+    private InvalidationBus startBus(InvalidationHandler handler, int maxPending, Duration flushInterval) {
+        return startBus(List.of(handler), maxPending, flushInterval);
+    }
+
+    private InvalidationBus startBus(List<InvalidationHandler> handlers, int maxPending, Duration flushInterval) {
+        InvalidationBus bus = new InvalidationBus(
+                jdbcTemplate,
+                () -> DriverManager.getConnection(URL, USER, PASSWORD),
+                handlers,
+                50,
+                maxPending,
+                flushInterval,
+                Duration.ofMillis(500),
+                Duration.ofHours(1)
+        );
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    private static class RecordingHandler implements InvalidationHandler {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final Set<InvalidationEventType> replayed;
+
+        RecordingHandler() {
+            this(Set.of());
+        }
+
+        RecordingHandler(Set<InvalidationEventType> replayed) {
+            this.replayed = replayed;
+        }
+
+        @Override
+        public Set<InvalidationEventType> replayedOnStartAndReset() {
+            return replayed;
+        }
+
+        @Override
+        public void onInvalidation(InvalidationEventType type, String key, String payload) {
+            events.add(type + ":" + key + ":" + payload);
+        }
+    }
+}
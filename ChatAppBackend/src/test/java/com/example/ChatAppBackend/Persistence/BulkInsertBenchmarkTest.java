@@ -0,0 +1,221 @@
+package com.example.ChatAppBackend.Persistence;
+
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.User.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk inserts of users and rooms, before and after the persistence tuning.
+ * - Key locality: the same rows inserted into copies of the users/rooms tables (LIKE ... INCLUDING
+ *   ALL) with random (v4, what GenerationType.UUID produced) and time-ordered (v7) ids; reports
+ *   rows/s, primary key index size and its bloat against a freshly rebuilt index
+ * - Statement batching: user/room pairs persisted through Hibernate with a JDBC batch size of 1
+ *   (every INSERT its own round trip) and with hibernate.jdbc.batch_size
+ * Row counts default to a size the suite can afford; the full benchmark is
+ *   -Dpersistence.benchmark.rows=1000000 -Dpersistence.benchmark.entity-pairs=100000
+ * Runs against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class BulkInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertBenchmarkTest.class);
+
+    private static final int ROWS = Integer.getInteger("persistence.benchmark.rows", 200_000);
+    private static final int ENTITY_PAIRS = Integer.getInteger("persistence.benchmark.entity-pairs", 5_000);
+    private static final int JDBC_BATCH = 1_000;
+    private static final int ROWS_PER_TRANSACTION = 10_000;
+    private static final int HIBERNATE_BATCH = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("bench_users_v4", "bench_users_v7", "bench_rooms_v4", "bench_rooms_v7")) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+        jdbcTemplate.update("DELETE FROM rooms WHERE room_key_code LIKE ?", run + "-%");
+        jdbcTemplate.update("DELETE FROM users WHERE firebase_uid LIKE ?", run + "-%");
+    }
+
+    @Test
+    void timeOrderedKeysKeepThePrimaryKeyIndexCompact() {
+        InsertResult usersV4 = insertUsers("bench_users_v4", UUID::randomUUID);
+        InsertResult usersV7 = insertUsers("bench_users_v7", () -> UuidV7Generator.generate(Instant.now()));
+        InsertResult roomsV4 = insertRooms("bench_rooms_v4", UUID::randomUUID);
+        InsertResult roomsV7 = insertRooms("bench_rooms_v7", () -> UuidV7Generator.generate(Instant.now()));
+
+        for (InsertResult result : List.of(usersV4, usersV7, roomsV4, roomsV7)) {
+            logger.info("{}: {} rows in {} ms ({} rows/s); primary key {} MB, {} MB rebuilt ({}% bloat); all indexes {} MB",
+                    result.table(), ROWS, result.millis(), String.format("%.0f", ROWS * 1000.0 / result.millis()),
+                    mb(result.pkeyBytes()), mb(result.rebuiltPkeyBytes()),
+                    String.format("%.0f", result.bloatPercent()), mb(result.indexBytes()));
+        }
+
+        // Random keys split leaf pages all over the index and leave them half full
+        assertThat(usersV7.pkeyBytes()).isLessThan(usersV4.pkeyBytes());
+        assertThat(roomsV7.pkeyBytes()).isLessThan(roomsV4.pkeyBytes());
+        assertThat(usersV7.bloatPercent()).isLessThan(usersV4.bloatPercent());
+    }
+
+    @Test
+    void batchedEntityInsertsNeedFewerRoundTrips() {
+        long unbatched = persistPairs("u1", 1);
+        long batched = persistPairs("u50", HIBERNATE_BATCH);
+
+        logger.info("Hibernate inserts of {} user/room pairs: batch size 1 {} ms ({} rows/s), batch size {} {} ms ({} rows/s)",
+                ENTITY_PAIRS, unbatched, String.format("%.0f", ENTITY_PAIRS * 2000.0 / unbatched),
+                HIBERNATE_BATCH, batched, String.format("%.0f", ENTITY_PAIRS * 2000.0 / batched));
+
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM rooms WHERE room_key_code LIKE ?", Integer.class, run + "-%");
+        assertThat(stored).isEqualTo(ENTITY_PAIRS * 2);
+        assertThat(batched).isLessThan(unbatched);
+    }
+
+    // ---- Key locality ----
+
+    private InsertResult insertUsers(String table, Supplier<UUID> ids) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE users INCLUDING ALL)");
+        Timestamp now = Timestamp.from(Instant.now());
+        long millis = insertAll("INSERT INTO " + table + " (id, firebase_uid, email, created_at, last_login_at, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, false)", i -> new Object[]{ids.get(), "b-" + i, "b-" + i + "@example.com", now, now});
+        return measure(table, millis);
+    }
+
+    private InsertResult insertRooms(String table, Supplier<UUID> ids) {
+        // No foreign keys in the copy: host ids only have to be unique
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE rooms INCLUDING ALL)");
+        Timestamp now = Timestamp.from(Instant.now());
+        long millis = insertAll("INSERT INTO " + table + " (id, name, host_id, invitee_email, status, created_at, updated_at, " +
+                        "room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled) " +
+                        "VALUES (?, ?, ?, ?, 'PENDING', ?, ?, ?, ?, false, false)",
+                i -> new Object[]{ids.get(), "room " + i, UUID.randomUUID(), "b-" + i + "@example.com", now, now,
+                        "k-" + i, now});
+        return measure(table, millis);
+    }
+
+    private long insertAll(String sql, IntFunction<Object[]> row) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        for (int from = 0; from < ROWS; from += ROWS_PER_TRANSACTION) {
+            int to = Math.min(from + ROWS_PER_TRANSACTION, ROWS);
+            int first = from;
+            tx.executeWithoutResult(status -> {
+                List<Object[]> rows = new ArrayList<>(JDBC_BATCH);
+                for (int i = first; i < to; i++) {
+                    rows.add(row.apply(i));
+                    if (rows.size() == JDBC_BATCH) {
+                        jdbcTemplate.batchUpdate(sql, rows);
+                        rows.clear();
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sql, rows);
+                }
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private InsertResult measure(String table, long millis) {
+        String pkey = jdbcTemplate.queryForObject(
+                "SELECT indexrelid::regclass::text FROM pg_index WHERE indrelid = ?::regclass AND indisprimary",
+                String.class, table);
+        long pkeyBytes = relationSize(pkey);
+        long indexBytes = jdbcTemplate.queryForObject("SELECT pg_indexes_size(?::regclass)", Long.class, table);
+        jdbcTemplate.execute("REINDEX INDEX " + pkey);
+        return new InsertResult(table, millis, pkeyBytes, relationSize(pkey), indexBytes);
+    }
+
+    private long relationSize(String relation) {
+        return jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, relation);
+    }
+
+    private static String mb(long bytes) {
+        return String.format("%.1f", bytes / (1024.0 * 1024.0));
+    }
+
+    private record InsertResult(String table, long millis, long pkeyBytes, long rebuiltPkeyBytes, long indexBytes) {
+        double bloatPercent() {
+            return 100.0 * (pkeyBytes - rebuiltPkeyBytes) / pkeyBytes;
+        }
+    }
+
+    // ---- Statement batching ----
+
+    private long persistPairs(String label, int batchSize) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Instant now = Instant.now();
+        long start = System.nanoTime();
+        for (int from = 0; from < ENTITY_PAIRS; from += ROWS_PER_TRANSACTION / 2) {
+            int to = Math.min(from + ROWS_PER_TRANSACTION / 2, ENTITY_PAIRS);
+            int first = from;
+            tx.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (int i = first; i < to; i++) {
+                    String key = run + "-" + label + "-" + i;
+                    User host = new User();
+                    host.setFirebaseUid(key);
+                    host.setEmail(key + "@example.com");
+                    // Alternating user/room inserts: order_inserts groups them into one batch per table
+                    entityManager.persist(host);
+                    entityManager.persist(room(host, key, now));
+                    if ((i - first + 1) % HIBERNATE_BATCH == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static Room room(User host, String key, Instant now) {
+        Room room = new Room();
+        room.setName("bench " + key);
+        room.setHost(host);
+        room.setInviteeEmail("guest-" + key + "@example.com");
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
+        room.setRoomKeyCode(key);
+        room.setRoomKeyCodeExpiresAt(now.plusSeconds(900));
+        return room;
+    }
+}
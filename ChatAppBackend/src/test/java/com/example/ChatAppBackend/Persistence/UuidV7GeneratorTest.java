@@ -0,0 +1,53 @@
+package com.example.ChatAppBackend.Persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void layoutFollowsRfc9562() {
+        Instant now = Instant.parse("2026-10-18T12:00:00.123456789Z");
+
+        UUID id = UuidV7Generator.generate(now);
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(now.toEpochMilli());
+        // 0.456789 ms in 1/4096 ms steps
+        assertThat(id.getMostSignificantBits() & 0xFFFL).isEqualTo(456_789L * 4096 / 1_000_000);
+    }
+
+    @Test
+    void idsSortInTimeOrder() {
+        Instant start = Instant.parse("2026-10-18T12:00:00Z");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // 250ns apart: still ordered within the same millisecond
+            ids.add(UuidV7Generator.generate(start.plusNanos(i * 250L)));
+        }
+
+        // java.util.UUID compares signed halves; PostgreSQL (and toString) order is unsigned
+        assertThat(ids).isSortedAccordingTo((a, b) -> a.toString().compareTo(b.toString()));
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+    }
+
+    @Test
+    void idsAtTheSameInstantAreStillUnique() {
+        Instant now = Instant.now();
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7Generator.generate(now));
+        }
+
+        assertThat(ids).hasSize(100_000);
+    }
+}
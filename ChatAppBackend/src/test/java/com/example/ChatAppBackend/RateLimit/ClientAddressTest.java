@@ -0,0 +1,50 @@
+package com.example.ChatAppBackend.RateLimit;
+
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-IP limits behind a proxy: the test client connects from loopback, a trusted hop, so the
+ * client address comes from X-Forwarded-For, and only from its trusted end.
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@TestPropertySource(properties = {
+        "rate-limit.policies.ip-api.scope=IP",
+        "rate-limit.policies.ip-api.paths=/api/**",
+        "rate-limit.policies.ip-api.limit=1",
+        "rate-limit.policies.ip-api.period=1h",
+        "rate-limit.policies.ip-api.burst=2"
+})
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class ClientAddressTest extends ApiTestSupport {
+
+    @Test
+    void perIpBucketsFollowTheForwardedClientAddress() throws Exception {
+        // Unauthenticated requests still pass the IP filter first: 401 until the bucket is empty
+        assertThat(get("203.0.113.10")).isEqualTo(401);
+        assertThat(get("203.0.113.10")).isEqualTo(401);
+        assertThat(get("203.0.113.10")).isEqualTo(429);
+
+        // Another client behind the same proxy has its own bucket
+        assertThat(get("203.0.113.11")).isEqualTo(401);
+
+        // A client cannot pick its address by prepending one: the proxy appends the real one
+        assertThat(get("198.51.100.1, 203.0.113.10")).isEqualTo(429);
+    }
+
+    private int get(String forwardedFor) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/retrieve"))
+                .header("X-Forwarded-For", forwardedFor)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
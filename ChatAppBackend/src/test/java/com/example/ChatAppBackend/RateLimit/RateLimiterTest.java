@@ -0,0 +1,139 @@
+package com.example.ChatAppBackend.RateLimit;
+
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseAuthenticationToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void allowsTheBurstThenRefillsAtTheSustainedRate() {
+        // 6 per minute = one token every 10 seconds, 3 back to back
+        RateLimiter limiter = limiter("join", RateLimitScope.USER, "/api/room/join-room", 6, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("uid-1")).isZero();
+        }
+        long wait = limiter.tryAcquire("uid-1");
+        assertThat(wait).isEqualTo(TimeUnit.SECONDS.toNanos(10));
+
+        // Rejections take nothing: still exactly one token after the wait
+        assertThat(limiter.tryAcquire("uid-1")).isEqualTo(wait);
+        nanos.addAndGet(wait);
+        assertThat(limiter.tryAcquire("uid-1")).isZero();
+        assertThat(limiter.tryAcquire("uid-1")).isPositive();
+
+        // Other keys have their own bucket
+        assertThat(limiter.tryAcquire("uid-2")).isZero();
+
+        assertThat(meterRegistry.get("rate.limit.requests").tag("policy", "join").tag("outcome", "rejected")
+                .counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void neverAllowsMoreThanTheBurstUnderContention() throws Exception {
+        RateLimiter limiter = limiter("create", RateLimitScope.USER, "/api/room/create-room", 100, 50);
+        int threads = 8;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("uid-1") == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+        // The clock is frozen, so nothing refills while the threads race
+        assertThat(allowed.get()).isEqualTo(50);
+    }
+
+    @Test
+    void filtersRejectWith429AndRetryAfter() throws Exception {
+        List<RateLimiter> limiters = List.of(
+                limiter("ip-api", RateLimitScope.IP, "/api/**", 60, 2),
+                limiter("user-enter", RateLimitScope.USER, "/api/user/enter", 6, 1));
+        RateLimitFilter ipFilter = new RateLimitFilter(RateLimitScope.IP, limiters);
+        RateLimitFilter userFilter = new RateLimitFilter(RateLimitScope.USER, limiters);
+
+        var authentication = new FirebaseAuthenticationToken("token", null, AuthorityUtils.NO_AUTHORITIES);
+        authentication.setDetails(new CurrentUserDetails("uid-1", "one@example.com", null));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        assertThat(call(userFilter, "/api/user/enter").getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = call(userFilter, "/api/user/enter");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("10");
+        // Paths outside the policy pass
+        assertThat(call(userFilter, "/api/user/retrieve").getStatus()).isEqualTo(200);
+
+        assertThat(call(ipFilter, "/api/user/retrieve").getStatus()).isEqualTo(200);
+        assertThat(call(ipFilter, "/api/room/join-room").getStatus()).isEqualTo(200);
+        MockHttpServletResponse flooded = call(ipFilter, "/api/user/enter");
+        assertThat(flooded.getStatus()).isEqualTo(429);
+        assertThat(flooded.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(call(ipFilter, "/actuator/health").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void encodedOrNonCanonicalPathsHitTheSamePolicy() throws Exception {
+        RateLimitFilter ipFilter = new RateLimitFilter(RateLimitScope.IP,
+                List.of(limiter("ip-join", RateLimitScope.IP, "/api/room/join-room", 60, 3)));
+
+        assertThat(call(ipFilter, "/api/room/join%2Droom").getStatus()).isEqualTo(200);
+        assertThat(call(ipFilter, "/api/room/join-room;jsessionid=1").getStatus()).isEqualTo(200);
+        assertThat(call(ipFilter, "/api//room/join-room").getStatus()).isEqualTo(200);
+        assertThat(call(ipFilter, "/api/room/%6Aoin-room").getStatus()).isEqualTo(429);
+    }
+
+    private RateLimiter limiter(String name, RateLimitScope scope, String path, int perMinute, int burst) {
+        return new RateLimiter(name, scope, null, List.of(path), perMinute, Duration.ofMinutes(1), burst,
+                1_000, nanos::get, meterRegistry);
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
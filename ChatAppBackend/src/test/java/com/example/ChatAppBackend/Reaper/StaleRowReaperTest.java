@@ -0,0 +1,186 @@
+package com.example.ChatAppBackend.Reaper;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationPublisher;
+import com.example.ChatAppBackend.Room.CurrentRoomCache;
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.Room.RoomStatus;
+import com.example.ChatAppBackend.RoomEvents.RoomEvent;
+import com.example.ChatAppBackend.RoomEvents.RoomEventPublisher;
+import com.example.ChatAppBackend.RoomEvents.RoomEventType;
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserCache;
+import com.example.ChatAppBackend.User.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the reaper against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ * Other rows in that database that are stale by the same rules are reaped as well.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class StaleRowReaperTest {
+
+    private static final int EXPIRED_ROOMS = 40;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Instant now = Instant.now();
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+    private final ConcurrentLinkedQueue<RoomEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void concurrentReapersDeleteEachExpiredRoomOnce() throws Exception {
+        List<UUID> expired = new ArrayList<>();
+        for (int i = 0; i < EXPIRED_ROOMS; i++) {
+            expired.add(room(user("h" + i, null), user("g" + i, null), RoomStatus.PENDING, now.minusSeconds(60)).getId());
+        }
+        Room fresh = room(user("fresh-h", null), user("fresh-g", null), RoomStatus.PENDING, now.plusSeconds(600));
+        Room active = room(user("active-h", null), user("active-g", null), RoomStatus.ACTIVE, now.minusSeconds(60));
+
+        // Small batches so both reapers go through several rounds over the same rows
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            for (int i = 0; i < 2; i++) {
+                StaleRowReaper reaper = reaper(7);
+                pool.submit(() -> {
+                    start.await();
+                    reaper.reap();
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(roomRepository.findAllById(expired)).isEmpty();
+        assertThat(roomRepository.existsById(fresh.getId())).isTrue();
+        assertThat(roomRepository.existsById(active.getId())).isTrue();
+
+        List<UUID> expiredEvents = events.stream()
+                .filter(e -> e.type() == RoomEventType.KEY_EXPIRED && expired.contains(e.roomId()))
+                .map(RoomEvent::roomId)
+                .toList();
+        assertThat(expiredEvents).hasSize(EXPIRED_ROOMS).doesNotHaveDuplicates();
+
+        // Each archived exactly once, with its host's email
+        List<String> archived = jdbcTemplate.queryForList(
+                "SELECT status || '/' || end_reason FROM ended_rooms WHERE host_email LIKE ?", String.class, run + "-h%");
+        assertThat(archived).hasSize(EXPIRED_ROOMS).containsOnly("EXPIRED/KEY_EXPIRED");
+    }
+
+    @Test
+    void softDeletedUsersAreRemovedWithTheirRoomsAfterTheGracePeriod() {
+        User gone = user("gone", now.minus(Duration.ofHours(2)));
+        User recent = user("recent", now.minusSeconds(600));
+        Room goneRoom = room(gone, user("gone-guest", null), RoomStatus.ACTIVE, now.plusSeconds(600));
+        Room recentRoom = room(recent, user("recent-guest", null), RoomStatus.ACTIVE, now.plusSeconds(600));
+        message(goneRoom);
+        message(recentRoom);
+
+        reaper(500).reap();
+
+        assertThat(roomRepository.existsById(goneRoom.getId())).isFalse();
+        assertThat(userRepository.existsById(gone.getId())).isFalse();
+        assertThat(roomRepository.existsById(recentRoom.getId())).isTrue();
+        assertThat(userRepository.existsById(recent.getId())).isTrue();
+        assertThat(userRepository.existsById(goneRoom.getGuest().getId())).isTrue();
+        // Rooms removed outright take their chat history with them
+        assertThat(messages(goneRoom)).isZero();
+        assertThat(messages(recentRoom)).isEqualTo(1);
+    }
+
+    private StaleRowReaper reaper(int batchSize) {
+        RoomEventPublisher collecting = new RoomEventPublisher(null, InvalidationPublisher.NOOP) {
+            @Override
+            public void publish(RoomEvent event) {
+                events.add(event);
+            }
+        };
+        return new StaleRowReaper(
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                InvalidationPublisher.NOOP,
+                collecting,
+                new UserCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+                new CurrentRoomCache(new ObjectMapper(), 100, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+                Clock.fixed(now, ZoneOffset.UTC),
+                batchSize,
+                10_000,
+                Duration.ofHours(1),
+                new SimpleMeterRegistry());
+    }
+
+    private User user(String name, Instant deletionRequestedAt) {
+        User user = new User();
+        user.setFirebaseUid(run + "-" + name);
+        user.setEmail(run + "-" + name + "@example.com");
+        user.setCreatedAt(now);
+        user.setLastLoginAt(now);
+        user.setDisabled(deletionRequestedAt != null);
+        user.setDeletionRequestedAt(deletionRequestedAt);
+        return userRepository.save(user);
+    }
+
+    private void message(Room room) {
+        jdbcTemplate.update("INSERT INTO chat_messages (id, room_id, sender_id, body, sent_at) " +
+                "VALUES (nextval('chat_messages_seq'), ?, ?, 'hi', ?)", room.getId(), room.getHost().getId(), Timestamp.from(now));
+    }
+
+    private int messages(Room room) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM chat_messages WHERE room_id = ?", Integer.class, room.getId());
+    }
+
+    private Room room(User host, User guest, RoomStatus status, Instant keyExpiresAt) {
+        Room room = new Room();
+        room.setName("reaper");
+        room.setHost(host);
+        room.setInviteeEmail(guest.getEmail());
+        room.setGuest(guest);
+        room.setStatus(status);
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
+        room.setRoomKeyCode(host.getFirebaseUid() + "-key");
+        room.setRoomKeyCodeExpiresAt(keyExpiresAt);
+        room.setRoomKeyCodeUsedWithin15Min(status == RoomStatus.ACTIVE);
+        return roomRepository.save(room);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ChatAppBackend.Replication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicReference<String> currentUser = new AtomicReference<>();
+    private final ReadYourWrites readYourWrites =
+            new ReadYourWrites(currentUser::get, Duration.ofSeconds(5), 100, nanos::get);
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica0Connection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final DataSource primary = dataSource(primaryConnection);
+    private final DataSource replica0 = dataSource(replica0Connection);
+    private final DataSource replica1 = dataSource(replica1Connection);
+
+    @Test
+    void readsAreSpreadOverTheReplicas() throws SQLException {
+        ReplicaDataSource replicas = new ReplicaDataSource(primary, List.of(replica0, replica1), readYourWrites, new SimpleMeterRegistry());
+
+        assertThat(List.of(replicas.getConnection(), replicas.getConnection(), replicas.getConnection()))
+                .containsExactly(replica0Connection, replica1Connection, replica0Connection);
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromThePrimaryUntilTheWindowPasses() throws SQLException {
+        ReplicaDataSource replicas = new ReplicaDataSource(primary, List.of(replica0), readYourWrites, new SimpleMeterRegistry());
+        DataSource writes = new WriteTrackingDataSource(primary, readYourWrites);
+
+        currentUser.set("writer");
+        writes.getConnection();
+        assertThat(replicas.getConnection()).isSameAs(primaryConnection);
+
+        currentUser.set("someone-else");
+        assertThat(replicas.getConnection()).isSameAs(replica0Connection);
+
+        currentUser.set("writer");
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertThat(replicas.getConnection()).isSameAs(replica0Connection);
+    }
+
+    @Test
+    void unavailableReplicasAreSkippedThenThePrimaryIsUsed() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ReplicaDataSource oneDown = new ReplicaDataSource(primary, List.of(down, replica1), readYourWrites, meterRegistry);
+        assertThat(oneDown.getConnection()).isSameAs(replica1Connection);
+
+        ReplicaDataSource allDown = new ReplicaDataSource(primary, List.of(down), readYourWrites, meterRegistry);
+        assertThat(allDown.getConnection()).isSameAs(primaryConnection);
+        assertThat(meterRegistry.counter("datasource.routing", "target", "primary", "reason", "replica-unavailable").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void explicitCredentialsAreRoutedLikeTheDefaultOnes() throws SQLException {
+        Connection asReporter = mock(Connection.class);
+        when(replica0.getConnection("reporter", "secret")).thenReturn(asReporter);
+        ReplicaDataSource replicas = new ReplicaDataSource(primary, List.of(replica0), readYourWrites, new SimpleMeterRegistry());
+
+        assertThat(replicas.getConnection("reporter", "secret")).isSameAs(asReporter);
+    }
+
+    private static DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ChatAppBackend.Replication;
+
+import com.example.ChatAppBackend.Configurations.Persistence.ReplicaRoutingConfig;
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.example.ChatAppBackend.User.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing through the real JPA and transaction stack. The "replica" is the test database itself,
+ * reached over a separate pool whose connections carry ApplicationName=chatapp-replica, so each
+ * statement can tell which pool it ran on.
+ * Runs against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReplicaRoutingConfig.class, ReplicaRoutingTest.Metrics.class})
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class ReplicaRoutingTest {
+
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        String url = System.getenv("CHATAPP_TEST_DB_URL");
+        registry.add("datasource.replicas.urls",
+                () -> url + (url.contains("?") ? "&" : "?") + "ApplicationName=chatapp-replica");
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsRunOnTheReplica() {
+        assertThat(inTransaction(true)).isEqualTo("chatapp-replica");
+        assertThat(inTransaction(false)).isNotEqualTo("chatapp-replica");
+        // Outside a transaction JdbcTemplate writes, so it stays on the primary
+        assertThat(jdbcTemplate.queryForObject(APPLICATION_NAME, String.class)).isNotEqualTo("chatapp-replica");
+    }
+
+    @Test
+    void springDataReadMethodsUseTheReplicaWithPerPoolMetrics() {
+        double before = replicaReads();
+
+        userRepository.findByFirebaseUid("nobody-" + System.nanoTime());
+
+        assertThat(replicaReads()).isEqualTo(before + 1);
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "replica-0").gauge()).isNotNull();
+    }
+
+    @Test
+    void userReadsTheirOwnWritesFromThePrimary() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("writer", null, List.of());
+        authentication.setDetails(new CurrentUserDetails("writer-" + System.nanoTime(), "writer@example.com", null));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        assertThat(inTransaction(true)).isEqualTo("chatapp-replica");
+        inTransaction(false);
+        assertThat(inTransaction(true)).isNotEqualTo("chatapp-replica");
+    }
+
+    private String inTransaction(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+    }
+
+    private double replicaReads() {
+        return meterRegistry.counter("datasource.routing", "target", "replica", "reason", "read-only").count();
+    }
+}
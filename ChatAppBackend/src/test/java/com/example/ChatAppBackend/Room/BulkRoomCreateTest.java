@@ -0,0 +1,188 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /api/room/create-rooms end to end, and the service time of a thousand rooms created in one bulk
+ * call against the same rooms created one createRoom call at a time.
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class BulkRoomCreateTest extends ApiTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkRoomCreateTest.class);
+
+    private static final int ROOMS = 1_000;
+    // The one-by-one baseline commits a transaction per room
+    private static final int SINGLE_ROOMS = 250;
+    // Plus five failing items: a full request
+    private static final int VALID = BulkRoomDTO.MAX_ROOMS - 5;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomKeyIndex roomKeyIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+
+    @Test
+    void createsValidItemsAndReportsTheRest() throws Exception {
+        seedUsers("h", VALID);
+        seedUsers("g", VALID);
+        // Already hosting a PENDING room
+        UUID busyHost = seedUsers("busy", 1).getFirst();
+        UUID busyGuest = seedUsers("busy-guest", 1).getFirst();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO rooms (id, name, host_id, invitee_email, guest_id, status, created_at, " +
+                        "updated_at, room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled) " +
+                        "VALUES (?, 'busy', ?, ?, ?, 'PENDING', ?, ?, ?, ?, false, false)",
+                UUID.randomUUID(), busyHost, email("busy-guest", 0), busyGuest, now, now, run + "-busy",
+                Timestamp.from(Instant.now().plusSeconds(900)));
+
+        List<Map<String, String>> items = new ArrayList<>();
+        for (int i = 0; i < VALID; i++) {
+            items.add(item(email("h", i), "room " + i, email("g", i)));
+        }
+        items.add(item(run + "-nobody@example.com", "unknown host", email("g", 0)));   // VALID
+        items.add(item(email("h", 0), "unknown invitee", run + "-nobody@example.com")); // VALID + 1
+        items.add(item(email("busy", 0), "self", " " + email("busy", 0).toUpperCase())); // VALID + 2
+        items.add(item(email("h", 1), "duplicate host", email("busy-guest", 0)));        // VALID + 3
+        items.add(item(email("busy", 0), "busy host", email("h", 0)));                  // VALID + 4
+
+        HttpResponse<String> response = post(bulkToken(), Map.of("rooms", items));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(response.body());
+        assertThat(body.get("created").asInt()).isEqualTo(VALID);
+        assertThat(body.get("failed").asInt()).isEqualTo(5);
+        JsonNode results = body.get("results");
+        assertThat(results).hasSize(VALID + 5);
+        for (int i = 0; i < VALID; i++) {
+            JsonNode result = results.get(i);
+            assertThat(result.get("index").asInt()).isEqualTo(i);
+            assertThat(result.get("error").isNull()).isTrue();
+            assertThat(result.get("room").get("name").asText()).isEqualTo("room " + i);
+            assertThat(result.get("room").get("status").asText()).isEqualTo("PENDING");
+            assertThat(result.get("room").get("hostEmail").asText()).isEqualTo(email("h", i));
+        }
+        assertThat(results.get(VALID).get("error").asText()).startsWith("User not found with email: " + run + "-nobody");
+        assertThat(results.get(VALID + 1).get("error").asText()).startsWith("User not found with email: " + run + "-nobody");
+        assertThat(results.get(VALID + 2).get("error").asText()).isEqualTo("A host cannot invite themselves to a room.");
+        assertThat(results.get(VALID + 3).get("error").asText()).isEqualTo("The host or invitee already has a room in this request.");
+        assertThat(results.get(VALID + 4).get("error").asText()).isEqualTo("This host is already hosting a room.");
+        assertThat(results.get(VALID + 4).get("room").isNull()).isTrue();
+
+        Integer stored = jdbcTemplate.queryForObject("SELECT count(*) FROM rooms r JOIN users u ON u.id = r.host_id " +
+                "WHERE u.firebase_uid LIKE ? AND r.status = 'PENDING'", Integer.class, run + "-h-%");
+        assertThat(stored).isEqualTo(VALID);
+        String key = jdbcTemplate.queryForObject("SELECT r.room_key_code FROM rooms r JOIN users u ON u.id = r.host_id " +
+                "WHERE u.firebase_uid = ?", String.class, run + "-h-7");
+        assertThat(roomKeyIndex.lookup(key)).isEqualTo(RoomKeyIndex.Lookup.LIVE);
+
+        // The same hosts again: every item is refused, nothing is inserted twice
+        JsonNode again = objectMapper.readTree(post(bulkToken(), Map.of("rooms", items.subList(0, 10))).body());
+        assertThat(again.get("created").asInt()).isZero();
+        assertThat(again.get("results").get(0).get("error").asText()).isEqualTo("This host is already hosting a room.");
+    }
+
+    @Test
+    void requiresTheBulkCreateAuthority() throws Exception {
+        seedUsers("h", 1);
+        seedUsers("g", 1);
+        String plainToken = token(run + "-plain", List.of());
+
+        HttpResponse<String> response = post(plainToken, Map.of("rooms", List.of(item(email("h", 0), "room", email("g", 0)))));
+
+        assertThat(response.statusCode()).isEqualTo(403);
+        assertThat(post(bulkToken(), Map.of("rooms", List.of())).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void oneBulkCallBeatsOneCreateRoomPerRoom() {
+        seedUsers("sh", SINGLE_ROOMS);
+        seedUsers("sg", SINGLE_ROOMS);
+        seedUsers("bh", ROOMS);
+        seedUsers("bg", ROOMS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_ROOMS; i++) {
+            CurrentUserDetails host = new CurrentUserDetails(run + "-sh-" + i, email("sh", i), null);
+            roomService.createRoom(host, new RoomDTO("room " + i, email("sg", i)));
+        }
+        double singleRate = SINGLE_ROOMS * 1e9 / (System.nanoTime() - start);
+
+        List<BulkRoomDTO.Item> items = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            items.add(new BulkRoomDTO.Item(email("bh", i), "room " + i, email("bg", i)));
+        }
+        start = System.nanoTime();
+        BulkRoomResponse response = roomService.createRooms(
+                new CurrentUserDetails(run + "-scheduler", run + "-scheduler@example.com", null), new BulkRoomDTO(items));
+        double bulkRate = ROOMS * 1e9 / (System.nanoTime() - start);
+
+        logger.info("createRoom one by one: {} rooms/s ({} rooms); one createRooms call: {} rooms/s ({} rooms)",
+                String.format("%.0f", singleRate), SINGLE_ROOMS, String.format("%.0f", bulkRate), ROOMS);
+
+        assertThat(response.created()).isEqualTo(ROOMS);
+        assertThat(bulkRate).isGreaterThan(singleRate);
+    }
+
+    private HttpResponse<String> post(String token, Object body) throws Exception {
+        return send("POST", "/api/room/create-rooms", token, objectMapper.writeValueAsString(body));
+    }
+
+    private String bulkToken() throws Exception {
+        return token(run + "-scheduler", List.of("ROOM_BULK_CREATE"));
+    }
+
+    private String token(String uid, List<String> authorities) throws Exception {
+        return token(uid, uid + "@example.com", Map.of("authorities", authorities));
+    }
+
+    private static Map<String, String> item(String hostEmail, String name, String inviteeEmail) {
+        return Map.of("hostEmail", hostEmail, "name", name, "inviteeEmail", inviteeEmail);
+    }
+
+    private String email(String role, int i) {
+        return run + "-" + role + "-" + i + "@example.com";
+    }
+
+    private List<UUID> seedUsers(String role, int count) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<UUID> ids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            rows.add(new Object[]{id, run + "-" + role + "-" + i, email(role, i), now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, firebase_uid, email, created_at, last_login_at, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, false)", rows);
+        return ids;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.RoomEvents.RoomEvent;
+import com.example.ChatAppBackend.RoomEvents.RoomEventType;
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.example.ChatAppBackend.User.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /api/room/current and /api/room/{id} across create, join and a teardown made by another node.
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class CurrentRoomApiTest extends ApiTestSupport {
+
+    @Autowired
+    private RoomKeyIndex roomKeyIndex;
+
+    @Autowired
+    private CurrentRoomCache currentRoomCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The application's mapper: room events carry an Instant
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void followsTheRoomThroughCreateJoinAndRemoteTeardown() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User hostUser = user(run + "-host");
+        User guestUser = user(run + "-guest");
+        String host = token(hostUser);
+        String guest = token(guestUser);
+        String stranger = token(user(run + "-stranger"));
+
+        // 1. Nobody is in a room yet
+        assertThat(send("GET", "/api/room/current", host, null).statusCode()).isEqualTo(404);
+        HttpResponse<String> none = send("GET", "/api/room/current", guest, null);
+        assertThat(none.statusCode()).isEqualTo(404);
+        assertThat(objectMapper.readTree(none.body()).get("detail").asText()).isEqualTo("You are not in a room.");
+
+        // 2. Created: current for the host, not yet for the invitee
+        HttpResponse<String> created = send("POST", "/api/room/create-room", host,
+                "{\"name\":\"current\",\"inviteeEmail\":\"" + guestUser.getEmail() + "\"}");
+        assertThat(created.statusCode()).isEqualTo(200);
+        UUID roomId = UUID.fromString(objectMapper.readTree(created.body()).get("id").asText());
+
+        JsonNode pending = objectMapper.readTree(send("GET", "/api/room/current", host, null).body());
+        assertThat(pending.get("id").asText()).isEqualTo(roomId.toString());
+        assertThat(pending.get("status").asText()).isEqualTo("PENDING");
+        assertThat(send("GET", "/api/room/current", guest, null).statusCode()).isEqualTo(404);
+
+        // 3. Joined: ACTIVE for both, without another read for either of them
+        double hitsBefore = cacheHits();
+        assertThat(send("PUT", "/api/room/join-room", guest, "{\"roomKeyCode\":\"" + knownKey(roomId) + "\"}").statusCode())
+                .isEqualTo(200);
+        for (String member : new String[]{host, guest}) {
+            JsonNode active = objectMapper.readTree(send("GET", "/api/room/current", member, null).body());
+            assertThat(active.get("id").asText()).isEqualTo(roomId.toString());
+            assertThat(active.get("status").asText()).isEqualTo("ACTIVE");
+            assertThat(active.get("guestId").asText()).isEqualTo(guestUser.getId().toString());
+        }
+        assertThat(cacheHits()).isGreaterThanOrEqualTo(hitsBefore + 2);
+
+        // 4. By id: members only, strangers cannot tell it exists
+        assertThat(send("GET", "/api/room/" + roomId, guest, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/room/" + roomId, stranger, null).statusCode()).isEqualTo(404);
+        assertThat(send("GET", "/api/room/" + UUID.randomUUID(), host, null).statusCode()).isEqualTo(404);
+        assertThat(send("GET", "/api/room/not-a-uuid", host, null).statusCode()).isEqualTo(400);
+
+        // 5. Removed by another node: its room event evicts both members here
+        jdbcTemplate.update("DELETE FROM rooms WHERE id = ?", roomId);
+        assertThat(objectMapper.readTree(send("GET", "/api/room/current", host, null).body()).get("status").asText())
+                .isEqualTo("ACTIVE");
+        currentRoomCache.onInvalidation(InvalidationEventType.ROOM_EVENT, roomId.toString(), objectMapper.writeValueAsString(
+                RoomEvent.of(RoomEventType.DISABLED, roomId, RoomStatus.ACTIVE, hostUser.getId(), guestUser.getId())));
+        assertThat(send("GET", "/api/room/current", host, null).statusCode()).isEqualTo(404);
+        assertThat(send("GET", "/api/room/current", guest, null).statusCode()).isEqualTo(404);
+    }
+
+    /**
+     * The raw key is only mailed to the invitee, so swap in one the test knows (and index it).
+     */
+    private String knownKey(UUID roomId) {
+        String rawKey = UUID.randomUUID().toString();
+        String hash = DigestUtils.sha256Hex(rawKey);
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        jdbcTemplate.update("UPDATE rooms SET room_key_code = ?, room_key_code_expires_at = ? WHERE id = ?",
+                hash, Timestamp.from(expiresAt), roomId);
+        roomKeyIndex.issue(hash, expiresAt);
+        return rawKey;
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "rooms.current").tag("result", "hit")
+                .functionCounter().count();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import com.example.ChatAppBackend.RoomEvents.RoomEvent;
+import com.example.ChatAppBackend.RoomEvents.RoomEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CurrentRoomCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CurrentRoomCache cache =
+            new CurrentRoomCache(objectMapper, 100, Duration.ofSeconds(30), new SimpleMeterRegistry());
+    private final AtomicInteger dbReads = new AtomicInteger();
+    private final UUID host = UUID.randomUUID();
+    private final UUID guest = UUID.randomUUID();
+
+    @Test
+    void roomsAndNoneAreBothCached() {
+        RoomResponse room = room(RoomStatus.PENDING, null);
+
+        assertThat(cache.get(host, counting(room))).isEqualTo(room);
+        assertThat(cache.get(host, counting(null))).isEqualTo(room);
+        assertThat(cache.get(guest, counting(null))).isNull();
+        assertThat(cache.get(guest, counting(room))).isNull();
+
+        assertThat(dbReads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void loadOverlappingARemoteChangeIsNotKept() throws Exception {
+        // The host's room is read, then another node ends it before the load caches the answer
+        RoomResponse stale = room(RoomStatus.ACTIVE, guest);
+        String event = objectMapper.writeValueAsString(
+                RoomEvent.of(RoomEventType.CLOSED, stale.id(), RoomStatus.ENDED, host, guest));
+        cache.get(host, id -> {
+            dbReads.incrementAndGet();
+            cache.onInvalidation(InvalidationEventType.ROOM_EVENT, stale.id().toString(), event);
+            return stale;
+        });
+
+        assertThat(cache.get(host, counting(null))).isNull();
+        assertThat(dbReads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void loadOverlappingALocalPutKeepsThePut() {
+        // "None" is read, then the host creates a room before the load caches the answer
+        RoomResponse created = room(RoomStatus.PENDING, null);
+        cache.get(host, id -> {
+            dbReads.incrementAndGet();
+            cache.putAfterCommit(created);
+            return null;
+        });
+
+        assertThat(cache.get(host, counting(null))).isEqualTo(created);
+        assertThat(dbReads.get()).isEqualTo(1);
+    }
+
+    private Function<UUID, RoomResponse> counting(RoomResponse result) {
+        return id -> {
+            dbReads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private RoomResponse room(RoomStatus status, UUID guestId) {
+        return new RoomResponse(UUID.randomUUID(), "room", status, host, "host@example.com", guestId,
+                "guest@example.com", null, Instant.now());
+    }
+}
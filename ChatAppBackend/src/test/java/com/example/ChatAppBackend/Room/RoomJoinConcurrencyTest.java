@@ -0,0 +1,146 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races many joins on the same room keys against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class RoomJoinConcurrencyTest {
+
+    private static final int ROOMS = 20;
+    private static final int ATTEMPTS_PER_ROOM = 8;
+
+    @DynamicPropertySource
+    static void pool(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> ATTEMPTS_PER_ROOM * 2);
+    }
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void exactlyOneJoinWinsPerKey() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(pendingRoom(user(run + "-host-" + i), user(run + "-guest-" + i), run + "-key-" + i));
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(ATTEMPTS_PER_ROOM);
+        try {
+            for (Room room : rooms) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<JoinedRoom>> attempts = new ArrayList<>();
+                for (int a = 0; a < ATTEMPTS_PER_ROOM; a++) {
+                    attempts.add(pool.submit(() -> {
+                        start.await();
+                        return tx.execute(status -> roomRepository.consumeRoomKeyCode(
+                                room.getRoomKeyCode(), room.getGuest().getId(),
+                                room.getInviteeEmail(), Instant.now()));
+                    }));
+                }
+                start.countDown();
+
+                List<JoinedRoom> winners = new ArrayList<>();
+                for (Future<JoinedRoom> attempt : attempts) {
+                    if (attempt.get() != null) {
+                        winners.add(attempt.get());
+                    }
+                }
+                assertThat(winners).as("winners for room %s", room.getId()).hasSize(1);
+
+                RoomResponse response = RoomResponse.from(winners.getFirst());
+                assertThat(response.id()).isEqualTo(room.getId());
+                assertThat(response.status()).isEqualTo(RoomStatus.ACTIVE);
+                assertThat(response.hostId()).isEqualTo(room.getHost().getId());
+                assertThat(response.hostEmail()).isEqualTo(room.getHost().getEmail());
+                assertThat(response.guestId()).isEqualTo(room.getGuest().getId());
+                assertThat(response.roomKeyCodeExpiresAt()).isNotNull();
+
+                Room stored = roomRepository.findById(room.getId()).orElseThrow();
+                assertThat(stored.getStatus()).isEqualTo(RoomStatus.ACTIVE);
+                assertThat(stored.isRoomKeyCodeUsedWithin15Min()).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredOrForeignKeysAreNotConsumed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User guest = user(run + "-guest");
+        Room room = pendingRoom(user(run + "-host"), guest, run + "-key");
+        User stranger = user(run + "-stranger");
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        JoinedRoom byStranger = tx.execute(s -> roomRepository.consumeRoomKeyCode(
+                room.getRoomKeyCode(), stranger.getId(), stranger.getEmail(), Instant.now()));
+        JoinedRoom afterExpiry = tx.execute(s -> roomRepository.consumeRoomKeyCode(
+                room.getRoomKeyCode(), guest.getId(), guest.getEmail(), Instant.now().plusSeconds(16 * 60)));
+
+        assertThat(byStranger).isNull();
+        assertThat(afterExpiry).isNull();
+        assertThat(roomRepository.findById(room.getId()).orElseThrow().getStatus()).isEqualTo(RoomStatus.PENDING);
+    }
+
+    private User user(String name) {
+        Instant now = Instant.now();
+        User user = new User();
+        user.setFirebaseUid(name);
+        user.setEmail(name + "@example.com");
+        user.setCreatedAt(now);
+        user.setLastLoginAt(now);
+        return userRepository.save(user);
+    }
+
+    private Room pendingRoom(User host, User guest, String key) {
+        Instant now = Instant.now();
+        Room room = new Room();
+        room.setName(key);
+        room.setHost(host);
+        room.setInviteeEmail(guest.getEmail());
+        room.setGuest(guest);
+        room.setStatus(RoomStatus.PENDING);
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
+        room.setRoomKeyCode(key);
+        room.setRoomKeyCodeExpiresAt(now.plusSeconds(15 * 60));
+        return roomRepository.save(room);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomKeyIndexTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T12:00:00Z"));
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final AtomicBoolean coherent = new AtomicBoolean(true);
+    private RoomKeyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findLiveRoomKeys(eq(RoomStatus.PENDING), any()))
+                .thenReturn(List.of(liveKey("loaded", clock.instant().plusSeconds(900))));
+        // 8 one-second buckets, so the 15-minute keys below go around the wheel many times
+        index = new RoomKeyIndex(roomRepository, true, coherent::get, clock, Duration.ofSeconds(10),
+                Duration.ofSeconds(1), 8, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void unknownKeysGoToTheDatabaseUntilTheGraceWindowEnds() {
+        assertThat(index.lookup("loaded")).isEqualTo(RoomKeyIndex.Lookup.UNKNOWN_TO_INDEX);
+
+        index.reload();
+        assertThat(index.lookup("loaded")).isEqualTo(RoomKeyIndex.Lookup.LIVE);
+        // Possibly issued elsewhere with its ROOM_KEY_ISSUED event still in flight
+        assertThat(index.lookup("random")).isEqualTo(RoomKeyIndex.Lookup.UNKNOWN_TO_INDEX);
+
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(index.lookup("random")).isEqualTo(RoomKeyIndex.Lookup.NOT_FOUND);
+    }
+
+    @Test
+    void disconnectRestartsTheGraceWindow() {
+        index.reload();
+        clock.advance(Duration.ofSeconds(10));
+
+        coherent.set(false);
+        assertThat(index.lookup("random")).isEqualTo(RoomKeyIndex.Lookup.UNKNOWN_TO_INDEX);
+
+        // Reconnected: keys issued elsewhere meanwhile may still be replaying
+        coherent.set(true);
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(index.lookup("random")).isEqualTo(RoomKeyIndex.Lookup.UNKNOWN_TO_INDEX);
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(index.lookup("random")).isEqualTo(RoomKeyIndex.Lookup.NOT_FOUND);
+    }
+
+    @Test
+    void usedKeysStayAsTombstones() {
+        index.reload();
+        index.onInvalidation(InvalidationEventType.ROOM_KEY_ISSUED, "remote",
+                Long.toString(clock.instant().plusSeconds(60).toEpochMilli()));
+        index.onInvalidation(InvalidationEventType.ROOM_KEY_CONSUMED, "remote", null);
+
+        assertThat(index.lookup("remote")).isEqualTo(RoomKeyIndex.Lookup.USED);
+
+        // A repeated announcement does not revive it
+        index.issue("remote", clock.instant().plusSeconds(60));
+        assertThat(index.lookup("remote")).isEqualTo(RoomKeyIndex.Lookup.USED);
+    }
+
+    @Test
+    void wheelDropsKeysOnlyOnceTheyExpire() {
+        index.reload();
+        index.issue("short", clock.instant().plusSeconds(5));
+
+        for (int second = 0; second < 899; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            index.advance();
+            if (second == 10) {
+                assertThat(index.lookup("short")).isEqualTo(RoomKeyIndex.Lookup.NOT_FOUND);
+            }
+        }
+        assertThat(index.lookup("loaded")).isEqualTo(RoomKeyIndex.Lookup.LIVE);
+
+        clock.advance(Duration.ofMillis(1500));
+        assertThat(index.lookup("loaded")).isEqualTo(RoomKeyIndex.Lookup.EXPIRED);
+        index.advance();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void longPauseSweepsTheWholeWheel() {
+        index.reload();
+        clock.advance(Duration.ofHours(1));
+        index.advance();
+
+        assertThat(index.size()).isZero();
+    }
+
+    private static LiveRoomKey liveKey(String hash, Instant expiresAt) {
+        return new LiveRoomKey() {
+            @Override
+            public String getRoomKeyCode() {
+                return hash;
+            }
+
+            @Override
+            public Instant getRoomKeyCodeExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
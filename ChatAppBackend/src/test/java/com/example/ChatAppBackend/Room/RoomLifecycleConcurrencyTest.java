@@ -0,0 +1,210 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.example.ChatAppBackend.TokenAndFilter.CurrentUserDetails;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leave/close: thousands of host closes and guest leaves racing on the same ACTIVE rooms, and the
+ * rules of both endpoints.
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class RoomLifecycleConcurrencyTest extends ApiTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomLifecycleConcurrencyTest.class);
+
+    private static final int ROOMS = 1_000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+
+    @Test
+    void racingClosesAndLeavesEndEachRoomOnce() throws Exception {
+        List<UUID> hosts = seedUsers("h", ROOMS);
+        List<UUID> guests = seedUsers("g", ROOMS);
+        List<UUID> rooms = seedActiveRooms(hosts, guests);
+        double conflictsBefore = lockConflicts();
+        double refusedBefore = refusedAfterRetries();
+
+        // Per room: the host closes twice while the guest leaves; 3 * ROOMS calls, all started together
+        List<Future<RoomResponse>> calls = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < ROOMS; i++) {
+                UUID roomId = rooms.get(i);
+                CurrentUserDetails host = details("h", i);
+                CurrentUserDetails guest = details("g", i);
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    return roomService.closeRoom(host, roomId);
+                }));
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    return roomService.leaveRoom(guest, roomId);
+                }));
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    return roomService.closeRoom(host, roomId);
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            // Every call succeeds: the winner ends the room, the others get the ENDED room back
+            for (int i = 0; i < calls.size(); i++) {
+                RoomResponse response = calls.get(i).get();
+                assertThat(response.id()).isEqualTo(rooms.get(i / 3));
+                assertThat(response.status()).isEqualTo(RoomStatus.ENDED);
+            }
+            logger.info("{} racing leave/close calls on {} rooms in {} ms; {} optimistic-lock conflicts retried",
+                    calls.size(), ROOMS, (System.nanoTime() - began) / 1_000_000,
+                    String.format("%.0f", lockConflicts() - conflictsBefore));
+        }
+        assertThat(refusedAfterRetries()).isEqualTo(refusedBefore);
+
+        // Gone from rooms, archived exactly once each, by whichever member won
+        Integer live = jdbcTemplate.queryForObject("SELECT count(*) FROM rooms r JOIN users u ON u.id = r.host_id " +
+                "WHERE u.firebase_uid LIKE ?", Integer.class, run + "-h-%");
+        assertThat(live).isZero();
+        List<Map<String, Object>> archived = jdbcTemplate.queryForList(
+                "SELECT id, status, end_reason FROM ended_rooms WHERE name LIKE ?", run + "-%");
+        assertThat(archived).hasSize(ROOMS);
+        assertThat(archived).extracting(row -> row.get("id")).doesNotHaveDuplicates();
+        assertThat(archived).extracting(row -> row.get("status")).containsOnly("ENDED");
+        assertThat(archived).extracting(row -> row.get("end_reason")).isSubsetOf("HOST_CLOSED", "GUEST_LEFT");
+
+        // No one is left blocked: every host starts a new room with its old guest
+        List<BulkRoomDTO.Item> again = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            again.add(new BulkRoomDTO.Item(email("h", i), "again " + i, email("g", i)));
+        }
+        BulkRoomResponse recreated = roomService.createRooms(details("scheduler", 0), new BulkRoomDTO(again));
+        assertThat(recreated.created()).isEqualTo(ROOMS);
+    }
+
+    @Test
+    void onlyTheHostClosesAndOnlyTheGuestLeaves() throws Exception {
+        seedUsers("host", 1);
+        seedUsers("guest", 1);
+        seedUsers("stranger", 1);
+        String host = token("host");
+        String guest = token("guest");
+        String stranger = token("stranger");
+
+        HttpResponse<String> created = send("POST", "/api/room/create-room", host,
+                "{\"name\":\"lifecycle\",\"inviteeEmail\":\"" + email("guest", 0) + "\"}");
+        assertThat(created.statusCode()).isEqualTo(200);
+        String roomId = objectMapper.readTree(created.body()).get("id").asText();
+
+        HttpResponse<String> guestClose = send("PUT", "/api/room/" + roomId + "/close", guest, null);
+        assertThat(guestClose.statusCode()).isEqualTo(400);
+        assertThat(objectMapper.readTree(guestClose.body()).get("detail").asText()).isEqualTo("Only the host can close this room.");
+        assertThat(send("PUT", "/api/room/" + roomId + "/leave", host, null).statusCode()).isEqualTo(400);
+        assertThat(send("PUT", "/api/room/" + roomId + "/close", stranger, null).statusCode()).isEqualTo(404);
+        assertThat(send("PUT", "/api/room/" + UUID.randomUUID() + "/leave", guest, null).statusCode()).isEqualTo(404);
+
+        // The invitee declines the PENDING room
+        HttpResponse<String> declined = send("PUT", "/api/room/" + roomId + "/leave", guest, null);
+        assertThat(declined.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(declined.body()).get("status").asText()).isEqualTo("ENDED");
+
+        // Ended for the host too; still readable by its members, closing it again is a no-op
+        assertThat(send("GET", "/api/room/current", host, null).statusCode()).isEqualTo(404);
+        JsonNode ended = objectMapper.readTree(send("GET", "/api/room/" + roomId, host, null).body());
+        assertThat(ended.get("status").asText()).isEqualTo("ENDED");
+        assertThat(send("GET", "/api/room/" + roomId, stranger, null).statusCode()).isEqualTo(404);
+        assertThat(send("PUT", "/api/room/" + roomId + "/close", host, null).statusCode()).isEqualTo(200);
+        assertThat(jdbcTemplate.queryForObject("SELECT end_reason FROM ended_rooms WHERE id = ?::uuid", String.class, roomId))
+                .isEqualTo("GUEST_LEFT");
+
+        // And free to host again
+        assertThat(send("POST", "/api/room/create-room", host,
+                "{\"name\":\"lifecycle 2\",\"inviteeEmail\":\"" + email("stranger", 0) + "\"}").statusCode()).isEqualTo(200);
+    }
+
+    private double lockConflicts() {
+        return meterRegistry.get("room.lock.conflicts").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private double refusedAfterRetries() {
+        return meterRegistry.get("room.validation.failures").tag("reason", "conflict").counters().stream()
+                .filter(c -> !"bulk-create".equals(c.getId().getTag("operation")))
+                .mapToDouble(c -> c.count()).sum();
+    }
+
+    private String token(String role) throws Exception {
+        return token(run + "-" + role + "-0", email(role, 0), Map.of());
+    }
+
+    private CurrentUserDetails details(String role, int i) {
+        return new CurrentUserDetails(run + "-" + role + "-" + i, email(role, i), null);
+    }
+
+    private String email(String role, int i) {
+        return run + "-" + role + "-" + i + "@example.com";
+    }
+
+    private List<UUID> seedUsers(String role, int count) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<UUID> ids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            rows.add(new Object[]{id, run + "-" + role + "-" + i, email(role, i), now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, firebase_uid, email, created_at, last_login_at, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, false)", rows);
+        return ids;
+    }
+
+    private List<UUID> seedActiveRooms(List<UUID> hosts, List<UUID> guests) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp expiresAt = Timestamp.from(Instant.now().plusSeconds(900));
+        List<UUID> ids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < hosts.size(); i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            rows.add(new Object[]{id, run + "-" + i, hosts.get(i), email("g", i), guests.get(i), now, now,
+                    run + "-key-" + i, expiresAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (id, name, host_id, invitee_email, guest_id, status, created_at, " +
+                "updated_at, room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, 'ACTIVE', ?, ?, ?, ?, true, false)", rows);
+        return ids;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the occupancy query answers like the two exists probes it replaced, then times
+ * both ways of running createRoom's occupancy check on a seeded dataset (rolled back
+ * afterwards). Both arms load the caller by uid first, so only the probes differ.
+ * Runs against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class RoomOccupancyBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomOccupancyBenchmarkTest.class);
+
+    private static final int SEEDED_ROOMS = 5_000;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> callers = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp expires = Timestamp.from(Instant.now().plusSeconds(15 * 60));
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> rooms = new ArrayList<>();
+        for (int i = 0; i < SEEDED_ROOMS; i++) {
+            UUID host = UUID.randomUUID();
+            UUID guest = UUID.randomUUID();
+            users.add(new Object[]{host, run + "-h" + i, run + "-h" + i + "@example.com", now, now});
+            users.add(new Object[]{guest, run + "-g" + i, run + "-g" + i + "@example.com", now, now});
+            String status = i % 2 == 0 ? "PENDING" : "ACTIVE";
+            rooms.add(new Object[]{UUID.randomUUID(), "room-" + i, host, run + "-g" + i + "@example.com", guest,
+                    status, now, now, run + "-key-" + i, expires, !"PENDING".equals(status)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, firebase_uid, email, created_at, last_login_at, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, false)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (id, name, host_id, invitee_email, guest_id, status, created_at, " +
+                "updated_at, room_key_code, room_key_code_expires_at, room_key_code_used_within15min, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)", rooms);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE rooms");
+
+        for (int i = 0; i < 200; i++) {
+            callers.add(userRepository.findByFirebaseUid(run + (i % 2 == 0 ? "-h" : "-g") + i));
+        }
+    }
+
+    @Test
+    void occupancyQueryAgreesWithExistsProbes() {
+        for (User caller : callers) {
+            RoomOccupancy occupancy = roomRepository.findOccupancy(caller.getId());
+            assertThat(occupancy.isHosting()).isEqualTo(
+                    roomRepository.existsByHostAndStatusIn(caller, List.of(RoomStatus.PENDING, RoomStatus.ACTIVE)));
+            assertThat(occupancy.isGuesting()).isEqualTo(
+                    roomRepository.existsByGuestAndStatus(caller, RoomStatus.ACTIVE));
+        }
+
+        before(WARMUP);
+        after(WARMUP);
+        long beforeNanos = before(ITERATIONS);
+        long afterNanos = after(ITERATIONS);
+
+        logger.info("Occupancy check over {} rooms: two exists probes {} us/request, findOccupancy {} us/request",
+                SEEDED_ROOMS, beforeNanos / ITERATIONS / 1_000, afterNanos / ITERATIONS / 1_000);
+    }
+
+    private long before(int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            User caller = userRepository.findByFirebaseUid(randomCaller().getFirebaseUid());
+            roomRepository.existsByHostAndStatusIn(caller, List.of(RoomStatus.PENDING, RoomStatus.ACTIVE));
+            roomRepository.existsByGuestAndStatus(caller, RoomStatus.ACTIVE);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long after(int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            User caller = userRepository.findByFirebaseUid(randomCaller().getFirebaseUid());
+            roomRepository.findOccupancy(caller.getId());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private User randomCaller() {
+        return callers.get(ThreadLocalRandom.current().nextInt(callers.size()));
+    }
+}
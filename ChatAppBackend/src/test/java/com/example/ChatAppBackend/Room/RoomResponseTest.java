@@ -0,0 +1,90 @@
+package com.example.ChatAppBackend.Room;
+
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shape and size of the /api/room and /api/user payloads against the entities they replace,
+ * serialized with the ObjectMapper configuration Spring MVC uses (timings are in RoomBenchmark).
+ */
+class RoomResponseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomResponseTest.class);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Instant now = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Test
+    void roomResponseKeepsOnlyThePublicFields() throws Exception {
+        Room room = room();
+
+        byte[] entity = objectMapper.writeValueAsBytes(room);
+        byte[] response = objectMapper.writeValueAsBytes(RoomResponse.from(room));
+        logger.info("Room payload: entity {} bytes, RoomResponse {} bytes", entity.length, response.length);
+
+        JsonNode json = objectMapper.readTree(response);
+        assertThat(fieldNames(json)).containsExactly("id", "name", "status", "hostId", "hostEmail", "guestId",
+                "inviteeEmail", "roomKeyCodeExpiresAt", "createdAt");
+        assertThat(json.get("id").asText()).isEqualTo(room.getId().toString());
+        assertThat(new String(response)).doesNotContain(room.getRoomKeyCode(), "uid-host", "uid-guest");
+        assertThat(response.length).isLessThan(entity.length / 2);
+    }
+
+    @Test
+    void userResponseLeavesOutTheFirebaseUid() throws Exception {
+        User user = user("uid-host", "host@example.com");
+
+        byte[] entity = objectMapper.writeValueAsBytes(user);
+        byte[] response = objectMapper.writeValueAsBytes(UserResponse.from(user));
+        logger.info("User payload: entity {} bytes, UserResponse {} bytes", entity.length, response.length);
+
+        assertThat(fieldNames(objectMapper.readTree(response)))
+                .containsExactly("id", "email", "createdAt", "lastLoginAt");
+        assertThat(response.length).isLessThan(entity.length);
+    }
+
+    private Room room() {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setName("Payload room");
+        room.setHost(user("uid-host", "host@example.com"));
+        room.setGuest(user("uid-guest", "guest@example.com"));
+        room.setInviteeEmail("guest@example.com");
+        room.setStatus(RoomStatus.ACTIVE);
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
+        room.setRoomKeyCode("4f2c9a1e0b7d6c5a3e8f1d2b4c6a8e0f2d4b6c8a0e2f4d6b8c0a2e4f6d8b0c2a");
+        room.setRoomKeyCodeExpiresAt(now.plusSeconds(15 * 60));
+        room.setRoomKeyCodeUsedWithin15Min(true);
+        return room;
+    }
+
+    private User user(String uid, String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirebaseUid(uid);
+        user.setEmail(email);
+        user.setCreatedAt(now);
+        user.setLastLoginAt(now);
+        return user;
+    }
+
+    private static List<String> fieldNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.ChatAppBackend.RoomEvents;
+
+import com.example.ChatAppBackend.Room.RoomKeyIndex;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.example.ChatAppBackend.User.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class RoomEventStreamTest extends ApiTestSupport {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoomEventBroker roomEventBroker;
+
+    @Autowired
+    private RoomKeyIndex roomKeyIndex;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void hostIsPushedCreatedAndJoinedAndResumesFromLastEventId() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        String host = token(user(run + "-host"));
+        User guestUser = user(run + "-guest");
+        String guest = token(guestUser);
+
+        EventStream hostEvents = subscribe(host, null);
+        EventStream guestEvents = subscribe(guest, null);
+
+        HttpResponse<String> created = send("POST", "/api/room/create-room", host,
+                "{\"name\":\"events\",\"inviteeEmail\":\"" + guestUser.getEmail() + "\"}");
+        assertThat(created.statusCode()).isEqualTo(200);
+        String roomId = objectMapper.readTree(created.body()).get("id").asText();
+
+        Map<String, String> createdEvent = hostEvents.next();
+        assertThat(createdEvent.get("event")).isEqualTo("CREATED");
+        assertThat(json(createdEvent).get("roomId").asText()).isEqualTo(roomId);
+        assertThat(guestEvents.next().get("event")).isEqualTo("CREATED");
+
+        // The raw key is only emailed, so re-key the room with a known value
+        String rawKey = UUID.randomUUID().toString();
+        jdbcTemplate.update("UPDATE rooms SET room_key_code = ? WHERE id = ?::uuid", DigestUtils.sha256Hex(rawKey), roomId);
+        roomKeyIndex.issue(DigestUtils.sha256Hex(rawKey), Instant.now().plusSeconds(600));
+        assertThat(send("PUT", "/api/room/join-room", guest, "{\"roomKeyCode\":\"" + rawKey + "\"}").statusCode())
+                .isEqualTo(200);
+
+        Map<String, String> joined = hostEvents.next();
+        assertThat(joined.get("event")).isEqualTo("JOINED");
+        assertThat(json(joined).get("status").asText()).isEqualTo("ACTIVE");
+        hostEvents.close();
+        guestEvents.close();
+
+        // A client that only saw CREATED gets JOINED replayed; an unknown id asks for a resync
+        EventStream resumed = subscribe(host, createdEvent.get("id"));
+        assertThat(resumed.next().get("id")).isEqualTo(joined.get("id"));
+        resumed.close();
+
+        EventStream stale = subscribe(host, "unknown-id");
+        assertThat(stale.next().get("event")).isEqualTo("resync");
+        stale.close();
+    }
+
+    private EventStream subscribe(String token, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/room/events"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        int before = roomEventBroker.subscriberCount();
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        EventStream stream = new EventStream(response.body());
+        Thread.ofVirtual().start(stream::read);
+        // Events published before the subscription is registered would not be streamed
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (roomEventBroker.subscriberCount() <= before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return stream;
+    }
+
+    private JsonNode json(Map<String, String> event) throws Exception {
+        return objectMapper.readTree(event.get("data"));
+    }
+
+    /**
+     * Parses "field: value" lines into one map per event; comment lines (heartbeats) are skipped.
+     */
+    private static final class EventStream {
+        private final Stream<String> lines;
+        private final BlockingQueue<Map<String, String>> events = new LinkedBlockingQueue<>();
+
+        EventStream(Stream<String> lines) {
+            this.lines = lines;
+        }
+
+        void read() {
+            Map<String, String> event = new LinkedHashMap<>();
+            try {
+                for (String line : (Iterable<String>) lines::iterator) {
+                    if (line.isEmpty()) {
+                        if (event.containsKey("event") || event.containsKey("data")) {
+                            events.add(event);
+                        }
+                        event = new LinkedHashMap<>();
+                    } else if (!line.startsWith(":")) {
+                        int colon = line.indexOf(':');
+                        event.merge(line.substring(0, colon), line.substring(colon + 1).trim(), (a, b) -> a + "\n" + b);
+                    }
+                }
+            } catch (Exception ignored) {
+                // Stream closed by the test
+            }
+        }
+
+        Map<String, String> next() throws InterruptedException {
+            Map<String, String> event = events.poll(10, TimeUnit.SECONDS);
+            assertThat(event).as("event within 10s").isNotNull();
+            return event;
+        }
+
+        void close() {
+            lines.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ChatAppBackend.Signaling;
+
+import com.example.ChatAppBackend.Room.Room;
+import com.example.ChatAppBackend.Room.RoomRepository;
+import com.example.ChatAppBackend.Room.RoomStatus;
+import com.example.ChatAppBackend.TestSupport.ApiTestSupport;
+import com.example.ChatAppBackend.User.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the full application on a random port against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres (plus FIREBASE_*)
+ */
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class SignalingWebSocketTest extends ApiTestSupport {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private final StandardWebSocketClient webSocketClient = new StandardWebSocketClient();
+    private Room room;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User host = user(run + "-host");
+        User guest = user(run + "-guest");
+        user(run + "-stranger");
+
+        Instant now = Instant.now();
+        Room r = new Room();
+        r.setName("signaling");
+        r.setHost(host);
+        r.setGuest(guest);
+        r.setInviteeEmail(guest.getEmail());
+        r.setStatus(RoomStatus.ACTIVE);
+        r.setCreatedAt(now);
+        r.setUpdatedAt(now);
+        r.setRoomKeyCode(run + "-key");
+        r.setRoomKeyCodeExpiresAt(now.plusSeconds(900));
+        r.setRoomKeyCodeUsedWithin15Min(true);
+        room = roomRepository.save(r);
+    }
+
+    @Test
+    void hostAndGuestExchangeSignalingMessages() throws Exception {
+        Recorder host = new Recorder();
+        WebSocketSession hostSession = connect(host, room.getHost().getFirebaseUid());
+        assertThat(host.next()).contains("\"peerConnected\":false");
+
+        Recorder guest = new Recorder();
+        WebSocketSession guestSession = connect(guest, room.getGuest().getFirebaseUid());
+        assertThat(guest.next()).contains("\"peerConnected\":true");
+        assertThat(host.next()).contains("peer-joined");
+
+        String offer = "{\"type\":\"offer\",\"sdp\":\"v=0...\"}";
+        hostSession.sendMessage(new TextMessage(offer));
+        assertThat(guest.next()).isEqualTo(offer);
+
+        String candidate = "{\"type\":\"candidate\",\"candidate\":\"candidate:1 1 udp 1 10.0.0.1 5000 typ host\"}";
+        guestSession.sendMessage(new TextMessage(candidate));
+        assertThat(host.next()).isEqualTo(candidate);
+
+        guestSession.close();
+        assertThat(host.next()).contains("peer-left");
+        hostSession.close();
+    }
+
+    @Test
+    void nonMembersAreRejectedAtHandshake() {
+        String stranger = room.getHost().getFirebaseUid().replace("-host", "-stranger");
+        assertThatThrownBy(() -> connect(new Recorder(), stranger)).isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(() -> webSocketClient.execute(new Recorder(),
+                "ws://localhost:" + port + "/ws/rooms/" + room.getId() + "/signal").get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+    }
+
+    private WebSocketSession connect(Recorder recorder, String uid) throws Exception {
+        String token = token(uid, uid + "@example.com", Map.of());
+        return webSocketClient.execute(recorder,
+                "ws://localhost:" + port + "/ws/rooms/" + room.getId() + "/signal?access_token=" + token)
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private static final class Recorder extends TextWebSocketHandler {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            messages.add(message.getPayload());
+        }
+
+        String next() throws InterruptedException {
+            String message = messages.poll(10, TimeUnit.SECONDS);
+            assertThat(message).as("message within 10s").isNotNull();
+            return message;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ChatAppBackend.TestSupport;
+
+import com.example.ChatAppBackend.TokenAndFilter.CachingTokenVerifier;
+import com.example.ChatAppBackend.TokenAndFilter.FirebaseTokens;
+import com.example.ChatAppBackend.User.User;
+import com.example.ChatAppBackend.User.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Base for tests that run the full application on a random port against the test database
+ * (CHATAPP_TEST_DB_URL, see src/test/resources/config/application.properties), with the token
+ * verifier mocked. Subclasses add @EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL",
+ * matches = ".+"), which JUnit does not inherit. Subclasses without extra beans or properties share
+ * one application context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public abstract class ApiTestSupport {
+
+    @LocalServerPort
+    protected int port;
+
+    @MockitoBean
+    protected CachingTokenVerifier tokenVerifier;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    protected final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    /**
+     * Sends a JSON request with the bearer token; a null body sends none.
+     */
+    protected HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * A token the mocked verifier accepts for the user, valid for an hour.
+     */
+    protected String token(User user) throws Exception {
+        return token(user.getFirebaseUid(), user.getEmail(), Map.of());
+    }
+
+    /**
+     * A token the mocked verifier accepts for the uid, with any extra claims (e.g. "authorities").
+     */
+    protected String token(String uid, String email, Map<String, Object> claims) throws Exception {
+        String token = uid + "-token";
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> all = new HashMap<>(claims);
+        all.putAll(Map.of("sub", uid, "email", email, "iat", now, "exp", now + 3600));
+        when(tokenVerifier.verify(eq(token), anyBoolean())).thenReturn(FirebaseTokens.fromClaims(all));
+        return token;
+    }
+
+    /**
+     * Saves an active user with the uid and uid@example.com.
+     */
+    protected User user(String uid) {
+        Instant now = Instant.now();
+        User user = new User();
+        user.setFirebaseUid(uid);
+        user.setEmail(uid + "@example.com");
+        user.setCreatedAt(now);
+        user.setLastLoginAt(now);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingTokenVerifierTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private final StubVerifier stub = new StubVerifier();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() throws Exception {
+        var verifier = new CachingTokenVerifier(stub, 100, Duration.ofMinutes(5), clock, registry);
+
+        FirebaseToken first = verifier.verify("token-a", true);
+        FirebaseToken second = verifier.verify("token-a", true);
+
+        assertThat(second).isSameAs(first);
+        assertThat(stub.calls.get()).isEqualTo(1);
+        assertThat(verifier.hitCount()).isEqualTo(1);
+        assertThat(verifier.missCount()).isEqualTo(1);
+        assertThat(registry.get("auth.token.cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.token.cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.token.cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void entryNeverOutlivesTokenExpClaim() throws Exception {
+        stub.expiresIn = Duration.ofSeconds(30);
+        var verifier = new CachingTokenVerifier(stub, 100, Duration.ofMinutes(5), clock, registry);
+
+        verifier.verify("token-a", true);
+        clock.advance(Duration.ofSeconds(31));
+        verifier.verify("token-a", true);
+
+        assertThat(stub.calls.get()).isEqualTo(2);
+        assertThat(verifier.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void revokedCheckIsNotAnsweredByUncheckedEntry() throws Exception {
+        var verifier = new CachingTokenVerifier(stub, 100, Duration.ofMinutes(5), clock, registry);
+
+        verifier.verify("token-a", false);
+        verifier.verify("token-a", true);
+
+        assertThat(stub.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void evictUserDropsAllTokensOfThatUser() throws Exception {
+        var verifier = new CachingTokenVerifier(stub, 100, Duration.ofMinutes(5), clock, registry);
+        verifier.verify("uid-1.a", true);
+        verifier.verify("uid-1.b", true);
+        verifier.verify("uid-2.a", true);
+
+        verifier.evictUser("uid-1");
+
+        assertThat(verifier.size()).isEqualTo(1);
+        assertThat(verifier.evictionCount()).isEqualTo(2);
+        verifier.verify("uid-1.a", true);
+        assertThat(stub.calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    void mapStaysBounded() throws Exception {
+        var verifier = new CachingTokenVerifier(stub, 10, Duration.ofMinutes(5), clock, registry);
+
+        for (int i = 0; i < 50; i++) {
+            verifier.verify("token-" + i, true);
+        }
+
+        assertThat(verifier.size()).isLessThanOrEqualTo(10);
+        assertThat(verifier.evictionCount()).isEqualTo(40);
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        stub.fail = true;
+        var verifier = new CachingTokenVerifier(stub, 100, Duration.ofMinutes(5), clock, registry);
+
+        assertThatThrownBy(() -> verifier.verify("bad", true)).isInstanceOf(FirebaseAuthException.class);
+        assertThatThrownBy(() -> verifier.verify("bad", true)).isInstanceOf(FirebaseAuthException.class);
+        assertThat(stub.calls.get()).isEqualTo(2);
+        assertThat(verifier.size()).isZero();
+    }
+
+    @Test
+    void concurrentRequestsShareOneVerification() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        stub.gate = release;
+        var verifier = new CachingTokenVerifier(stub, 100, Duration.ofMinutes(5), clock, registry);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<FirebaseToken>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> verifier.verify("token-a", true)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            FirebaseToken expected = results.get(0).get();
+            for (Future<FirebaseToken> f : results) {
+                assertThat(f.get()).isSameAs(expected);
+            }
+            assertThat(stub.calls.get()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Accepts any token; the uid is the part before the first '.'. */
+    private class StubVerifier implements TokenVerifier {
+        final AtomicInteger calls = new AtomicInteger();
+        Duration expiresIn = Duration.ofHours(1);
+        boolean fail;
+        CountDownLatch gate;
+
+        @Override
+        public FirebaseToken verify(String idToken, boolean checkRevoked) throws FirebaseAuthException {
+            calls.incrementAndGet();
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "invalid", null, null, AuthErrorCode.INVALID_ID_TOKEN);
+            }
+            String uid = idToken.contains(".") ? idToken.substring(0, idToken.indexOf('.')) : idToken;
+            return FirebaseTokens.fromClaims(Map.of(
+                    "sub", uid,
+                    "email", uid + "@example.com",
+                    "exp", clock.instant().plus(expiresIn).getEpochSecond()
+            ));
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Local revocation through the filter: the watermark is compared with the token's sign-in time.
+ */
+class FirebaseAuthenticationFilterTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final RevocationRegistry registry = new RevocationRegistry(100, Clock.fixed(NOW, ZoneOffset.UTC));
+    private final Map<String, FirebaseToken> tokens = new HashMap<>();
+    private final FirebaseAuthenticationFilter filter =
+            new FirebaseAuthenticationFilter((idToken, checkRevoked) -> tokens.get(idToken), false, registry);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void revokedSessionIsRejectedEvenWithARefreshedToken() throws Exception {
+        registry.revoke("uid-1", NOW.minusSeconds(600));
+        // Refreshed after the revocation (fresh iat), but from the sign-in that was revoked
+        tokens.put("refreshed", token("uid-1", NOW.minusSeconds(3000), NOW.minusSeconds(60)));
+        // A new sign-in after the revocation
+        tokens.put("signed-in-again", token("uid-1", NOW.minusSeconds(300), NOW.minusSeconds(300)));
+
+        MockHttpServletResponse rejected = run("refreshed");
+        assertThat(rejected.getStatus()).isEqualTo(401);
+        assertThat(rejected.getContentAsString()).contains("Invalid or revoked Firebase ID token");
+
+        MockHttpServletResponse accepted = run("signed-in-again");
+        assertThat(accepted.getStatus()).isEqualTo(200);
+        assertThat(registry.seenSince(NOW.minusSeconds(60))).containsExactly("uid-1");
+    }
+
+    @Test
+    void usersWithoutWatermarkPassAndAreTracked() throws Exception {
+        tokens.put("token", token("uid-2", NOW.minusSeconds(60), NOW.minusSeconds(60)));
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest request = request("token");
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(registry.seenSince(NOW.minusSeconds(60))).containsExactly("uid-2");
+    }
+
+    private MockHttpServletResponse run(String idToken) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(idToken), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String idToken) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/get-user");
+        request.addHeader("Authorization", "Bearer " + idToken);
+        return request;
+    }
+
+    private static FirebaseToken token(String uid, Instant authTime, Instant issuedAt) {
+        return FirebaseTokens.fromClaims(Map.of(
+                "sub", uid,
+                "email", uid + "@example.com",
+                "auth_time", authTime.getEpochSecond(),
+                "iat", issuedAt.getEpochSecond(),
+                "exp", issuedAt.plusSeconds(3600).getEpochSecond()
+        ));
+    }
+}
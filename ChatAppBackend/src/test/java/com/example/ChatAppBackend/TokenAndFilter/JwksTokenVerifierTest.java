@@ -0,0 +1,220 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import com.google.firebase.auth.UserRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwksTokenVerifierTest {
+
+    private static final String PROJECT = "demo-project";
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @TempDir
+    Path dir;
+
+    private Path jwksFile;
+    private KeyPair keyPair;
+    private JwksKeyStore keyStore;
+    private JwksTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyPair = newKeyPair();
+        jwksFile = dir.resolve("jwks.json");
+        writeJwks(Map.of("key-1", keyPair));
+
+        keyStore = new JwksKeyStore(jwksFile.toUri(), Duration.ZERO, Duration.ofHours(1), clock);
+        keyStore.start();
+        verifier = new JwksTokenVerifier(keyStore, PROJECT, Duration.ofSeconds(30), clock, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyStore.close();
+    }
+
+    @Test
+    void acceptsValidToken() throws Exception {
+        Map<String, Object> claims = validClaims();
+        claims.put("authorities", List.of("ADMIN"));
+
+        FirebaseToken token = verifier.verify(sign("key-1", keyPair, claims), false);
+
+        assertThat(token.getUid()).isEqualTo("user-1");
+        assertThat(token.getEmail()).isEqualTo("user-1@example.com");
+        assertThat(token.getClaims().get("authorities")).isEqualTo(List.of("ADMIN"));
+    }
+
+    @Test
+    void rejectsWrongAudienceAndIssuer() throws Exception {
+        Map<String, Object> wrongAud = validClaims();
+        wrongAud.put("aud", "other-project");
+        Map<String, Object> wrongIss = validClaims();
+        wrongIss.put("iss", "https://securetoken.google.com/other-project");
+
+        assertInvalid(sign("key-1", keyPair, wrongAud), AuthErrorCode.INVALID_ID_TOKEN);
+        assertInvalid(sign("key-1", keyPair, wrongIss), AuthErrorCode.INVALID_ID_TOKEN);
+    }
+
+    @Test
+    void rejectsExpiredAndFutureTokens() throws Exception {
+        Map<String, Object> expired = validClaims();
+        expired.put("exp", NOW.minusSeconds(60).getEpochSecond());
+        // Clock skew only applies to iat/auth_time: a token is dead from its exp on
+        Map<String, Object> justExpired = validClaims();
+        justExpired.put("exp", NOW.getEpochSecond());
+        Map<String, Object> future = validClaims();
+        future.put("iat", NOW.plusSeconds(600).getEpochSecond());
+
+        assertInvalid(sign("key-1", keyPair, expired), AuthErrorCode.EXPIRED_ID_TOKEN);
+        assertInvalid(sign("key-1", keyPair, justExpired), AuthErrorCode.EXPIRED_ID_TOKEN);
+        assertInvalid(sign("key-1", keyPair, future), AuthErrorCode.INVALID_ID_TOKEN);
+    }
+
+    @Test
+    void revocationIsCheckedAgainstAuthTime() throws Exception {
+        FirebaseAuth firebaseAuth = mock(FirebaseAuth.class);
+        UserRecord record = mock(UserRecord.class);
+        when(firebaseAuth.getUser("user-1")).thenReturn(record);
+        when(record.getTokensValidAfterTimestamp()).thenReturn(NOW.minusSeconds(600).toEpochMilli());
+        JwksTokenVerifier checking = new JwksTokenVerifier(keyStore, PROJECT, Duration.ofSeconds(30), clock, firebaseAuth);
+
+        // Refreshed after the revocation (fresh iat) but from the revoked sign-in (old auth_time)
+        Map<String, Object> refreshed = validClaims();
+        refreshed.put("auth_time", NOW.minusSeconds(3600).getEpochSecond());
+        assertThatThrownBy(() -> checking.verify(sign("key-1", keyPair, refreshed), true))
+                .isInstanceOf(FirebaseAuthException.class)
+                .extracting(e -> ((FirebaseAuthException) e).getAuthErrorCode())
+                .isEqualTo(AuthErrorCode.REVOKED_ID_TOKEN);
+
+        // Signed in again after the revocation
+        assertThat(checking.verify(sign("key-1", keyPair, validClaims()), true).getUid()).isEqualTo("user-1");
+
+        // No auth_time: iat stands in for it
+        Map<String, Object> withoutAuthTime = validClaims();
+        withoutAuthTime.remove("auth_time");
+        assertThat(checking.verify(sign("key-1", keyPair, withoutAuthTime), true).getUid()).isEqualTo("user-1");
+        withoutAuthTime.put("iat", NOW.minusSeconds(3600).getEpochSecond());
+        assertThatThrownBy(() -> checking.verify(sign("key-1", keyPair, withoutAuthTime), true))
+                .isInstanceOf(FirebaseAuthException.class)
+                .extracting(e -> ((FirebaseAuthException) e).getAuthErrorCode())
+                .isEqualTo(AuthErrorCode.REVOKED_ID_TOKEN);
+    }
+
+    @Test
+    void rejectsTamperedSignatureAndForeignKey() throws Exception {
+        String token = sign("key-1", keyPair, validClaims());
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        assertInvalid(tampered, AuthErrorCode.INVALID_ID_TOKEN);
+        assertInvalid(sign("key-1", newKeyPair(), validClaims()), AuthErrorCode.INVALID_ID_TOKEN);
+        assertInvalid("not-a-jwt", AuthErrorCode.INVALID_ID_TOKEN);
+    }
+
+    @Test
+    void picksUpRotatedKeysOnUnknownKid() throws Exception {
+        KeyPair rotated = newKeyPair();
+        writeJwks(Map.of("key-1", keyPair, "key-2", rotated));
+
+        FirebaseToken token = verifier.verify(sign("key-2", rotated, validClaims()), false);
+
+        assertThat(token.getUid()).isEqualTo("user-1");
+        assertThat(keyStore.size()).isEqualTo(2);
+    }
+
+    @Test
+    void readsMaxAgeFromCacheControl() {
+        assertThat(JwksKeyStore.maxAge("public, max-age=22350, must-revalidate, no-transform"))
+                .isEqualTo(Duration.ofSeconds(22350));
+        assertThat(JwksKeyStore.maxAge("no-cache")).isNull();
+    }
+
+    private void assertInvalid(String token, AuthErrorCode expected) {
+        assertThatThrownBy(() -> verifier.verify(token, false))
+                .isInstanceOf(FirebaseAuthException.class)
+                .extracting(e -> ((FirebaseAuthException) e).getAuthErrorCode())
+                .isEqualTo(expected);
+    }
+
+    private Map<String, Object> validClaims() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("iss", "https://securetoken.google.com/" + PROJECT);
+        claims.put("aud", PROJECT);
+        claims.put("sub", "user-1");
+        claims.put("user_id", "user-1");
+        claims.put("email", "user-1@example.com");
+        claims.put("iat", NOW.minusSeconds(60).getEpochSecond());
+        claims.put("auth_time", NOW.minusSeconds(60).getEpochSecond());
+        claims.put("exp", NOW.plusSeconds(3540).getEpochSecond());
+        return claims;
+    }
+
+    private String sign(String kid, KeyPair keys, Map<String, Object> claims) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString(mapper.writeValueAsBytes(Map.of("alg", "RS256", "kid", kid, "typ", "JWT")));
+        String payload = encoder.encodeToString(mapper.writeValueAsBytes(claims));
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keys.getPrivate());
+        signature.update((header + "." + payload).getBytes(StandardCharsets.US_ASCII));
+        return header + "." + payload + "." + encoder.encodeToString(signature.sign());
+    }
+
+    private void writeJwks(Map<String, KeyPair> keys) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<Map<String, String>> jwks = new ArrayList<>();
+        keys.forEach((kid, pair) -> {
+            RSAPublicKey pub = (RSAPublicKey) pair.getPublic();
+            jwks.add(Map.of(
+                    "kty", "RSA",
+                    "alg", "RS256",
+                    "use", "sig",
+                    "kid", kid,
+                    "n", encoder.encodeToString(unsigned(pub.getModulus().toByteArray())),
+                    "e", encoder.encodeToString(unsigned(pub.getPublicExponent().toByteArray()))
+            ));
+        });
+        Files.writeString(jwksFile, mapper.writeValueAsString(Map.of("keys", jwks)));
+    }
+
+    private static byte[] unsigned(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == 0 ? java.util.Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static KeyPair newKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ChatAppBackend.TokenAndFilter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationRegistryTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final RevocationRegistry registry = new RevocationRegistry(3, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void tokensIssuedBeforeWatermarkAreRevoked() {
+        registry.revoke("uid-1", NOW);
+
+        assertThat(registry.isRevoked("uid-1", NOW.minusSeconds(1).getEpochSecond())).isTrue();
+        assertThat(registry.isRevoked("uid-1", NOW.getEpochSecond())).isFalse();
+        assertThat(registry.isRevoked("uid-2", NOW.minusSeconds(1).getEpochSecond())).isFalse();
+    }
+
+    @Test
+    void watermarkNeverMovesBackwards() {
+        registry.revoke("uid-1", NOW);
+        registry.revoke("uid-1", NOW.minusSeconds(600));
+        registry.reconcile("uid-1", NOW.minusSeconds(300), false);
+
+        assertThat(registry.isRevoked("uid-1", NOW.minusSeconds(1).getEpochSecond())).isTrue();
+    }
+
+    @Test
+    void disabledUsersAreRejectedUntilReenabled() {
+        registry.reconcile("uid-1", null, true);
+        assertThat(registry.isRevoked("uid-1", NOW.getEpochSecond())).isTrue();
+
+        registry.reconcile("uid-1", NOW.minusSeconds(60), false);
+        assertThat(registry.isRevoked("uid-1", NOW.getEpochSecond())).isFalse();
+    }
+
+    @Test
+    void watermarksOlderThanTokenLifetimeArePruned() {
+        registry.revoke("old", NOW.minusSeconds(7200));
+        registry.revoke("recent", NOW.minusSeconds(60));
+
+        registry.prune();
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.isRevoked("recent", NOW.minusSeconds(120).getEpochSecond())).isTrue();
+    }
+
+    @Test
+    void seenUsersAreBounded() {
+        registry.recordSeen("a");
+        registry.recordSeen("b");
+        registry.recordSeen("c");
+        registry.recordSeen("d");
+
+        assertThat(registry.seenSince(NOW.minusSeconds(60))).containsExactlyInAnyOrder("a", "b", "c");
+    }
+}
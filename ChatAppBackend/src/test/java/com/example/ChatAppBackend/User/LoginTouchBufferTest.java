@@ -0,0 +1,201 @@
+package com.example.ChatAppBackend.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login storm against LoginTouchBuffer on a simulated clock: every seeded user enters once per
+ * second. Before, each enter saved the user (one UPDATE per login); the log line compares that
+ * write rate with the rows the buffer sends.
+ * Runs against a local PostgreSQL, e.g.
+ * CHATAPP_TEST_DB_URL=jdbc:postgresql://localhost:5432/postgres CHATAPP_TEST_DB_USERNAME=postgres
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "CHATAPP_TEST_DB_URL", matches = ".+")
+class LoginTouchBufferTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginTouchBufferTest.class);
+
+    private static final int USERS = 1_000;
+    private static final int STORM_SECONDS = 180;
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration MAX_STALENESS = Duration.ofMinutes(1);
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MutableClock clock = new MutableClock(Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(3600));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> uids = new ArrayList<>();
+    private String run;
+
+    @BeforeEach
+    void seed() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String uid = run + "-u" + i;
+            uids.add(uid);
+            users.add(new Object[]{UUID.randomUUID(), uid, uid + "@example.com", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, firebase_uid, email, created_at, last_login_at, disabled) " +
+                "VALUES (?, ?, ?, ?, ?, false)", users);
+    }
+
+    @Test
+    void loginStormIsWrittenInFewBatchedUpdates() {
+        LoginTouchBuffer buffer = buffer();
+        Map<String, Instant> lastLogin = new HashMap<>();
+
+        for (int second = 1; second <= STORM_SECONDS; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            for (String uid : uids) {
+                lastLogin.put(uid, buffer.touch(uid));
+            }
+            if (second % FLUSH_INTERVAL.toSeconds() == 0) {
+                buffer.flush();
+            }
+        }
+
+        long logins = (long) USERS * STORM_SECONDS;
+        double rowsWritten = meterRegistry.counter("users.login.writes").count();
+        logger.info("Login storm: {} logins over {}s; synchronous save {} writes/s, buffered {} rows/s ({} rows in {} flushes, {}x fewer writes)",
+                logins, STORM_SECONDS,
+                String.format("%.0f", (double) logins / STORM_SECONDS),
+                String.format("%.1f", rowsWritten / STORM_SECONDS),
+                (long) rowsWritten, meterRegistry.timer("users.login.flush").count(),
+                String.format("%.0f", logins / rowsWritten));
+
+        // One write per user and staleness window (the first window starts with the first flush)
+        long windows = STORM_SECONDS / MAX_STALENESS.toSeconds();
+        assertThat(rowsWritten).isLessThanOrEqualTo((double) USERS * (windows + 1));
+        assertThat(rowsWritten).isGreaterThanOrEqualTo((double) USERS * windows);
+        assertThat(buffer.pendingCount()).isZero();
+
+        Map<String, Instant> stored = storedLastLogins();
+        for (String uid : uids) {
+            Duration lag = Duration.between(stored.get(uid), lastLogin.get(uid));
+            assertThat(lag).isLessThanOrEqualTo(MAX_STALENESS.plus(FLUSH_INTERVAL));
+        }
+    }
+
+    @Test
+    void stopWritesWhatIsStillPending() {
+        LoginTouchBuffer buffer = buffer();
+        buffer.start();
+        clock.advance(Duration.ofSeconds(1));
+        Instant at = buffer.touch(uids.getFirst());
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        buffer.stop();
+
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(storedLastLogins().get(uids.getFirst())).isEqualTo(at);
+    }
+
+    @Test
+    void lastLoginNeverMovesBackwards() {
+        LoginTouchBuffer buffer = buffer();
+        String uid = uids.getFirst();
+        Instant later = clock.instant().plusSeconds(30);
+        jdbcTemplate.update("UPDATE users SET last_login_at = ? WHERE firebase_uid = ?", Timestamp.from(later), uid);
+
+        // e.g. another node already wrote a later login
+        buffer.touch(uid);
+        buffer.flush();
+
+        assertThat(storedLastLogins().get(uid)).isEqualTo(later);
+    }
+
+    @Test
+    void firstLoginIsWrittenWhenNoneIsStored() {
+        // The mapping declares the column NOT NULL, but ddl-auto=update never tightens an older
+        // nullable column, so rows without a login can exist
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN last_login_at DROP NOT NULL");
+        try {
+            LoginTouchBuffer buffer = buffer();
+            String uid = uids.getFirst();
+            jdbcTemplate.update("UPDATE users SET last_login_at = NULL WHERE firebase_uid = ?", uid);
+
+            clock.advance(Duration.ofSeconds(1));
+            Instant at = buffer.touch(uid);
+            buffer.flush();
+
+            assertThat(storedLastLogins().get(uid)).isEqualTo(at);
+        } finally {
+            jdbcTemplate.update("UPDATE users SET last_login_at = created_at WHERE last_login_at IS NULL");
+            jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN last_login_at SET NOT NULL");
+        }
+    }
+
+    private LoginTouchBuffer buffer() {
+        // A long interval: the tests flush by hand
+        return new LoginTouchBuffer(jdbcTemplate, true, clock, Duration.ofHours(1), MAX_STALENESS, BATCH_SIZE,
+                USERS, meterRegistry);
+    }
+
+    private Map<String, Instant> storedLastLogins() {
+        Map<String, Instant> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT firebase_uid, last_login_at FROM users WHERE firebase_uid LIKE ?",
+                rs -> {
+                    stored.put(rs.getString(1), rs.getTimestamp(2).toInstant());
+                }, run + "-%");
+        return stored;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
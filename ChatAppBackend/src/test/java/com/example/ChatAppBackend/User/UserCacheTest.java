@@ -0,0 +1,89 @@
+package com.example.ChatAppBackend.User;
+
+import com.example.ChatAppBackend.Invalidation.InvalidationEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserCache cache = new UserCache(100, Duration.ofMinutes(5), registry);
+    private final AtomicInteger dbReads = new AtomicInteger();
+
+    @Test
+    void uidLookupsHitTheDatabaseOnce() {
+        Function<String, User> loader = counting(user("uid-1", "One@Example.com"));
+
+        cache.getByUid("uid-1", loader);
+        cache.getByUid("uid-1", loader);
+
+        assertThat(dbReads.get()).isEqualTo(1);
+        assertThat(registry.get("users.cache.hit.ratio").tag("cache", "users.by-uid").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void emailIndexResolvesThroughUidIndex() {
+        cache.getByUid("uid-1", counting(user("uid-1", "One@Example.com")));
+
+        User byEmail = cache.getByEmail("one@example.com", counting(null));
+
+        assertThat(byEmail.getFirebaseUid()).isEqualTo("uid-1");
+        assertThat(dbReads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void missingUsersAreNotCached() {
+        cache.getByUid("ghost", counting(null));
+        cache.getByUid("ghost", counting(null));
+        cache.getByEmail("ghost@example.com", counting(null));
+        cache.getByEmail("ghost@example.com", counting(null));
+
+        assertThat(dbReads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void revocationEvictsBothIndexes() {
+        cache.put(user("uid-1", "one@example.com"));
+
+        cache.onInvalidation(InvalidationEventType.USER_REVOKED, "uid-1", null);
+
+        cache.getByEmail("one@example.com", counting(null));
+        cache.getByUid("uid-1", counting(null));
+        assertThat(dbReads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void loadOverlappingAnEvictionIsNotKept() {
+        // The row is read, then the user is deleted and evicted before the load caches it
+        User stale = user("uid-1", "one@example.com");
+        cache.getByUid("uid-1", key -> {
+            dbReads.incrementAndGet();
+            cache.evict(key);
+            return stale;
+        });
+
+        cache.getByUid("uid-1", counting(null));
+        cache.getByEmail("one@example.com", counting(null));
+        assertThat(dbReads.get()).isEqualTo(3);
+    }
+
+    private Function<String, User> counting(User result) {
+        return key -> {
+            dbReads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static User user(String uid, String email) {
+        User u = new User();
+        u.setFirebaseUid(uid);
+        u.setEmail(email);
+        return u;
+    }
+}